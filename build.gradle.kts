@@ -3,6 +3,7 @@ plugins {
 	id("org.springframework.boot") version "3.5.3"
 	id("io.spring.dependency-management") version "1.1.7"
 	jacoco
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.minimarket.orders"
@@ -44,6 +45,16 @@ repositories {
 	mavenCentral()
 }
 
+sourceSets {
+	create("loadTest") {
+		compileClasspath += sourceSets.main.get().output
+		runtimeClasspath += sourceSets.main.get().output
+	}
+}
+
+configurations["loadTestImplementation"].extendsFrom(configurations.implementation.get())
+configurations["loadTestRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+
 extra["springCloudVersion"] = "2025.0.0"
 
 dependencies {
@@ -52,9 +63,18 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springframework.boot:spring-boot-starter-actuator")
 	implementation("io.micrometer:micrometer-registry-prometheus")
+	implementation("io.micrometer:micrometer-tracing-bridge-otel")
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.5.0")
 	implementation("org.postgresql:postgresql:42.7.3")
+	implementation("org.flywaydb:flyway-core")
+	implementation("org.flywaydb:flyway-database-postgresql")
+	implementation("org.springframework:spring-r2dbc")
+	implementation("org.postgresql:r2dbc-postgresql")
+	implementation("io.r2dbc:r2dbc-pool")
 	implementation("io.github.resilience4j:resilience4j-spring-boot3:2.2.0")
+	implementation("io.github.resilience4j:resilience4j-reactor:2.2.0")
+	implementation("io.github.resilience4j:resilience4j-micrometer:2.2.0")
+	implementation("com.github.ben-manes.caffeine:caffeine")
 	compileOnly("org.projectlombok:lombok:1.18.32")
 	annotationProcessor("org.projectlombok:lombok:1.18.32")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
@@ -63,6 +83,8 @@ dependencies {
 	testImplementation("org.testcontainers:junit-jupiter")
 	testImplementation("org.springframework.cloud:spring-cloud-starter-contract-stub-runner")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+	"loadTestImplementation"("org.testcontainers:postgresql:1.19.7")
+	"loadTestImplementation"("org.hdrhistogram:HdrHistogram:2.2.2")
 }
 
 dependencyManagement {
@@ -74,3 +96,49 @@ dependencyManagement {
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
+
+tasks.test {
+	useJUnitPlatform {
+		excludeTags("benchmark")
+	}
+}
+
+jmh {
+	jmhVersion = "1.37"
+	includeTests = false
+	resultFormat = "JSON"
+	resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+	humanOutputFile = layout.buildDirectory.file("results/jmh/human.txt")
+	if (project.hasProperty("jmhInclude")) {
+		includes = listOf(project.property("jmhInclude").toString())
+	}
+}
+
+val benchmark by tasks.registering(Test::class) {
+	description = "Runs the Testcontainers-backed benchmarks tagged 'benchmark'."
+	group = "verification"
+	testClassesDirs = sourceSets.test.get().output.classesDirs
+	classpath = sourceSets.test.get().runtimeClasspath
+	useJUnitPlatform {
+		includeTags("benchmark")
+	}
+	System.getProperties().stringPropertyNames()
+		.filter { it.startsWith("bench.") }
+		.forEach { systemProperty(it, System.getProperty(it)) }
+	testLogging {
+		showStandardStreams = true
+	}
+}
+
+val loadTest by tasks.registering(JavaExec::class) {
+	description = "Runs the open-model load test against Testcontainers Postgres and an in-process price stub."
+	group = "verification"
+	classpath = sourceSets["loadTest"].runtimeClasspath
+	mainClass = "com.minimarket.orders.orderservice.loadtest.LoadTestHarness"
+	System.getProperties().stringPropertyNames()
+		.filter { it.startsWith("load.") || it.startsWith("stub.") }
+		.forEach { systemProperty(it, System.getProperty(it)) }
+	if (project.hasProperty("appArgs")) {
+		args(project.property("appArgs").toString().split(" "))
+	}
+}
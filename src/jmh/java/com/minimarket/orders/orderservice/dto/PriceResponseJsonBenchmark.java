@@ -0,0 +1,50 @@
+package com.minimarket.orders.orderservice.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization of the {@link PriceResponse} returned by {@code POST /orders} and
+ * deserialization of the same payload as received from the price feed. Run with {@code ./gradlew jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceResponseJsonBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private PriceResponse response;
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        writer = objectMapper.writerFor(PriceResponse.class);
+        reader = objectMapper.readerFor(PriceResponse.class);
+        response = PriceResponse.builder()
+                .symbol("AAPL")
+                .price(new BigDecimal("210.555556"))
+                .build();
+        json = writer.writeValueAsString(response);
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return writer.writeValueAsString(response);
+    }
+
+    @Benchmark
+    public PriceResponse deserialize() throws JsonProcessingException {
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,93 @@
+package com.minimarket.orders.orderservice.ratelimiter;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the token-bucket {@link RateLimiterManager} with the previous implementation, one
+ * resilience4j {@link RateLimiter} per account in a {@link ConcurrentHashMap}.
+ * {@code hotAccount} hammers a single account from every thread; {@code manyAccounts} spreads
+ * requests over {@code accounts} distinct IDs, which also exercises bucket creation. Run with
+ * {@code ./gradlew jmh}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    @Param({"1000", "1000000"})
+    private int accounts;
+
+    private String[] accountIds;
+    private RateLimiterManager tokenBuckets;
+    private Resilience4jLimiters resilience4j;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        accountIds = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = "acc-" + i;
+        }
+        tokenBuckets = new RateLimiterManager(new RateLimiterProperties(), new SimpleMeterRegistry());
+        resilience4j = new Resilience4jLimiters();
+    }
+
+    @Benchmark
+    public boolean hotAccount_tokenBuckets() {
+        return tokenBuckets.tryAcquire(accountIds[0], 1);
+    }
+
+    @Benchmark
+    public boolean hotAccount_resilience4j() {
+        return resilience4j.tryAcquire(accountIds[0], 1);
+    }
+
+    @Benchmark
+    public boolean manyAccounts_tokenBuckets() {
+        return tokenBuckets.tryAcquire(randomAccount(), 1);
+    }
+
+    @Benchmark
+    public boolean manyAccounts_resilience4j() {
+        return resilience4j.tryAcquire(randomAccount(), 1);
+    }
+
+    private String randomAccount() {
+        return accountIds[ThreadLocalRandom.current().nextInt(accounts)];
+    }
+
+    /**
+     * The rate limiter as it was before the token-bucket table: 10 permits per second per account,
+     * never evicted.
+     */
+    static final class Resilience4jLimiters {
+
+        private final Map<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+
+        private final RateLimiterConfig config = RateLimiterConfig.custom()
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .limitForPeriod(10)
+                .timeoutDuration(Duration.ZERO)
+                .build();
+
+        boolean tryAcquire(String accountId, int permits) {
+            RateLimiter limiter = limiters.get(accountId);
+            if (limiter == null) {
+                limiter = limiters.computeIfAbsent(accountId, id -> RateLimiter.of(id, config));
+            }
+            return limiter.acquirePermission(permits);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.minimarket.orders.orderservice.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minimarket.orders.orderservice.dto.PriceResponse;
+import com.minimarket.orders.orderservice.model.Execution;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.repository.OrderRepository;
+import com.minimarket.orders.orderservice.service.api.ExecutionService;
+import com.minimarket.orders.orderservice.service.cache.ClientOrderIndex;
+import com.minimarket.orders.orderservice.service.cache.OrderCache;
+import com.minimarket.orders.orderservice.service.metrics.OrderMetrics;
+import com.minimarket.orders.orderservice.service.position.PositionBook;
+import com.minimarket.orders.orderservice.service.price.PriceBook;
+import com.minimarket.orders.orderservice.service.price.PriceCache;
+import com.minimarket.orders.orderservice.service.price.PriceClientProperties;
+import com.minimarket.orders.orderservice.service.price.PriceFeedClient;
+import com.minimarket.orders.orderservice.service.price.PriceService;
+import com.minimarket.orders.orderservice.service.risk.PendingExposure;
+import com.minimarket.orders.orderservice.service.risk.RiskEngine;
+import com.minimarket.orders.orderservice.service.risk.RiskLimits;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the in-process cost of {@link OrderServiceImpl#saveOrder(Order)} with the database and
+ * price feed stubbed out: validation, rate limiting, pre-trade risk checks, pricing from the
+ * last-trade book, price scaling, and the order cache. Also isolates the {@code BigDecimal} scaling applied to every price.
+ * Run with {@code ./gradlew jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderSubmissionBenchmark {
+
+    private static final String[] SYMBOLS = {"AAPL", "MSFT", "TSLA", "AMZN", "NVDA"};
+
+    private final AtomicLong ids = new AtomicLong();
+    private OrderServiceImpl orderService;
+    private BigDecimal feedPrice;
+    private OffsetDateTime createdAt;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PriceFeedClient priceFeedClient = new PriceFeedClient("localhost", "0",
+                new PriceClientProperties(), meterRegistry);
+        PriceBook priceBook = new PriceBook(Duration.ofDays(1));
+        for (String symbol : SYMBOLS) {
+            priceBook.update(symbol, new BigDecimal("210.5555555"));
+        }
+        PriceCache priceCache = new PriceCache(priceFeedClient, meterRegistry, 10_000,
+                Duration.ofSeconds(2), Duration.ofSeconds(1));
+        PriceService priceService = new PriceService(priceFeedClient, priceCache, priceBook, true, "stream");
+        RiskLimits riskLimits = new RiskLimits();
+        riskLimits.setMaxOrderNotional(new BigDecimal("1000000"));
+        riskLimits.setMaxPositionNotional(new BigDecimal("5000000"));
+        PendingExposure pendingExposure = new PendingExposure(null);
+        RiskEngine riskEngine = new RiskEngine(riskLimits, priceBook, priceCache,
+                new PositionBook(null, null, meterRegistry, Duration.ofMinutes(1)), pendingExposure,
+                new ObjectMapper(), meterRegistry);
+
+        orderService = new OrderServiceImpl((accountId, permits) -> true, stubOrderRepository(), null,
+                priceService, new NoOpExecutionService(),
+                new OrderCache(meterRegistry, 100_000, Duration.ofMinutes(10)),
+                new ClientOrderIndex(meterRegistry, 100_000, Duration.ofMinutes(10), Duration.ofSeconds(2)),
+                new OrderMetrics(ObservationRegistry.NOOP, meterRegistry, List.of(SYMBOLS)), riskEngine,
+                pendingExposure, null, new NoOpTransactionManager(), null, null);
+        feedPrice = new BigDecimal("210.5555555");
+        createdAt = OffsetDateTime.now();
+    }
+
+    @Benchmark
+    public PriceResponse saveOrder() {
+        long n = ids.get();
+        return orderService.saveOrder(Order.builder()
+                .accountId("acc-" + (n & 1023))
+                .symbol(SYMBOLS[(int) (n % SYMBOLS.length)])
+                .side(Order.Side.BUY)
+                .quantity(10)
+                .status(Order.Status.CREATED)
+                .createdAt(createdAt)
+                .build());
+    }
+
+    @Benchmark
+    public BigDecimal scalePrice() {
+        return OrderServiceImpl.scalePrice(feedPrice);
+    }
+
+    private OrderRepository stubOrderRepository() {
+        return (OrderRepository) Proxy.newProxyInstance(OrderRepository.class.getClassLoader(),
+                new Class<?>[]{OrderRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        Order order = (Order) args[0];
+                        order.setId(ids.incrementAndGet());
+                        yield order;
+                    }
+                    case "flush" -> null;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubOrderRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static final class NoOpExecutionService implements ExecutionService {
+
+        @Override
+        public void saveExecution(Execution execution) {
+        }
+
+        @Override
+        public void saveExecutions(List<Execution> executions) {
+        }
+    }
+
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.minimarket.orders.orderservice.service.matching;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures matching throughput of a single {@link OrderBook}, the work one shard thread of the
+ * {@link MatchingEngine} does per order. Orders alternate sides around a fixed mid price with
+ * limits within {@code spreadTicks} of it, so a large share of them cross and the book keeps a
+ * stable depth. Run with {@code ./gradlew jmh -PjmhInclude=OrderBookBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderBookBenchmark {
+
+    private static final long MID_TICKS = 210_000_000L;
+    private static final long TICK = 10_000L;
+    private static final String ACCOUNT_ID = "acc-1";
+
+    @Param({"10", "200"})
+    private int spreadTicks;
+
+    private OrderBook book;
+    private SplittableRandom random;
+    private long nextOrderId;
+    private long filledQuantity;
+    private final OrderBook.FillListener listener =
+            (maker, makerAccount, taker, price, quantity, makerRemaining) -> filledQuantity += quantity;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        book = new OrderBook();
+        random = new SplittableRandom(42);
+        for (int i = 0; i < 10_000; i++) {
+            submit();
+        }
+    }
+
+    @Benchmark
+    public int submit() {
+        boolean buy = (nextOrderId & 1) == 0;
+        long offset = (random.nextInt(spreadTicks) - spreadTicks / 2) * TICK;
+        return book.submit(nextOrderId++, ACCOUNT_ID, buy, MID_TICKS + (buy ? offset : -offset),
+                1 + random.nextInt(10), listener);
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        System.out.printf("%n%,d orders, %,d filled, %,d resting%n", nextOrderId, filledQuantity, book.size());
+    }
+}
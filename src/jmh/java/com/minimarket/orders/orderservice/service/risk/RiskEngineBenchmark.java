@@ -0,0 +1,72 @@
+package com.minimarket.orders.orderservice.service.risk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.service.position.PositionBook;
+import com.minimarket.orders.orderservice.service.price.PriceBook;
+import com.minimarket.orders.orderservice.service.price.PriceCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-order cost of {@link RiskEngine#evaluate}: a symbol override lookup, a reference
+ * price from the last-trade book, and a position lookup for an account holding positions in every
+ * symbol. Run with {@code ./gradlew jmh -PjmhInclude=RiskEngineBenchmark}, ideally with
+ * {@code -prof gc} to confirm that evaluation does not allocate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RiskEngineBenchmark {
+
+    private static final String[] SYMBOLS = {"AAPL", "MSFT", "TSLA", "AMZN", "NVDA", "GOOG", "META"};
+
+    private RiskEngine riskEngine;
+    private BigDecimal limitPrice;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PriceBook priceBook = new PriceBook(Duration.ofDays(1));
+        PositionBook positionBook = new PositionBook(null, null, meterRegistry, Duration.ofMinutes(1));
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            priceBook.update(SYMBOLS[i], new BigDecimal("210.55"));
+            positionBook.apply(i, OffsetDateTime.now(), "acc-1", SYMBOLS[i], Order.Side.BUY, new BigDecimal("210.55"), 100);
+        }
+        RiskLimits limits = new RiskLimits();
+        limits.setMaxOrderNotional(new BigDecimal("1000000"));
+        limits.setMaxPositionNotional(new BigDecimal("5000000"));
+        limits.setPriceBand(new BigDecimal("0.1"));
+        limits.setRestrictedSymbols(Set.of("GME"));
+        limits.setSymbols(Map.of("TSLA", new RiskLimits.SymbolLimits(new BigDecimal("500000"), null, null)));
+        riskEngine = new RiskEngine(limits, priceBook, null, positionBook, new PendingExposure(null),
+                new ObjectMapper(), meterRegistry);
+        limitPrice = new BigDecimal("212.00");
+    }
+
+    @Benchmark
+    public RiskEngine.Rule marketOrder() {
+        return riskEngine.evaluate("acc-1", nextSymbol(), true, 10, null);
+    }
+
+    @Benchmark
+    public RiskEngine.Rule limitOrder() {
+        return riskEngine.evaluate("acc-1", nextSymbol(), false, 10, limitPrice);
+    }
+
+    private String nextSymbol() {
+        next = next == SYMBOLS.length - 1 ? 0 : next + 1;
+        return SYMBOLS[next];
+    }
+}
@@ -0,0 +1,212 @@
+package com.minimarket.orders.orderservice.wire;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.minimarket.orders.orderservice.dto.OrderPage;
+import com.minimarket.orders.orderservice.dto.OrderQuery;
+import com.minimarket.orders.orderservice.dto.OrderResult;
+import com.minimarket.orders.orderservice.dto.PriceResponse;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.service.api.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Compares order entry over JSON and HTTP/1.1 with the binary protocol of {@link OrderEntryCodec},
+ * both with an {@link OrderService} that answers immediately, so only encoding and transport are
+ * measured. The codec benchmarks are the per-order CPU cost on the server: reading the request into an
+ * {@link Order} and writing the response. The transport benchmarks send {@value #WINDOW} orders at
+ * once over loopback and wait for every answer; the JSON side gets one pooled connection per order in
+ * flight, the binary side pipelines them all over one {@link OrderEntryClient} connection. The JSON
+ * server is a bare Reactor Netty route rather than the servlet stack, which flatters JSON.
+ * Run with {@code ./gradlew jmh -PjmhInclude=OrderEntryBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderEntryBenchmark {
+
+    private static final int WINDOW = 256;
+    private static final PriceResponse PRICE = new PriceResponse("AAPL", new BigDecimal("210.55"));
+
+    private ObjectReader orderReader;
+    private ObjectWriter orderWriter;
+    private ObjectReader responseReader;
+    private ObjectWriter responseWriter;
+    private Order order;
+    private byte[] orderJson;
+    private ByteBuf orderFrame;
+    private OrderEntryCodec.StringTable strings;
+
+    private DisposableServer jsonServer;
+    private HttpClient jsonClient;
+    private OrderEntryServer wireServer;
+    private OrderEntryClient wireClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        orderReader = objectMapper.readerFor(Order.class);
+        orderWriter = objectMapper.writerFor(Order.class);
+        responseReader = objectMapper.readerFor(PriceResponse.class);
+        responseWriter = objectMapper.writerFor(PriceResponse.class);
+        order = Order.builder()
+                .accountId("acc-1")
+                .symbol("AAPL")
+                .side(Order.Side.BUY)
+                .quantity(10)
+                .createdAt(OffsetDateTime.now())
+                .build();
+        orderJson = orderWriter.writeValueAsBytes(order);
+        orderFrame = OrderEntryCodec.encodeNewOrder(PooledByteBufAllocator.DEFAULT, 1, order);
+        orderFrame.skipBytes(OrderEntryCodec.LENGTH_FIELD_BYTES);
+        strings = new OrderEntryCodec.StringTable(1024);
+
+        OrderService orderService = new ImmediateOrderService();
+        jsonServer = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.post("/orders", (request, response) -> response
+                        .header(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                        .sendByteArray(request.receive().aggregate().asByteArray()
+                                .map(body -> write(responseWriter, orderService.saveOrder(read(orderReader, body)))))))
+                .bindNow();
+        jsonClient = HttpClient.create(ConnectionProvider.create("order-entry-benchmark", WINDOW))
+                .baseUrl("http://127.0.0.1:" + jsonServer.port())
+                .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON));
+        wireServer = new OrderEntryServer(orderService, new SimpleMeterRegistry(), "127.0.0.1", 0, WINDOW, 1024);
+        wireServer.start();
+        wireClient = new OrderEntryClient("127.0.0.1", wireServer.port());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        wireClient.close();
+        wireServer.stop();
+        jsonServer.disposeNow();
+        orderFrame.release();
+    }
+
+    @Benchmark
+    public byte[] jsonCodec() {
+        Order decoded = read(orderReader, orderJson);
+        return write(responseWriter, new PriceResponse(decoded.getSymbol(), PRICE.getPrice()));
+    }
+
+    @Benchmark
+    public int binaryCodec() {
+        OrderEntryCodec.NewOrder decoded = OrderEntryCodec.decodeNewOrder(orderFrame, strings);
+        OrderEntryCodec.Ack ack = new OrderEntryCodec.Ack(decoded.correlationId(), OrderResult.Status.ACCEPTED,
+                PRICE.getPrice(), decoded.order().getSymbol(), null);
+        ByteBuf frame = OrderEntryCodec.encodeAck(PooledByteBufAllocator.DEFAULT, ack);
+        int length = frame.readableBytes();
+        frame.release();
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WINDOW)
+    public List<PriceResponse> jsonTransport() {
+        return Flux.range(0, WINDOW)
+                .flatMap(i -> jsonClient.post()
+                        .uri("/orders")
+                        .send(ByteBufFlux.fromInbound(Mono.fromSupplier(() -> write(orderWriter, order))))
+                        .responseContent()
+                        .aggregate()
+                        .asByteArray()
+                        .map(body -> read(responseReader, body)), WINDOW)
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WINDOW)
+    public Object binaryTransport() {
+        CompletableFuture<?>[] results = new CompletableFuture<?>[WINDOW];
+        for (int i = 0; i < WINDOW; i++) {
+            results[i] = wireClient.submit(order);
+        }
+        return CompletableFuture.allOf(results).join();
+    }
+
+    private static byte[] write(ObjectWriter writer, Object value) {
+        try {
+            return writer.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T read(ObjectReader reader, byte[] json) {
+        try {
+            return reader.readValue(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Prices every order at once, so that the benchmarks measure everything but the service.
+     */
+    private static final class ImmediateOrderService implements OrderService {
+
+        @Override
+        public PriceResponse saveOrder(Order order) {
+            return new PriceResponse(order.getSymbol(), PRICE.getPrice());
+        }
+
+        @Override
+        public List<OrderResult> saveOrders(List<Order> orders) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Order getOrderById(Long id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Order> getOrdersByAccountId(String accountId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OrderPage getOrdersPage(String accountId, String cursor, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void streamOrdersByAccountId(String accountId, Consumer<Order> consumer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Order> searchOrders(OrderQuery query) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.minimarket.orders.orderservice.loadtest;
+
+import com.minimarket.orders.orderservice.OrdersServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * End-to-end load test of the service.
+ * Starts Postgres in a container, an in-process {@link PriceFeedStub}, and the application itself,
+ * then offers an open-model mix of {@code POST /orders} and paged {@code GET /orders} at a fixed
+ * rate and prints coordinated-omission-corrected latency percentiles. Full distributions are
+ * written as {@code .hgrm} files for plotting or comparison between releases.
+ * <p>
+ * Settings are read from system properties: {@code load.rate} (requests per second),
+ * {@code load.duration}, {@code load.warmup}, {@code load.get-ratio}, {@code load.accounts},
+ * {@code load.output-dir}, {@code stub.latency}, {@code stub.jitter} and {@code stub.error-rate}.
+ * Program arguments are passed on to the application, e.g. {@code --spring.profiles.active=virtual-threads}.
+ * Run with {@code ./gradlew loadTest}.
+ */
+public class LoadTestHarness {
+
+    private static final String[] SYMBOLS = {"AAPL", "MSFT", "TSLA", "AMZN", "NVDA", "GOOG", "META", "NFLX"};
+
+    public static void main(String[] args) throws Exception {
+        double rate = Double.parseDouble(System.getProperty("load.rate", "500"));
+        Duration duration = duration("load.duration", "60s");
+        Duration warmup = duration("load.warmup", "10s");
+        double getRatio = Double.parseDouble(System.getProperty("load.get-ratio", "0.2"));
+        int accounts = Integer.getInteger("load.accounts", 1_000);
+        Path outputDir = Path.of(System.getProperty("load.output-dir", "build/results/loadtest"));
+
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16")
+                     .withDatabaseName("load_db")
+                     .withUsername("user")
+                     .withPassword("password");
+             PriceFeedStub priceFeed = new PriceFeedStub(duration("stub.latency", "20ms"),
+                     duration("stub.jitter", "10ms"),
+                     Double.parseDouble(System.getProperty("stub.error-rate", "0.01")))) {
+            postgres.start();
+
+            List<String> appArgs = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                    "--spring.datasource.username=" + postgres.getUsername(),
+                    "--spring.datasource.password=" + postgres.getPassword(),
+                    "--spring.jpa.show-sql=false",
+                    "--wiremock.host=localhost",
+                    "--wiremock.port=" + priceFeed.port()));
+            appArgs.addAll(List.of(args));
+
+            try (ConfigurableApplicationContext app = new SpringApplicationBuilder(OrdersServiceApplication.class)
+                    .run(appArgs.toArray(String[]::new))) {
+                int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                OpenModelLoadGenerator generator = new OpenModelLoadGenerator(
+                        HttpClient.newBuilder()
+                                .version(HttpClient.Version.HTTP_1_1)
+                                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                                .build(),
+                        operations(URI.create("http://localhost:" + port), getRatio, accounts));
+
+                System.out.printf("warming up for %s at %.0f req/s%n", warmup, rate);
+                generator.run(rate, warmup);
+                System.out.printf("measuring for %s at %.0f req/s (stub latency %s + jitter %s)%n",
+                        duration, rate, System.getProperty("stub.latency", "20ms"), System.getProperty("stub.jitter", "10ms"));
+                List<OpenModelLoadGenerator.Result> results = generator.run(rate, duration);
+                report(results, outputDir);
+            }
+        }
+    }
+
+    private static List<OpenModelLoadGenerator.Operation> operations(URI base, double getRatio, int accounts) {
+        return List.of(
+                new OpenModelLoadGenerator.Operation("POST /orders", 1 - getRatio, i -> HttpRequest
+                        .newBuilder(base.resolve("/orders"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(orderJson(i, accounts)))
+                        .build()),
+                new OpenModelLoadGenerator.Operation("GET /orders", getRatio, i -> HttpRequest
+                        .newBuilder(base.resolve("/orders?limit=50&accountId=acc-load-" + (i % accounts)))
+                        .header("Accept", "application/json")
+                        .GET()
+                        .build()));
+    }
+
+    private static String orderJson(long i, int accounts) {
+        return """
+                {"accountId":"acc-load-%d","symbol":"%s","side":"%s","quantity":%d,"status":"CREATED","createdAt":"%s"}"""
+                .formatted(i % accounts, SYMBOLS[(int) (i % SYMBOLS.length)], i % 2 == 0 ? "BUY" : "SELL",
+                        1 + i % 100, OffsetDateTime.now());
+    }
+
+    private static void report(List<OpenModelLoadGenerator.Result> results, Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        for (OpenModelLoadGenerator.Result result : results) {
+            result.print(System.out);
+            Path file = outputDir.resolve(result.name().replaceAll("[^A-Za-z]+", "-").toLowerCase() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                result.latencies().outputPercentileDistribution(out, 1_000_000.0);
+            }
+        }
+        System.out.println("latency distributions written to " + outputDir.toAbsolutePath());
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+}
@@ -0,0 +1,154 @@
+package com.minimarket.orders.orderservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Drives HTTP requests at a fixed arrival rate, independent of how fast responses come back.
+ * Request {@code i} is scheduled for {@code start + i / rate} and sent asynchronously, and its
+ * latency is measured from that intended start rather than from when it was actually sent. A
+ * stalled server therefore shows up as queueing delay in the percentiles instead of silently
+ * lowering the offered load, which corrects for coordinated omission.
+ */
+public class OpenModelLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final HttpClient client;
+    private final List<Operation> operations;
+    private final double totalWeight;
+
+    public OpenModelLoadGenerator(HttpClient client, List<Operation> operations) {
+        this.client = client;
+        this.operations = operations;
+        this.totalWeight = operations.stream().mapToDouble(Operation::weight).sum();
+    }
+
+    /**
+     * Offers load for the given duration and waits for outstanding responses.
+     *
+     * @param ratePerSecond the target arrival rate across all operations
+     * @param duration how long to offer load
+     * @return the latency distribution and outcome counts of each operation
+     */
+    public List<Result> run(double ratePerSecond, Duration duration) throws InterruptedException {
+        List<Tracker> trackers = operations.stream().map(Tracker::new).toList();
+        AtomicLong inFlight = new AtomicLong();
+        long intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            parkUntil(intended);
+            Tracker tracker = pick(trackers);
+            inFlight.incrementAndGet();
+            client.sendAsync(tracker.operation.request().apply(i), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        tracker.record(System.nanoTime() - intended,
+                                failure == null ? response.statusCode() : -1);
+                        inFlight.decrementAndGet();
+                    });
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return trackers.stream().map(tracker -> tracker.result(elapsedNanos)).toList();
+    }
+
+    private Tracker pick(List<Tracker> trackers) {
+        double r = ThreadLocalRandom.current().nextDouble(totalWeight);
+        for (Tracker tracker : trackers) {
+            r -= tracker.operation.weight();
+            if (r < 0) {
+                return tracker;
+            }
+        }
+        return trackers.get(trackers.size() - 1);
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * A request type offered at a share of the total rate proportional to its weight.
+     *
+     * @param name the name used in the report
+     * @param weight the relative share of the arrival rate
+     * @param request builds the request with the given sequence number
+     */
+    public record Operation(String name, double weight, LongFunction<HttpRequest> request) {
+    }
+
+    /**
+     * Outcome of one operation: latencies in nanoseconds, successful, rejected ({@code 406}) and failed requests.
+     */
+    public record Result(String name, Histogram latencies, long succeeded, long rejected, long failed,
+                         double achievedPerSecond) {
+
+        public void print(PrintStream out) {
+            out.printf("%-18s %,9d ok %,7d rejected %,7d failed %,10.1f req/s   "
+                            + "p50 %8.2f  p90 %8.2f  p99 %8.2f  p99.9 %8.2f  p99.99 %8.2f  max %8.2f ms%n",
+                    name, succeeded, rejected, failed, achievedPerSecond,
+                    millis(50), millis(90), millis(99), millis(99.9), millis(99.99),
+                    latencies.getMaxValue() / 1_000_000.0);
+        }
+
+        private double millis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1_000_000.0;
+        }
+    }
+
+    private static final class Tracker {
+
+        private final Operation operation;
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        Tracker(Operation operation) {
+            this.operation = operation;
+        }
+
+        void record(long latencyNanos, int status) {
+            recorder.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+            if (status >= 200 && status < 300) {
+                succeeded.increment();
+            } else if (status == 406) {
+                rejected.increment();
+            } else {
+                failed.increment();
+            }
+        }
+
+        Result result(long elapsedNanos) {
+            long total = succeeded.sum() + rejected.sum() + failed.sum();
+            return new Result(operation.name(), recorder.getIntervalHistogram(), succeeded.sum(),
+                    rejected.sum(), failed.sum(), total * 1_000_000_000.0 / elapsedNanos);
+        }
+    }
+}
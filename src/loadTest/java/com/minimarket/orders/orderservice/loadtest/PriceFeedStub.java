@@ -0,0 +1,117 @@
+package com.minimarket.orders.orderservice.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * In-process stand-in for the price feed serving {@code GET /price?symbol=} and the batch
+ * {@code GET /prices?symbols=} endpoint.
+ * Every response is delayed by {@code latency} plus a uniformly distributed {@code jitter}, and a
+ * share of requests given by {@code errorRate} fails with {@code 503}. Requests are handled on
+ * virtual threads, so injected latency never limits the stub's own throughput.
+ */
+public class PriceFeedStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyNanos;
+    private final long jitterNanos;
+    private final double errorRate;
+
+    public PriceFeedStub(Duration latency, Duration jitter, double errorRate) throws IOException {
+        this.latencyNanos = latency.toNanos();
+        this.jitterNanos = jitter.toNanos();
+        this.errorRate = errorRate;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        this.server.setExecutor(executor);
+        this.server.createContext("/price", this::handlePrice);
+        this.server.createContext("/prices", this::handlePrices);
+        this.server.start();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handlePrice(HttpExchange exchange) throws IOException {
+        respond(exchange, () -> quote(queryParam(exchange.getRequestURI(), "symbol")));
+    }
+
+    private void handlePrices(HttpExchange exchange) throws IOException {
+        respond(exchange, () -> {
+            StringJoiner quotes = new StringJoiner(",", "[", "]");
+            for (String symbol : queryParam(exchange.getRequestURI(), "symbols").split(",")) {
+                quotes.add(quote(symbol));
+            }
+            return quotes.toString();
+        });
+    }
+
+    private void respond(HttpExchange exchange, Supplier<String> json) throws IOException {
+        try {
+            delay();
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            byte[] body = json.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void delay() {
+        long nanos = latencyNanos + (jitterNanos > 0 ? ThreadLocalRandom.current().nextLong(jitterNanos) : 0);
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static String quote(String symbol) {
+        double price = 100 + Math.floorMod(symbol.hashCode(), 40_000) / 100.0;
+        return "{\"symbol\":\"" + symbol + "\",\"price\":" + price + "}";
+    }
+
+    static String queryParam(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                    return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return "UNKNOWN";
+    }
+}
@@ -1,9 +1,18 @@
 package com.minimarket.orders.orderservice;
 
+import com.minimarket.orders.orderservice.ratelimiter.RateLimiterProperties;
+import com.minimarket.orders.orderservice.service.price.PriceClientProperties;
+import com.minimarket.orders.orderservice.service.risk.RiskLimits;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@EnableConfigurationProperties({RateLimiterProperties.class, PriceClientProperties.class, RiskLimits.class})
+@EnableScheduling
 public class OrdersServiceApplication {
 
 	public static void main(String[] args) {
@@ -1,20 +1,49 @@
 package com.minimarket.orders.orderservice.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.minimarket.orders.orderservice.dto.OrderPage;
+import com.minimarket.orders.orderservice.dto.OrderQuery;
+import com.minimarket.orders.orderservice.dto.OrderResult;
 import com.minimarket.orders.orderservice.dto.PriceResponse;
+import com.minimarket.orders.orderservice.exception.BatchSizeExceededException;
 import com.minimarket.orders.orderservice.model.Order;
 import com.minimarket.orders.orderservice.service.api.OrderService;
+import com.minimarket.orders.orderservice.service.archive.OrderArchive;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
+@Profile("!reactive")
 public class OrdersController {
 
+    private static final int NDJSON_FLUSH_INTERVAL = 100;
+    private static final int DEFAULT_SEARCH_LIMIT = 100;
+
     private final OrderService orderService;
+    private final OrderArchive orderArchive;
+    private final ObjectWriter ndjsonWriter;
+    private final int maxBatchSize;
+    private final int maxPageSize;
 
-    public OrdersController(OrderService orderService) {
+    public OrdersController(OrderService orderService, OrderArchive orderArchive, ObjectMapper objectMapper,
+                            @Value("${orders.batch.max-size:500}") int maxBatchSize,
+                            @Value("${orders.page.max-size:1000}") int maxPageSize) {
         this.orderService = orderService;
+        this.orderArchive = orderArchive;
+        this.ndjsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.maxBatchSize = maxBatchSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @RequestMapping("/orders/{id}")
@@ -27,9 +56,63 @@ public class OrdersController {
         return ResponseEntity.ok(orderService.getOrdersByAccountId(accountId));
     }
 
+    @GetMapping(value = "/orders", params = "limit")
+    public ResponseEntity<OrderPage> getOrdersPage(@RequestParam String accountId,
+                                                   @RequestParam int limit,
+                                                   @RequestParam(required = false) String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        return ResponseEntity.ok(orderService.getOrdersPage(accountId, cursor, pageSize));
+    }
+
+    @GetMapping(value = "/orders", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOrdersForAccount(@RequestParam String accountId) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = ndjsonWriter.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                int[] written = {0};
+                orderService.streamOrdersByAccountId(accountId, order -> {
+                    try {
+                        ndjsonWriter.writeValue(generator, order);
+                        generator.writeRaw('\n');
+                        if (++written[0] % NDJSON_FLUSH_INTERVAL == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/orders/search")
+    public ResponseEntity<List<Order>> searchOrders(OrderQuery query) {
+        int limit = query.getLimit() == null ? DEFAULT_SEARCH_LIMIT : query.getLimit();
+        query.setLimit(Math.max(1, Math.min(limit, maxPageSize)));
+        return ResponseEntity.ok(orderService.searchOrders(query));
+    }
+
+    @GetMapping("/orders/history")
+    public ResponseEntity<List<Order>> searchArchivedOrders(OrderQuery query) {
+        int limit = query.getLimit() == null ? DEFAULT_SEARCH_LIMIT : query.getLimit();
+        query.setLimit(Math.max(1, Math.min(limit, maxPageSize)));
+        return ResponseEntity.ok(orderArchive.search(query));
+    }
+
     @PostMapping("/orders")
     public ResponseEntity<PriceResponse> saveOrder(@RequestBody Order order) {
         return ResponseEntity.ok(orderService.saveOrder(order));
     }
 
+    @PostMapping("/orders/batch")
+    public ResponseEntity<List<OrderResult>> saveOrders(@RequestBody List<Order> orders) {
+        if (orders.size() > maxBatchSize) {
+            throw new BatchSizeExceededException(orders.size(), maxBatchSize);
+        }
+        return ResponseEntity.ok(orderService.saveOrders(orders));
+    }
+
 }
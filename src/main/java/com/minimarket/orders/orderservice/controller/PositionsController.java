@@ -0,0 +1,27 @@
+package com.minimarket.orders.orderservice.controller;
+
+import com.minimarket.orders.orderservice.dto.Position;
+import com.minimarket.orders.orderservice.service.position.PositionBook;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@Profile("!reactive")
+public class PositionsController {
+
+    private final PositionBook positionBook;
+
+    public PositionsController(PositionBook positionBook) {
+        this.positionBook = positionBook;
+    }
+
+    @GetMapping("/accounts/{accountId}/positions")
+    public ResponseEntity<List<Position>> getPositions(@PathVariable String accountId) {
+        return ResponseEntity.ok(positionBook.getPositions(accountId));
+    }
+}
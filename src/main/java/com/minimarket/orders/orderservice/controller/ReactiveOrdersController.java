@@ -0,0 +1,35 @@
+package com.minimarket.orders.orderservice.controller;
+
+import com.minimarket.orders.orderservice.dto.PriceResponse;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.service.api.ReactiveOrderService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@Profile("reactive")
+public class ReactiveOrdersController {
+
+    private final ReactiveOrderService orderService;
+
+    public ReactiveOrdersController(ReactiveOrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    @GetMapping("/orders/{id}")
+    public Mono<Order> getOrderById(@PathVariable Long id) {
+        return orderService.getOrderById(id);
+    }
+
+    @GetMapping("/orders")
+    public Flux<Order> getOrdersForAccount(@RequestParam String accountId) {
+        return orderService.getOrdersByAccountId(accountId);
+    }
+
+    @PostMapping("/orders")
+    public Mono<PriceResponse> saveOrder(@RequestBody Order order) {
+        return orderService.saveOrder(order);
+    }
+}
@@ -0,0 +1,18 @@
+package com.minimarket.orders.orderservice.dto;
+
+import com.minimarket.orders.orderservice.model.Order;
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderPage {
+
+    private List<Order> items;
+    private String nextCursor;
+
+}
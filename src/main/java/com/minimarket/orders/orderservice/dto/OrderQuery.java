@@ -0,0 +1,26 @@
+package com.minimarket.orders.orderservice.dto;
+
+import com.minimarket.orders.orderservice.model.Order;
+import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.OffsetDateTime;
+
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderQuery {
+
+    private String accountId;
+    private String symbol;
+    private Order.Side side;
+    private Order.Status status;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime to;
+    private Integer limit;
+
+}
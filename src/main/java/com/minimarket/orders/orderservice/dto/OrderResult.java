@@ -0,0 +1,22 @@
+package com.minimarket.orders.orderservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderResult {
+
+    private String symbol;
+    private BigDecimal price;
+    private Status status;
+    private String message;
+
+    public enum Status {
+        ACCEPTED, RATE_LIMITED, ILLEGAL_QUANTITY, PRICE_UNAVAILABLE, INVALID, RISK_REJECTED, DUPLICATE, IN_PROGRESS
+    }
+}
@@ -0,0 +1,19 @@
+package com.minimarket.orders.orderservice.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class Position {
+
+    private String symbol;
+    private long quantity; // negative when short
+    private BigDecimal averagePrice;
+    private BigDecimal realizedPnl;
+
+}
@@ -0,0 +1,12 @@
+package com.minimarket.orders.orderservice.exception;
+
+public class BatchSizeExceededException extends RuntimeException {
+
+    public BatchSizeExceededException(int size, int maxSize) {
+        super("Batch of " + size + " orders exceeds the maximum of " + maxSize);
+    }
+
+    public BatchSizeExceededException(String message) {
+        super(message);
+    }
+}
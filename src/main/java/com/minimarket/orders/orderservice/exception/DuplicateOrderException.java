@@ -0,0 +1,8 @@
+package com.minimarket.orders.orderservice.exception;
+
+public class DuplicateOrderException extends RuntimeException {
+
+    public DuplicateOrderException(String message) {
+        super(message);
+    }
+}
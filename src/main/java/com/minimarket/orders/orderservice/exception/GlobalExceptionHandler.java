@@ -1,5 +1,6 @@
 package com.minimarket.orders.orderservice.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -43,6 +44,84 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(BatchSizeExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleBatchSizeExceeded(BatchSizeExceededException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
+                .body(Map.of(
+                    "timestamp", OffsetDateTime.now().toString(),
+                    "status", 406,
+                    "error", "Not Acceptable",
+                    "message", ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidCursor(InvalidCursorException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
+                .body(Map.of(
+                    "timestamp", OffsetDateTime.now().toString(),
+                    "status", 406,
+                    "error", "Not Acceptable",
+                    "message", ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(InvalidOrderQueryException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidOrderQuery(InvalidOrderQueryException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
+                .body(Map.of(
+                    "timestamp", OffsetDateTime.now().toString(),
+                    "status", 406,
+                    "error", "Not Acceptable",
+                    "message", ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(InvalidOrderException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidOrder(InvalidOrderException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
+                .body(Map.of(
+                    "timestamp", OffsetDateTime.now().toString(),
+                    "status", 406,
+                    "error", "Not Acceptable",
+                    "message", ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(RiskCheckFailedException.class)
+    public ResponseEntity<Map<String, Object>> handleRiskCheckFailed(RiskCheckFailedException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
+                .body(Map.of(
+                    "timestamp", OffsetDateTime.now().toString(),
+                    "status", 406,
+                    "error", "Not Acceptable",
+                    "message", ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(DuplicateOrderException.class)
+    public ResponseEntity<Map<String, Object>> handleDuplicateOrder(DuplicateOrderException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of(
+                    "timestamp", OffsetDateTime.now().toString(),
+                    "status", 409,
+                    "error", "Conflict",
+                    "message", ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(SubmissionInProgressException.class)
+    public ResponseEntity<Map<String, Object>> handleSubmissionInProgress(SubmissionInProgressException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of(
+                    "timestamp", OffsetDateTime.now().toString(),
+                    "status", 503,
+                    "error", "Service Unavailable",
+                    "message", ex.getMessage()
+                ));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGeneric(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,8 @@
+package com.minimarket.orders.orderservice.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String cursor) {
+        super("Invalid continuation token: " + cursor);
+    }
+}
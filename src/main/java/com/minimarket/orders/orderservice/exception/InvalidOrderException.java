@@ -0,0 +1,8 @@
+package com.minimarket.orders.orderservice.exception;
+
+public class InvalidOrderException extends RuntimeException {
+
+    public InvalidOrderException(String message) {
+        super(message);
+    }
+}
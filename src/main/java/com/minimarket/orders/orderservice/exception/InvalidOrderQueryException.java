@@ -0,0 +1,8 @@
+package com.minimarket.orders.orderservice.exception;
+
+public class InvalidOrderQueryException extends RuntimeException {
+
+    public InvalidOrderQueryException(String message) {
+        super(message);
+    }
+}
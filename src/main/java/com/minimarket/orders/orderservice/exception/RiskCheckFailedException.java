@@ -0,0 +1,8 @@
+package com.minimarket.orders.orderservice.exception;
+
+public class RiskCheckFailedException extends RuntimeException {
+
+    public RiskCheckFailedException(String message) {
+        super(message);
+    }
+}
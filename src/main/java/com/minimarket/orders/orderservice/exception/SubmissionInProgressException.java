@@ -0,0 +1,8 @@
+package com.minimarket.orders.orderservice.exception;
+
+public class SubmissionInProgressException extends RuntimeException {
+
+    public SubmissionInProgressException(String message) {
+        super(message);
+    }
+}
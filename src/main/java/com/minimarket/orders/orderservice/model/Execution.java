@@ -1,5 +1,6 @@
 package com.minimarket.orders.orderservice.model;
 
+import com.minimarket.orders.orderservice.service.position.PositionUpdater;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -8,6 +9,7 @@ import java.time.OffsetDateTime;
 
 @Entity
 @Table(name = "executions")
+@EntityListeners(PositionUpdater.class)
 @Builder
 @Getter
 @Setter
@@ -16,7 +18,8 @@ import java.time.OffsetDateTime;
 public class Execution {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "executions_seq")
+    @SequenceGenerator(name = "executions_seq", sequenceName = "executions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -26,6 +29,9 @@ public class Execution {
     @Column(nullable = false, precision = 19, scale = 6)
     private BigDecimal price;
 
+    @Column(nullable = false)
+    private Integer quantity;
+
     @Column(name = "executed_at", nullable = false)
     private OffsetDateTime executedAt;
 
@@ -1,12 +1,15 @@
 package com.minimarket.orders.orderservice.model;
 
+import com.minimarket.orders.orderservice.service.cache.OrderCacheInvalidator;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 
 @Entity
 @Table(name = "orders")
+@EntityListeners(OrderCacheInvalidator.class)
 @Builder
 @Getter
 @Setter
@@ -15,7 +18,8 @@ import java.time.OffsetDateTime;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "account_id", nullable = false)
@@ -31,6 +35,14 @@ public class Order {
     @Column(nullable = false)
     private Integer quantity;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_type", nullable = false)
+    @Builder.Default
+    private Type type = Type.MARKET; // MARKET or LIMIT enum
+
+    @Column(name = "limit_price", precision = 19, scale = 6)
+    private BigDecimal limitPrice;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Status status;
@@ -38,10 +50,17 @@ public class Order {
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
 
+    @Column(name = "client_order_id", length = 64)
+    private String clientOrderId; // idempotency key, unique per account
+
     public enum Side {
         BUY, SELL
     }
 
+    public enum Type {
+        MARKET, LIMIT
+    }
+
     public enum Status {
         CREATED, COMPLETED, CANCELLED
     }
@@ -0,0 +1,16 @@
+package com.minimarket.orders.orderservice.ratelimiter;
+
+/**
+ * Limits how many requests each account may make.
+ */
+public interface AccountRateLimiter {
+
+    /**
+     * Takes permits for a request of the specified account, without waiting.
+     *
+     * @param accountId the ID of the account making the request
+     * @param permits the number of permits the request costs
+     * @return {@code true} if the permits were granted, {@code false} if the account is over its limit
+     */
+    boolean tryAcquire(String accountId, int permits);
+}
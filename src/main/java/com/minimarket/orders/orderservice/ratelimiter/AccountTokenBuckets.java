@@ -0,0 +1,288 @@
+package com.minimarket.orders.orderservice.ratelimiter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped open-addressing table of token buckets keyed by account ID.
+ * Each bucket is a single packed {@code long} holding the available tokens, in milli-permits,
+ * and the time of the last refill, in milliseconds; acquiring permits is one compare-and-set on
+ * that word. The stripe lock is only taken to add an account, to resize, and to evict idle accounts.
+ * <p>
+ * Eviction replaces a bucket with a tombstone that keeps its key, so a slot never changes owner
+ * while readers may still hold it; an evicted account that comes back simply revives its slot with a
+ * full bucket. Tombstones are dropped when a stripe is rebuilt, which first freezes every slot of the
+ * old table so that no permit taken concurrently is lost.
+ */
+public class AccountTokenBuckets {
+
+    private static final int TOKEN_SHIFT = 42;
+    private static final long TIME_MASK = (1L << TOKEN_SHIFT) - 1;
+    private static final long EVICTED = -1L;
+    private static final long MOVED = -2L;
+    private static final int MIN_TABLE_CAPACITY = 16;
+
+    /**
+     * Largest bucket capacity, in milli-permits, that fits in the packed state.
+     */
+    public static final long MAX_CAPACITY = (1L << (Long.SIZE - 1 - TOKEN_SHIFT)) - 1;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int stripeBits;
+
+    /**
+     * Constructs an empty table.
+     *
+     * @param stripes the number of independently locked stripes, rounded up to a power of two
+     */
+    public AccountTokenBuckets(int stripes) {
+        int count = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.stripeMask = count - 1;
+        this.stripeBits = Integer.numberOfTrailingZeros(count);
+    }
+
+    /**
+     * Takes permits from the bucket of an account, creating a full bucket on first use.
+     *
+     * @param key the account ID
+     * @param cost the number of milli-permits to take
+     * @param limit the capacity and refill rate of the account's bucket
+     * @param nowMillis the current time in milliseconds, between 0 and 2<sup>42</sup>
+     * @return {@code true} if the permits were taken, {@code false} if the bucket holds too few
+     */
+    public boolean tryAcquire(String key, long cost, Limit limit, long nowMillis) {
+        int hash = spread(key.hashCode());
+        Stripe stripe = stripes[hash & stripeMask];
+        int home = hash >>> stripeBits;
+        for (;;) {
+            Table table = stripe.table;
+            int slot = table.find(key, home);
+            if (slot < 0) {
+                stripe.insert(key, home, limit, nowMillis);
+                continue;
+            }
+            long state = table.states.get(slot);
+            if (state == MOVED) {
+                stripe.awaitRebuild();
+                continue;
+            }
+            long next;
+            if (state == EVICTED) {
+                if (limit.capacity() < cost) {
+                    return false;
+                }
+                next = pack(limit.capacity() - cost, nowMillis);
+            } else {
+                long last = state & TIME_MASK;
+                long tokens = refill(state >>> TOKEN_SHIFT, nowMillis - last, limit);
+                if (tokens < cost) {
+                    return false;
+                }
+                next = pack(tokens - cost, Math.max(nowMillis, last));
+            }
+            if (table.states.compareAndSet(slot, state, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Evicts accounts whose bucket has not been touched for at least {@code idleMillis}.
+     * The caller must choose an idle period long enough for every bucket to have refilled, so
+     * that eviction is indistinguishable from keeping the full bucket.
+     *
+     * @param nowMillis the current time in milliseconds
+     * @param idleMillis how long a bucket must be untouched to be evicted
+     * @return the number of accounts evicted
+     */
+    public int evictIdle(long nowMillis, long idleMillis) {
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            evicted += stripe.evictIdle(nowMillis, idleMillis);
+        }
+        return evicted;
+    }
+
+    /**
+     * Counts the accounts currently holding a bucket.
+     *
+     * @return the number of live buckets
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.table.live();
+        }
+        return size;
+    }
+
+    private static long refill(long tokens, long elapsedMillis, Limit limit) {
+        if (elapsedMillis <= 0) {
+            return Math.min(tokens, limit.capacity());
+        }
+        if (elapsedMillis >= limit.capacity()) {
+            return limit.capacity();
+        }
+        return Math.min(limit.capacity(), tokens + elapsedMillis * limit.refillPerMilli());
+    }
+
+    private static long pack(long tokens, long timeMillis) {
+        return (tokens << TOKEN_SHIFT) | (timeMillis & TIME_MASK);
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+
+    /**
+     * Capacity and refill rate of a bucket.
+     *
+     * @param capacity the maximum number of milli-permits a bucket holds, at most {@link #MAX_CAPACITY}
+     * @param refillPerMilli the number of milli-permits added per millisecond, which equals permits per second
+     */
+    public record Limit(long capacity, long refillPerMilli) {
+
+        public Limit {
+            if (capacity <= 0 || capacity > MAX_CAPACITY) {
+                throw new IllegalArgumentException("Bucket capacity must be between 1 and " + MAX_CAPACITY);
+            }
+            if (refillPerMilli <= 0) {
+                throw new IllegalArgumentException("Refill rate must be positive");
+            }
+        }
+    }
+
+    private final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Table table = new Table(MIN_TABLE_CAPACITY);
+        private int used;
+
+        void insert(String key, int home, Limit limit, long nowMillis) {
+            lock.lock();
+            try {
+                Table current = table;
+                if (current.find(key, home) >= 0) {
+                    return;
+                }
+                if ((used + 1) * 4 > current.capacity() * 3) {
+                    int live = current.live();
+                    int capacity = live * 2 >= current.capacity() ? current.capacity() * 2 : current.capacity();
+                    current = rebuild(current, capacity);
+                }
+                current.place(key, home, pack(limit.capacity(), nowMillis));
+                used++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int evictIdle(long nowMillis, long idleMillis) {
+            lock.lock();
+            try {
+                Table current = table;
+                int evicted = 0;
+                int tombstones = 0;
+                for (int i = 0; i < current.capacity(); i++) {
+                    if (current.keys.get(i) == null) {
+                        continue;
+                    }
+                    long state = current.states.get(i);
+                    if (state >= 0 && nowMillis - (state & TIME_MASK) >= idleMillis
+                            && current.states.compareAndSet(i, state, EVICTED)) {
+                        evicted++;
+                        state = EVICTED;
+                    }
+                    if (state == EVICTED) {
+                        tombstones++;
+                    }
+                }
+                if (tombstones * 2 > used) {
+                    int live = used - tombstones;
+                    rebuild(current, Math.max(MIN_TABLE_CAPACITY, Integer.highestOneBit(Math.max(1, live * 4 - 1)) << 1));
+                }
+                return evicted;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void awaitRebuild() {
+            lock.lock();
+            lock.unlock();
+        }
+
+        private Table rebuild(Table current, int capacity) {
+            Table next = new Table(capacity);
+            int live = 0;
+            for (int i = 0; i < current.capacity(); i++) {
+                String key = current.keys.get(i);
+                if (key == null) {
+                    continue;
+                }
+                long state = current.states.getAndSet(i, MOVED);
+                if (state != EVICTED) {
+                    next.place(key, spread(key.hashCode()) >>> stripeBits, state);
+                    live++;
+                }
+            }
+            table = next;
+            used = live;
+            return next;
+        }
+    }
+
+    private static final class Table {
+
+        private final AtomicReferenceArray<String> keys;
+        private final AtomicLongArray states;
+        private final int mask;
+
+        Table(int capacity) {
+            this.keys = new AtomicReferenceArray<>(capacity);
+            this.states = new AtomicLongArray(capacity);
+            this.mask = capacity - 1;
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        int find(String key, int home) {
+            for (int i = home & mask; ; i = (i + 1) & mask) {
+                String candidate = keys.get(i);
+                if (candidate == null) {
+                    return -1;
+                }
+                if (candidate.equals(key)) {
+                    return i;
+                }
+            }
+        }
+
+        void place(String key, int home, long state) {
+            int i = home & mask;
+            while (keys.get(i) != null) {
+                i = (i + 1) & mask;
+            }
+            states.set(i, state);
+            keys.set(i, key);
+        }
+
+        int live() {
+            int live = 0;
+            for (int i = 0; i < capacity(); i++) {
+                if (keys.get(i) != null && states.get(i) >= 0) {
+                    live++;
+                }
+            }
+            return live;
+        }
+    }
+}
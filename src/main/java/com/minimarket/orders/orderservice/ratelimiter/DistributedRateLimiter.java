@@ -0,0 +1,159 @@
+package com.minimarket.orders.orderservice.ratelimiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Enforces each account's tier limit across all nodes sharing a {@link RateLimitStore}.
+ * Enabled with {@code rate-limiter.mode: distributed}. A node leases a batch of tokens, a
+ * {@code rate-limiter.distributed.lease-fraction} of the account's burst, from the shared bucket
+ * and serves requests from it locally, so the store is only called when a lease runs out. Tokens
+ * leased but unused after {@code rate-limiter.distributed.resync-interval} are returned to the
+ * store, and an account that was refused is refused locally until its bucket can have refilled.
+ * <p>
+ * Leased tokens count as spent for every other node, so the cluster never admits more than the
+ * shared bucket allows; at worst a node briefly holds tokens another node could have used. While
+ * the store is unreachable, requests fall back to the per-node {@link RateLimiterManager}.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "rate-limiter.mode", havingValue = "distributed")
+@Slf4j
+public class DistributedRateLimiter implements AccountRateLimiter {
+
+    private static final long MILLI_PERMITS = 1000;
+
+    private final RateLimitStore store;
+    private final RateLimiterManager localLimiter;
+    private final double leaseFraction;
+    private final long leaseTtlMillis;
+    private final long idleMillis;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final long originNanos = System.nanoTime();
+    private final Timer storeTimer;
+
+    /**
+     * Constructs a {@code DistributedRateLimiter} and registers its metrics.
+     *
+     * @param store the shared bucket store
+     * @param localLimiter resolves account tiers and limits requests while the store is unreachable
+     * @param properties the lease and resync settings
+     * @param meterRegistry the registry store call latency is published to
+     */
+    public DistributedRateLimiter(RateLimitStore store, RateLimiterManager localLimiter,
+                                  RateLimiterProperties properties, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.localLimiter = localLimiter;
+        this.leaseFraction = properties.getDistributed().getLeaseFraction();
+        this.leaseTtlMillis = properties.getDistributed().getResyncInterval().toMillis();
+        this.idleMillis = properties.getIdleTimeout().toMillis();
+        this.storeTimer = Timer.builder("rate.limiter.store")
+                .description("Latency of leasing tokens from the shared rate limit store")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean tryAcquire(String accountId, int permits) {
+        long cost = permits * MILLI_PERMITS;
+        long now = nowMillis();
+        Lease lease = leases.get(accountId);
+        if (lease == null) {
+            lease = leases.computeIfAbsent(accountId, id -> new Lease());
+        }
+        lease.lastUsedMillis = now;
+        if (lease.tryTake(cost)) {
+            return true;
+        }
+        if (now < lease.refusedUntilMillis) {
+            return false;
+        }
+
+        lease.lock.lock();
+        try {
+            if (lease.tryTake(cost)) {
+                return true;
+            }
+            AccountTokenBuckets.Limit limit = localLimiter.limitOf(accountId);
+            long requested = Math.max(cost, (long) (limit.capacity() * leaseFraction));
+            long granted;
+            try {
+                granted = storeTimer.record(() -> store.lease(accountId, requested, limit));
+            } catch (DataAccessException | TransactionException e) {
+                log.warn("rate limit store unavailable, applying the local limit: {}", e.getMessage());
+                return localLimiter.tryAcquire(accountId, permits);
+            }
+            lease.tokens.addAndGet(granted);
+            lease.leasedAtMillis = now;
+            if (lease.tryTake(cost)) {
+                return true;
+            }
+            long missing = cost - lease.tokens.get();
+            lease.refusedUntilMillis = now + Math.max(1, missing / limit.refillPerMilli());
+            return false;
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns tokens leased longer than one resync interval ago to the store, and forgets accounts
+     * that have been idle for {@code rate-limiter.idle-timeout}.
+     */
+    @Scheduled(fixedDelayString = "${rate-limiter.distributed.resync-interval:1s}")
+    public void resync() {
+        long now = nowMillis();
+        leases.forEach((accountId, lease) -> {
+            if (now - lease.leasedAtMillis >= leaseTtlMillis) {
+                long unused = lease.tokens.getAndSet(0);
+                if (unused > 0) {
+                    try {
+                        store.release(accountId, unused, localLimiter.limitOf(accountId));
+                    } catch (DataAccessException | TransactionException e) {
+                        log.warn("could not return {} tokens of {} to the rate limit store: {}",
+                                unused, accountId, e.getMessage());
+                    }
+                }
+            }
+            if (now - lease.lastUsedMillis >= idleMillis) {
+                leases.remove(accountId, lease);
+            }
+        });
+    }
+
+    private long nowMillis() {
+        return (System.nanoTime() - originNanos) / 1_000_000;
+    }
+
+    private static final class Lease {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicLong tokens = new AtomicLong();
+        private volatile long leasedAtMillis;
+        private volatile long lastUsedMillis;
+        private volatile long refusedUntilMillis;
+
+        boolean tryTake(long cost) {
+            long available;
+            do {
+                available = tokens.get();
+                if (available < cost) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(available, available - cost));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.minimarket.orders.orderservice.ratelimiter;
+
+/**
+ * Shared store of per-account token buckets used by the {@link DistributedRateLimiter}.
+ * Token amounts are in milli-permits, and buckets refill by the store's own clock.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Refills the account's bucket and takes up to the requested number of tokens from it,
+     * creating a full bucket on first use.
+     *
+     * @param accountId the ID of the account
+     * @param requested the number of tokens wanted
+     * @param limit the capacity and refill rate of the account's bucket
+     * @return the number of tokens taken, between 0 and {@code requested}
+     */
+    long lease(String accountId, long requested, AccountTokenBuckets.Limit limit);
+
+    /**
+     * Returns unused leased tokens to the account's bucket, up to its capacity.
+     *
+     * @param accountId the ID of the account
+     * @param tokens the number of tokens returned
+     * @param limit the capacity and refill rate of the account's bucket
+     */
+    void release(String accountId, long tokens, AccountTokenBuckets.Limit limit);
+}
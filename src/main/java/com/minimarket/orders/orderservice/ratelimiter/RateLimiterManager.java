@@ -1,38 +1,103 @@
 package com.minimarket.orders.orderservice.ratelimiter;
 
-import io.github.resilience4j.ratelimiter.RateLimiter;
-import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Manages rate limiters for different accounts to control the frequency of requests.
- * This component creates and caches {@link RateLimiter} instances per account ID,
- * using a predefined configuration that limits requests to 10 per second with no timeout.
+ * Limits the frequency of requests per account with token buckets.
+ * Each account's bucket holds up to its tier's {@code burst} permits and refills at its tier's
+ * {@code permits-per-second}; buckets are kept as packed {@code long}s in {@link AccountTokenBuckets},
+ * so an account costs a key and a few bytes rather than a limiter object. Buckets of accounts that
+ * have been idle for {@code rate-limiter.idle-timeout}, or longer if a tier needs more time to
+ * refill, are evicted every {@code rate-limiter.sweep-interval}.
+ * <p>
+ * These limits apply per node. In {@code distributed} mode the {@link DistributedRateLimiter} takes
+ * precedence and this limiter only serves as a fallback while the shared store is unreachable.
  */
 @Component
-public class RateLimiterManager {
+@Slf4j
+public class RateLimiterManager implements AccountRateLimiter {
 
-    private final Map<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+    private static final String METRIC_PREFIX = "rate.limiter";
+    private static final long MILLI_PERMITS = 1000;
 
-    private final RateLimiterConfig config = RateLimiterConfig.custom()
-            .limitRefreshPeriod(Duration.ofSeconds(1))
-            .limitForPeriod(10)
-            .timeoutDuration(Duration.ZERO)
-            .build();
+    private final AccountTokenBuckets buckets;
+    private final Map<String, AccountTokenBuckets.Limit> tierLimits;
+    private final Map<String, String> accountTiers;
+    private final AccountTokenBuckets.Limit defaultLimit;
+    private final long idleMillis;
+    private final long originNanos = System.nanoTime();
+    private final Counter evictionCounter;
 
     /**
-     * Retrieves or creates a {@link RateLimiter} for the specified account ID.
-     * If a rate limiter for the account ID does not exist, a new one is created
-     * with the predefined configuration and cached for future use.
+     * Constructs a {@code RateLimiterManager} and registers its metrics.
      *
-     * @param accountId the ID of the account for which to retrieve the rate limiter
-     * @return the {@link RateLimiter} associated with the account ID
+     * @param properties the tiers, account assignments and eviction settings
+     * @param meterRegistry the registry the tracked account gauge and eviction counter are published to
+     * @throws IllegalArgumentException if the default tier is not defined or a tier's burst is out of range
      */
-    public RateLimiter getLimiter(String accountId) {
-        return limiters.computeIfAbsent(accountId, id -> RateLimiter.of(id, config));
+    public RateLimiterManager(RateLimiterProperties properties, MeterRegistry meterRegistry) {
+        this.buckets = new AccountTokenBuckets(properties.getStripes());
+        this.tierLimits = new HashMap<>();
+        long refillMillis = 0;
+        for (Map.Entry<String, RateLimiterProperties.Tier> tier : properties.getTiers().entrySet()) {
+            AccountTokenBuckets.Limit limit = new AccountTokenBuckets.Limit(
+                    tier.getValue().getBurst() * MILLI_PERMITS, tier.getValue().getPermitsPerSecond());
+            tierLimits.put(tier.getKey(), limit);
+            refillMillis = Math.max(refillMillis, limit.capacity() / limit.refillPerMilli() + 1);
+        }
+        this.defaultLimit = tierLimits.get(properties.getDefaultTier());
+        if (defaultLimit == null) {
+            throw new IllegalArgumentException("Undefined default rate limit tier: " + properties.getDefaultTier());
+        }
+        this.accountTiers = Map.copyOf(properties.getAccounts());
+        this.idleMillis = Math.max(properties.getIdleTimeout().toMillis(), refillMillis);
+
+        Gauge.builder(METRIC_PREFIX + ".accounts", buckets, AccountTokenBuckets::size)
+                .description("Accounts currently holding a rate limit bucket")
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder(METRIC_PREFIX + ".evictions")
+                .description("Idle account buckets evicted")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean tryAcquire(String accountId, int permits) {
+        return buckets.tryAcquire(accountId, permits * MILLI_PERMITS, limitOf(accountId), nowMillis());
+    }
+
+    /**
+     * Evicts the buckets of idle accounts.
+     */
+    @Scheduled(fixedDelayString = "${rate-limiter.sweep-interval:30s}")
+    public void evictIdle() {
+        int evicted = buckets.evictIdle(nowMillis(), idleMillis);
+        evictionCounter.increment(evicted);
+        log.debug("evicted {} idle rate limit buckets", evicted);
+    }
+
+    /**
+     * Resolves the bucket limit of an account from its tier.
+     *
+     * @param accountId the ID of the account
+     * @return the capacity and refill rate of the account's tier, in milli-permits
+     */
+    public AccountTokenBuckets.Limit limitOf(String accountId) {
+        String tier = accountTiers.get(accountId);
+        if (tier == null) {
+            return defaultLimit;
+        }
+        return tierLimits.getOrDefault(tier, defaultLimit);
+    }
+
+    private long nowMillis() {
+        return (System.nanoTime() - originNanos) / 1_000_000;
     }
-}
\ No newline at end of file
+}
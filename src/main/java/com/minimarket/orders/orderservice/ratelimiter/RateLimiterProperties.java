@@ -0,0 +1,48 @@
+package com.minimarket.orders.orderservice.ratelimiter;
+
+import lombok.*;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-account rate limit configuration bound from {@code rate-limiter.*}.
+ * Every account is limited by the tier it is assigned to in {@code accounts}, or by
+ * {@code default-tier} when it is not listed. With {@code mode} set to {@code distributed} the
+ * limits are enforced across all nodes sharing the database rather than per node.
+ */
+@ConfigurationProperties(prefix = "rate-limiter")
+@Getter
+@Setter
+public class RateLimiterProperties {
+
+    private String mode = "local";
+    private String defaultTier = "standard";
+    private Map<String, Tier> tiers = new HashMap<>(Map.of("standard", new Tier(10, 10)));
+    private Map<String, String> accounts = new HashMap<>();
+    private Duration idleTimeout = Duration.ofMinutes(5);
+    private int stripes = 64;
+    private Distributed distributed = new Distributed();
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Tier {
+
+        private int permitsPerSecond;
+        private int burst;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Distributed {
+
+        private double leaseFraction = 0.2;
+        private Duration resyncInterval = Duration.ofSeconds(1);
+
+    }
+}
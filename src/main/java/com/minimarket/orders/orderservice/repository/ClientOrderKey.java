@@ -0,0 +1,11 @@
+package com.minimarket.orders.orderservice.repository;
+
+/**
+ * A client order ID that was already submitted, with the account it is unique in.
+ */
+public interface ClientOrderKey {
+
+    String getAccountId();
+
+    String getClientOrderId();
+}
@@ -3,5 +3,8 @@ package com.minimarket.orders.orderservice.repository;
 import com.minimarket.orders.orderservice.model.Execution;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface ExecutionRepository extends JpaRepository<Execution, Long> {
+    List<Execution> findByOrderId(Long orderId);
 }
@@ -0,0 +1,74 @@
+package com.minimarket.orders.orderservice.repository;
+
+import com.minimarket.orders.orderservice.ratelimiter.AccountTokenBuckets;
+import com.minimarket.orders.orderservice.ratelimiter.RateLimitStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Postgres-backed {@link RateLimitStore} over the {@code rate_limit_buckets} table.
+ * Each lease refills and debits the bucket in a single row-locking statement, using the database
+ * clock so that nodes with skewed clocks still share one refill schedule.
+ * <p>
+ * Leases and releases commit in a transaction of their own, even when the caller has one open: the
+ * bucket row is locked only for the statement, a debit survives the caller rolling back while the node
+ * keeps the tokens, and {@code now()} is the time of the lease.
+ */
+@Repository
+@ConditionalOnProperty(name = "rate-limiter.mode", havingValue = "distributed")
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final String INSERT_BUCKET = """
+            insert into rate_limit_buckets (account_id, tokens, refilled_at)
+            values (?, ?, now())
+            on conflict (account_id) do nothing""";
+
+    private static final String TAKE_TOKENS = """
+            with bucket as (
+                select account_id,
+                       least(?, tokens + floor(greatest(0, extract(epoch from (now() - refilled_at))) * 1000 * ?)::bigint)
+                           as available
+                from rate_limit_buckets
+                where account_id = ?
+                for update)
+            update rate_limit_buckets b
+            set tokens = bucket.available - least(bucket.available, ?),
+                refilled_at = greatest(b.refilled_at, now())
+            from bucket
+            where b.account_id = bucket.account_id
+            returning least(bucket.available, ?)""";
+
+    private static final String RETURN_TOKENS = """
+            update rate_limit_buckets
+            set tokens = least(?, tokens + ?)
+            where account_id = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public long lease(String accountId, long requested, AccountTokenBuckets.Limit limit) {
+        Long granted = transactionTemplate.execute(status -> {
+            jdbcTemplate.update(INSERT_BUCKET, accountId, limit.capacity());
+            return jdbcTemplate.queryForObject(TAKE_TOKENS, Long.class,
+                    limit.capacity(), limit.refillPerMilli(), accountId, requested, requested);
+        });
+        return granted == null ? 0 : granted;
+    }
+
+    @Override
+    public void release(String accountId, long tokens, AccountTokenBuckets.Limit limit) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.update(RETURN_TOKENS, limit.capacity(), tokens, accountId));
+    }
+}
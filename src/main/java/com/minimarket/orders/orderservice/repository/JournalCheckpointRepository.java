@@ -0,0 +1,54 @@
+package com.minimarket.orders.orderservice.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Postgres-backed replication checkpoints of order journals, over the {@code journal_checkpoints} table.
+ * Checkpoints are written through the transaction of the rows they cover, so a replicated batch
+ * and its checkpoint commit or roll back together.
+ */
+@Repository
+@ConditionalOnProperty(name = "orders.journal.enabled", havingValue = "true")
+public class JournalCheckpointRepository {
+
+    private static final String SELECT_POSITION = """
+            select position from journal_checkpoints where journal_id = ?""";
+
+    private static final String UPSERT_POSITION = """
+            insert into journal_checkpoints (journal_id, position, updated_at)
+            values (?, ?, now())
+            on conflict (journal_id) do update
+            set position = excluded.position,
+                updated_at = excluded.updated_at""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JournalCheckpointRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Loads the position a journal has been replicated up to.
+     *
+     * @param journalId the ID of the journal
+     * @return the replicated position, or {@code 0} if nothing has been replicated yet
+     */
+    public long load(String journalId) {
+        List<Long> positions = jdbcTemplate.queryForList(SELECT_POSITION, Long.class, journalId);
+        return positions.isEmpty() ? 0 : positions.get(0);
+    }
+
+    /**
+     * Records the position a journal has been replicated up to.
+     *
+     * @param journalId the ID of the journal
+     * @param position the replicated position
+     */
+    public void save(String journalId, long position) {
+        jdbcTemplate.update(UPSERT_POSITION, journalId, position);
+    }
+}
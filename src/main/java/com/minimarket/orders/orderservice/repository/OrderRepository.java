@@ -1,9 +1,64 @@
 package com.minimarket.orders.orderservice.repository;
 
 import com.minimarket.orders.orderservice.model.Order;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByAccountId(String accountId);
+
+    Optional<Order> findByIdAndCreatedAtGreaterThanEqualAndCreatedAtLessThan(
+            Long id, OffsetDateTime from, OffsetDateTime to);
+
+    List<Order> findByAccountIdOrderByCreatedAtAscIdAsc(String accountId, Limit limit);
+
+    List<Order> findByAccountIdAndIdGreaterThanOrderByIdAsc(String accountId, Long afterId, Limit limit);
+
+    @Query("""
+            select o from Order o
+            where o.accountId = :accountId and o.createdAt >= :createdAt
+              and (o.createdAt > :createdAt or o.id > :id)
+            order by o.createdAt, o.id""")
+    List<Order> findByAccountIdAfter(@Param("accountId") String accountId,
+                                     @Param("createdAt") OffsetDateTime createdAt,
+                                     @Param("id") Long id, Limit limit);
+
+    List<Order> findByAccountIdAndCreatedAtBetweenOrderByCreatedAtDesc(
+            String accountId, OffsetDateTime from, OffsetDateTime to, Limit limit);
+
+    List<Order> findByAccountIdAndStatusAndCreatedAtBetweenOrderByCreatedAtDesc(
+            String accountId, Order.Status status, OffsetDateTime from, OffsetDateTime to, Limit limit);
+
+    List<Order> findBySymbolAndCreatedAtBetweenOrderByCreatedAtDesc(
+            String symbol, OffsetDateTime from, OffsetDateTime to, Limit limit);
+
+    List<Order> findBySymbolAndSideAndCreatedAtBetweenOrderByCreatedAtDesc(
+            String symbol, Order.Side side, OffsetDateTime from, OffsetDateTime to, Limit limit);
+
+    @Query(value = """
+            select o.id, o.account_id as "accountId", o.symbol, o.side, o.limit_price as "limitPrice",
+                   o.quantity - coalesce((select sum(e.quantity) from executions e where e.order_id = o.id), 0) as remaining
+            from orders o
+            where o.order_type = 'LIMIT' and o.status = 'CREATED'
+            order by o.id""", nativeQuery = true)
+    List<RestingOrder> findRestingLimitOrders();
+
+    @Query(value = """
+            select c.account_id as "accountId", c.client_order_id as "clientOrderId"
+            from order_client_ids c
+            where c.account_id in (:accountIds) and c.client_order_id in (:clientOrderIds)""", nativeQuery = true)
+    List<ClientOrderKey> findClientOrderKeys(@Param("accountIds") Collection<String> accountIds,
+                                             @Param("clientOrderIds") Collection<String> clientOrderIds);
+
+    @Modifying
+    @Query("update Order o set o.status = :status where o.id in :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") Order.Status status);
 }
@@ -0,0 +1,54 @@
+package com.minimarket.orders.orderservice.repository;
+
+import com.minimarket.orders.orderservice.model.Order;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Reads order history through a server-side JDBC cursor.
+ * Rows are handed to the caller one at a time and never collected, so memory use does not depend
+ * on the size of the history. PgJDBC only uses a cursor inside a transaction, so callers must run
+ * in one.
+ */
+@Repository
+public class OrderStreamingRepository {
+
+    private static final String SELECT_BY_ACCOUNT = """
+            select id, account_id, symbol, side, quantity, order_type, limit_price, status, created_at, client_order_id
+            from orders where account_id = ? order by id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderStreamingRepository(DataSource dataSource,
+                                    @Value("${orders.stream.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public void streamByAccountId(String accountId, Consumer<Order> consumer) {
+        jdbcTemplate.query(SELECT_BY_ACCOUNT, (RowCallbackHandler) rs -> consumer.accept(toOrder(rs)), accountId);
+    }
+
+    private static Order toOrder(ResultSet rs) throws SQLException {
+        return Order.builder()
+                .id(rs.getLong("id"))
+                .accountId(rs.getString("account_id"))
+                .symbol(rs.getString("symbol"))
+                .side(Order.Side.valueOf(rs.getString("side")))
+                .quantity(rs.getInt("quantity"))
+                .type(Order.Type.valueOf(rs.getString("order_type")))
+                .limitPrice(rs.getBigDecimal("limit_price"))
+                .status(Order.Status.valueOf(rs.getString("status")))
+                .createdAt(rs.getObject("created_at", OffsetDateTime.class))
+                .clientOrderId(rs.getString("client_order_id"))
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.minimarket.orders.orderservice.repository;
+
+import java.time.OffsetDateTime;
+
+/**
+ * One row of the {@code table_partitions} table.
+ *
+ * @param partitionName the name of the partition table
+ * @param tableName the partitioned table it belongs or belonged to
+ * @param rangeStart the inclusive lower bound of the partition, or {@code null} if it has none
+ * @param rangeEnd the exclusive upper bound of the partition
+ * @param state whether the partition is attached, detached awaiting export, or archived
+ * @param archiveFile the archive the rows were exported to, once archived
+ * @param rowCount the number of rows archived, once archived
+ * @param minId the lowest order ID of an orders partition, once recorded; {@code 0} if it is empty
+ * @param maxId the highest order ID of an orders partition, once recorded; {@code 0} if it is empty
+ */
+public record PartitionRecord(String partitionName, String tableName, OffsetDateTime rangeStart,
+                              OffsetDateTime rangeEnd, State state, String archiveFile, Long rowCount,
+                              Long minId, Long maxId) {
+
+    public enum State {
+        ATTACHED, DETACHED, ARCHIVED
+    }
+}
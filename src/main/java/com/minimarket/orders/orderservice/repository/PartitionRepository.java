@@ -0,0 +1,211 @@
+package com.minimarket.orders.orderservice.repository;
+
+import com.minimarket.orders.orderservice.service.archive.ArchiveColumn;
+import com.minimarket.orders.orderservice.service.archive.PartitionedTable;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Postgres-backed partition maintenance of the {@link PartitionedTable}s, and the
+ * {@code table_partitions} bookkeeping of every partition created, detached or archived.
+ * Table and partition names are spliced into DDL, so they only ever come from {@link PartitionedTable}
+ * and from the names the partition manager derives from range bounds. Every method except the reads
+ * of the bookkeeping must run in a transaction, and mutating ones after {@link #lock()}.
+ */
+@Repository
+public class PartitionRepository {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final long LOCK_KEY = 0x6f72646572737061L;
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ssXXX");
+
+    private static final String SELECT_PARTITIONS = """
+            select partition_name, table_name, range_start, range_end, state, archive_file, row_count, min_id, max_id
+            from table_partitions""";
+
+    private static final String INSERT_PARTITION = """
+            insert into table_partitions (partition_name, table_name, range_start, range_end, state, updated_at)
+            values (?, ?, ?, ?, 'ATTACHED', now())""";
+
+    private static final String UPDATE_STATE = """
+            update table_partitions set state = ?, archive_file = ?, row_count = ?, updated_at = now()
+            where partition_name = ?""";
+
+    private static final RowMapper<PartitionRecord> PARTITION_MAPPER = (rs, rowNum) -> new PartitionRecord(
+            rs.getString("partition_name"),
+            rs.getString("table_name"),
+            rs.getObject("range_start", OffsetDateTime.class),
+            rs.getObject("range_end", OffsetDateTime.class),
+            PartitionRecord.State.valueOf(rs.getString("state")),
+            rs.getString("archive_file"),
+            rs.getObject("row_count", Long.class),
+            rs.getObject("min_id", Long.class),
+            rs.getObject("max_id", Long.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PartitionRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * Serializes partition maintenance across service instances until the transaction ends.
+     */
+    public void lock() {
+        jdbcTemplate.queryForList("select pg_advisory_xact_lock(?)", LOCK_KEY);
+    }
+
+    /**
+     * Loads the bookkeeping of one table's partitions.
+     *
+     * @param table the partitioned table
+     * @return its partitions, oldest first
+     */
+    public List<PartitionRecord> findByTable(PartitionedTable table) {
+        return jdbcTemplate.query(SELECT_PARTITIONS + " where table_name = ? order by range_end",
+                PARTITION_MAPPER, table.tableName());
+    }
+
+    /**
+     * Loads the bookkeeping of one table's archived partitions.
+     *
+     * @param table the partitioned table
+     * @return its archived partitions, newest first
+     */
+    public List<PartitionRecord> findArchived(PartitionedTable table) {
+        return jdbcTemplate.query(SELECT_PARTITIONS
+                        + " where table_name = ? and state = 'ARCHIVED' order by range_end desc",
+                PARTITION_MAPPER, table.tableName());
+    }
+
+    /**
+     * Loads the bookkeeping of one partition.
+     *
+     * @param partitionName the name of the partition
+     * @return the partition, or {@code null} if it is unknown
+     */
+    public PartitionRecord findByName(String partitionName) {
+        return DataAccessUtils.singleResult(jdbcTemplate.query(SELECT_PARTITIONS + " where partition_name = ?",
+                PARTITION_MAPPER, partitionName));
+    }
+
+    /**
+     * Creates and attaches a partition, moving the rows of its range out of the default partition first.
+     *
+     * @param table the partitioned table
+     * @param partitionName the name of the new partition
+     * @param start the inclusive lower bound of the partition
+     * @param end the exclusive upper bound of the partition
+     */
+    public void createPartition(PartitionedTable table, String partitionName, OffsetDateTime start,
+                                OffsetDateTime end) {
+        String parent = table.tableName();
+        String defaultPartition = parent + "_default";
+        String range = table.timeColumn() + " >= ? and " + table.timeColumn() + " < ?";
+        jdbcTemplate.execute("create table " + partitionName + " (like " + parent
+                + " including defaults including constraints)");
+        jdbcTemplate.update("insert into " + partitionName + " select * from " + defaultPartition
+                + " where " + range, start, end);
+        jdbcTemplate.update("delete from " + defaultPartition + " where " + range, start, end);
+        jdbcTemplate.execute("alter table " + parent + " attach partition " + partitionName
+                + " for values from ('" + bound(start) + "') to ('" + bound(end) + "')");
+        jdbcTemplate.update(INSERT_PARTITION, partitionName, parent, start, end);
+    }
+
+    /**
+     * Returns whether an orders partition still holds limit orders resting in the order book.
+     *
+     * @param partitionName the name of an orders partition
+     * @return {@code true} if any order in it is an open limit order
+     */
+    public boolean hasRestingLimitOrders(String partitionName) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("select exists (select 1 from " + partitionName
+                + " where order_type = 'LIMIT' and status = 'CREATED')", Boolean.class));
+    }
+
+    /**
+     * Returns whether an executions partition still holds fills of limit orders resting in the order
+     * book, which the remaining quantity of those orders is computed from.
+     *
+     * @param partitionName the name of an executions partition
+     * @return {@code true} if any execution in it belongs to an open limit order
+     */
+    public boolean hasExecutionsOfRestingLimitOrders(String partitionName) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("select exists (select 1 from orders o"
+                + " where o.order_type = 'LIMIT' and o.status = 'CREATED'"
+                + " and exists (select 1 from " + partitionName + " e where e.order_id = o.id))", Boolean.class));
+    }
+
+    /**
+     * Records the lowest and highest order ID of an orders partition, {@code 0} for both if it is empty.
+     *
+     * @param partitionName the name of an orders partition
+     */
+    public void recordIdRange(String partitionName) {
+        jdbcTemplate.update("update table_partitions set (min_id, max_id, updated_at) = "
+                + "(select coalesce(min(id), 0), coalesce(max(id), 0), now() from " + partitionName + ") "
+                + "where partition_name = ?", partitionName);
+    }
+
+    /**
+     * Detaches a partition, taking its rows out of every query on the partitioned table.
+     *
+     * @param table the partitioned table
+     * @param partitionName the name of the partition
+     */
+    public void detachPartition(PartitionedTable table, String partitionName) {
+        jdbcTemplate.execute("alter table " + table.tableName() + " detach partition " + partitionName);
+        jdbcTemplate.update(UPDATE_STATE, PartitionRecord.State.DETACHED.name(), null, null, partitionName);
+    }
+
+    /**
+     * Streams the rows of a detached partition in the order of its time column, through a cursor.
+     *
+     * @param table the table the partition belonged to
+     * @param partitionName the name of the partition
+     * @param handler receives each row, with the columns of {@link PartitionedTable#columns()}
+     */
+    public void forEachRow(PartitionedTable table, String partitionName, RowCallbackHandler handler) {
+        String columns = table.columns().stream().map(ArchiveColumn::name).collect(Collectors.joining(", "));
+        jdbcTemplate.query("select " + columns + " from " + partitionName + " order by " + table.timeColumn(),
+                handler);
+    }
+
+    /**
+     * Drops an exported partition and records where its rows were archived. Dropping an orders partition
+     * also forgets the client order IDs of its range, so they can no longer be used to detect duplicates.
+     *
+     * @param table the table the partition belonged to
+     * @param partition the partition
+     * @param archiveFile the archive its rows were exported to
+     * @param rowCount the number of rows exported
+     */
+    public void dropArchived(PartitionedTable table, PartitionRecord partition, String archiveFile, long rowCount) {
+        jdbcTemplate.execute("drop table " + partition.partitionName());
+        jdbcTemplate.update(UPDATE_STATE, PartitionRecord.State.ARCHIVED.name(), archiveFile, rowCount,
+                partition.partitionName());
+        if (table == PartitionedTable.ORDERS) {
+            if (partition.rangeStart() == null) {
+                jdbcTemplate.update("delete from order_client_ids where created_at < ?", partition.rangeEnd());
+            } else {
+                jdbcTemplate.update("delete from order_client_ids where created_at >= ? and created_at < ?",
+                        partition.rangeStart(), partition.rangeEnd());
+            }
+        }
+    }
+
+    private static String bound(OffsetDateTime time) {
+        return BOUND_FORMAT.format(time.withOffsetSameInstant(ZoneOffset.UTC));
+    }
+}
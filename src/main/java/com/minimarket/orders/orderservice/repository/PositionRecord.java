@@ -0,0 +1,17 @@
+package com.minimarket.orders.orderservice.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of the {@code positions} table.
+ *
+ * @param accountId the account holding the position
+ * @param symbol the symbol of the position
+ * @param quantity the net quantity, negative when short
+ * @param costBasis the total cost of the open quantity
+ * @param realizedPnl the profit or loss realized by closing quantity
+ * @param lastExecutionId the highest execution ID applied to the position
+ */
+public record PositionRecord(String accountId, String symbol, long quantity, BigDecimal costBasis,
+                             BigDecimal realizedPnl, long lastExecutionId) {
+}
@@ -0,0 +1,155 @@
+package com.minimarket.orders.orderservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Postgres-backed checkpoints of the position projection, over the {@code positions} and
+ * {@code position_checkpoint} tables, and the execution history the projection is rebuilt from. Executions are read through a JDBC cursor, which
+ * PgJDBC only uses inside a transaction.
+ */
+@Repository
+public class PositionRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SELECT_POSITIONS = """
+            select account_id, symbol, quantity, cost_basis, realized_pnl, last_execution_id
+            from positions""";
+
+    private static final String SELECT_EXECUTIONS_AFTER = """
+            select e.id, e.executed_at, o.account_id, o.symbol, o.side, e.price, e.quantity
+            from executions e
+            join orders o on o.id = e.order_id
+            where e.id > ?
+            order by e.id""";
+
+    private static final String SELECT_EXECUTIONS_EXECUTED_AFTER = """
+            select e.id, e.executed_at, o.account_id, o.symbol, o.side, e.price, e.quantity
+            from executions e
+            join orders o on o.id = e.order_id
+            where e.executed_at > ?
+            order by e.executed_at, e.id""";
+
+    private static final String SELECT_EXECUTED_UNTIL = """
+            select executed_until
+            from position_checkpoint""";
+
+    private static final String UPSERT_EXECUTED_UNTIL = """
+            insert into position_checkpoint (id, executed_until, updated_at)
+            values (1, ?, now())
+            on conflict (id) do update
+            set executed_until = excluded.executed_until,
+                updated_at = excluded.updated_at""";
+
+    private static final String UPSERT_POSITION = """
+            insert into positions (account_id, symbol, quantity, cost_basis, realized_pnl, last_execution_id, updated_at)
+            values (?, ?, ?, ?, ?, ?, now())
+            on conflict (account_id, symbol) do update
+            set quantity = excluded.quantity,
+                cost_basis = excluded.cost_basis,
+                realized_pnl = excluded.realized_pnl,
+                last_execution_id = excluded.last_execution_id,
+                updated_at = excluded.updated_at""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PositionRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * Loads every checkpointed position.
+     *
+     * @return the positions
+     */
+    public List<PositionRecord> findAll() {
+        return jdbcTemplate.query(SELECT_POSITIONS, (rs, rowNum) -> new PositionRecord(
+                rs.getString("account_id"),
+                rs.getString("symbol"),
+                rs.getLong("quantity"),
+                rs.getBigDecimal("cost_basis"),
+                rs.getBigDecimal("realized_pnl"),
+                rs.getLong("last_execution_id")));
+    }
+
+    /**
+     * Returns the execution time up to which the checkpointed positions contain every execution.
+     *
+     * @return the time, or {@code null} if none was written yet
+     */
+    public OffsetDateTime findExecutedUntil() {
+        List<OffsetDateTime> times = jdbcTemplate.query(SELECT_EXECUTED_UNTIL,
+                (rs, rowNum) -> rs.getObject("executed_until", OffsetDateTime.class));
+        return times.isEmpty() ? null : times.get(0);
+    }
+
+    /**
+     * Records the execution time up to which the checkpointed positions contain every execution.
+     *
+     * @param executedUntil the time
+     */
+    public void saveExecutedUntil(OffsetDateTime executedUntil) {
+        jdbcTemplate.update(UPSERT_EXECUTED_UNTIL, executedUntil);
+    }
+
+    /**
+     * Streams the executions with a higher ID than the given one, in ID order, through a cursor.
+     *
+     * @param executionId the ID to start after
+     * @param consumer receives each execution
+     */
+    public void forEachExecutionAfter(long executionId, ExecutionConsumer consumer) {
+        jdbcTemplate.query(SELECT_EXECUTIONS_AFTER, rowHandler(consumer), executionId);
+    }
+
+    /**
+     * Streams the executions executed after the given time, in execution time and then ID order,
+     * through a cursor. Only the executions partitions from that time on are read.
+     *
+     * @param executedAt the time to start after
+     * @param consumer receives each execution
+     */
+    public void forEachExecutionExecutedAfter(OffsetDateTime executedAt, ExecutionConsumer consumer) {
+        jdbcTemplate.query(SELECT_EXECUTIONS_EXECUTED_AFTER, rowHandler(consumer), executedAt);
+    }
+
+    /**
+     * Inserts or replaces positions in one batch.
+     *
+     * @param positions the positions to write
+     */
+    public void saveAll(List<PositionRecord> positions) {
+        jdbcTemplate.batchUpdate(UPSERT_POSITION, positions, positions.size(), (statement, position) -> {
+            statement.setString(1, position.accountId());
+            statement.setString(2, position.symbol());
+            statement.setLong(3, position.quantity());
+            statement.setBigDecimal(4, position.costBasis());
+            statement.setBigDecimal(5, position.realizedPnl());
+            statement.setLong(6, position.lastExecutionId());
+        });
+    }
+
+    private static RowCallbackHandler rowHandler(ExecutionConsumer consumer) {
+        return rs -> consumer.accept(rs.getLong("id"), rs.getObject("executed_at", OffsetDateTime.class),
+                rs.getString("account_id"), rs.getString("symbol"), rs.getString("side"),
+                rs.getBigDecimal("price"), rs.getInt("quantity"));
+    }
+
+    /**
+     * Receives the executions read by {@link #forEachExecutionAfter} and {@link #forEachExecutionExecutedAfter}.
+     */
+    @FunctionalInterface
+    public interface ExecutionConsumer {
+
+        void accept(long executionId, OffsetDateTime executedAt, String accountId, String symbol, String side,
+                    BigDecimal price, int quantity);
+    }
+}
@@ -0,0 +1,21 @@
+package com.minimarket.orders.orderservice.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * A limit order still open in the order book, with the quantity not yet covered by executions.
+ */
+public interface RestingOrder {
+
+    Long getId();
+
+    String getAccountId();
+
+    String getSymbol();
+
+    String getSide();
+
+    BigDecimal getLimitPrice();
+
+    Long getRemaining();
+}
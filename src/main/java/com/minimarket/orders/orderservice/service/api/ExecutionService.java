@@ -3,7 +3,11 @@ package com.minimarket.orders.orderservice.service.api;
 import com.minimarket.orders.orderservice.model.Execution;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public interface ExecutionService {
     void saveExecution(Execution execution);
+
+    void saveExecutions(List<Execution> executions);
 }
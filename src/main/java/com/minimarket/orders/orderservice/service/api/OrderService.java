@@ -1,15 +1,27 @@
 package com.minimarket.orders.orderservice.service.api;
 
+import com.minimarket.orders.orderservice.dto.OrderPage;
+import com.minimarket.orders.orderservice.dto.OrderQuery;
+import com.minimarket.orders.orderservice.dto.OrderResult;
 import com.minimarket.orders.orderservice.dto.PriceResponse;
 import com.minimarket.orders.orderservice.model.Order;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface OrderService {
 
     PriceResponse saveOrder(Order order);
 
+    List<OrderResult> saveOrders(List<Order> orders);
+
     Order getOrderById(Long id);
 
     List<Order> getOrdersByAccountId(String accountId);
+
+    OrderPage getOrdersPage(String accountId, String cursor, int limit);
+
+    void streamOrdersByAccountId(String accountId, Consumer<Order> consumer);
+
+    List<Order> searchOrders(OrderQuery query);
 }
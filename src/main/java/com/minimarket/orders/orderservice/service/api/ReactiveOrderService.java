@@ -0,0 +1,15 @@
+package com.minimarket.orders.orderservice.service.api;
+
+import com.minimarket.orders.orderservice.dto.PriceResponse;
+import com.minimarket.orders.orderservice.model.Order;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveOrderService {
+
+    Mono<PriceResponse> saveOrder(Order order);
+
+    Mono<Order> getOrderById(Long id);
+
+    Flux<Order> getOrdersByAccountId(String accountId);
+}
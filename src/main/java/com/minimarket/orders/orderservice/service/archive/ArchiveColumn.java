@@ -0,0 +1,26 @@
+package com.minimarket.orders.orderservice.service.archive;
+
+/**
+ * One column of a columnar archive.
+ *
+ * @param name the column name, as in the archived table
+ * @param type how the column is encoded
+ */
+public record ArchiveColumn(String name, Type type) {
+
+    /**
+     * Column encodings and the Java type of their values.
+     */
+    public enum Type {
+        /** Non-null {@code Long}, delta-encoded. */
+        LONG,
+        /** Nullable {@code Integer}. */
+        INT,
+        /** Nullable {@code BigDecimal} with at most six decimal places, stored as ticks. */
+        DECIMAL,
+        /** Non-null {@code OffsetDateTime}, delta-encoded microseconds since the epoch, read back in UTC. */
+        TIMESTAMP,
+        /** Nullable {@code String}, dictionary-encoded. */
+        STRING
+    }
+}
@@ -0,0 +1,200 @@
+package com.minimarket.orders.orderservice.service.archive;
+
+import com.minimarket.orders.orderservice.service.matching.OrderBook;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static com.minimarket.orders.orderservice.service.archive.ColumnarArchiveWriter.*;
+
+/**
+ * Reads rows back from an archive written by {@link ColumnarArchiveWriter}.
+ * A scan skips row groups whose time range misses the one asked for without decompressing them,
+ * and row groups whose dictionary of the filter column lacks the value after decompressing that one
+ * column. Only row groups with a matching row have their remaining columns decompressed.
+ */
+public final class ColumnarArchiveReader {
+
+    private ColumnarArchiveReader() {
+    }
+
+    /**
+     * Reads the rows whose time column lies within a range and whose string column equals a value.
+     *
+     * @param file the archive
+     * @param from the inclusive lower bound of the time column
+     * @param to the inclusive upper bound of the time column
+     * @param filterColumn the name of the {@link ArchiveColumn.Type#STRING} column to filter on
+     * @param value the value the filter column must have
+     * @param consumer receives each matching row, one value per column in archive order
+     * @return the number of rows matched
+     * @throws IOException if the archive cannot be read or is not an archive
+     * @throws IllegalArgumentException if the archive has no string column {@code filterColumn}
+     */
+    public static long scan(Path file, OffsetDateTime from, OffsetDateTime to, String filterColumn, String value,
+                            Consumer<Object[]> consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a columnar archive of version " + VERSION + ": " + file);
+            }
+            List<ArchiveColumn> columns = new ArrayList<>();
+            int columnCount = in.readInt();
+            for (int column = 0; column < columnCount; column++) {
+                columns.add(new ArchiveColumn(in.readUTF(), ArchiveColumn.Type.values()[in.readUnsignedByte()]));
+            }
+            int timeColumn = in.readInt();
+            int filter = filterIndex(columns, filterColumn);
+            long fromMicros = toMicros(from);
+            long untilMicros = toMicros(to);
+
+            long matched = 0;
+            byte[][] chunks = new byte[columnCount][];
+            for (int rows = in.readInt(); rows > 0; rows = in.readInt()) {
+                long minTime = in.readLong();
+                long maxTime = in.readLong();
+                boolean inRange = maxTime >= fromMicros && minTime <= untilMicros;
+                for (int column = 0; column < columnCount; column++) {
+                    int length = in.readInt();
+                    if (inRange) {
+                        chunks[column] = in.readNBytes(length);
+                    } else {
+                        in.skipNBytes(length);
+                    }
+                }
+                if (inRange) {
+                    matched += scanRowGroup(columns, chunks, rows, timeColumn, fromMicros, untilMicros, filter, value,
+                            consumer);
+                }
+            }
+            return matched;
+        }
+    }
+
+    private static int scanRowGroup(List<ArchiveColumn> columns, byte[][] chunks, int rows, int timeColumn,
+                                    long fromMicros, long untilMicros, int filter, String value,
+                                    Consumer<Object[]> consumer) throws IOException {
+        int code = NULL_CODE;
+        int[] codes = new int[rows];
+        try (DataInputStream chunk = open(chunks[filter])) {
+            int dictionarySize = chunk.readInt();
+            for (int entry = 0; entry < dictionarySize; entry++) {
+                if (chunk.readUTF().equals(value)) {
+                    code = entry;
+                }
+            }
+            if (code == NULL_CODE) {
+                return 0;
+            }
+            for (int row = 0; row < rows; row++) {
+                codes[row] = chunk.readInt();
+            }
+        }
+        long[] times = new long[rows];
+        try (DataInputStream chunk = open(chunks[timeColumn])) {
+            long previous = 0;
+            for (int row = 0; row < rows; row++) {
+                previous += chunk.readLong();
+                times[row] = previous;
+            }
+        }
+        boolean[] matches = new boolean[rows];
+        int matched = 0;
+        for (int row = 0; row < rows; row++) {
+            if (codes[row] == code && times[row] >= fromMicros && times[row] <= untilMicros) {
+                matches[row] = true;
+                matched++;
+            }
+        }
+        if (matched == 0) {
+            return 0;
+        }
+        Object[][] values = new Object[columns.size()][];
+        for (int column = 0; column < columns.size(); column++) {
+            values[column] = decode(columns.get(column).type(), chunks[column], rows);
+        }
+        for (int row = 0; row < rows; row++) {
+            if (matches[row]) {
+                Object[] result = new Object[columns.size()];
+                for (int column = 0; column < columns.size(); column++) {
+                    result[column] = values[column][row];
+                }
+                consumer.accept(result);
+            }
+        }
+        return matched;
+    }
+
+    private static Object[] decode(ArchiveColumn.Type type, byte[] bytes, int rows) throws IOException {
+        Object[] values = new Object[rows];
+        try (DataInputStream chunk = open(bytes)) {
+            switch (type) {
+                case LONG -> {
+                    long previous = 0;
+                    for (int row = 0; row < rows; row++) {
+                        previous += chunk.readLong();
+                        values[row] = previous;
+                    }
+                }
+                case TIMESTAMP -> {
+                    long previous = 0;
+                    for (int row = 0; row < rows; row++) {
+                        previous += chunk.readLong();
+                        values[row] = fromMicros(previous);
+                    }
+                }
+                case INT -> {
+                    for (int row = 0; row < rows; row++) {
+                        int value = chunk.readInt();
+                        values[row] = value == NULL_INT ? null : value;
+                    }
+                }
+                case DECIMAL -> {
+                    for (int row = 0; row < rows; row++) {
+                        long ticks = chunk.readLong();
+                        values[row] = ticks == NULL_LONG ? null : OrderBook.toPrice(ticks);
+                    }
+                }
+                case STRING -> {
+                    String[] dictionary = new String[chunk.readInt()];
+                    for (int entry = 0; entry < dictionary.length; entry++) {
+                        dictionary[entry] = chunk.readUTF();
+                    }
+                    for (int row = 0; row < rows; row++) {
+                        int code = chunk.readInt();
+                        values[row] = code == NULL_CODE ? null : dictionary[code];
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    private static int filterIndex(List<ArchiveColumn> columns, String name) {
+        for (int column = 0; column < columns.size(); column++) {
+            if (columns.get(column).name().equals(name) && columns.get(column).type() == ArchiveColumn.Type.STRING) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("No string column " + name + " in archive");
+    }
+
+    private static DataInputStream open(byte[] chunk) throws IOException {
+        return new DataInputStream(new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(chunk))));
+    }
+
+    private static OffsetDateTime fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L)
+                .atOffset(ZoneOffset.UTC);
+    }
+}
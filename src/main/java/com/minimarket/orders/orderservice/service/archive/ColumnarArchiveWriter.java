@@ -0,0 +1,193 @@
+package com.minimarket.orders.orderservice.service.archive;
+
+import com.minimarket.orders.orderservice.service.matching.OrderBook;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes rows as a columnar archive. Rows are buffered into row groups; each row group is written as
+ * its row count, the range of its time column, and one separately gzip-compressed chunk per column,
+ * so that a reader can skip row groups outside the time range it asks for and decompress only the
+ * columns it filters on until a row matches.
+ * <pre>
+ * file      = magic:int version:int columnCount:int (name:utf type:byte)* timeColumn:int rowGroup* 0:int
+ * rowGroup  = rowCount:int minTime:long maxTime:long (chunkLength:int gzip(chunk))*
+ * chunk     = LONG, TIMESTAMP: rowCount deltas:long
+ *             INT: rowCount values:int, {@link Integer#MIN_VALUE} for null
+ *             DECIMAL: rowCount ticks:long, {@link Long#MIN_VALUE} for null
+ *             STRING: dictionarySize:int entry:utf* rowCount codes:int, -1 for null
+ * </pre>
+ * Not thread-safe.
+ */
+public class ColumnarArchiveWriter implements Closeable {
+
+    static final int MAGIC = 0x4f434f4c;
+    static final int VERSION = 1;
+    static final int NULL_INT = Integer.MIN_VALUE;
+    static final long NULL_LONG = Long.MIN_VALUE;
+    static final int NULL_CODE = -1;
+
+    private final DataOutputStream out;
+    private final List<ArchiveColumn> columns;
+    private final int timeColumn;
+    private final Object[][] rowGroup;
+    private int size;
+    private long rows;
+
+    /**
+     * Writes the header of an archive.
+     *
+     * @param out the stream the archive is written to, closed with this writer
+     * @param table the table whose rows are archived, in the order of its {@link PartitionedTable#columns()}
+     * @param rowGroupSize the number of rows per row group
+     * @throws IOException if the header cannot be written
+     */
+    public ColumnarArchiveWriter(OutputStream out, PartitionedTable table, int rowGroupSize) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.columns = table.columns();
+        this.timeColumn = table.columnIndex(table.timeColumn());
+        this.rowGroup = new Object[columns.size()][rowGroupSize];
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+        this.out.writeInt(columns.size());
+        for (ArchiveColumn column : columns) {
+            this.out.writeUTF(column.name());
+            this.out.writeByte(column.type().ordinal());
+        }
+        this.out.writeInt(timeColumn);
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param row one value per column, of the Java type of its {@link ArchiveColumn.Type}
+     * @throws IOException if a full row group cannot be written
+     */
+    public void append(Object[] row) throws IOException {
+        for (int column = 0; column < row.length; column++) {
+            rowGroup[column][size] = row[column];
+        }
+        if (++size == rowGroup[0].length) {
+            writeRowGroup();
+        }
+    }
+
+    /**
+     * Returns the number of rows appended so far.
+     *
+     * @return the row count
+     */
+    public long rows() {
+        return rows + size;
+    }
+
+    /**
+     * Writes the last row group and the end marker, and closes the stream.
+     *
+     * @throws IOException if the archive cannot be completed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (size > 0) {
+                writeRowGroup();
+            }
+            out.writeInt(0);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeRowGroup() throws IOException {
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        for (int row = 0; row < size; row++) {
+            long time = toMicros((OffsetDateTime) rowGroup[timeColumn][row]);
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+        }
+        out.writeInt(size);
+        out.writeLong(minTime);
+        out.writeLong(maxTime);
+        for (int column = 0; column < columns.size(); column++) {
+            byte[] chunk = encode(columns.get(column).type(), rowGroup[column]);
+            out.writeInt(chunk.length);
+            out.write(chunk);
+        }
+        for (Object[] values : rowGroup) {
+            Arrays.fill(values, 0, size, null);
+        }
+        rows += size;
+        size = 0;
+    }
+
+    private byte[] encode(ArchiveColumn.Type type, Object[] values) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream chunk = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            switch (type) {
+                case LONG -> {
+                    long previous = 0;
+                    for (int row = 0; row < size; row++) {
+                        long value = (Long) values[row];
+                        chunk.writeLong(value - previous);
+                        previous = value;
+                    }
+                }
+                case TIMESTAMP -> {
+                    long previous = 0;
+                    for (int row = 0; row < size; row++) {
+                        long value = toMicros((OffsetDateTime) values[row]);
+                        chunk.writeLong(value - previous);
+                        previous = value;
+                    }
+                }
+                case INT -> {
+                    for (int row = 0; row < size; row++) {
+                        chunk.writeInt(values[row] == null ? NULL_INT : (Integer) values[row]);
+                    }
+                }
+                case DECIMAL -> {
+                    for (int row = 0; row < size; row++) {
+                        chunk.writeLong(values[row] == null ? NULL_LONG : OrderBook.toTicks((BigDecimal) values[row]));
+                    }
+                }
+                case STRING -> {
+                    Map<String, Integer> dictionary = new HashMap<>();
+                    int[] codes = new int[size];
+                    for (int row = 0; row < size; row++) {
+                        String value = (String) values[row];
+                        codes[row] = value == null ? NULL_CODE
+                                : dictionary.computeIfAbsent(value, key -> dictionary.size());
+                    }
+                    String[] entries = new String[dictionary.size()];
+                    dictionary.forEach((value, code) -> entries[code] = value);
+                    chunk.writeInt(entries.length);
+                    for (String entry : entries) {
+                        chunk.writeUTF(entry);
+                    }
+                    for (int code : codes) {
+                        chunk.writeInt(code);
+                    }
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static long toMicros(OffsetDateTime time) {
+        Instant instant = time.toInstant();
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+}
@@ -0,0 +1,120 @@
+package com.minimarket.orders.orderservice.service.archive;
+
+import com.minimarket.orders.orderservice.dto.OrderQuery;
+import com.minimarket.orders.orderservice.exception.InvalidOrderQueryException;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.repository.PartitionRecord;
+import com.minimarket.orders.orderservice.repository.PartitionRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Cold order history: searches the orders of archived partitions, read from their columnar archives.
+ * Takes the same criteria as {@code GET /orders/search}. Archives are scanned newest first, and only
+ * those whose range overlaps the searched one; since ranges do not overlap, scanning stops at the first
+ * archive after which enough orders were found.
+ */
+@Service
+public class OrderArchive {
+
+    private static final OffsetDateTime SEARCH_EPOCH = OffsetDateTime.parse("1970-01-01T00:00:00Z");
+
+    private static final int ID = PartitionedTable.ORDERS.columnIndex("id");
+    private static final int ACCOUNT_ID = PartitionedTable.ORDERS.columnIndex("account_id");
+    private static final int SYMBOL = PartitionedTable.ORDERS.columnIndex("symbol");
+    private static final int SIDE = PartitionedTable.ORDERS.columnIndex("side");
+    private static final int QUANTITY = PartitionedTable.ORDERS.columnIndex("quantity");
+    private static final int ORDER_TYPE = PartitionedTable.ORDERS.columnIndex("order_type");
+    private static final int LIMIT_PRICE = PartitionedTable.ORDERS.columnIndex("limit_price");
+    private static final int STATUS = PartitionedTable.ORDERS.columnIndex("status");
+    private static final int CREATED_AT = PartitionedTable.ORDERS.columnIndex("created_at");
+    private static final int CLIENT_ORDER_ID = PartitionedTable.ORDERS.columnIndex("client_order_id");
+
+    private final PartitionRepository partitionRepository;
+
+    public OrderArchive(PartitionRepository partitionRepository) {
+        this.partitionRepository = partitionRepository;
+    }
+
+    /**
+     * Searches archived orders by account, optionally narrowed by status, or by symbol, optionally
+     * narrowed by side, within an optional creation time range.
+     *
+     * @param query the search criteria, including the maximum number of orders to return
+     * @return the matching archived orders, newest first
+     * @throws InvalidOrderQueryException if neither an account nor a symbol is given, or if the
+     *         criteria mix account and symbol filters
+     * @throws UncheckedIOException if an archive cannot be read
+     */
+    public List<Order> search(OrderQuery query) {
+        Objects.requireNonNull(query, "Query cannot be null");
+        String column;
+        String value;
+        if (query.getAccountId() != null) {
+            if (query.getSymbol() != null || query.getSide() != null) {
+                throw new InvalidOrderQueryException("Account searches can only be narrowed by status and time");
+            }
+            column = "account_id";
+            value = query.getAccountId();
+        } else if (query.getSymbol() != null) {
+            if (query.getStatus() != null) {
+                throw new InvalidOrderQueryException("Symbol searches can only be narrowed by side and time");
+            }
+            column = "symbol";
+            value = query.getSymbol();
+        } else {
+            throw new InvalidOrderQueryException("Either accountId or symbol is required");
+        }
+        OffsetDateTime from = query.getFrom() == null ? SEARCH_EPOCH : query.getFrom();
+        OffsetDateTime to = query.getTo() == null ? OffsetDateTime.now() : query.getTo();
+        int limit = query.getLimit();
+
+        List<Order> found = new ArrayList<>();
+        for (PartitionRecord partition : partitionRepository.findArchived(PartitionedTable.ORDERS)) {
+            if (!partition.rangeEnd().isAfter(from)
+                    || (partition.rangeStart() != null && partition.rangeStart().isAfter(to))) {
+                continue;
+            }
+            try {
+                ColumnarArchiveReader.scan(Path.of(partition.archiveFile()), from, to, column, value, row -> {
+                    Order order = toOrder(row);
+                    if ((query.getStatus() == null || query.getStatus() == order.getStatus())
+                            && (query.getSide() == null || query.getSide() == order.getSide())) {
+                        found.add(order);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Reading archive " + partition.archiveFile() + " failed", e);
+            }
+            if (found.size() >= limit) {
+                break;
+            }
+        }
+        found.sort(Comparator.comparing(Order::getCreatedAt).reversed());
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    private static Order toOrder(Object[] row) {
+        return Order.builder()
+                .id((Long) row[ID])
+                .accountId((String) row[ACCOUNT_ID])
+                .symbol((String) row[SYMBOL])
+                .side(Order.Side.valueOf((String) row[SIDE]))
+                .quantity((Integer) row[QUANTITY])
+                .type(Order.Type.valueOf((String) row[ORDER_TYPE]))
+                .limitPrice((BigDecimal) row[LIMIT_PRICE])
+                .status(Order.Status.valueOf((String) row[STATUS]))
+                .createdAt((OffsetDateTime) row[CREATED_AT])
+                .clientOrderId((String) row[CLIENT_ORDER_ID])
+                .build();
+    }
+}
@@ -0,0 +1,367 @@
+package com.minimarket.orders.orderservice.service.archive;
+
+import com.minimarket.orders.orderservice.repository.PartitionRecord;
+import com.minimarket.orders.orderservice.repository.PartitionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Maintains the time partitions of {@code orders} and {@code executions}. Every
+ * {@code partitions.maintenance-interval}, and once on startup, it creates the partitions covering the
+ * next {@code partitions.premake} periods of {@code partitions.period} (days or months, in UTC), and
+ * archives the partitions that ended more than {@code partitions.retention} ago.
+ * <p>
+ * Archiving a partition detaches it, exports its rows to a {@link ColumnarArchiveWriter columnar
+ * archive} in {@code partitions.archive-directory}, and drops it; {@link OrderArchive} still answers
+ * queries on archived orders. Each step is recorded in {@code table_partitions}, so an archive
+ * interrupted after detaching is resumed by the next run. An orders partition holding limit orders that
+ * still rest in the book is kept until they are filled, and so is an executions partition holding fills
+ * of such orders, since their remaining quantity is computed from them. Maintenance runs under a
+ * database advisory lock, so any number of service instances can run it.
+ * <p>
+ * Orders are partitioned by creation time but looked up by ID, which says nothing about the partition.
+ * Once an orders partition ended {@code partitions.id-range-delay} ago, its lowest and highest order ID
+ * are recorded, and {@link #creationWindow(long)} maps an ID to the creation times of the partitions
+ * that may hold it. IDs are allocated in blocks and orders may be inserted after their partition
+ * ended, for example when replicated from the journal, so the window is a hint: a lookup within it
+ * that finds nothing must be repeated without it.
+ */
+@Component
+@Slf4j
+public class PartitionManager implements SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "partitions";
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final String ARCHIVE_SUFFIX = ".ocol.gz";
+    private static final OffsetDateTime EPOCH = OffsetDateTime.parse("1970-01-01T00:00:00Z");
+
+    private final PartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ChronoUnit period;
+    private final int premake;
+    private final Duration retention;
+    private final Duration idRangeDelay;
+    private final Path archiveDirectory;
+    private final int rowGroupSize;
+    private final Counter createdCounter;
+    private final Counter archivedCounter;
+
+    private volatile List<PartitionRecord> orderPartitions = List.of();
+    private volatile boolean running;
+
+    /**
+     * Constructs a {@code PartitionManager} and registers its metrics.
+     *
+     * @param partitionRepository the repository partitions are created, detached and dropped through
+     * @param transactionManager the transaction manager each maintenance step runs in
+     * @param meterRegistry the registry created and archived partitions are counted in
+     * @param period the length of a partition, {@code DAYS} or {@code MONTHS}
+     * @param premake how many periods after the current one to create partitions for
+     * @param retention how long after its end a partition is archived; zero keeps every partition
+     * @param idRangeDelay how long after its end the order ID range of an orders partition is recorded
+     * @param archiveDirectory the directory archives are written to
+     * @param rowGroupSize the number of rows per archive row group
+     * @throws IllegalArgumentException if the period is neither days nor months
+     */
+    public PartitionManager(PartitionRepository partitionRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${partitions.period:DAYS}") ChronoUnit period,
+                            @Value("${partitions.premake:7}") int premake,
+                            @Value("${partitions.retention:90d}") Duration retention,
+                            @Value("${partitions.id-range-delay:1d}") Duration idRangeDelay,
+                            @Value("${partitions.archive-directory:data/archive}") Path archiveDirectory,
+                            @Value("${partitions.row-group-size:65536}") int rowGroupSize) {
+        if (period != ChronoUnit.DAYS && period != ChronoUnit.MONTHS) {
+            throw new IllegalArgumentException("Partition period must be DAYS or MONTHS, not " + period);
+        }
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.period = period;
+        this.premake = premake;
+        this.retention = retention;
+        this.idRangeDelay = idRangeDelay;
+        this.archiveDirectory = archiveDirectory;
+        this.rowGroupSize = rowGroupSize;
+        this.createdCounter = Counter.builder(METRIC_PREFIX + ".created")
+                .description("Partitions created ahead of time")
+                .register(meterRegistry);
+        this.archivedCounter = Counter.builder(METRIC_PREFIX + ".archived")
+                .description("Partitions exported to archives and dropped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates upcoming partitions, records the order ID ranges of ended ones and archives expired ones.
+     * A failure is logged and retried by the next run.
+     */
+    @Scheduled(fixedDelayString = "${partitions.maintenance-interval:1h}",
+            initialDelayString = "${partitions.maintenance-interval:1h}")
+    public void maintain() {
+        for (PartitionedTable table : PartitionedTable.values()) {
+            try {
+                createPartitions(table);
+                if (table == PartitionedTable.ORDERS) {
+                    recordIdRanges();
+                }
+                archiveExpired(table);
+            } catch (RuntimeException e) {
+                log.warn("maintaining partitions of {} failed, retrying with the next run", table.tableName(), e);
+            }
+        }
+        refreshOrderPartitions();
+    }
+
+    /**
+     * Returns the creation times an order with the given ID most likely falls in: those of the orders
+     * partitions whose recorded ID range contains it, or, for an ID above every recorded range, those of
+     * the partitions whose range is not recorded yet.
+     *
+     * @param orderId the ID of an order
+     * @return the window, or {@code null} if no partition is known to hold the ID
+     */
+    public CreationWindow creationWindow(long orderId) {
+        List<PartitionRecord> partitions = orderPartitions;
+        OffsetDateTime from = null;
+        OffsetDateTime to = null;
+        PartitionRecord firstUnrecorded = null;
+        long maxRecordedId = 0;
+        for (PartitionRecord partition : partitions) {
+            if (partition.maxId() == null) {
+                if (firstUnrecorded == null) {
+                    firstUnrecorded = partition;
+                }
+                continue;
+            }
+            maxRecordedId = Math.max(maxRecordedId, partition.maxId());
+            if (partition.minId() <= orderId && orderId <= partition.maxId()) {
+                from = from == null ? start(partition) : from;
+                to = partition.rangeEnd();
+            }
+        }
+        if (from != null) {
+            return new CreationWindow(from, to);
+        }
+        if (firstUnrecorded != null && orderId > maxRecordedId) {
+            return new CreationWindow(start(firstUnrecorded), partitions.getLast().rangeEnd());
+        }
+        return null;
+    }
+
+    /**
+     * Creates the partitions of one table up to the end of the premake window.
+     *
+     * @param table the partitioned table
+     */
+    public void createPartitions(PartitionedTable table) {
+        OffsetDateTime horizon = periodStart(OffsetDateTime.now()).plus(premake + 1L, period);
+        while (Boolean.TRUE.equals(transactionTemplate.execute(status -> createNextPartition(table, horizon)))) {
+            createdCounter.increment();
+        }
+    }
+
+    /**
+     * Archives the partitions of one table that ended more than the retention ago, oldest first.
+     *
+     * @param table the partitioned table
+     */
+    public void archiveExpired(PartitionedTable table) {
+        if (retention.isZero() || retention.isNegative()) {
+            return;
+        }
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(retention);
+        List<PartitionRecord> partitions = partitionRepository.findByTable(table);
+        for (PartitionRecord partition : partitions) {
+            if (partition.state() != PartitionRecord.State.ARCHIVED && !partition.rangeEnd().isAfter(cutoff)) {
+                archive(table, partition);
+            }
+        }
+    }
+
+    /**
+     * Creates the partitions the premake window needs before the service takes traffic.
+     */
+    @Override
+    public void start() {
+        for (PartitionedTable table : PartitionedTable.values()) {
+            createPartitions(table);
+        }
+        refreshOrderPartitions();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before every component that writes orders or executions.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 16384;
+    }
+
+    private boolean createNextPartition(PartitionedTable table, OffsetDateTime horizon) {
+        partitionRepository.lock();
+        List<PartitionRecord> partitions = partitionRepository.findByTable(table);
+        OffsetDateTime start = partitions.getLast().rangeEnd().withOffsetSameInstant(ZoneOffset.UTC);
+        if (!start.isBefore(horizon)) {
+            return false;
+        }
+        OffsetDateTime end = periodStart(start).plus(1, period);
+        String name = table.tableName() + "_p" + NAME_FORMAT.format(start);
+        partitionRepository.createPartition(table, name, start, end);
+        log.info("created partition {} for [{}, {})", name, start, end);
+        return true;
+    }
+
+    private void recordIdRanges() {
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(idRangeDelay);
+        for (PartitionRecord partition : partitionRepository.findByTable(PartitionedTable.ORDERS)) {
+            if (partition.state() == PartitionRecord.State.ATTACHED && partition.maxId() == null
+                    && !partition.rangeEnd().isAfter(cutoff)) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    partitionRepository.lock();
+                    partitionRepository.recordIdRange(partition.partitionName());
+                });
+            }
+        }
+    }
+
+    private void refreshOrderPartitions() {
+        orderPartitions = partitionRepository.findByTable(PartitionedTable.ORDERS).stream()
+                .filter(partition -> partition.state() == PartitionRecord.State.ATTACHED)
+                .toList();
+    }
+
+    private static OffsetDateTime start(PartitionRecord partition) {
+        return partition.rangeStart() == null ? EPOCH : partition.rangeStart();
+    }
+
+    private void archive(PartitionedTable table, PartitionRecord partition) {
+        String name = partition.partitionName();
+        if (partition.state() == PartitionRecord.State.ATTACHED) {
+            boolean detached = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                partitionRepository.lock();
+                PartitionRecord current = partitionRepository.findByName(name);
+                if (current.state() != PartitionRecord.State.ATTACHED) {
+                    return current.state() == PartitionRecord.State.DETACHED;
+                }
+                if (table == PartitionedTable.ORDERS && partitionRepository.hasRestingLimitOrders(name)) {
+                    log.info("keeping partition {} until its resting limit orders are filled", name);
+                    return false;
+                }
+                if (table == PartitionedTable.EXECUTIONS
+                        && partitionRepository.hasExecutionsOfRestingLimitOrders(name)) {
+                    log.info("keeping partition {} until the limit orders it holds fills of are filled", name);
+                    return false;
+                }
+                partitionRepository.detachPartition(table, name);
+                return true;
+            }));
+            if (!detached) {
+                return;
+            }
+        }
+
+        Path file = archiveDirectory.resolve(name + ARCHIVE_SUFFIX);
+        long rows = export(table, name, file);
+        transactionTemplate.executeWithoutResult(status -> {
+            partitionRepository.lock();
+            if (partitionRepository.findByName(name).state() == PartitionRecord.State.DETACHED) {
+                partitionRepository.dropArchived(table, partition, file.toString(), rows);
+            }
+        });
+        archivedCounter.increment();
+        log.info("archived {} rows of partition {} to {}", rows, name, file);
+    }
+
+    /**
+     * Writes the rows of a detached partition to a temporary file and moves it into place.
+     */
+    private long export(PartitionedTable table, String name, Path file) {
+        try {
+            Files.createDirectories(archiveDirectory);
+            Path temporary = Files.createTempFile(archiveDirectory, name, ".tmp");
+            long rows;
+            try (OutputStream out = Files.newOutputStream(temporary);
+                 ColumnarArchiveWriter writer = new ColumnarArchiveWriter(out, table, rowGroupSize)) {
+                transactionTemplate.executeWithoutResult(status -> partitionRepository.forEachRow(table, name,
+                        (RowCallbackHandler) rs -> append(writer, table, rs)));
+                rows = writer.rows();
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Exporting partition " + name + " failed", e);
+        }
+    }
+
+    private static void append(ColumnarArchiveWriter writer, PartitionedTable table, ResultSet rs)
+            throws SQLException {
+        List<ArchiveColumn> columns = table.columns();
+        Object[] row = new Object[columns.size()];
+        for (int i = 0; i < row.length; i++) {
+            int index = i + 1;
+            row[i] = switch (columns.get(i).type()) {
+                case LONG -> rs.getLong(index);
+                case INT -> rs.getObject(index, Integer.class);
+                case DECIMAL -> rs.getBigDecimal(index);
+                case TIMESTAMP -> rs.getObject(index, OffsetDateTime.class);
+                case STRING -> rs.getString(index);
+            };
+        }
+        try {
+            writer.append(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private OffsetDateTime periodStart(OffsetDateTime time) {
+        OffsetDateTime day = time.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+        return period == ChronoUnit.MONTHS ? day.withDayOfMonth(1) : day;
+    }
+
+    /**
+     * A range of creation times, to bound a lookup of orders to the partitions overlapping it.
+     *
+     * @param from the inclusive lower bound
+     * @param to the exclusive upper bound
+     */
+    public record CreationWindow(OffsetDateTime from, OffsetDateTime to) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.minimarket.orders.orderservice.service.archive;
+
+import com.minimarket.orders.orderservice.service.archive.ArchiveColumn.Type;
+
+import java.util.List;
+
+/**
+ * The tables range-partitioned by time, with the columns their archived partitions keep.
+ */
+public enum PartitionedTable {
+
+    ORDERS("orders", "created_at", List.of(
+            new ArchiveColumn("id", Type.LONG),
+            new ArchiveColumn("account_id", Type.STRING),
+            new ArchiveColumn("symbol", Type.STRING),
+            new ArchiveColumn("side", Type.STRING),
+            new ArchiveColumn("quantity", Type.INT),
+            new ArchiveColumn("order_type", Type.STRING),
+            new ArchiveColumn("limit_price", Type.DECIMAL),
+            new ArchiveColumn("status", Type.STRING),
+            new ArchiveColumn("created_at", Type.TIMESTAMP),
+            new ArchiveColumn("client_order_id", Type.STRING))),
+
+    EXECUTIONS("executions", "executed_at", List.of(
+            new ArchiveColumn("id", Type.LONG),
+            new ArchiveColumn("order_id", Type.LONG),
+            new ArchiveColumn("price", Type.DECIMAL),
+            new ArchiveColumn("quantity", Type.INT),
+            new ArchiveColumn("executed_at", Type.TIMESTAMP)));
+
+    private final String tableName;
+    private final String timeColumn;
+    private final List<ArchiveColumn> columns;
+
+    PartitionedTable(String tableName, String timeColumn, List<ArchiveColumn> columns) {
+        this.tableName = tableName;
+        this.timeColumn = timeColumn;
+        this.columns = columns;
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    /**
+     * Returns the partition key, which archived rows are also sorted and grouped by.
+     *
+     * @return the name of the time column
+     */
+    public String timeColumn() {
+        return timeColumn;
+    }
+
+    public List<ArchiveColumn> columns() {
+        return columns;
+    }
+
+    /**
+     * Returns the position of a column in {@link #columns()}.
+     *
+     * @param name the column name
+     * @return the index of the column
+     * @throws IllegalArgumentException if the table has no such column
+     */
+    public int columnIndex(String name) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).name().equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No column " + name + " in " + tableName);
+    }
+}
@@ -0,0 +1,139 @@
+package com.minimarket.orders.orderservice.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.minimarket.orders.orderservice.dto.OrderResult;
+import com.minimarket.orders.orderservice.exception.SubmissionInProgressException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Time-bounded index of submissions by account and client order ID, used to answer retried
+ * submissions without pricing or writing them again.
+ * The first submission of a client order ID registers a future for its outcome; a duplicate that
+ * arrives while it is in flight waits for that future, and one that arrives later is answered from
+ * it directly. Accepted submissions stay for {@code orders.dedup.expire-after-write}, so gateway
+ * retries within that window get the original response. Rejected and failed submissions are
+ * forgotten as they complete, so that duplicates already waiting share their outcome but a later
+ * retry is evaluated afresh. A duplicate waits at most {@code orders.dedup.wait-timeout} for an
+ * original that is still in flight, and is then told to retry later.
+ * Beyond the window, or past {@code orders.dedup.max-size} entries, the unique constraint on
+ * {@code (account_id, client_order_id)} still rejects the duplicate.
+ */
+@Component
+public class ClientOrderIndex {
+
+    static final String CACHE_NAME = "orders.dedup";
+    private static final String IN_PROGRESS_MESSAGE = "Original submission is still in progress, retry later";
+
+    private final Cache<Key, CompletableFuture<OrderResult>> cache;
+    private final ConcurrentMap<Key, CompletableFuture<OrderResult>> submissions;
+    private final long waitTimeoutNanos;
+    private final Counter duplicateCounter;
+
+    /**
+     * Constructs a {@code ClientOrderIndex} and registers its metrics.
+     *
+     * @param meterRegistry the registry size, eviction and duplicate metrics are published to
+     * @param maxSize the maximum number of submissions remembered
+     * @param expireAfterWrite how long an accepted submission is remembered
+     * @param waitTimeout how long a duplicate waits for the outcome of an original still in flight
+     */
+    public ClientOrderIndex(MeterRegistry meterRegistry,
+                            @Value("${orders.dedup.max-size:1000000}") long maxSize,
+                            @Value("${orders.dedup.expire-after-write:10m}") Duration expireAfterWrite,
+                            @Value("${orders.dedup.wait-timeout:2s}") Duration waitTimeout) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.submissions = cache.asMap();
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.duplicateCounter = Counter.builder(CACHE_NAME + ".duplicates")
+                .description("Submissions answered with the outcome of an earlier submission")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers a submission unless one with the same client order ID is already known.
+     *
+     * @param accountId the account submitting the order
+     * @param clientOrderId the client order ID of the order
+     * @param submission the future the outcome of this submission will complete
+     * @return the earlier submission to wait for, or {@code null} if {@code submission} was registered
+     */
+    public CompletableFuture<OrderResult> register(String accountId, String clientOrderId,
+                                                   CompletableFuture<OrderResult> submission) {
+        return submissions.putIfAbsent(new Key(accountId, clientOrderId), submission);
+    }
+
+    /**
+     * Completes a registered submission with its result, forgetting it unless it was accepted.
+     *
+     * @param accountId the account submitting the order
+     * @param clientOrderId the client order ID of the order
+     * @param submission the registered future
+     * @param result the outcome of the submission
+     */
+    public void complete(String accountId, String clientOrderId, CompletableFuture<OrderResult> submission,
+                         OrderResult result) {
+        if (result.getStatus() != OrderResult.Status.ACCEPTED) {
+            submissions.remove(new Key(accountId, clientOrderId), submission);
+        }
+        submission.complete(result);
+    }
+
+    /**
+     * Completes a registered submission that failed, and forgets it.
+     *
+     * @param accountId the account submitting the order
+     * @param clientOrderId the client order ID of the order
+     * @param submission the registered future
+     * @param failure why the submission failed, rethrown to the duplicates waiting for it
+     */
+    public void fail(String accountId, String clientOrderId, CompletableFuture<OrderResult> submission,
+                     RuntimeException failure) {
+        submissions.remove(new Key(accountId, clientOrderId), submission);
+        submission.completeExceptionally(failure);
+    }
+
+    /**
+     * Waits for the outcome of an earlier submission, up to the wait timeout.
+     *
+     * @param original the future returned by {@link #register}
+     * @return the result of the earlier submission
+     * @throws SubmissionInProgressException if the earlier submission has no outcome in time
+     * @throws RuntimeException the exception the earlier submission failed with
+     */
+    public OrderResult await(CompletableFuture<OrderResult> original) {
+        duplicateCounter.increment();
+        try {
+            return original.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new SubmissionInProgressException(IN_PROGRESS_MESSAGE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SubmissionInProgressException(IN_PROGRESS_MESSAGE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Original submission failed", e.getCause());
+        }
+    }
+
+    private record Key(String accountId, String clientOrderId) {
+    }
+}
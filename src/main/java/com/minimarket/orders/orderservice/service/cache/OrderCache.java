@@ -0,0 +1,117 @@
+package com.minimarket.orders.orderservice.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.minimarket.orders.orderservice.model.Order;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of orders keyed by ID, in front of the order repository.
+ * Orders are added when they are written and when they are first read, and are evicted by
+ * W-TinyLFU once {@code orders.cache.max-size} is reached or after {@code orders.cache.expire-after-access}
+ * without reads. Writes and evictions made inside a transaction are applied again once it commits,
+ * so a concurrent read cannot cache a row that is about to change. Cached orders are detached
+ * copies and must not be modified by callers.
+ */
+@Component
+public class OrderCache {
+
+    static final String CACHE_NAME = "orders.cache";
+
+    private final Cache<Long, Order> cache;
+
+    /**
+     * Constructs an {@code OrderCache} and registers its metrics.
+     *
+     * @param meterRegistry the registry size, hit/miss, hit ratio and eviction metrics are published to
+     * @param maxSize the maximum number of orders kept in the cache
+     * @param expireAfterAccess how long an order stays cached without being read
+     */
+    public OrderCache(MeterRegistry meterRegistry,
+                      @Value("${orders.cache.max-size:100000}") long maxSize,
+                      @Value("${orders.cache.expire-after-access:10m}") Duration expireAfterAccess) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder(CACHE_NAME + ".hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of lookups served from the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached order with the given ID, loading and caching it on a miss.
+     * Concurrent misses for the same ID share a single load.
+     *
+     * @param id the ID of the order
+     * @param loader loads the order from the database, returning {@code null} if it does not exist
+     * @return the order, or {@code null} if it does not exist
+     */
+    public Order get(Long id, Function<Long, Order> loader) {
+        return cache.get(id, key -> {
+            Order order = loader.apply(key);
+            return order == null ? null : copy(order);
+        });
+    }
+
+    /**
+     * Caches orders that have just been written, once the current transaction commits.
+     *
+     * @param orders the saved orders, with their IDs assigned
+     */
+    public void putAll(Collection<Order> orders) {
+        List<Order> copies = orders.stream().map(OrderCache::copy).toList();
+        afterCommit(() -> copies.forEach(order -> cache.put(order.getId(), order)));
+    }
+
+    /**
+     * Removes an order from the cache immediately and again once the current transaction commits.
+     *
+     * @param id the ID of the order that changed
+     */
+    public void evict(Long id) {
+        cache.invalidate(id);
+        afterCommit(() -> cache.invalidate(id));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static Order copy(Order order) {
+        return Order.builder()
+                .id(order.getId())
+                .accountId(order.getAccountId())
+                .symbol(order.getSymbol())
+                .side(order.getSide())
+                .quantity(order.getQuantity())
+                .type(order.getType())
+                .limitPrice(order.getLimitPrice())
+                .status(order.getStatus())
+                .createdAt(order.getCreatedAt())
+                .clientOrderId(order.getClientOrderId())
+                .build();
+    }
+}
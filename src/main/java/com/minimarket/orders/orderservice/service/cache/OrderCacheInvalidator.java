@@ -0,0 +1,27 @@
+package com.minimarket.orders.orderservice.service.cache;
+
+import com.minimarket.orders.orderservice.model.Order;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that evicts an {@link Order} from the {@link OrderCache} whenever Hibernate
+ * flushes a change to it, such as a status transition, or deletes it. Hibernate obtains this
+ * listener from the Spring context, so it shares the application's cache instance.
+ */
+@Component
+public class OrderCacheInvalidator {
+
+    private final OrderCache orderCache;
+
+    public OrderCacheInvalidator(OrderCache orderCache) {
+        this.orderCache = orderCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void evict(Order order) {
+        orderCache.evict(order.getId());
+    }
+}
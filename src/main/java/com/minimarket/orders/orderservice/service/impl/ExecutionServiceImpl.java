@@ -3,13 +3,19 @@ package com.minimarket.orders.orderservice.service.impl;
 import com.minimarket.orders.orderservice.repository.ExecutionRepository;
 import com.minimarket.orders.orderservice.model.Execution;
 import com.minimarket.orders.orderservice.service.api.ExecutionService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Implementation of the {@link ExecutionService} interface for managing order executions.
- * This service handles the persistence of execution records using the provided repository.
+ * This service handles the persistence of execution records using the provided repository,
+ * synchronously within the caller's transaction. It is replaced by the
+ * {@link WriteBehindExecutionService} when {@code executions.write-behind.enabled} is set.
  */
 @Service
+@ConditionalOnProperty(name = "executions.write-behind.enabled", havingValue = "false", matchIfMissing = true)
 public class ExecutionServiceImpl implements ExecutionService {
 
     private final ExecutionRepository executionRepository;
@@ -32,4 +38,14 @@ public class ExecutionServiceImpl implements ExecutionService {
     public void saveExecution(Execution execution) {
         executionRepository.save(execution);
     }
+
+    /**
+     * Saves several execution records to the repository in one call.
+     *
+     * @param executions the {@link Execution} objects to be saved
+     */
+    @Override
+    public void saveExecutions(List<Execution> executions) {
+        executionRepository.saveAll(executions);
+    }
 }
\ No newline at end of file
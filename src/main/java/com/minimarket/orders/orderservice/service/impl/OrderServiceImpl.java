@@ -1,25 +1,66 @@
 package com.minimarket.orders.orderservice.service.impl;
 
+import com.minimarket.orders.orderservice.dto.OrderPage;
+import com.minimarket.orders.orderservice.dto.OrderQuery;
+import com.minimarket.orders.orderservice.dto.OrderResult;
 import com.minimarket.orders.orderservice.dto.PriceResponse;
 import com.minimarket.orders.orderservice.repository.OrderRepository;
+import com.minimarket.orders.orderservice.repository.OrderStreamingRepository;
+import com.minimarket.orders.orderservice.exception.DuplicateOrderException;
+import com.minimarket.orders.orderservice.exception.IllegalQuantityException;
+import com.minimarket.orders.orderservice.exception.InvalidCursorException;
+import com.minimarket.orders.orderservice.exception.InvalidOrderException;
+import com.minimarket.orders.orderservice.exception.InvalidOrderQueryException;
 import com.minimarket.orders.orderservice.exception.OrderNotFoundException;
 import com.minimarket.orders.orderservice.exception.RateLimitExceededException;
+import com.minimarket.orders.orderservice.exception.RiskCheckFailedException;
+import com.minimarket.orders.orderservice.exception.SubmissionInProgressException;
 import com.minimarket.orders.orderservice.model.Execution;
 import com.minimarket.orders.orderservice.model.Order;
-import com.minimarket.orders.orderservice.ratelimiter.RateLimiterManager;
+import com.minimarket.orders.orderservice.ratelimiter.AccountRateLimiter;
 import com.minimarket.orders.orderservice.service.api.ExecutionService;
 import com.minimarket.orders.orderservice.service.api.OrderService;
+import com.minimarket.orders.orderservice.service.archive.PartitionManager;
+import com.minimarket.orders.orderservice.service.cache.ClientOrderIndex;
+import com.minimarket.orders.orderservice.service.cache.OrderCache;
+import com.minimarket.orders.orderservice.service.journal.JournalEntry;
+import com.minimarket.orders.orderservice.service.journal.OrderJournal;
+import com.minimarket.orders.orderservice.service.matching.Fill;
+import com.minimarket.orders.orderservice.service.matching.MatchingEngine;
+import com.minimarket.orders.orderservice.service.metrics.OrderMetrics;
 import com.minimarket.orders.orderservice.service.price.PriceService;
-import io.github.resilience4j.ratelimiter.RateLimiter;
+import com.minimarket.orders.orderservice.service.risk.PendingExposure;
+import com.minimarket.orders.orderservice.service.risk.RiskEngine;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Implementation of {@link OrderService} for managing orders in the minimarket system.
@@ -30,51 +71,313 @@ public class OrderServiceImpl implements OrderService {
 
     private static final String RATE_LIMIT_EXCEEDED_MESSAGE = "Rate limit exceeded for account: %s";
     private static final int RATE_LIMIT_PERMITS = 1;
+    private static final int PRICE_SCALE = 6;
+    private static final String PRICE_UNAVAILABLE_MESSAGE = "Price unavailable for symbol: %s";
+    private static final String INVALID_LIMIT_PRICE_MESSAGE =
+            "Limit price must be positive, below 1000000000000 and have at most 6 decimal places: %s";
+    private static final BigDecimal MAX_LIMIT_PRICE = new BigDecimal("1000000000000");
+    private static final String LIMIT_ORDER_IN_BATCH_MESSAGE = "Limit orders must be submitted one at a time";
+    private static final OffsetDateTime SEARCH_EPOCH = OffsetDateTime.parse("1970-01-01T00:00:00Z");
+    private static final String CLIENT_ORDER_ID_CONSTRAINT = "uk_orders_account_client_order_id";
+    private static final String DUPLICATE_ORDER_MESSAGE = "Order %s of account %s was already submitted";
 
-    private final RateLimiterManager rateLimiterManager;
+    private final AccountRateLimiter rateLimiter;
     private final OrderRepository orderRepository;
+    private final OrderStreamingRepository orderStreamingRepository;
     private final PriceService priceService;
     private final ExecutionService executionService;
+    private final OrderCache orderCache;
+    private final ClientOrderIndex clientOrderIndex;
+    private final OrderMetrics orderMetrics;
+    private final RiskEngine riskEngine;
+    private final PendingExposure pendingExposure;
+    private final MatchingEngine matchingEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderJournal orderJournal;
+    private final PartitionManager partitionManager;
 
     /**
      * Constructs an {@code OrderServiceImpl} with required dependencies.
      *
-     * @param rateLimiterManager manages rate limiting for accounts
+     * @param rateLimiter limits the request rate of each account
      * @param orderRepository handles persistence of orders
+     * @param orderStreamingRepository streams order history through a JDBC cursor
      * @param priceService provides pricing information for orders
      * @param executionService manages execution records
+     * @param orderCache caches orders by ID for {@link #getOrderById(Long)}
+     * @param clientOrderIndex answers retried submissions of the same client order ID
+     * @param orderMetrics times the stages of order submission and counts rejections
+     * @param riskEngine runs the pre-trade risk checks
+     * @param pendingExposure counts the orders the risk checks must see before they reach the positions
+     * @param matchingEngine matches limit orders against the order book
+     * @param transactionManager the transaction manager submissions are saved with
+     * @param orderJournal acknowledges market orders once journaled, or {@code null} to insert them directly
+     * @param partitionManager bounds lookups by ID to the partitions that may hold the order
      */
-    public OrderServiceImpl(RateLimiterManager rateLimiterManager, OrderRepository orderRepository,
-                            PriceService priceService, ExecutionService executionService) {
-        this.rateLimiterManager = rateLimiterManager;
+    public OrderServiceImpl(AccountRateLimiter rateLimiter, OrderRepository orderRepository,
+                            OrderStreamingRepository orderStreamingRepository,
+                            PriceService priceService, ExecutionService executionService,
+                            OrderCache orderCache, ClientOrderIndex clientOrderIndex,
+                            OrderMetrics orderMetrics, RiskEngine riskEngine, PendingExposure pendingExposure,
+                            MatchingEngine matchingEngine, PlatformTransactionManager transactionManager,
+                            @Nullable OrderJournal orderJournal, PartitionManager partitionManager) {
+        this.rateLimiter = rateLimiter;
         this.orderRepository = orderRepository;
+        this.orderStreamingRepository = orderStreamingRepository;
         this.priceService = priceService;
         this.executionService = executionService;
+        this.orderCache = orderCache;
+        this.clientOrderIndex = clientOrderIndex;
+        this.orderMetrics = orderMetrics;
+        this.riskEngine = riskEngine;
+        this.pendingExposure = pendingExposure;
+        this.matchingEngine = matchingEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.orderJournal = orderJournal;
+        this.partitionManager = partitionManager;
     }
 
     /**
-     * Saves an order, applies rate limiting, retrieves price, and records execution.
+     * Saves an order, applies rate limiting and pre-trade risk checks, retrieves price, and records execution.
+     * Each of these steps is timed separately through {@link OrderMetrics}, and rejected orders
+     * are counted by reason. Limit orders are not priced by the feed; they are matched against
+     * the {@link MatchingEngine} order book instead, with one execution per fill, and the response
+     * carries the average fill price, or the limit price if nothing was filled yet. When the
+     * {@link OrderJournal} is enabled, a market order is acknowledged once its journal record is durable.
+     * <p>
+     * An order with a client order ID that was already submitted is not placed again: it gets the
+     * response of the earlier submission, or the exception it was rejected with, from the
+     * {@link ClientOrderIndex}. It is neither rate limited nor priced and does not open a transaction.
+     * <p>
+     * The creation time of the order is set here; one sent by the client is ignored, since it decides
+     * the partition the order is stored in.
      *
      * @param order the order to save
      * @return a {@link PriceResponse} with the order's price and symbol
      * @throws RateLimitExceededException if the account exceeds its rate limit
+     * @throws InvalidOrderException if a limit order has no valid limit price
+     * @throws RiskCheckFailedException if the order breaks a pre-trade risk limit
+     * @throws DuplicateOrderException if the client order ID was submitted before the index remembers
+     * @throws SubmissionInProgressException if an earlier submission of the client order ID has no outcome
+     *         within the dedup wait timeout
+     * @throws IllegalStateException if no price is available for the symbol of a market order
      * @throws IllegalArgumentException if the order or required fields are null
      */
     @Override
-    @Transactional
     public PriceResponse saveOrder(Order order) {
-        validateOrder(order);
-        checkRateLimit(order.getAccountId());
+        return orderMetrics.observeSave(order, () -> countingRejections(orderMetrics, order, () -> {
+            validateOrder(order);
+            order.setCreatedAt(OffsetDateTime.now());
+            if (order.getClientOrderId() == null) {
+                return placeOrderInTransaction(order);
+            }
+            return placeOrderOnce(order);
+        }));
+    }
 
-        BigDecimal price = calculatePrice(order);
-        PriceResponse priceResponse = buildPriceResponse(order, price);
-        persistOrderAndExecution(order, price);
+    /**
+     * Runs a submission, counting the rejection it throws by reason before rethrowing it. Shared with the
+     * {@link PipelinedOrderService}, so both paths count the rejections made on the request thread alike.
+     */
+    static <T> T countingRejections(OrderMetrics orderMetrics, Order order, Supplier<T> submission) {
+        try {
+            return submission.get();
+        } catch (RateLimitExceededException e) {
+            orderMetrics.rejected(order, OrderResult.Status.RATE_LIMITED);
+            throw e;
+        } catch (IllegalQuantityException e) {
+            orderMetrics.rejected(order, OrderResult.Status.ILLEGAL_QUANTITY);
+            throw e;
+        } catch (RiskCheckFailedException e) {
+            orderMetrics.rejected(order, OrderResult.Status.RISK_REJECTED);
+            throw e;
+        } catch (NullPointerException | InvalidOrderException e) {
+            orderMetrics.rejected(order, OrderResult.Status.INVALID);
+            throw e;
+        } catch (DuplicateOrderException e) {
+            orderMetrics.rejected(order, OrderResult.Status.DUPLICATE);
+            throw e;
+        } catch (SubmissionInProgressException e) {
+            orderMetrics.rejected(order, OrderResult.Status.IN_PROGRESS);
+            throw e;
+        }
+    }
 
-        return priceResponse;
+    /**
+     * Saves a batch of orders in a single transaction.
+     * Every order goes through the same validation, rate limiting and quantity checks as
+     * {@link #saveOrder(Order)}, but failures reject only that order. Each distinct symbol is
+     * priced once for the whole batch, and each order is checked against the notional risk limits at
+     * that price, counting the orders accepted before it in the batch. Accepted orders and their
+     * executions are written with one {@code saveAll} call each. Limit orders are rejected, since each of them has to
+     * go through the order book on its own. Orders whose client order ID was already submitted,
+     * earlier or within the same batch, get the result of that submission instead. A client order ID
+     * the {@link ClientOrderIndex} no longer remembers fails the batch transaction on the unique
+     * constraint; the orders are then saved one transaction each, so that only the duplicate is rejected.
+     * Creation times are set as in {@link #saveOrder(Order)}.
+     *
+     * @param orders the orders to save
+     * @return one {@link OrderResult} per submitted order, in submission order
+     * @throws IllegalArgumentException if the list of orders is null
+     */
+    @Override
+    public List<OrderResult> saveOrders(List<Order> orders) {
+        Objects.requireNonNull(orders, "Orders cannot be null");
+
+        Map<Integer, CompletableFuture<OrderResult>> submissions = new HashMap<>();
+        Map<Integer, CompletableFuture<OrderResult>> originals = new HashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            if (order != null && order.getAccountId() != null && order.getClientOrderId() != null) {
+                CompletableFuture<OrderResult> submission = new CompletableFuture<>();
+                CompletableFuture<OrderResult> original =
+                        clientOrderIndex.register(order.getAccountId(), order.getClientOrderId(), submission);
+                if (original == null) {
+                    submissions.put(i, submission);
+                } else {
+                    originals.put(i, original);
+                }
+            }
+        }
+
+        List<OrderResult> results;
+        try {
+            results = originals.size() == orders.size()
+                    ? new ArrayList<>(Collections.nCopies(orders.size(), null))
+                    : placeOrdersInTransaction(orders, originals.keySet());
+        } catch (RuntimeException e) {
+            for (Map.Entry<Integer, CompletableFuture<OrderResult>> entry : submissions.entrySet()) {
+                Order order = orders.get(entry.getKey());
+                clientOrderIndex.fail(order.getAccountId(), order.getClientOrderId(), entry.getValue(), e);
+            }
+            throw e;
+        }
+        for (Map.Entry<Integer, CompletableFuture<OrderResult>> entry : submissions.entrySet()) {
+            Order order = orders.get(entry.getKey());
+            clientOrderIndex.complete(order.getAccountId(), order.getClientOrderId(), entry.getValue(),
+                    results.get(entry.getKey()));
+        }
+        for (Map.Entry<Integer, CompletableFuture<OrderResult>> entry : originals.entrySet()) {
+            results.set(entry.getKey(), awaitOriginal(orders.get(entry.getKey()), entry.getValue()));
+        }
+        return results;
     }
 
     /**
-     * Retrieves an order by its ID.
+     * Saves a batch of market orders for the {@link PipelinedOrderService}, which registered their client
+     * order IDs with the {@link ClientOrderIndex} and completes them with the results itself. Otherwise
+     * the orders are placed like those of {@link #saveOrders(List)}.
+     *
+     * @param orders the orders to save
+     * @return one {@link OrderResult} per order, in order
+     */
+    public List<OrderResult> saveRegisteredOrders(List<Order> orders) {
+        return placeOrdersInTransaction(orders, Set.of());
+    }
+
+    /**
+     * Admits the orders once and saves the admitted ones in one transaction. If that fails on a client
+     * order ID, each admitted order is saved in a transaction of its own, without being admitted again.
+     */
+    private List<OrderResult> placeOrdersInTransaction(List<Order> orders, Set<Integer> duplicates) {
+        List<OrderResult> rejections = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            rejections.add(duplicates.contains(i) ? null : admit(orders.get(i)));
+        }
+        try {
+            return transactionTemplate.execute(status -> placeOrders(orders, duplicates, rejections));
+        } catch (DataIntegrityViolationException e) {
+            if (!isClientOrderIdConflict(e)) {
+                throw e;
+            }
+        }
+        List<OrderResult> results = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            if (duplicates.contains(i) || rejections.get(i) != null) {
+                results.add(rejections.get(i));
+                continue;
+            }
+            try {
+                results.add(transactionTemplate.execute(status ->
+                        placeOrders(List.of(order), Set.of(), Collections.singletonList(null)).get(0)));
+            } catch (DataIntegrityViolationException e) {
+                if (!isClientOrderIdConflict(e)) {
+                    throw e;
+                }
+                results.add(rejected(order, OrderResult.Status.DUPLICATE,
+                        String.format(DUPLICATE_ORDER_MESSAGE, order.getClientOrderId(), order.getAccountId())));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Saves the admitted orders of a batch, those that are neither duplicates nor rejected on admission.
+     * The results start from the admission rejections, with {@code null} for the duplicates.
+     */
+    private List<OrderResult> placeOrders(List<Order> orders, Set<Integer> duplicates, List<OrderResult> rejections) {
+        List<OrderResult> results = new ArrayList<>(rejections);
+        Set<String> symbols = new HashSet<>();
+        for (int i = 0; i < orders.size(); i++) {
+            if (!duplicates.contains(i) && results.get(i) == null) {
+                symbols.add(orders.get(i).getSymbol());
+            }
+        }
+
+        Map<String, BigDecimal> prices = symbols.isEmpty() ? Map.of()
+                : orderMetrics.call(OrderMetrics.STAGE_PRICE, () -> priceService.getPrices(symbols));
+        List<Order> accepted = new ArrayList<>(orders.size());
+        List<Execution> executions = new ArrayList<>(orders.size());
+        OffsetDateTime executedAt = OffsetDateTime.now();
+        for (int i = 0; i < orders.size(); i++) {
+            if (results.get(i) != null || duplicates.contains(i)) {
+                continue;
+            }
+            Order order = orders.get(i);
+            BigDecimal price = prices.get(order.getSymbol());
+            if (price == null) {
+                results.set(i, rejected(order, OrderResult.Status.PRICE_UNAVAILABLE,
+                        String.format(PRICE_UNAVAILABLE_MESSAGE, order.getSymbol())));
+                continue;
+            }
+            BigDecimal scaledPrice = scalePrice(price);
+            try {
+                riskEngine.check(order, scaledPrice);
+            } catch (RiskCheckFailedException e) {
+                results.set(i, rejection(order, e));
+                continue;
+            }
+            pendingExposure.reserve(order);
+            accepted.add(order);
+            executions.add(buildExecution(order, scaledPrice, order.getQuantity(), executedAt));
+            results.set(i, OrderResult.builder()
+                    .symbol(order.getSymbol())
+                    .price(scaledPrice)
+                    .status(OrderResult.Status.ACCEPTED)
+                    .build());
+        }
+
+        if (!accepted.isEmpty() && orderJournal != null) {
+            journal(executions);
+        } else if (!accepted.isEmpty()) {
+            orderMetrics.run(OrderMetrics.STAGE_ORDER_INSERT, () -> {
+                orderRepository.saveAll(accepted);
+                orderRepository.flush();
+            });
+            orderMetrics.run(OrderMetrics.STAGE_EXECUTION_INSERT, () -> {
+                executionService.saveExecutions(executions);
+                orderRepository.flush();
+            });
+            orderCache.putAll(accepted);
+        }
+        return results;
+    }
+
+    /**
+     * Retrieves an order by its ID, from the {@link OrderCache} when it was recently saved or read.
+     * Otherwise the lookup is bounded to the creation times the {@link PartitionManager} expects the ID
+     * in, so that only the partitions overlapping them are read, and repeated unbounded if that misses.
      *
      * @param id the ID of the order
      * @return the {@link Order} associated with the ID
@@ -84,12 +387,28 @@ public class OrderServiceImpl implements OrderService {
     @Override
     public Order getOrderById(Long id) {
         Objects.requireNonNull(id, "Order ID cannot be null");
-        return orderRepository.findById(id)
-                .orElseThrow(() -> new OrderNotFoundException(id));
+        Order order = orderCache.get(id, this::findOrder);
+        if (order == null) {
+            throw new OrderNotFoundException(id);
+        }
+        return order;
+    }
+
+    private Order findOrder(Long id) {
+        PartitionManager.CreationWindow window = partitionManager.creationWindow(id);
+        if (window != null) {
+            Optional<Order> order = orderRepository.findByIdAndCreatedAtGreaterThanEqualAndCreatedAtLessThan(
+                    id, window.from(), window.to());
+            if (order.isPresent()) {
+                return order.get();
+            }
+        }
+        return orderRepository.findById(id).orElse(null);
     }
 
     /**
-     * Retrieves all orders for a given account ID.
+     * Retrieves all orders for a given account ID. The whole history is asked for, so every attached
+     * partition is read; {@link #getOrdersPage} and {@link #searchOrders} read only the partitions they need.
      *
      * @param accountId the ID of the account
      * @return a list of {@link Order} objects for the account
@@ -101,21 +420,302 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findByAccountId(accountId);
     }
 
-    private void validateOrder(Order order) {
+    /**
+     * Retrieves one page of an account's orders, oldest first, using keyset pagination on
+     * {@code (account_id, created_at, id)}. The continuation token is opaque to clients and encodes the
+     * creation time and ID of the last returned order, so each page is an index range scan regardless of
+     * how deep into the history it is, and skips the partitions created before it. The first page reads
+     * partitions oldest first and stops once it is full. Tokens issued before pages were ordered by
+     * creation time hold only an order ID; they are still honoured and page on in ID order, as they did,
+     * with tokens of the same kind, reading every partition, until the listing ends.
+     *
+     * @param accountId the ID of the account
+     * @param cursor the continuation token returned with the previous page, or null for the first page
+     * @param limit the maximum number of orders to return
+     * @return an {@link OrderPage} with the orders and the token for the next page, if any
+     * @throws InvalidCursorException if the continuation token cannot be decoded
+     * @throws IllegalArgumentException if the account ID is null
+     */
+    @Override
+    public OrderPage getOrdersPage(String accountId, String cursor, int limit) {
+        Objects.requireNonNull(accountId, "Account ID cannot be null");
+
+        List<Order> rows;
+        Cursor after = cursor == null ? null : decodeCursor(cursor);
+        if (after == null) {
+            rows = orderRepository.findByAccountIdOrderByCreatedAtAscIdAsc(accountId, Limit.of(limit + 1));
+        } else if (after.createdAt() == null) {
+            rows = orderRepository.findByAccountIdAndIdGreaterThanOrderByIdAsc(accountId, after.id(),
+                    Limit.of(limit + 1));
+        } else {
+            rows = orderRepository.findByAccountIdAfter(accountId, after.createdAt(), after.id(), Limit.of(limit + 1));
+        }
+        boolean hasMore = rows.size() > limit;
+        List<Order> items = hasMore ? rows.subList(0, limit) : rows;
+        Order last = items.isEmpty() ? null : items.get(items.size() - 1);
+        return OrderPage.builder()
+                .items(items)
+                .nextCursor(!hasMore ? null : after != null && after.createdAt() == null
+                        ? encodeLegacyCursor(last.getId()) : encodeCursor(last))
+                .build();
+    }
+
+    /**
+     * Streams all orders of an account to the consumer as they are read from the database.
+     * Like {@link #getOrdersByAccountId}, it reads every attached partition.
+     *
+     * @param accountId the ID of the account
+     * @param consumer receives each order in ID order
+     * @throws IllegalArgumentException if the account ID is null
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamOrdersByAccountId(String accountId, Consumer<Order> consumer) {
+        Objects.requireNonNull(accountId, "Account ID cannot be null");
+        orderStreamingRepository.streamByAccountId(accountId, consumer);
+    }
+
+    /**
+     * Searches orders of one account or one symbol within a creation time range, newest first.
+     * Account searches may be narrowed by status and symbol searches by side; each combination
+     * is answered from the matching composite index on {@code created_at}. A missing lower or
+     * upper bound leaves that end of the range open.
+     *
+     * @param query the search criteria, including the maximum number of orders to return
+     * @return the matching orders, newest first
+     * @throws InvalidOrderQueryException if neither an account nor a symbol is given, or if the
+     *         criteria mix account and symbol filters
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Order> searchOrders(OrderQuery query) {
+        Objects.requireNonNull(query, "Query cannot be null");
+        OffsetDateTime from = query.getFrom() == null ? SEARCH_EPOCH : query.getFrom();
+        OffsetDateTime to = query.getTo() == null ? OffsetDateTime.now() : query.getTo();
+        Limit limit = Limit.of(query.getLimit());
+
+        if (query.getAccountId() != null) {
+            if (query.getSymbol() != null || query.getSide() != null) {
+                throw new InvalidOrderQueryException("Account searches can only be narrowed by status and time");
+            }
+            return query.getStatus() == null
+                    ? orderRepository.findByAccountIdAndCreatedAtBetweenOrderByCreatedAtDesc(
+                            query.getAccountId(), from, to, limit)
+                    : orderRepository.findByAccountIdAndStatusAndCreatedAtBetweenOrderByCreatedAtDesc(
+                            query.getAccountId(), query.getStatus(), from, to, limit);
+        }
+        if (query.getSymbol() != null) {
+            if (query.getStatus() != null) {
+                throw new InvalidOrderQueryException("Symbol searches can only be narrowed by side and time");
+            }
+            return query.getSide() == null
+                    ? orderRepository.findBySymbolAndCreatedAtBetweenOrderByCreatedAtDesc(
+                            query.getSymbol(), from, to, limit)
+                    : orderRepository.findBySymbolAndSideAndCreatedAtBetweenOrderByCreatedAtDesc(
+                            query.getSymbol(), query.getSide(), from, to, limit);
+        }
+        throw new InvalidOrderQueryException("Either accountId or symbol is required");
+    }
+
+    private static String encodeCursor(Order last) {
+        long createdAt = ChronoUnit.MICROS.between(Instant.EPOCH, last.getCreatedAt().toInstant());
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + ":" + last.getId()).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String encodeLegacyCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a continuation token into the position after the last order of a page; a token holding
+     * only an order ID has no creation time.
+     */
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(":");
+            if (parts.length == 1) {
+                return new Cursor(null, Long.parseLong(parts[0]));
+            }
+            if (parts.length != 2) {
+                throw new InvalidCursorException(cursor);
+            }
+            OffsetDateTime createdAt = Instant.EPOCH.plus(Long.parseLong(parts[0]), ChronoUnit.MICROS)
+                    .atOffset(ZoneOffset.UTC);
+            return new Cursor(createdAt, Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | ArithmeticException | DateTimeException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    /**
+     * The position after the last order of a page, without a creation time for a token that predates it.
+     */
+    private record Cursor(OffsetDateTime createdAt, long id) {
+    }
+
+    /**
+     * Rejects an order without the fields every submission needs, on the direct and the pipelined path alike.
+     */
+    static void validateOrder(Order order) {
         Objects.requireNonNull(order, "Order cannot be null");
         Objects.requireNonNull(order.getAccountId(), "Account ID cannot be null");
         Objects.requireNonNull(order.getSymbol(), "Symbol cannot be null");
     }
 
     private void checkRateLimit(String accountId) {
-        RateLimiter limiter = rateLimiterManager.getLimiter(accountId);
-        if (!limiter.acquirePermission(RATE_LIMIT_PERMITS)) {
+        if (!rateLimiter.tryAcquire(accountId, RATE_LIMIT_PERMITS)) {
             throw new RateLimitExceededException(String.format(RATE_LIMIT_EXCEEDED_MESSAGE, accountId));
         }
     }
 
+    private OrderResult admit(Order order) {
+        try {
+            validateOrder(order);
+            order.setCreatedAt(OffsetDateTime.now());
+            if (order.getType() == Order.Type.LIMIT) {
+                return rejected(order, OrderResult.Status.INVALID, LIMIT_ORDER_IN_BATCH_MESSAGE);
+            }
+            orderMetrics.run(OrderMetrics.STAGE_RATE_LIMIT, () -> checkRateLimit(order.getAccountId()));
+            priceService.validateQuantity(order);
+            orderMetrics.run(OrderMetrics.STAGE_RISK, () -> riskEngine.check(order));
+            return null;
+        } catch (RuntimeException e) {
+            return rejection(order, e);
+        }
+    }
+
+    /**
+     * Maps the exception an order was rejected with to its batch result, rethrowing anything else.
+     */
+    private OrderResult rejection(Order order, RuntimeException e) {
+        OrderResult.Status status = switch (e) {
+            case RateLimitExceededException ignored -> OrderResult.Status.RATE_LIMITED;
+            case IllegalQuantityException ignored -> OrderResult.Status.ILLEGAL_QUANTITY;
+            case RiskCheckFailedException ignored -> OrderResult.Status.RISK_REJECTED;
+            case NullPointerException ignored -> OrderResult.Status.INVALID;
+            case InvalidOrderException ignored -> OrderResult.Status.INVALID;
+            case DuplicateOrderException ignored -> OrderResult.Status.DUPLICATE;
+            case SubmissionInProgressException ignored -> OrderResult.Status.IN_PROGRESS;
+            default -> throw e;
+        };
+        return rejected(order, status, e.getMessage());
+    }
+
+    private OrderResult awaitOriginal(Order order, CompletableFuture<OrderResult> original) {
+        try {
+            return clientOrderIndex.await(original);
+        } catch (RuntimeException e) {
+            return rejection(order, e);
+        }
+    }
+
+    /**
+     * Turns the result of a single order into its response, or into the exception it was rejected with.
+     */
+    static PriceResponse toResponse(OrderResult result) {
+        return switch (result.getStatus()) {
+            case ACCEPTED -> PriceResponse.builder()
+                    .symbol(result.getSymbol())
+                    .price(result.getPrice())
+                    .build();
+            case RATE_LIMITED -> throw new RateLimitExceededException(result.getMessage());
+            case ILLEGAL_QUANTITY -> throw new IllegalQuantityException(result.getMessage());
+            case INVALID -> throw new InvalidOrderException(result.getMessage());
+            case RISK_REJECTED -> throw new RiskCheckFailedException(result.getMessage());
+            case PRICE_UNAVAILABLE -> throw new IllegalStateException(result.getMessage());
+            case DUPLICATE -> throw new DuplicateOrderException(result.getMessage());
+            case IN_PROGRESS -> throw new SubmissionInProgressException(result.getMessage());
+        };
+    }
+
+    private static boolean isClientOrderIdConflict(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(CLIENT_ORDER_ID_CONSTRAINT);
+    }
+
+    private OrderResult rejected(Order order, OrderResult.Status status, String message) {
+        orderMetrics.rejected(order, status);
+        return OrderResult.builder()
+                .symbol(order == null ? null : order.getSymbol())
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Places a market order in a transaction. A limit order is placed in a transaction of its own on
+     * the {@link MatchingEngine} shard, so none is held open here while it waits for the shard.
+     */
+    private PriceResponse placeOrderInTransaction(Order order) {
+        if (order.getType() == Order.Type.LIMIT) {
+            return placeOrder(order);
+        }
+        return transactionTemplate.execute(status -> placeOrder(order));
+    }
+
+    private PriceResponse placeOrder(Order order) {
+        orderMetrics.run(OrderMetrics.STAGE_RATE_LIMIT, () -> checkRateLimit(order.getAccountId()));
+        orderMetrics.run(OrderMetrics.STAGE_RISK, () -> riskEngine.check(order));
+        if (order.getType() == Order.Type.LIMIT) {
+            return placeLimitOrder(order);
+        }
+
+        BigDecimal price = orderMetrics.call(OrderMetrics.STAGE_PRICE, () -> calculatePrice(order));
+        orderMetrics.run(OrderMetrics.STAGE_RISK, () -> riskEngine.check(order, price));
+        pendingExposure.reserve(order);
+        PriceResponse priceResponse = buildPriceResponse(order, price);
+        persistOrderAndExecution(order, price);
+
+        return priceResponse;
+    }
+
+    /**
+     * Places an order under its client order ID, or returns the outcome of the submission that
+     * already holds the ID. The outcome is published to the {@link ClientOrderIndex} only after the
+     * transaction committed, so a duplicate never sees an order that is rolled back.
+     */
+    private PriceResponse placeOrderOnce(Order order) {
+        String accountId = order.getAccountId();
+        String clientOrderId = order.getClientOrderId();
+        CompletableFuture<OrderResult> submission = new CompletableFuture<>();
+        CompletableFuture<OrderResult> original = clientOrderIndex.register(accountId, clientOrderId, submission);
+        if (original != null) {
+            return toResponse(clientOrderIndex.await(original));
+        }
+        try {
+            PriceResponse response = placeOrderInTransaction(order);
+            clientOrderIndex.complete(accountId, clientOrderId, submission, OrderResult.builder()
+                    .symbol(response.getSymbol())
+                    .price(response.getPrice())
+                    .status(OrderResult.Status.ACCEPTED)
+                    .build());
+            return response;
+        } catch (RuntimeException e) {
+            RuntimeException failure = e instanceof DataIntegrityViolationException violation
+                    && isClientOrderIdConflict(violation)
+                    ? new DuplicateOrderException(String.format(DUPLICATE_ORDER_MESSAGE, clientOrderId, accountId))
+                    : e;
+            clientOrderIndex.fail(accountId, clientOrderId, submission, failure);
+            throw failure;
+        }
+    }
+
+    /**
+     * Prices a market order, rejecting it like a batch does if the price source has no price for its symbol.
+     */
     private BigDecimal calculatePrice(Order order) {
-        return priceService.getPrice(order).setScale(6, RoundingMode.HALF_UP);
+        BigDecimal price = priceService.getPrice(order);
+        if (price == null) {
+            orderMetrics.rejected(order, OrderResult.Status.PRICE_UNAVAILABLE);
+            throw new IllegalStateException(String.format(PRICE_UNAVAILABLE_MESSAGE, order.getSymbol()));
+        }
+        return scalePrice(price);
+    }
+
+    static BigDecimal scalePrice(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP);
     }
 
     private PriceResponse buildPriceResponse(Order order, BigDecimal price) {
@@ -125,12 +725,154 @@ public class OrderServiceImpl implements OrderService {
                 .build();
     }
 
+    /**
+     * Flushes after each write so that the insert itself, not just the persist call, falls into
+     * its stage's timer. The flush goes through the shared persistence context, so it also covers
+     * the execution insert.
+     */
     private void persistOrderAndExecution(Order order, BigDecimal price) {
-        orderRepository.save(order);
-        executionService.saveExecution(Execution.builder()
+        Execution execution = buildExecution(order, price, order.getQuantity(), OffsetDateTime.now());
+        if (orderJournal != null) {
+            journal(List.of(execution));
+            return;
+        }
+        orderMetrics.run(OrderMetrics.STAGE_ORDER_INSERT, () -> {
+            orderRepository.save(order);
+            orderRepository.flush();
+        });
+        orderMetrics.run(OrderMetrics.STAGE_EXECUTION_INSERT, () -> {
+            executionService.saveExecution(execution);
+            orderRepository.flush();
+        });
+        orderCache.putAll(List.of(order));
+    }
+
+    /**
+     * Acknowledges orders once they are durable in the {@link OrderJournal}; the
+     * {@code JournalReplicator} inserts them later. They have no ID until then, so they are not cached.
+     * They are counted as {@link PendingExposure} until the replicator inserted them, even if the append
+     * fails, since a record that timed out may still become durable and be replicated.
+     */
+    private void journal(List<Execution> executions) {
+        List<JournalEntry> entries = executions.stream().map(JournalEntry::of).toList();
+        entries.forEach(entry -> pendingExposure.add(entry.order()));
+        orderMetrics.run(OrderMetrics.STAGE_JOURNAL, () -> orderJournal.append(entries));
+    }
+
+    /**
+     * Saves a limit order as open, matches it, and records both sides of every fill, all in the
+     * transaction the {@link MatchingEngine} shard of the symbol runs it in, which it may share with
+     * other orders of the shard. If anything fails before the commit, the engine undoes the match, so
+     * the book never holds fills the database does not, and runs the other orders of the batch again.
+     * Resting orders filled completely are marked completed with one bulk update, which bypasses the
+     * entity listeners, so they are evicted from the {@link OrderCache} once committed.
+     * <p>
+     * The order counts as {@link PendingExposure} while it is placed, and its unfilled quantity once it
+     * rests; the quantity it fills of resting orders stops counting for their accounts.
+     */
+    private PriceResponse placeLimitOrder(Order order) {
+        Objects.requireNonNull(order.getSide(), "Side cannot be null");
+        priceService.validateQuantity(order);
+        validateLimitPrice(order);
+        order.setStatus(Order.Status.CREATED);
+
+        List<Fill> fills = new ArrayList<>();
+        pendingExposure.add(order);
+        try {
+            PriceResponse response = matchingEngine.execute(order.getSymbol(), matcher -> {
+                // a rolled back batch runs its orders again, so start over from the unsaved order
+                order.setId(null);
+                order.setStatus(Order.Status.CREATED);
+                fills.clear();
+                return settleLimitOrder(order, matcher, fills);
+            });
+            long filled = 0;
+            for (Fill fill : fills) {
+                pendingExposure.fill(fill.makerOrderId(), fill.quantity());
+                if (fill.makerRemaining() == 0) {
+                    orderCache.evict(fill.makerOrderId());
+                }
+                filled += fill.quantity();
+            }
+            pendingExposure.rest(order.getId(), order.getAccountId(), order.getSymbol(), order.getSide(),
+                    order.getQuantity() - filled);
+            orderCache.putAll(List.of(order));
+            return response;
+        } finally {
+            pendingExposure.remove(order);
+        }
+    }
+
+    private PriceResponse settleLimitOrder(Order order, MatchingEngine.Matcher matcher, List<Fill> settled) {
+        orderMetrics.run(OrderMetrics.STAGE_ORDER_INSERT, () -> {
+            orderRepository.save(order);
+            orderRepository.flush();
+        });
+
+        List<Fill> fills = orderMetrics.call(OrderMetrics.STAGE_MATCH, () -> matcher.match(order));
+        settled.addAll(fills);
+        if (fills.isEmpty()) {
+            return buildPriceResponse(order, scalePrice(order.getLimitPrice()));
+        }
+
+        OffsetDateTime executedAt = OffsetDateTime.now();
+        Order.Side makerSide = order.getSide() == Order.Side.BUY ? Order.Side.SELL : Order.Side.BUY;
+        List<Execution> executions = new ArrayList<>(fills.size() * 2);
+        List<Long> filledMakers = new ArrayList<>();
+        BigDecimal notional = BigDecimal.ZERO;
+        int filled = 0;
+        for (Fill fill : fills) {
+            BigDecimal price = fill.price();
+            executions.add(buildExecution(order, price, fill.quantity(), executedAt));
+            executions.add(buildExecution(maker(fill, order.getSymbol(), makerSide), price, fill.quantity(),
+                    executedAt));
+            if (fill.makerRemaining() == 0) {
+                filledMakers.add(fill.makerOrderId());
+            }
+            notional = notional.add(price.multiply(BigDecimal.valueOf(fill.quantity())));
+            filled += fill.quantity();
+        }
+        if (filled == order.getQuantity()) {
+            order.setStatus(Order.Status.COMPLETED);
+        }
+        orderMetrics.run(OrderMetrics.STAGE_EXECUTION_INSERT, () -> {
+            executionService.saveExecutions(executions);
+            orderRepository.flush();
+        });
+        if (!filledMakers.isEmpty()) {
+            orderRepository.updateStatus(filledMakers, Order.Status.COMPLETED);
+        }
+        return buildPriceResponse(order, notional.divide(BigDecimal.valueOf(filled), PRICE_SCALE, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Stands in for the resting order of a fill, with the fields the {@code PositionUpdater} reads, so
+     * that neither the execution insert nor the position update looks it up in the partitioned orders
+     * table by ID alone.
+     */
+    private static Order maker(Fill fill, String symbol, Order.Side side) {
+        return Order.builder()
+                .id(fill.makerOrderId())
+                .accountId(fill.makerAccountId())
+                .symbol(symbol)
+                .side(side)
+                .build();
+    }
+
+    private static void validateLimitPrice(Order order) {
+        BigDecimal limitPrice = order.getLimitPrice();
+        if (limitPrice == null || limitPrice.signum() <= 0 || limitPrice.compareTo(MAX_LIMIT_PRICE) >= 0
+                || limitPrice.stripTrailingZeros().scale() > PRICE_SCALE) {
+            throw new InvalidOrderException(String.format(INVALID_LIMIT_PRICE_MESSAGE, limitPrice));
+        }
+    }
+
+    private Execution buildExecution(Order order, BigDecimal price, int quantity, OffsetDateTime executedAt) {
+        return Execution.builder()
                 .order(order)
                 .price(price)
-                .executedAt(OffsetDateTime.now())
-                .build());
+                .quantity(quantity)
+                .executedAt(executedAt)
+                .build();
     }
 }
\ No newline at end of file
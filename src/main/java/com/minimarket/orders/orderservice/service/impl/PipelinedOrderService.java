@@ -0,0 +1,404 @@
+package com.minimarket.orders.orderservice.service.impl;
+
+import com.minimarket.orders.orderservice.dto.OrderPage;
+import com.minimarket.orders.orderservice.dto.OrderQuery;
+import com.minimarket.orders.orderservice.dto.OrderResult;
+import com.minimarket.orders.orderservice.dto.PriceResponse;
+import com.minimarket.orders.orderservice.exception.DuplicateOrderException;
+import com.minimarket.orders.orderservice.exception.IllegalQuantityException;
+import com.minimarket.orders.orderservice.exception.InvalidOrderException;
+import com.minimarket.orders.orderservice.exception.RateLimitExceededException;
+import com.minimarket.orders.orderservice.exception.RiskCheckFailedException;
+import com.minimarket.orders.orderservice.exception.SubmissionInProgressException;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.service.api.OrderService;
+import com.minimarket.orders.orderservice.service.cache.ClientOrderIndex;
+import com.minimarket.orders.orderservice.service.metrics.OrderMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Pipelined implementation of the {@link OrderService} interface, in front of {@link OrderServiceImpl}.
+ * Enabled with {@code orders.pipeline.enabled}. Market orders are spread over
+ * {@code orders.pipeline.shards} shards by the hash of their symbol. Each shard has a lock-free
+ * multi-producer queue and a single worker thread. The worker drains whatever has queued up since
+ * its last pass and hands it to {@link OrderServiceImpl#saveRegisteredOrders(List)}, so the orders of one
+ * pass are admitted once, priced once per symbol and written in one transaction. The request thread waits
+ * for its order's result, and rejections are thrown as exceptions, like {@link OrderServiceImpl#saveOrder(Order)}
+ * does. Orders are validated on the request thread, and each submission is observed and its rejections
+ * counted through {@link OrderMetrics} as on the direct path.
+ * <p>
+ * Orders with a client order ID are registered with the {@link ClientOrderIndex} before they are queued,
+ * so a retried submission gets the outcome of the original, as on the direct path. A caller that stops
+ * waiting withdraws its order unless the worker has already taken it; if it has, the caller waits for
+ * the outcome instead of reporting a failure for an order that is then saved.
+ * <p>
+ * Orders of one symbol are always handled by the same worker, in arrival order. Limit orders bypass
+ * the pipeline, since the {@code MatchingEngine} already serializes them per symbol, and so do all reads.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "orders.pipeline.enabled", havingValue = "true")
+@Slf4j
+public class PipelinedOrderService implements OrderService, SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "orders.pipeline";
+
+    private final OrderServiceImpl delegate;
+    private final ClientOrderIndex clientOrderIndex;
+    private final OrderMetrics orderMetrics;
+    private final Shard[] shards;
+    private final int capacity;
+    private final int batchSize;
+    private final long idleNanos;
+    private final long timeoutNanos;
+    private final DistributionSummary batchSizeSummary;
+
+    private volatile boolean running;
+
+    /**
+     * Constructs a {@code PipelinedOrderService} and registers its metrics.
+     *
+     * @param delegate the service each batch of orders is saved with
+     * @param clientOrderIndex answers retried submissions of a client order ID
+     * @param orderMetrics observes each submission and counts the rejections made on the request thread
+     * @param meterRegistry the registry queue depth and batch size are published to
+     * @param shards the number of shard workers; zero or less means one per available processor
+     * @param capacity the maximum number of orders waiting for each shard
+     * @param batchSize the maximum number of orders a worker saves per transaction
+     * @param idleWait how long an idle worker parks before checking for shutdown
+     * @param timeout how long a caller waits for a place in the queue and then for its result
+     */
+    public PipelinedOrderService(OrderServiceImpl delegate,
+                                 ClientOrderIndex clientOrderIndex,
+                                 OrderMetrics orderMetrics,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${orders.pipeline.shards:0}") int shards,
+                                 @Value("${orders.pipeline.capacity:4096}") int capacity,
+                                 @Value("${orders.pipeline.batch-size:256}") int batchSize,
+                                 @Value("${orders.pipeline.idle-wait:1ms}") Duration idleWait,
+                                 @Value("${orders.pipeline.timeout:2s}") Duration timeout) {
+        this.delegate = delegate;
+        this.clientOrderIndex = clientOrderIndex;
+        this.orderMetrics = orderMetrics;
+        int shardCount = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new Shard(i);
+        }
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.idleNanos = idleWait.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", this, PipelinedOrderService::queueDepth)
+                .description("Orders waiting for a pipeline worker")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder(METRIC_PREFIX + ".batch.size")
+                .description("Orders saved per pipeline batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a market order on its symbol's shard and waits for the worker to save it. A retried client
+     * order ID is answered with the outcome of the original submission instead. Limit orders are saved
+     * directly by the delegate. A rejection made by the worker was counted there and is only thrown here.
+     *
+     * @param order the order to save
+     * @return a {@link PriceResponse} with the order's price and symbol
+     * @throws RateLimitExceededException if the account exceeds its rate limit
+     * @throws IllegalQuantityException if the quantity is not positive
+     * @throws InvalidOrderException if a batch admission rejects the order as invalid
+     * @throws RiskCheckFailedException if the order breaks a pre-trade risk limit
+     * @throws DuplicateOrderException if the client order ID was already used beyond the dedup window
+     * @throws SubmissionInProgressException if the original submission of the client order ID has no
+     *         outcome within the dedup wait timeout
+     * @throws IllegalStateException if the pipeline is not running, stays full or does not answer in time
+     * @throws NullPointerException if the order, its account ID or its symbol is null
+     */
+    @Override
+    public PriceResponse saveOrder(Order order) {
+        if (order != null && order.getType() == Order.Type.LIMIT) {
+            return delegate.saveOrder(order);
+        }
+        return orderMetrics.observeSave(order, () -> OrderServiceImpl.toResponse(
+                OrderServiceImpl.countingRejections(orderMetrics, order, () -> {
+                    OrderServiceImpl.validateOrder(order);
+                    return submit(order);
+                })));
+    }
+
+    /**
+     * Queues a validated market order and waits for its result, or for that of the original submission
+     * of its client order ID.
+     */
+    private OrderResult submit(Order order) {
+        if (!running) {
+            throw new IllegalStateException("Order pipeline is not running");
+        }
+        CompletableFuture<OrderResult> submission = null;
+        if (order.getClientOrderId() != null) {
+            submission = new CompletableFuture<>();
+            CompletableFuture<OrderResult> original =
+                    clientOrderIndex.register(order.getAccountId(), order.getClientOrderId(), submission);
+            if (original != null) {
+                return clientOrderIndex.await(original);
+            }
+        }
+        Pending pending = new Pending(order, submission);
+        long deadline = System.nanoTime() + timeoutNanos;
+        try {
+            shardOf(order.getSymbol()).enqueue(pending, deadline);
+        } catch (RuntimeException e) {
+            pending.fail(e);
+            throw e;
+        }
+        try {
+            return await(pending, deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            IllegalStateException failure =
+                    new IllegalStateException("Interrupted while saving order for " + order.getSymbol(), e);
+            if (pending.withdraw()) {
+                pending.fail(failure);
+            }
+            throw failure;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Saving order for " + order.getSymbol() + " failed", e.getCause());
+        }
+    }
+
+    /**
+     * Waits for the result of a queued order until the deadline. If the worker has taken the order by
+     * then, its outcome is awaited regardless, since the order may be saved; otherwise it is withdrawn.
+     */
+    private OrderResult await(Pending pending, long deadline) throws InterruptedException, ExecutionException {
+        try {
+            return pending.result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (pending.withdraw()) {
+                IllegalStateException failure =
+                        new IllegalStateException("Order pipeline did not answer for " + pending.order.getSymbol(), e);
+                pending.fail(failure);
+                throw failure;
+            }
+            return pending.result.get();
+        }
+    }
+
+    @Override
+    public List<OrderResult> saveOrders(List<Order> orders) {
+        return delegate.saveOrders(orders);
+    }
+
+    @Override
+    public Order getOrderById(Long id) {
+        return delegate.getOrderById(id);
+    }
+
+    @Override
+    public List<Order> getOrdersByAccountId(String accountId) {
+        return delegate.getOrdersByAccountId(accountId);
+    }
+
+    @Override
+    public OrderPage getOrdersPage(String accountId, String cursor, int limit) {
+        return delegate.getOrdersPage(accountId, cursor, limit);
+    }
+
+    @Override
+    public void streamOrdersByAccountId(String accountId, Consumer<Order> consumer) {
+        delegate.streamOrdersByAccountId(accountId, consumer);
+    }
+
+    @Override
+    public List<Order> searchOrders(OrderQuery query) {
+        return delegate.searchOrders(query);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (Shard shard : shards) {
+            shard.worker = new Thread(shard::drainLoop, "order-pipeline-" + shard.index);
+            shard.worker.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Shard shard : shards) {
+            if (shard.worker == null) {
+                continue;
+            }
+            LockSupport.unpark(shard.worker);
+            try {
+                shard.worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server, so that orders of in-flight requests are still saved.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    private Shard shardOf(String symbol) {
+        return shards[Math.floorMod(symbol.hashCode(), shards.length)];
+    }
+
+    private double queueDepth() {
+        int depth = 0;
+        for (Shard shard : shards) {
+            depth += shard.size.get();
+        }
+        return depth;
+    }
+
+    private final class Shard {
+
+        private final int index;
+        private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private volatile Thread worker;
+
+        Shard(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Reserves a place before queueing, so the queue stays bounded without a lock. While the shard
+         * is full the caller backs off in short parks until a place frees up or the deadline passes.
+         */
+        void enqueue(Pending pending, long deadline) {
+            while (size.getAndIncrement() >= capacity) {
+                size.decrementAndGet();
+                if (System.nanoTime() - deadline >= 0 || !running) {
+                    throw new IllegalStateException("Order pipeline queue is full");
+                }
+                LockSupport.parkNanos(idleNanos);
+            }
+            queue.offer(pending);
+            LockSupport.unpark(worker);
+        }
+
+        void drainLoop() {
+            List<Pending> batch = new ArrayList<>(batchSize);
+            while (running || !queue.isEmpty()) {
+                Pending pending;
+                while (batch.size() < batchSize && (pending = queue.poll()) != null) {
+                    batch.add(pending);
+                }
+                if (batch.isEmpty()) {
+                    LockSupport.parkNanos(this, idleNanos);
+                    continue;
+                }
+                size.addAndGet(-batch.size());
+                save(batch);
+                batch.clear();
+            }
+        }
+
+        /**
+         * Saves the orders of a batch whose callers are still waiting, skipping those withdrawn.
+         */
+        private void save(List<Pending> batch) {
+            List<Pending> taken = new ArrayList<>(batch.size());
+            List<Order> orders = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                if (pending.take()) {
+                    taken.add(pending);
+                    orders.add(pending.order);
+                }
+            }
+            if (taken.isEmpty()) {
+                return;
+            }
+            try {
+                List<OrderResult> results = delegate.saveRegisteredOrders(orders);
+                batchSizeSummary.record(taken.size());
+                for (int i = 0; i < taken.size(); i++) {
+                    taken.get(i).complete(results.get(i));
+                }
+            } catch (RuntimeException e) {
+                log.error("saving a batch of {} orders on pipeline shard {} failed", taken.size(), index, e);
+                for (Pending pending : taken) {
+                    pending.fail(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * A queued order, claimed exactly once: by the worker that saves it or by the caller that withdraws it.
+     */
+    private final class Pending {
+
+        private final Order order;
+        private final CompletableFuture<OrderResult> submission;
+        private final CompletableFuture<OrderResult> result = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Pending(Order order, CompletableFuture<OrderResult> submission) {
+            this.order = order;
+            this.submission = submission;
+        }
+
+        boolean take() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        boolean withdraw() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        void complete(OrderResult outcome) {
+            if (submission != null) {
+                clientOrderIndex.complete(order.getAccountId(), order.getClientOrderId(), submission, outcome);
+            }
+            result.complete(outcome);
+        }
+
+        void fail(RuntimeException failure) {
+            if (submission != null) {
+                clientOrderIndex.fail(order.getAccountId(), order.getClientOrderId(), submission, failure);
+            }
+            result.completeExceptionally(failure);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.minimarket.orders.orderservice.service.impl;
+
+import com.minimarket.orders.orderservice.dto.PriceResponse;
+import com.minimarket.orders.orderservice.exception.DuplicateOrderException;
+import com.minimarket.orders.orderservice.exception.InvalidOrderException;
+import com.minimarket.orders.orderservice.exception.OrderNotFoundException;
+import com.minimarket.orders.orderservice.exception.RateLimitExceededException;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.ratelimiter.AccountRateLimiter;
+import com.minimarket.orders.orderservice.service.api.ReactiveOrderService;
+import com.minimarket.orders.orderservice.service.position.PositionBook;
+import com.minimarket.orders.orderservice.service.price.PriceService;
+import com.minimarket.orders.orderservice.service.risk.RiskEngine;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+/**
+ * Non-blocking implementation of {@link ReactiveOrderService}, active with the {@code reactive} profile.
+ * Chains the rate-limit check, the price lookup and the R2DBC inserts of the order and its
+ * execution without blocking any thread. Ids are drawn from the same sequences the JPA mapping
+ * uses; every {@code nextval} is the start of a pooled-lo block, so ids never collide with ones
+ * allocated by Hibernate. Limit orders need the order book and are rejected. A reused client order
+ * ID is rejected by the unique constraint alone; this path keeps no index of recent submissions.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveOrderServiceImpl implements ReactiveOrderService {
+
+    private static final String RATE_LIMIT_EXCEEDED_MESSAGE = "Rate limit exceeded for account: %s";
+    private static final int RATE_LIMIT_PERMITS = 1;
+    private static final int PRICE_SCALE = 6;
+    private static final String PRICE_UNAVAILABLE_MESSAGE = "Price unavailable for symbol: %s";
+    private static final String LIMIT_ORDERS_UNSUPPORTED_MESSAGE = "Limit orders are not supported by the reactive profile";
+    private static final String CLIENT_ORDER_ID_CONSTRAINT = "uk_orders_account_client_order_id";
+    private static final String DUPLICATE_ORDER_MESSAGE = "Order %s of account %s was already submitted";
+
+    private static final String INSERT_ORDER = """
+            insert into orders (id, account_id, symbol, side, quantity, status, created_at, client_order_id)
+            values (nextval('orders_seq'), :accountId, :symbol, :side, :quantity, :status, :createdAt, :clientOrderId)
+            returning id""";
+    private static final String INSERT_EXECUTION = """
+            insert into executions (id, order_id, price, quantity, executed_at)
+            values (nextval('executions_seq'), :orderId, :price, :quantity, :executedAt)
+            returning id""";
+    private static final String SELECT_ORDERS = """
+            select id, account_id, symbol, side, quantity, order_type, limit_price, status, created_at, client_order_id
+            from orders""";
+
+    private final AccountRateLimiter rateLimiter;
+    private final PriceService priceService;
+    private final RiskEngine riskEngine;
+    private final PositionBook positionBook;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Constructs a {@code ReactiveOrderServiceImpl} with required dependencies.
+     *
+     * @param rateLimiter limits the request rate of each account
+     * @param priceService provides pricing information for orders
+     * @param riskEngine runs the pre-trade risk checks
+     * @param positionBook receives the executions once committed, since these inserts bypass JPA
+     * @param databaseClient executes the R2DBC statements
+     * @param transactionalOperator wraps the order and execution inserts in one transaction
+     */
+    public ReactiveOrderServiceImpl(AccountRateLimiter rateLimiter, PriceService priceService, RiskEngine riskEngine,
+                                    PositionBook positionBook, DatabaseClient databaseClient,
+                                    TransactionalOperator transactionalOperator) {
+        this.rateLimiter = rateLimiter;
+        this.priceService = priceService;
+        this.riskEngine = riskEngine;
+        this.positionBook = positionBook;
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    /**
+     * Saves an order, applies rate limiting and risk checks, retrieves price, and records execution.
+     * The notional risk limits are checked again at the retrieved price. The creation time is set here,
+     * replacing any the client sent.
+     *
+     * @param order the order to save
+     * @return a {@link Mono} emitting a {@link PriceResponse} with the order's price and symbol
+     */
+    @Override
+    public Mono<PriceResponse> saveOrder(Order order) {
+        return Mono.fromRunnable(() -> {
+                    validateOrder(order);
+                    order.setCreatedAt(OffsetDateTime.now());
+                    if (order.getType() == Order.Type.LIMIT) {
+                        throw new InvalidOrderException(LIMIT_ORDERS_UNSUPPORTED_MESSAGE);
+                    }
+                    checkRateLimit(order.getAccountId());
+                    riskEngine.check(order);
+                })
+                .then(priceService.getPriceAsync(order))
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException(
+                        String.format(PRICE_UNAVAILABLE_MESSAGE, order.getSymbol()))))
+                .map(price -> price.setScale(PRICE_SCALE, RoundingMode.HALF_UP))
+                .doOnNext(price -> riskEngine.check(order, price))
+                .flatMap(price -> persistOrderAndExecution(order, price)
+                        .thenReturn(PriceResponse.builder()
+                                .symbol(order.getSymbol())
+                                .price(price)
+                                .build()));
+    }
+
+    /**
+     * Retrieves an order by its ID.
+     *
+     * @param id the ID of the order
+     * @return a {@link Mono} emitting the order, or an {@link OrderNotFoundException} if none exists
+     */
+    @Override
+    public Mono<Order> getOrderById(Long id) {
+        Objects.requireNonNull(id, "Order ID cannot be null");
+        return databaseClient.sql(SELECT_ORDERS + " where id = :id")
+                .bind("id", id)
+                .map(ReactiveOrderServiceImpl::toOrder)
+                .one()
+                .switchIfEmpty(Mono.error(() -> new OrderNotFoundException(id)));
+    }
+
+    /**
+     * Retrieves all orders for a given account ID, streaming rows as they are read.
+     *
+     * @param accountId the ID of the account
+     * @return a {@link Flux} of the account's orders
+     */
+    @Override
+    public Flux<Order> getOrdersByAccountId(String accountId) {
+        Objects.requireNonNull(accountId, "Account ID cannot be null");
+        return databaseClient.sql(SELECT_ORDERS + " where account_id = :accountId order by id")
+                .bind("accountId", accountId)
+                .map(ReactiveOrderServiceImpl::toOrder)
+                .all();
+    }
+
+    private void validateOrder(Order order) {
+        Objects.requireNonNull(order, "Order cannot be null");
+        Objects.requireNonNull(order.getAccountId(), "Account ID cannot be null");
+        Objects.requireNonNull(order.getSymbol(), "Symbol cannot be null");
+    }
+
+    private void checkRateLimit(String accountId) {
+        if (!rateLimiter.tryAcquire(accountId, RATE_LIMIT_PERMITS)) {
+            throw new RateLimitExceededException(String.format(RATE_LIMIT_EXCEEDED_MESSAGE, accountId));
+        }
+    }
+
+    /**
+     * Inserts the order and its execution in one transaction and applies the execution to the
+     * {@link PositionBook} once committed: the transactional {@link Mono} emits only after the commit.
+     */
+    private Mono<Void> persistOrderAndExecution(Order order, BigDecimal price) {
+        DatabaseClient.GenericExecuteSpec insertOrder = databaseClient.sql(INSERT_ORDER)
+                .bind("accountId", order.getAccountId())
+                .bind("symbol", order.getSymbol());
+        insertOrder = bindNullable(insertOrder, "side", order.getSide() == null ? null : order.getSide().name(), String.class);
+        insertOrder = bindNullable(insertOrder, "quantity", order.getQuantity(), Integer.class);
+        insertOrder = bindNullable(insertOrder, "status", order.getStatus() == null ? null : order.getStatus().name(), String.class);
+        insertOrder = bindNullable(insertOrder, "createdAt", order.getCreatedAt(), OffsetDateTime.class);
+        insertOrder = bindNullable(insertOrder, "clientOrderId", order.getClientOrderId(), String.class);
+
+        OffsetDateTime executedAt = OffsetDateTime.now();
+        return insertOrder.map(row -> row.get("id", Long.class))
+                .one()
+                .flatMap(orderId -> {
+                    order.setId(orderId);
+                    return databaseClient.sql(INSERT_EXECUTION)
+                            .bind("orderId", orderId)
+                            .bind("price", price)
+                            .bind("quantity", order.getQuantity())
+                            .bind("executedAt", executedAt)
+                            .map(row -> row.get("id", Long.class))
+                            .one();
+                })
+                .as(transactionalOperator::transactional)
+                .doOnNext(executionId -> positionBook.apply(executionId, executedAt, order.getAccountId(),
+                        order.getSymbol(), order.getSide(), price, order.getQuantity()))
+                .then()
+                .onErrorMap(DataIntegrityViolationException.class, e -> isClientOrderIdConflict(e)
+                        ? new DuplicateOrderException(String.format(DUPLICATE_ORDER_MESSAGE,
+                                order.getClientOrderId(), order.getAccountId())) : e);
+    }
+
+    private static boolean isClientOrderIdConflict(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(CLIENT_ORDER_ID_CONSTRAINT);
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                      String name, T value, Class<T> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static Order toOrder(Readable row) {
+        return Order.builder()
+                .id(row.get("id", Long.class))
+                .accountId(row.get("account_id", String.class))
+                .symbol(row.get("symbol", String.class))
+                .side(Order.Side.valueOf(row.get("side", String.class)))
+                .quantity(row.get("quantity", Integer.class))
+                .type(Order.Type.valueOf(row.get("order_type", String.class)))
+                .limitPrice(row.get("limit_price", BigDecimal.class))
+                .status(Order.Status.valueOf(row.get("status", String.class)))
+                .createdAt(row.get("created_at", OffsetDateTime.class))
+                .clientOrderId(row.get("client_order_id", String.class))
+                .build();
+    }
+}
@@ -0,0 +1,210 @@
+package com.minimarket.orders.orderservice.service.impl;
+
+import com.minimarket.orders.orderservice.model.Execution;
+import com.minimarket.orders.orderservice.repository.ExecutionRepository;
+import com.minimarket.orders.orderservice.service.api.ExecutionService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind implementation of the {@link ExecutionService} interface.
+ * Enabled with {@code executions.write-behind.enabled}. Executions are handed to a bounded
+ * in-memory buffer once the caller's transaction has committed, and a dedicated writer thread
+ * drains the buffer in batches to the {@link ExecutionRepository}. When the buffer is full the
+ * caller blocks until the writer catches up, and on shutdown the writer flushes everything that
+ * is still buffered before the application context closes.
+ */
+@Service
+@ConditionalOnProperty(name = "executions.write-behind.enabled", havingValue = "true")
+@Slf4j
+public class WriteBehindExecutionService implements ExecutionService, SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "executions.write-behind";
+    private static final int MAX_FLUSH_ATTEMPTS = 5;
+
+    private final ExecutionRepository executionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Execution> buffer;
+    private final int batchSize;
+    private final long pollIntervalNanos;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    /**
+     * Constructs a {@code WriteBehindExecutionService} and registers its metrics.
+     *
+     * @param executionRepository the repository executions are written to
+     * @param transactionManager the transaction manager used for each batch write
+     * @param meterRegistry the registry queue depth, batch size and flush latency are published to
+     * @param capacity the maximum number of executions buffered in memory
+     * @param batchSize the maximum number of executions written per transaction
+     * @param pollInterval how long the writer waits for new executions before checking for shutdown
+     */
+    public WriteBehindExecutionService(ExecutionRepository executionRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${executions.write-behind.capacity:65536}") int capacity,
+                                       @Value("${executions.write-behind.batch-size:500}") int batchSize,
+                                       @Value("${executions.write-behind.poll-interval:5ms}") Duration pollInterval) {
+        this.executionRepository = executionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.pollIntervalNanos = pollInterval.toNanos();
+
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", buffer, BlockingQueue::size)
+                .description("Executions buffered and not yet written")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder(METRIC_PREFIX + ".batch.size")
+                .description("Executions written per batch")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder(METRIC_PREFIX + ".flush")
+                .description("Latency of writing one batch of executions")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buffers an execution for asynchronous persistence once the current transaction commits.
+     *
+     * @param execution the {@link Execution} object to be saved
+     */
+    @Override
+    public void saveExecution(Execution execution) {
+        saveExecutions(List.of(execution));
+    }
+
+    /**
+     * Buffers several executions for asynchronous persistence once the current transaction commits.
+     *
+     * @param executions the {@link Execution} objects to be saved
+     */
+    @Override
+    public void saveExecutions(List<Execution> executions) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(executions);
+                }
+            });
+        } else {
+            enqueue(executions);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "execution-writer");
+        writer.setDaemon(false);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("execution writer stopped, {} executions left unwritten", buffer.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server so that executions of in-flight requests are still flushed.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void enqueue(List<Execution> executions) {
+        for (Execution execution : executions) {
+            try {
+                while (!buffer.offer(execution, pollIntervalNanos, TimeUnit.NANOSECONDS)) {
+                    if (!running) {
+                        flush(List.of(execution));
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                flush(List.of(execution));
+            }
+        }
+    }
+
+    private void drainLoop() {
+        while (running || !buffer.isEmpty()) {
+            try {
+                Execution first = buffer.poll(pollIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Execution> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+    }
+
+    private void flush(List<Execution> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flushTimer.record(() -> transactionTemplate.executeWithoutResult(
+                        status -> executionRepository.saveAll(batch)));
+                batchSizeSummary.record(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == MAX_FLUSH_ATTEMPTS) {
+                    log.error("dropping {} executions after {} failed writes", batch.size(), attempt, e);
+                    return;
+                }
+                log.warn("writing {} executions failed (attempt {}), retrying", batch.size(), attempt, e);
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    private static void sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(50L << attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
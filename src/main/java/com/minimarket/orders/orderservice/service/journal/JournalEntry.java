@@ -0,0 +1,156 @@
+package com.minimarket.orders.orderservice.service.journal;
+
+import com.minimarket.orders.orderservice.model.Execution;
+import com.minimarket.orders.orderservice.model.Order;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * An accepted market order and its execution, as written to the {@link OrderJournal}.
+ * The binary form is little more than the columns of both rows: enums as their ordinal, timestamps
+ * as microseconds since the epoch in UTC (the resolution of the database columns), the price as a
+ * {@code long} at scale 6, and the account, the symbol and the optional client order ID as
+ * length-prefixed UTF-8, the latter behind a presence flag. Neither row has an ID yet; IDs are assigned
+ * when the {@link JournalReplicator} inserts them. Records of version 1, written before client order
+ * IDs were journaled, are still read.
+ *
+ * @param order the order, with a side, a quantity, a status and a creation time
+ * @param execution the execution of the order, with a price and an execution time
+ */
+public record JournalEntry(Order order, Execution execution) {
+
+    private static final byte VERSION = 2;
+    private static final byte VERSION_WITHOUT_CLIENT_ORDER_ID = 1;
+    private static final int PRICE_SCALE = 6;
+    private static final int FIXED_BYTES = 1 + 1 + 1 + 4 + 8 + 8 + 4 + 8 + 2 + 2 + 1;
+
+    public JournalEntry {
+        Objects.requireNonNull(order.getAccountId(), "Account ID cannot be null");
+        Objects.requireNonNull(order.getSymbol(), "Symbol cannot be null");
+        Objects.requireNonNull(order.getSide(), "Side cannot be null");
+        Objects.requireNonNull(order.getQuantity(), "Quantity cannot be null");
+        Objects.requireNonNull(order.getStatus(), "Status cannot be null");
+        Objects.requireNonNull(order.getCreatedAt(), "Created at cannot be null");
+        Objects.requireNonNull(execution.getPrice(), "Price cannot be null");
+        Objects.requireNonNull(execution.getQuantity(), "Executed quantity cannot be null");
+        Objects.requireNonNull(execution.getExecutedAt(), "Executed at cannot be null");
+    }
+
+    /**
+     * Creates the entry of an execution and the order it belongs to.
+     *
+     * @param execution the execution, referencing its order
+     * @return the entry
+     */
+    public static JournalEntry of(Execution execution) {
+        return new JournalEntry(execution.getOrder(), execution);
+    }
+
+    /**
+     * Returns the number of bytes {@link #encode} writes.
+     *
+     * @return the encoded size in bytes
+     */
+    public int encodedSize() {
+        String clientOrderId = order.getClientOrderId();
+        return FIXED_BYTES + utf8Length(order.getAccountId()) + utf8Length(order.getSymbol())
+                + (clientOrderId == null ? 0 : 2 + utf8Length(clientOrderId));
+    }
+
+    /**
+     * Writes the entry at the buffer's position and advances it.
+     *
+     * @param buffer the buffer, with at least {@link #encodedSize()} bytes remaining
+     */
+    public void encode(ByteBuffer buffer) {
+        buffer.put(VERSION)
+                .put((byte) order.getSide().ordinal())
+                .put((byte) order.getStatus().ordinal())
+                .putInt(order.getQuantity())
+                .putLong(toMicros(order.getCreatedAt()))
+                .putLong(execution.getPrice().setScale(PRICE_SCALE, RoundingMode.UNNECESSARY)
+                        .unscaledValue().longValueExact())
+                .putInt(execution.getQuantity())
+                .putLong(toMicros(execution.getExecutedAt()));
+        putString(buffer, order.getAccountId());
+        putString(buffer, order.getSymbol());
+        if (order.getClientOrderId() == null) {
+            buffer.put((byte) 0);
+        } else {
+            putString(buffer.put((byte) 1), order.getClientOrderId());
+        }
+    }
+
+    /**
+     * Reads an entry at the buffer's position and advances it past the entry.
+     *
+     * @param buffer the buffer holding an entry written by {@link #encode}
+     * @return a new, unsaved order and execution
+     * @throws IllegalStateException if the entry was written by an unknown version
+     */
+    public static JournalEntry decode(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION && version != VERSION_WITHOUT_CLIENT_ORDER_ID) {
+            throw new IllegalStateException("Unknown journal entry version: " + version);
+        }
+        Order.Side side = Order.Side.values()[buffer.get()];
+        Order.Status status = Order.Status.values()[buffer.get()];
+        int quantity = buffer.getInt();
+        OffsetDateTime createdAt = fromMicros(buffer.getLong());
+        BigDecimal price = BigDecimal.valueOf(buffer.getLong(), PRICE_SCALE);
+        int executedQuantity = buffer.getInt();
+        OffsetDateTime executedAt = fromMicros(buffer.getLong());
+        String accountId = getString(buffer);
+        String symbol = getString(buffer);
+        String clientOrderId = version != VERSION_WITHOUT_CLIENT_ORDER_ID && buffer.get() != 0
+                ? getString(buffer) : null;
+
+        Order order = Order.builder()
+                .accountId(accountId)
+                .symbol(symbol)
+                .side(side)
+                .quantity(quantity)
+                .status(status)
+                .createdAt(createdAt)
+                .clientOrderId(clientOrderId)
+                .build();
+        Execution execution = Execution.builder()
+                .order(order)
+                .price(price)
+                .quantity(executedQuantity)
+                .executedAt(executedAt)
+                .build();
+        return new JournalEntry(order, execution);
+    }
+
+    private static long toMicros(OffsetDateTime time) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, time.toInstant());
+    }
+
+    private static OffsetDateTime fromMicros(long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS).atOffset(ZoneOffset.UTC);
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
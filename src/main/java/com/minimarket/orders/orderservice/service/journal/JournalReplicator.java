@@ -0,0 +1,247 @@
+package com.minimarket.orders.orderservice.service.journal;
+
+import com.minimarket.orders.orderservice.model.Execution;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.repository.ClientOrderKey;
+import com.minimarket.orders.orderservice.repository.ExecutionRepository;
+import com.minimarket.orders.orderservice.repository.JournalCheckpointRepository;
+import com.minimarket.orders.orderservice.repository.OrderRepository;
+import com.minimarket.orders.orderservice.service.risk.PendingExposure;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Copies the {@link OrderJournal} into the {@code orders} and {@code executions} tables.
+ * A dedicated thread reads durable records in batches and inserts each batch together with the new
+ * checkpoint in one transaction, so every record is inserted exactly once even across crashes.
+ * On startup it resumes from the checkpoint, which replays whatever the previous run had
+ * acknowledged but not replicated. Failed batches are retried until they succeed or the service
+ * stops; on shutdown the replicator first catches up with the journal.
+ * <p>
+ * A record whose client order ID the account already used, by an order inserted directly or by an
+ * earlier record, is a duplicate the {@code ClientOrderIndex} no longer remembered when it was
+ * acknowledged. It is skipped and counted rather than inserted, since it would fail the unique
+ * constraint on every attempt. A duplicate inserted directly while a batch is in flight fails that
+ * batch once; the retry skips it.
+ * <p>
+ * Journaled orders count as {@link PendingExposure} until their batch commits. The orders appended
+ * by this run were added by the order service; those the previous run left are added on startup.
+ * <p>
+ * Executions are inserted through the {@link ExecutionRepository} rather than the
+ * {@code ExecutionService}, since a write-behind service would detach them from the checkpoint.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.journal.enabled", havingValue = "true")
+@Slf4j
+public class JournalReplicator implements SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "orders.journal.replication";
+    private static final long MAX_RETRY_DELAY_MILLIS = 5_000;
+
+    private final OrderJournal journal;
+    private final OrderRepository orderRepository;
+    private final ExecutionRepository executionRepository;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final PendingExposure pendingExposure;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long pollIntervalNanos;
+    private final Timer replicateTimer;
+    private final Counter duplicates;
+
+    private volatile long position;
+    private volatile boolean running;
+    private Thread replicator;
+
+    /**
+     * Constructs a {@code JournalReplicator} and registers its metrics.
+     *
+     * @param journal the journal to replicate
+     * @param orderRepository the repository orders are inserted with
+     * @param executionRepository the repository executions are inserted with
+     * @param checkpointRepository stores the replicated position of the journal
+     * @param pendingExposure counts the journaled orders until they are replicated
+     * @param transactionManager the transaction manager used for each batch
+     * @param meterRegistry the registry replication lag and latency are published to
+     * @param batchSize the maximum number of records inserted per transaction
+     * @param pollInterval how long the replicator waits when it has caught up with the journal
+     */
+    public JournalReplicator(OrderJournal journal,
+                             OrderRepository orderRepository,
+                             ExecutionRepository executionRepository,
+                             JournalCheckpointRepository checkpointRepository,
+                             PendingExposure pendingExposure,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${orders.journal.replication.batch-size:500}") int batchSize,
+                             @Value("${orders.journal.replication.poll-interval:5ms}") Duration pollInterval) {
+        this.journal = journal;
+        this.orderRepository = orderRepository;
+        this.executionRepository = executionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.pendingExposure = pendingExposure;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pollIntervalNanos = pollInterval.toNanos();
+
+        Gauge.builder(METRIC_PREFIX + ".lag", this, replicator -> journal.durablePosition() - replicator.position)
+                .description("Journal bytes acknowledged but not yet replicated")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.replicateTimer = Timer.builder(METRIC_PREFIX + ".batch")
+                .description("Latency of replicating one batch of journal records")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.duplicates = Counter.builder(METRIC_PREFIX + ".duplicates")
+                .description("Journal records skipped because their client order ID was already used")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        position = checkpointRepository.load(journal.getId());
+        log.info("replicating order journal {} from position {}, {} orders pending", journal.getId(), position,
+                addPendingExposure());
+        running = true;
+        replicator = new Thread(this::replicateLoop, "journal-replicator");
+        replicator.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (replicator == null) {
+            return;
+        }
+        try {
+            replicator.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("journal replicator stopped, {} bytes left to replicate",
+                journal.durablePosition() - position);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server, so that orders of in-flight requests are still replicated,
+     * and before the journal.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void replicateLoop() {
+        int failures = 0;
+        while (running || position < journal.durablePosition()) {
+            List<JournalEntry> entries = new ArrayList<>(batchSize);
+            long next = journal.read(position, batchSize, entries);
+            if (next == position) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(pollIntervalNanos);
+                continue;
+            }
+            try {
+                if (!entries.isEmpty()) {
+                    replicateTimer.record(() -> replicate(entries, next));
+                }
+                position = next;
+                journal.truncate(next);
+                failures = 0;
+            } catch (RuntimeException e) {
+                failures++;
+                if (!running) {
+                    log.error("giving up replicating the journal at position {} on shutdown", position, e);
+                    return;
+                }
+                log.warn("replicating {} journal records at position {} failed (attempt {}), retrying",
+                        entries.size(), position, failures, e);
+                LockSupport.parkNanos(Math.min(MAX_RETRY_DELAY_MILLIS, 50L << Math.min(failures, 10)) * 1_000_000L);
+            }
+        }
+    }
+
+    private long addPendingExposure() {
+        long pending = 0;
+        long from = position;
+        List<JournalEntry> entries = new ArrayList<>(batchSize);
+        long next = journal.read(from, batchSize, entries);
+        while (next != from) {
+            entries.forEach(entry -> pendingExposure.add(entry.order()));
+            pending += entries.size();
+            entries.clear();
+            from = next;
+            next = journal.read(from, batchSize, entries);
+        }
+        return pending;
+    }
+
+    private void replicate(List<JournalEntry> entries, long next) {
+        int skipped = transactionTemplate.execute(status -> {
+            Set<Key> used = usedClientOrderIds(entries);
+            List<Order> orders = new ArrayList<>(entries.size());
+            List<Execution> executions = new ArrayList<>(entries.size());
+            for (JournalEntry entry : entries) {
+                Order order = entry.order();
+                if (order.getClientOrderId() != null
+                        && !used.add(new Key(order.getAccountId(), order.getClientOrderId()))) {
+                    log.warn("skipping journaled order {} of account {}: client order ID already used",
+                            order.getClientOrderId(), order.getAccountId());
+                    continue;
+                }
+                orders.add(order);
+                executions.add(entry.execution());
+            }
+            orderRepository.saveAll(orders);
+            executionRepository.saveAll(executions);
+            checkpointRepository.save(journal.getId(), next);
+            return entries.size() - orders.size();
+        });
+        duplicates.increment(skipped);
+        entries.forEach(entry -> pendingExposure.remove(entry.order()));
+    }
+
+    private Set<Key> usedClientOrderIds(List<JournalEntry> entries) {
+        Set<String> accountIds = new HashSet<>();
+        Set<String> clientOrderIds = new HashSet<>();
+        for (JournalEntry entry : entries) {
+            if (entry.order().getClientOrderId() != null) {
+                accountIds.add(entry.order().getAccountId());
+                clientOrderIds.add(entry.order().getClientOrderId());
+            }
+        }
+        Set<Key> used = new HashSet<>();
+        if (!clientOrderIds.isEmpty()) {
+            for (ClientOrderKey key : orderRepository.findClientOrderKeys(accountIds, clientOrderIds)) {
+                used.add(new Key(key.getAccountId(), key.getClientOrderId()));
+            }
+        }
+        return used;
+    }
+
+    private record Key(String accountId, String clientOrderId) {
+    }
+}
@@ -0,0 +1,450 @@
+package com.minimarket.orders.orderservice.service.journal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped journal of accepted market orders.
+ * Enabled with {@code orders.journal.enabled}. The journal is a directory of fixed-size segment
+ * files; each record is a length, a CRC32C of the payload and a {@link JournalEntry}, and a record
+ * that does not fit in the rest of a segment starts the next one. A position is a byte offset over
+ * all segments ever written, so positions only grow.
+ * <p>
+ * Appenders copy their records into the mapped segment under a short lock and wait until a single
+ * sync thread has forced them to disk. While one sync runs, the records of every other appender
+ * pile up and are made durable by the next one, so the cost of a sync is shared by all the records
+ * it covers (group commit). A full segment is handed to the sync thread as well, so that appenders
+ * never wait for a whole segment to be forced. On startup the last segment is scanned up to the first
+ * record that is incomplete or fails its checksum, which is where writing resumes; the segment before
+ * it, which may not have been forced yet, is cut back the same way.
+ * <p>
+ * Each journal directory has a random ID, under which the {@link JournalReplicator} keeps its
+ * checkpoint in the database, so a new directory never inherits the checkpoint of an old one.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.journal.enabled", havingValue = "true")
+@Slf4j
+public class OrderJournal implements SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "orders.journal";
+    private static final String ID_FILE = "journal.id";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int HEADER_BYTES = 8;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long timeoutNanos;
+    private final String id;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    private final Timer syncTimer;
+    private final DistributionSummary syncSizeSummary;
+
+    private MappedByteBuffer segment;
+    private long segmentIndex;
+    private int writeOffset;
+    private MappedByteBuffer sealed;
+    private int sealedOffset;
+    private volatile long durablePosition;
+    private volatile boolean running;
+    private Thread syncer;
+
+    private long readSegmentIndex = -1;
+    private MappedByteBuffer readSegment;
+
+    /**
+     * Constructs an {@code OrderJournal}, opening the journal directory and finding the end of the
+     * last segment.
+     *
+     * @param meterRegistry the registry sync latency and size are published to
+     * @param directory the directory holding the segments, created if missing
+     * @param segmentSize the size of each segment file
+     * @param timeout how long an appender waits for its records to become durable
+     */
+    public OrderJournal(MeterRegistry meterRegistry,
+                        @Value("${orders.journal.directory:data/journal}") Path directory,
+                        @Value("${orders.journal.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${orders.journal.timeout:1s}") Duration timeout) {
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.timeoutNanos = timeout.toNanos();
+        try {
+            Files.createDirectories(directory);
+            this.id = readOrCreateId();
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open order journal in " + directory, e);
+        }
+
+        this.syncTimer = Timer.builder(METRIC_PREFIX + ".sync")
+                .description("Latency of forcing journal records to disk")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.syncSizeSummary = DistributionSummary.builder(METRIC_PREFIX + ".sync.size")
+                .description("Bytes made durable per sync")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".position", this, OrderJournal::durablePosition)
+                .description("Durable end of the journal")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the ID of the journal directory.
+     *
+     * @return the journal ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the position up to which records are on disk.
+     *
+     * @return the durable end of the journal
+     */
+    public long durablePosition() {
+        return durablePosition;
+    }
+
+    /**
+     * Appends records and waits until they are durable. The records of one call are written
+     * back to back and become durable together.
+     *
+     * @param entries the records to append
+     * @return the position after the last record
+     * @throws IllegalStateException if the journal is not running or the records do not become
+     *                               durable in time; in the latter case they may still be replicated
+     */
+    public long append(List<JournalEntry> entries) {
+        long end;
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Order journal is not running");
+            }
+            for (JournalEntry entry : entries) {
+                write(entry);
+            }
+            end = position(segmentIndex, writeOffset);
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(end);
+        return end;
+    }
+
+    /**
+     * Reads durable records, following segment boundaries. Only the {@link JournalReplicator}
+     * reads, so reading is not synchronized.
+     *
+     * @param from the position to read from
+     * @param maxEntries the maximum number of records to read
+     * @param entries receives the records
+     * @return the position after the last record read, or {@code from} if there is nothing to read
+     */
+    public long read(long from, int maxEntries, List<JournalEntry> entries) {
+        long position = Math.max(from, firstSegmentPosition());
+        long limit = durablePosition;
+        int read = 0;
+        while (position < limit && read < maxEntries) {
+            ByteBuffer buffer = readSegment(position / segmentSize);
+            int offset = (int) (position % segmentSize);
+            int length = offset + HEADER_BYTES <= segmentSize ? buffer.getInt(offset) : 0;
+            if (length <= 0) {
+                position = position(position / segmentSize + 1, 0);
+                continue;
+            }
+            entries.add(JournalEntry.decode(buffer.slice(offset + HEADER_BYTES, length)));
+            position += HEADER_BYTES + length;
+            read++;
+        }
+        return position;
+    }
+
+    /**
+     * Deletes the segments that end at or before a position that has been replicated.
+     *
+     * @param position the replicated position
+     */
+    public void truncate(long position) {
+        long keepFrom = position / segmentSize;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(OrderJournal::isSegment).toList()) {
+                if (segmentIndexOf(file) < keepFrom) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("deleting replicated journal segments failed", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        syncer = new Thread(this::syncLoop, "journal-sync");
+        syncer.start();
+    }
+
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            running = false;
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (syncer == null) {
+            return;
+        }
+        try {
+            syncer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("order journal stopped at position {}", durablePosition);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the replicator and the web server.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    private void write(JournalEntry entry) {
+        int length = entry.encodedSize();
+        if (HEADER_BYTES + length > segmentSize) {
+            throw new IllegalArgumentException("Journal entry of " + length + " bytes exceeds the segment size");
+        }
+        if (writeOffset + HEADER_BYTES + length > segmentSize) {
+            roll();
+        }
+        int payload = writeOffset + HEADER_BYTES;
+        entry.encode(segment.slice(payload, length));
+        CRC32C crc = new CRC32C();
+        crc.update(segment.slice(payload, length));
+        segment.putInt(writeOffset + 4, (int) crc.getValue());
+        segment.putInt(writeOffset, length);
+        writeOffset = payload + length;
+    }
+
+    /**
+     * Moves on to the next segment and leaves forcing the full one to the sync thread. Only one full
+     * segment waits for it at a time: if the sync thread has not taken the previous one yet, which takes
+     * more than a segment of records within one sync, that one is forced here.
+     */
+    private void roll() {
+        if (sealed != null) {
+            sealed.force(0, sealedOffset);
+        }
+        sealed = segment;
+        sealedOffset = writeOffset;
+        segmentIndex++;
+        writeOffset = 0;
+        segment = map(segmentIndex);
+    }
+
+    private void awaitDurable(long end) {
+        lock.lock();
+        try {
+            long nanos = timeoutNanos;
+            while (durablePosition < end) {
+                if (nanos <= 0) {
+                    throw new IllegalStateException("Order journal did not sync position " + end + " in time");
+                }
+                nanos = synced.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the order journal", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            MappedByteBuffer full;
+            int fullFrom;
+            int fullTo;
+            MappedByteBuffer target;
+            int from;
+            int to;
+            long end;
+            lock.lock();
+            try {
+                while (running && position(segmentIndex, writeOffset) == durablePosition) {
+                    appended.awaitNanos(IDLE_NANOS);
+                }
+                end = position(segmentIndex, writeOffset);
+                if (end == durablePosition) {
+                    return;
+                }
+                full = sealed;
+                fullFrom = (int) Math.max(0, durablePosition - position(segmentIndex - 1, 0));
+                fullTo = sealedOffset;
+                sealed = null;
+                target = segment;
+                from = (int) Math.max(0, durablePosition - position(segmentIndex, 0));
+                to = writeOffset;
+            } catch (InterruptedException e) {
+                running = false;
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            syncTimer.record(() -> {
+                if (full != null) {
+                    full.force(fullFrom, fullTo - fullFrom);
+                }
+                target.force(from, to - from);
+            });
+            syncSizeSummary.record((full == null ? 0 : fullTo - fullFrom) + to - from);
+            lock.lock();
+            try {
+                durablePosition = Math.max(durablePosition, end);
+                synced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private String readOrCreateId() throws IOException {
+        Path file = directory.resolve(ID_FILE);
+        if (Files.exists(file)) {
+            return Files.readString(file, StandardCharsets.UTF_8).trim();
+        }
+        String newId = UUID.randomUUID().toString();
+        Files.writeString(file, newId, StandardCharsets.UTF_8);
+        return newId;
+    }
+
+    private void recover() throws IOException {
+        OptionalLong last;
+        try (Stream<Path> files = Files.list(directory)) {
+            last = files.filter(OrderJournal::isSegment).mapToLong(OrderJournal::segmentIndexOf).max();
+        }
+        segmentIndex = last.orElse(0);
+        if (segmentIndex > 0 && Files.exists(segmentFile(segmentIndex - 1))) {
+            recoverEnd(map(segmentIndex - 1));
+        }
+        segment = map(segmentIndex);
+        writeOffset = recoverEnd(segment);
+        durablePosition = position(segmentIndex, writeOffset);
+        log.info("order journal {} opened in {} at position {}", id, directory, durablePosition);
+    }
+
+    /**
+     * Finds the end of the intact records of a segment and clears everything after it, so that a torn
+     * record is never read.
+     */
+    private int recoverEnd(MappedByteBuffer buffer) {
+        int end = 0;
+        while (end + HEADER_BYTES <= segmentSize) {
+            int length = buffer.getInt(end);
+            if (length <= 0 || end + HEADER_BYTES + length > segmentSize) {
+                break;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(end + HEADER_BYTES, length));
+            if ((int) crc.getValue() != buffer.getInt(end + 4)) {
+                break;
+            }
+            end += HEADER_BYTES + length;
+        }
+        for (int i = end; i < segmentSize; i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.force();
+        return end;
+    }
+
+    private ByteBuffer readSegment(long index) {
+        if (index != readSegmentIndex) {
+            try (FileChannel channel = FileChannel.open(segmentFile(index), StandardOpenOption.READ)) {
+                readSegment = channel.map(FileChannel.MapMode.READ_ONLY, 0, segmentSize);
+                readSegmentIndex = index;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read journal segment " + index, e);
+            }
+        }
+        return readSegment;
+    }
+
+    private long firstSegmentPosition() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return position(files.filter(OrderJournal::isSegment).mapToLong(OrderJournal::segmentIndexOf)
+                    .min().orElse(segmentIndex), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list journal segments in " + directory, e);
+        }
+    }
+
+    private MappedByteBuffer map(long index) {
+        try (FileChannel channel = FileChannel.open(segmentFile(index), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map journal segment " + index, e);
+        }
+    }
+
+    private long position(long index, int offset) {
+        return index * segmentSize + offset;
+    }
+
+    private Path segmentFile(long index) {
+        return directory.resolve(String.format("%020d%s", index, SEGMENT_SUFFIX));
+    }
+
+    private static boolean isSegment(Path file) {
+        return file.getFileName().toString().endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long segmentIndexOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,21 @@
+package com.minimarket.orders.orderservice.service.matching;
+
+import java.math.BigDecimal;
+
+/**
+ * One match between a resting order and an incoming order.
+ *
+ * @param makerOrderId the ID of the resting order
+ * @param makerAccountId the account of the resting order
+ * @param takerOrderId the ID of the incoming order
+ * @param priceTicks the fill price in {@link OrderBook} ticks, which is the resting order's limit price
+ * @param quantity the filled quantity
+ * @param makerRemaining the quantity the resting order still has open after this fill
+ */
+public record Fill(long makerOrderId, String makerAccountId, long takerOrderId, long priceTicks, int quantity,
+                   int makerRemaining) {
+
+    public BigDecimal price() {
+        return OrderBook.toPrice(priceTicks);
+    }
+}
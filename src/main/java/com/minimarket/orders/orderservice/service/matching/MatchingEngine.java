@@ -0,0 +1,428 @@
+package com.minimarket.orders.orderservice.service.matching;
+
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.repository.OrderRepository;
+import com.minimarket.orders.orderservice.repository.RestingOrder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Matches limit orders between accounts in per-symbol {@link OrderBook}s.
+ * Symbols are spread over {@code matching.shards} shards by hash; each shard owns the books of its
+ * symbols and is the only thread that ever touches them, so books need no locks. Callers hand a
+ * task to the shard of their symbol through a bounded queue and wait for its result.
+ * <p>
+ * The task runs on the shard thread and owns the persistence of what it matches: it saves the order,
+ * {@link Matcher#match matches} it and records the fills, inside a transaction the shard opens for it.
+ * The shard runs every task that queued up while it was busy, up to {@code matching.batch-size} of them,
+ * in one transaction, so a busy shard pays one commit per batch rather than one per order. If a task
+ * fails, the whole batch is rolled back, every match it made is undone, and its tasks run again one
+ * transaction each, so that only the failing task fails. The matches of a failed task are undone
+ * before the shard takes the next task, so the books never hold fills or resting orders the database
+ * does not. Tasks must therefore be safe to run again after a rollback. A task still queued when its
+ * caller stops waiting is dropped; one already running is waited for.
+ * <p>
+ * The database is the record of the books: on startup every limit order that is still open is put
+ * back into its book, in ID order and with the quantity its executions have not covered yet.
+ */
+@Component
+@Slf4j
+public class MatchingEngine implements SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "matching";
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Shard[] shards;
+    private final int batchSize;
+    private final long timeoutNanos;
+    private final Counter fillCounter;
+    private final Counter undoCounter;
+    private final DistributionSummary batchSizeSummary;
+
+    private volatile boolean running;
+
+    /**
+     * Constructs a {@code MatchingEngine} and registers its metrics.
+     *
+     * @param orderRepository the repository resting orders are restored from on startup
+     * @param transactionManager the transaction manager the tasks run their transactions with
+     * @param meterRegistry the registry fill, batch size and queue depth metrics are published to
+     * @param shards the number of shard threads
+     * @param queueCapacity the maximum number of tasks waiting for each shard
+     * @param batchSize the maximum number of tasks a shard runs in one transaction
+     * @param timeout how long a caller waits for its task to be taken up by the shard
+     */
+    public MatchingEngine(OrderRepository orderRepository,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${matching.shards:4}") int shards,
+                          @Value("${matching.queue-capacity:65536}") int queueCapacity,
+                          @Value("${matching.batch-size:64}") int batchSize,
+                          @Value("${matching.timeout:1s}") Duration timeout) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new Shard(i, queueCapacity);
+        }
+        this.batchSize = batchSize;
+        this.timeoutNanos = timeout.toNanos();
+        this.fillCounter = Counter.builder(METRIC_PREFIX + ".fills")
+                .description("Fills between resting and incoming limit orders")
+                .register(meterRegistry);
+        this.undoCounter = Counter.builder(METRIC_PREFIX + ".undone")
+                .description("Tasks whose matches were undone because they failed")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder(METRIC_PREFIX + ".batch.size")
+                .description("Tasks committed per shard transaction")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", this, MatchingEngine::queueDepth)
+                .description("Orders waiting to be matched")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a task on the shard thread that owns a symbol's book, inside a transaction, and returns its
+     * result once that transaction has committed. The task matches orders of that symbol through the
+     * {@link Matcher} it is given; if it throws, its matches are undone and the exception is rethrown here.
+     *
+     * @param symbol the symbol the task matches orders of
+     * @param task the task, which should persist the orders and fills it matches before returning, and
+     *             may run a second time if the batch it first ran in was rolled back
+     * @param <T> the type of the task's result
+     * @return the result of the task
+     * @throws IllegalStateException if the engine is not running, or the shard does not take up the
+     *         task in time, in which case it never runs
+     */
+    public <T> T execute(String symbol, Function<Matcher, T> task) {
+        if (!running) {
+            throw new IllegalStateException("Matching engine is not running");
+        }
+        Task<T> command = new Task<>(symbol, task);
+        try {
+            if (!shardOf(symbol).queue.offer(command, timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("Matching engine queue is full");
+            }
+            return command.result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (command.claim()) {
+                throw new IllegalStateException("Matching engine did not answer for " + symbol, e);
+            }
+            // the shard is running the task already, so its outcome is the caller's
+            try {
+                return command.result.join();
+            } catch (CompletionException failure) {
+                throw rethrow(symbol, failure.getCause());
+            }
+        } catch (ExecutionException e) {
+            throw rethrow(symbol, e.getCause());
+        }
+    }
+
+    /**
+     * Restores the books from the open limit orders in the database, then starts the shard threads.
+     */
+    @Override
+    public void start() {
+        int restored = 0;
+        for (RestingOrder order : orderRepository.findRestingLimitOrders()) {
+            if (order.getRemaining() <= 0) {
+                continue;
+            }
+            shardOf(order.getSymbol()).book(order.getSymbol()).rest(order.getId(), order.getAccountId(),
+                    Order.Side.BUY.name().equals(order.getSide()),
+                    OrderBook.toTicks(order.getLimitPrice()), order.getRemaining().intValue());
+            restored++;
+        }
+        log.info("restored {} resting limit orders into {} shards", restored, shards.length);
+
+        running = true;
+        for (Shard shard : shards) {
+            shard.thread = new Thread(shard::drainLoop, "matching-" + shard.index);
+            shard.thread.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Shard shard : shards) {
+            if (shard.thread == null) {
+                continue;
+            }
+            try {
+                shard.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server, so no request finds the books missing.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private static RuntimeException rethrow(String symbol, Throwable cause) {
+        if (cause instanceof RuntimeException e) {
+            return e;
+        }
+        if (cause instanceof Error e) {
+            throw e;
+        }
+        return new IllegalStateException("Matching " + symbol + " failed", cause);
+    }
+
+    private Shard shardOf(String symbol) {
+        return shards[Math.floorMod(symbol.hashCode(), shards.length)];
+    }
+
+    private double queueDepth() {
+        int depth = 0;
+        for (Shard shard : shards) {
+            depth += shard.queue.size();
+        }
+        return depth;
+    }
+
+    /**
+     * Matches orders against the book of the symbol a task runs for.
+     */
+    @FunctionalInterface
+    public interface Matcher {
+
+        /**
+         * Matches a saved limit order against its book and rests whatever is not filled.
+         *
+         * @param order the order, which must have an ID, a side, a limit price and a positive quantity
+         * @return the fills, in execution order
+         * @throws IllegalArgumentException if the order is of another symbol than the task
+         */
+        List<Fill> match(Order order);
+    }
+
+    private final class Shard {
+
+        private final int index;
+        private final BlockingQueue<Task<?>> queue;
+        private final Map<String, OrderBook> books = new HashMap<>();
+        private Thread thread;
+
+        Shard(int index, int queueCapacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        OrderBook book(String symbol) {
+            return books.computeIfAbsent(symbol, key -> new OrderBook());
+        }
+
+        void drainLoop() {
+            List<Task<?>> drained = new ArrayList<>(batchSize);
+            List<Task<?>> batch = new ArrayList<>(batchSize);
+            while (running || !queue.isEmpty()) {
+                try {
+                    Task<?> task = queue.poll(POLL_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+                    if (task == null) {
+                        continue;
+                    }
+                    drained.add(task);
+                    queue.drainTo(drained, batchSize - 1);
+                    for (Task<?> claimed : drained) {
+                        if (claimed.claim()) {
+                            batch.add(claimed);
+                        }
+                    }
+                    if (batch.size() == 1) {
+                        execute(batch.get(0));
+                    } else if (!batch.isEmpty()) {
+                        executeBatch(batch);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    drained.clear();
+                    batch.clear();
+                }
+            }
+        }
+
+        /**
+         * Runs the tasks in one transaction. If any of them fails, or the commit does, the matches of
+         * all of them are undone in reverse order and each task runs again in a transaction of its own.
+         */
+        private void executeBatch(List<Task<?>> batch) {
+            List<ShardMatcher> matchers = new ArrayList<>(batch.size());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Task<?> task : batch) {
+                        ShardMatcher matcher = new ShardMatcher(book(task.symbol), task.symbol);
+                        matchers.add(matcher);
+                        task.run(matcher);
+                    }
+                });
+            } catch (RuntimeException | Error e) {
+                for (int i = matchers.size() - 1; i >= 0; i--) {
+                    matchers.get(i).undo();
+                }
+                log.debug("rolled back a batch of {} tasks on matching shard {}, running them one by one",
+                        batch.size(), index, e);
+                batch.forEach(this::execute);
+                return;
+            }
+            batchSizeSummary.record(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                fillCounter.increment(matchers.get(i).fills());
+                batch.get(i).succeed();
+            }
+        }
+
+        private void execute(Task<?> task) {
+            ShardMatcher matcher = new ShardMatcher(book(task.symbol), task.symbol);
+            try {
+                transactionTemplate.executeWithoutResult(status -> task.run(matcher));
+                batchSizeSummary.record(1);
+                fillCounter.increment(matcher.fills());
+                task.succeed();
+            } catch (RuntimeException | Error e) {
+                if (matcher.undo()) {
+                    undoCounter.increment();
+                    log.warn("undid the matches of a failed task for {}", task.symbol, e);
+                }
+                task.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class Task<T> {
+
+        private final String symbol;
+        private final Function<Matcher, T> work;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+
+        Task(String symbol, Function<Matcher, T> work) {
+            this.symbol = symbol;
+            this.work = work;
+        }
+
+        /**
+         * Claims the task for the shard, to run it, or for the caller, to drop it; only one side wins.
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        void run(Matcher matcher) {
+            value = work.apply(matcher);
+        }
+
+        /**
+         * Hands the result of the last run to the caller, once its transaction has committed.
+         */
+        void succeed() {
+            result.complete(value);
+        }
+    }
+
+    /**
+     * Matches on behalf of one task and remembers what it changed, so the changes can be undone.
+     */
+    private static final class ShardMatcher implements Matcher, OrderBook.FillListener {
+
+        private final OrderBook book;
+        private final String symbol;
+        private final List<Match> matches = new ArrayList<>(1);
+        private List<Fill> fills;
+
+        ShardMatcher(OrderBook book, String symbol) {
+            this.book = book;
+            this.symbol = symbol;
+        }
+
+        @Override
+        public List<Fill> match(Order order) {
+            if (!symbol.equals(order.getSymbol())) {
+                throw new IllegalArgumentException("Order " + order.getId() + " is not of symbol " + symbol);
+            }
+            boolean buy = order.getSide() == Order.Side.BUY;
+            long limitTicks = OrderBook.toTicks(order.getLimitPrice());
+            fills = new ArrayList<>(4);
+            int resting = book.submit(order.getId(), order.getAccountId(), buy, limitTicks, order.getQuantity(), this);
+            matches.add(new Match(order.getId(), buy, limitTicks, resting, fills));
+            return Collections.unmodifiableList(fills);
+        }
+
+        @Override
+        public void onFill(long makerOrderId, String makerAccountId, long takerOrderId, long priceTicks, int quantity,
+                           int makerRemaining) {
+            fills.add(new Fill(makerOrderId, makerAccountId, takerOrderId, priceTicks, quantity, makerRemaining));
+        }
+
+        int fills() {
+            return matches.stream().mapToInt(match -> match.fills.size()).sum();
+        }
+
+        /**
+         * Undoes the matches in reverse order: takes out what rested and gives the makers their fills back.
+         *
+         * @return whether there was anything to undo
+         */
+        boolean undo() {
+            for (int i = matches.size() - 1; i >= 0; i--) {
+                Match match = matches.get(i);
+                if (match.resting > 0) {
+                    book.cancel(match.orderId, match.buy, match.limitTicks);
+                }
+                for (int j = match.fills.size() - 1; j >= 0; j--) {
+                    Fill fill = match.fills.get(j);
+                    book.restore(fill.makerOrderId(), fill.makerAccountId(), !match.buy, fill.priceTicks(),
+                            fill.quantity());
+                }
+            }
+            return !matches.isEmpty();
+        }
+    }
+
+    private record Match(long orderId, boolean buy, long limitTicks, int resting, List<Fill> fills) {
+    }
+}
@@ -0,0 +1,380 @@
+package com.minimarket.orders.orderservice.service.matching;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Limit order book of one symbol with price-time priority.
+ * Prices are held as {@code long} ticks of 10<sup>-6</sup> and resting orders live in parallel
+ * primitive arrays, so matching never allocates or boxes. Each side keeps its price levels in a
+ * sorted array with the best price last, and each level is a FIFO list of order slots. A resting
+ * order keeps its account, which is handed to the {@link FillListener} with its fills, so settling
+ * them needs no lookup.
+ * <p>
+ * A book is not thread-safe; it is owned by the single shard thread of the {@link MatchingEngine}
+ * the symbol is assigned to.
+ */
+public class OrderBook {
+
+    /**
+     * Number of decimal places of a price tick, matching the scale of stored prices.
+     */
+    public static final int PRICE_SCALE = 6;
+
+    /**
+     * Returned by {@link #bestBid()} and {@link #bestAsk()} when that side is empty.
+     */
+    public static final long NO_PRICE = -1;
+
+    private static final int NIL = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Side bids = new Side(true);
+    private final Side asks = new Side(false);
+
+    private long[] orderIds = new long[INITIAL_CAPACITY];
+    private String[] accountIds = new String[INITIAL_CAPACITY];
+    private int[] remaining = new int[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int freeSlot = NIL;
+    private int usedSlots;
+    private int restingOrders;
+
+    /**
+     * Converts a price to ticks.
+     *
+     * @param price the price, with at most {@link #PRICE_SCALE} decimal places
+     * @return the price in ticks
+     * @throws ArithmeticException if the price has more decimal places than a tick resolves
+     */
+    public static long toTicks(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts ticks back to a price.
+     *
+     * @param ticks the price in ticks
+     * @return the price with {@link #PRICE_SCALE} decimal places
+     */
+    public static BigDecimal toPrice(long ticks) {
+        return BigDecimal.valueOf(ticks, PRICE_SCALE);
+    }
+
+    /**
+     * Matches an incoming limit order against the opposite side and rests what is left of it.
+     * Fills happen at the resting order's price, best price first and oldest order first within a price.
+     *
+     * @param orderId the ID of the incoming order
+     * @param accountId the account of the incoming order, kept if it rests
+     * @param buy whether the incoming order buys
+     * @param limitTicks the limit price in ticks
+     * @param quantity the quantity to buy or sell
+     * @param listener receives every fill, in execution order
+     * @return the quantity left resting in the book
+     */
+    public int submit(long orderId, String accountId, boolean buy, long limitTicks, int quantity,
+                      FillListener listener) {
+        Side opposite = buy ? asks : bids;
+        int open = quantity;
+        while (open > 0 && opposite.levels > 0) {
+            int level = opposite.levels - 1;
+            long price = opposite.prices[level];
+            if (buy ? price > limitTicks : price < limitTicks) {
+                break;
+            }
+            int slot = opposite.heads[level];
+            while (slot != NIL && open > 0) {
+                int fill = Math.min(open, remaining[slot]);
+                remaining[slot] -= fill;
+                open -= fill;
+                listener.onFill(orderIds[slot], accountIds[slot], orderId, price, fill, remaining[slot]);
+                if (remaining[slot] == 0) {
+                    int following = next[slot];
+                    release(slot);
+                    slot = following;
+                }
+            }
+            opposite.heads[level] = slot;
+            if (slot == NIL) {
+                opposite.levels--;
+            }
+        }
+        if (open > 0) {
+            rest(orderId, accountId, buy, limitTicks, open);
+        }
+        return open;
+    }
+
+    /**
+     * Puts an order in the book without matching it, behind every order already resting at its price.
+     * Used to rebuild a book from resting orders that were already matched when they arrived.
+     *
+     * @param orderId the ID of the order
+     * @param accountId the account of the order
+     * @param buy whether the order buys
+     * @param limitTicks the limit price in ticks
+     * @param quantity the quantity still open
+     */
+    public void rest(long orderId, String accountId, boolean buy, long limitTicks, int quantity) {
+        int slot = allocate(orderId, accountId, quantity);
+        (buy ? bids : asks).append(limitTicks, slot);
+        restingOrders++;
+    }
+
+    /**
+     * Takes a resting order out of the book.
+     *
+     * @param orderId the ID of the order
+     * @param buy whether the order buys
+     * @param limitTicks the limit price it rests at, in ticks
+     * @return the quantity it still had open, or {@code 0} if it was not resting at that price
+     */
+    public int cancel(long orderId, boolean buy, long limitTicks) {
+        Side side = buy ? bids : asks;
+        int level = side.find(limitTicks);
+        if (level < 0) {
+            return 0;
+        }
+        int previous = NIL;
+        for (int slot = side.heads[level]; slot != NIL; previous = slot, slot = next[slot]) {
+            if (orderIds[slot] == orderId) {
+                int open = remaining[slot];
+                side.unlink(level, previous, slot);
+                release(slot);
+                return open;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gives a filled quantity back to a resting order, which is put back at the front of its price
+     * level if the fill took it out of the book. Undoes the fills of {@link #submit}, provided they
+     * are restored in reverse order and nothing else changed the book in between.
+     *
+     * @param orderId the ID of the resting order
+     * @param accountId the account of the resting order
+     * @param buy whether the resting order buys
+     * @param priceTicks the price it rests at, in ticks
+     * @param quantity the filled quantity to give back
+     */
+    public void restore(long orderId, String accountId, boolean buy, long priceTicks, int quantity) {
+        Side side = buy ? bids : asks;
+        int level = side.find(priceTicks);
+        if (level >= 0 && orderIds[side.heads[level]] == orderId) {
+            remaining[side.heads[level]] += quantity;
+            return;
+        }
+        int slot = allocate(orderId, accountId, quantity);
+        side.prepend(priceTicks, slot);
+        restingOrders++;
+    }
+
+    /**
+     * Returns the highest resting bid.
+     *
+     * @return the best bid in ticks, or {@link #NO_PRICE} if there are no bids
+     */
+    public long bestBid() {
+        return bids.best();
+    }
+
+    /**
+     * Returns the lowest resting ask.
+     *
+     * @return the best ask in ticks, or {@link #NO_PRICE} if there are no asks
+     */
+    public long bestAsk() {
+        return asks.best();
+    }
+
+    /**
+     * Counts the orders resting in the book.
+     *
+     * @return the number of resting orders
+     */
+    public int size() {
+        return restingOrders;
+    }
+
+    /**
+     * Visits every resting order, bids before asks, each side from the best price and in time
+     * priority within a price.
+     *
+     * @param visitor receives each resting order
+     */
+    public void forEachResting(RestingOrderVisitor visitor) {
+        bids.forEach(visitor);
+        asks.forEach(visitor);
+    }
+
+    private int allocate(long orderId, String accountId, int quantity) {
+        int slot;
+        if (freeSlot != NIL) {
+            slot = freeSlot;
+            freeSlot = next[slot];
+        } else {
+            if (usedSlots == orderIds.length) {
+                int capacity = orderIds.length * 2;
+                orderIds = Arrays.copyOf(orderIds, capacity);
+                accountIds = Arrays.copyOf(accountIds, capacity);
+                remaining = Arrays.copyOf(remaining, capacity);
+                next = Arrays.copyOf(next, capacity);
+            }
+            slot = usedSlots++;
+        }
+        orderIds[slot] = orderId;
+        accountIds[slot] = accountId;
+        remaining[slot] = quantity;
+        next[slot] = NIL;
+        return slot;
+    }
+
+    private void release(int slot) {
+        accountIds[slot] = null;
+        next[slot] = freeSlot;
+        freeSlot = slot;
+        restingOrders--;
+    }
+
+    /**
+     * Receives the fills produced by {@link #submit}.
+     */
+    @FunctionalInterface
+    public interface FillListener {
+
+        /**
+         * Called once per fill.
+         *
+         * @param makerOrderId the ID of the resting order
+         * @param makerAccountId the account of the resting order
+         * @param takerOrderId the ID of the incoming order
+         * @param priceTicks the fill price in ticks
+         * @param quantity the filled quantity
+         * @param makerRemaining the quantity the resting order still has open
+         */
+        void onFill(long makerOrderId, String makerAccountId, long takerOrderId, long priceTicks, int quantity,
+                    int makerRemaining);
+    }
+
+    /**
+     * Receives the orders visited by {@link #forEachResting}.
+     */
+    @FunctionalInterface
+    public interface RestingOrderVisitor {
+
+        void visit(long orderId, boolean buy, long priceTicks, int remaining);
+    }
+
+    /**
+     * One side of the book. Levels are sorted so that the best price is at the end of the
+     * arrays: ascending for bids and descending for asks.
+     */
+    private final class Side {
+
+        private final boolean buy;
+        private long[] prices = new long[INITIAL_CAPACITY];
+        private int[] heads = new int[INITIAL_CAPACITY];
+        private int[] tails = new int[INITIAL_CAPACITY];
+        private int levels;
+
+        Side(boolean buy) {
+            this.buy = buy;
+        }
+
+        long best() {
+            return levels == 0 ? NO_PRICE : prices[levels - 1];
+        }
+
+        void append(long price, int slot) {
+            int level = find(price);
+            if (level >= 0) {
+                next[tails[level]] = slot;
+                tails[level] = slot;
+                return;
+            }
+            insertLevel(-level - 1, price, slot);
+        }
+
+        void prepend(long price, int slot) {
+            int level = find(price);
+            if (level >= 0) {
+                next[slot] = heads[level];
+                heads[level] = slot;
+                return;
+            }
+            insertLevel(-level - 1, price, slot);
+        }
+
+        /**
+         * Unlinks a slot from its level, removing the level once it is empty.
+         */
+        void unlink(int level, int previous, int slot) {
+            if (previous == NIL) {
+                heads[level] = next[slot];
+            } else {
+                next[previous] = next[slot];
+            }
+            if (tails[level] == slot) {
+                tails[level] = previous;
+            }
+            if (heads[level] == NIL) {
+                int moved = levels - level - 1;
+                System.arraycopy(prices, level + 1, prices, level, moved);
+                System.arraycopy(heads, level + 1, heads, level, moved);
+                System.arraycopy(tails, level + 1, tails, level, moved);
+                levels--;
+            }
+        }
+
+        private void insertLevel(int level, long price, int slot) {
+            if (levels == prices.length) {
+                int capacity = prices.length * 2;
+                prices = Arrays.copyOf(prices, capacity);
+                heads = Arrays.copyOf(heads, capacity);
+                tails = Arrays.copyOf(tails, capacity);
+            }
+            int moved = levels - level;
+            System.arraycopy(prices, level, prices, level + 1, moved);
+            System.arraycopy(heads, level, heads, level + 1, moved);
+            System.arraycopy(tails, level, tails, level + 1, moved);
+            prices[level] = price;
+            heads[level] = slot;
+            tails[level] = slot;
+            levels++;
+        }
+
+        /**
+         * Binary search over the levels, most often ending close to the best price at the end.
+         *
+         * @return the level holding {@code price}, or {@code -(insertion point) - 1}
+         */
+        private int find(long price) {
+            int low = 0;
+            int high = levels - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long candidate = prices[mid];
+                if (candidate == price) {
+                    return mid;
+                }
+                if (buy ? candidate < price : candidate > price) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return -low - 1;
+        }
+
+        void forEach(RestingOrderVisitor visitor) {
+            for (int level = levels - 1; level >= 0; level--) {
+                for (int slot = heads[level]; slot != NIL; slot = next[slot]) {
+                    visitor.visit(orderIds[slot], buy, prices[level], remaining[slot]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.minimarket.orders.orderservice.service.metrics;
+
+import com.minimarket.orders.orderservice.dto.OrderResult;
+import com.minimarket.orders.orderservice.model.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Instruments the order submission path.
+ * Each submission is an {@code orders.save} observation and each step within it an
+ * {@code orders.save.stage} observation tagged with the stage name, so every step gets its own
+ * timer (with a percentile histogram, see {@code management.metrics.distribution}) and, when
+ * tracing is active, its own child span; Prometheus histograms then carry trace exemplars that
+ * link slow buckets to those spans. Rejections are counted in {@code orders.rejected} by reason,
+ * side and symbol, where symbols outside {@code orders.metrics.symbols} are tagged {@code other}
+ * to keep the number of series bounded.
+ */
+@Component
+public class OrderMetrics {
+
+    public static final String STAGE_RATE_LIMIT = "rate_limit";
+    public static final String STAGE_RISK = "risk";
+    public static final String STAGE_PRICE = "price";
+    public static final String STAGE_ORDER_INSERT = "order_insert";
+    public static final String STAGE_EXECUTION_INSERT = "execution_insert";
+    public static final String STAGE_MATCH = "match";
+    public static final String STAGE_JOURNAL = "journal";
+
+    static final String SAVE_OBSERVATION = "orders.save";
+    static final String STAGE_OBSERVATION = "orders.save.stage";
+    static final String REJECTED_COUNTER = "orders.rejected";
+    private static final String OTHER = "other";
+
+    private final ObservationRegistry observationRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> trackedSymbols;
+
+    /**
+     * Constructs an {@code OrderMetrics} instance.
+     *
+     * @param observationRegistry the registry submission and stage observations are reported to
+     * @param meterRegistry the registry rejection counters are published to
+     * @param trackedSymbols the symbols tagged individually on rejection counters
+     */
+    public OrderMetrics(ObservationRegistry observationRegistry, MeterRegistry meterRegistry,
+                        @Value("${orders.metrics.symbols:}") List<String> trackedSymbols) {
+        this.observationRegistry = observationRegistry;
+        this.meterRegistry = meterRegistry;
+        this.trackedSymbols = Set.copyOf(trackedSymbols);
+    }
+
+    /**
+     * Runs a whole order submission as one observation, the parent of its stage observations.
+     *
+     * @param order the submitted order, whose account is attached to the span only
+     * @param submission the submission
+     * @return the result of the submission
+     */
+    public <T> T observeSave(Order order, Supplier<T> submission) {
+        Observation observation = Observation.createNotStarted(SAVE_OBSERVATION, observationRegistry);
+        if (order != null && order.getAccountId() != null) {
+            observation.highCardinalityKeyValue("account.id", order.getAccountId());
+        }
+        return observation.observe(submission);
+    }
+
+    /**
+     * Times one stage of a submission.
+     *
+     * @param stage the stage name, one of the {@code STAGE_*} constants
+     * @param step the work of the stage
+     */
+    public void run(String stage, Runnable step) {
+        stageObservation(stage).observe(step);
+    }
+
+    /**
+     * Times one stage of a submission that produces a value.
+     *
+     * @param stage the stage name, one of the {@code STAGE_*} constants
+     * @param step the work of the stage
+     * @return the value produced by the stage
+     */
+    public <T> T call(String stage, Supplier<T> step) {
+        return stageObservation(stage).observe(step);
+    }
+
+    /**
+     * Counts a rejected order.
+     *
+     * @param order the rejected order, possibly {@code null} or incomplete
+     * @param reason why the order was rejected
+     */
+    public void rejected(Order order, OrderResult.Status reason) {
+        Counter.builder(REJECTED_COUNTER)
+                .description("Orders rejected before execution")
+                .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                .tag("side", order == null || order.getSide() == null ? OTHER : order.getSide().name())
+                .tag("symbol", symbolTag(order))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Observation stageObservation(String stage) {
+        return Observation.createNotStarted(STAGE_OBSERVATION, observationRegistry)
+                .lowCardinalityKeyValue("stage", stage);
+    }
+
+    private String symbolTag(Order order) {
+        if (order == null || order.getSymbol() == null || !trackedSymbols.contains(order.getSymbol())) {
+            return OTHER;
+        }
+        return order.getSymbol();
+    }
+}
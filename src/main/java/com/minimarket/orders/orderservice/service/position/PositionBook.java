@@ -0,0 +1,342 @@
+package com.minimarket.orders.orderservice.service.position;
+
+import com.minimarket.orders.orderservice.dto.Position;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.repository.PositionRecord;
+import com.minimarket.orders.orderservice.repository.PositionRepository;
+import com.minimarket.orders.orderservice.service.matching.OrderBook;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * In-memory projection of every account's position in every symbol it traded, maintained from
+ * executions as they commit (see {@link PositionUpdater}). A position holds the net quantity, the
+ * cost of the open quantity, from which the average price follows, and the profit or loss realized
+ * by reducing it, using average cost: closing quantity realizes its difference to the average price,
+ * and a position that flips side opens at the execution price.
+ * <p>
+ * Amounts are kept as {@code long} ticks of 10<sup>-6</sup> in small per-account parallel arrays, so
+ * reading an account's positions costs one pass over its symbols.
+ * <p>
+ * Execution IDs are allocated in blocks and executions commit in neither ID nor time order, so the
+ * checkpoint cannot simply name the last execution it contains. Instead it holds exactly the executions
+ * executed before a point in time that trails the clock by {@code positions.replay-look-back}: every
+ * {@code positions.checkpoint-interval} and on shutdown, the applied executions older than that are
+ * folded into a second, checkpointed copy of the positions, in execution time order, and its changed
+ * positions are written to the {@code positions} table together with that time. On startup the
+ * checkpoint is loaded and the executions executed after its time are replayed in the same order. An
+ * execution is only lost if it commits more than the look-back after its execution time, so the
+ * look-back must cover the longest transaction and the lag of the journal replicator. Without a
+ * checkpoint time, as written before it was kept, the executions after the highest checkpointed
+ * execution ID are replayed; with an empty table that rebuilds the projection from the whole history.
+ */
+@Component
+@Slf4j
+public class PositionBook implements SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "positions";
+
+    private final PositionRepository positionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate checkpointTemplate;
+    private final Duration replayLookBack;
+    private final Map<String, AccountPositions> accounts = new ConcurrentHashMap<>();
+    private final Map<String, AccountPositions> checkpointed = new ConcurrentHashMap<>();
+    private final Queue<Applied> unsettled = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running;
+
+    /**
+     * Constructs a {@code PositionBook} and registers its metrics.
+     *
+     * @param positionRepository the repository checkpoints and execution history are read from and written to
+     * @param transactionManager the transaction manager used to replay the execution history
+     * @param meterRegistry the registry the number of tracked accounts is published to
+     * @param replayLookBack how far the checkpoint trails the clock in execution time
+     */
+    public PositionBook(PositionRepository positionRepository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${positions.replay-look-back:1m}") Duration replayLookBack) {
+        this.positionRepository = positionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.checkpointTemplate = new TransactionTemplate(transactionManager);
+        this.replayLookBack = replayLookBack;
+        Gauge.builder(METRIC_PREFIX + ".accounts", accounts, Map::size)
+                .description("Accounts with a position")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies a committed execution to its account's position.
+     *
+     * @param executionId the ID of the execution
+     * @param executedAt the execution time
+     * @param accountId the account of the executed order
+     * @param symbol the symbol of the executed order
+     * @param side the side of the executed order
+     * @param price the execution price
+     * @param quantity the executed quantity
+     */
+    public void apply(long executionId, OffsetDateTime executedAt, String accountId, String symbol,
+                      Order.Side side, BigDecimal price, int quantity) {
+        long signedQuantity = side == Order.Side.BUY ? quantity : -quantity;
+        long priceTicks = OrderBook.toTicks(price);
+        accounts.computeIfAbsent(accountId, key -> new AccountPositions())
+                .apply(symbol, signedQuantity, priceTicks, executionId);
+        unsettled.add(new Applied(executionId, executedAt, accountId, symbol, signedQuantity, priceTicks));
+    }
+
+    /**
+     * Returns an account's positions, including flat ones that still carry realized profit or loss.
+     *
+     * @param accountId the account
+     * @return the positions, in the order the account first traded each symbol
+     */
+    public List<Position> getPositions(String accountId) {
+        AccountPositions positions = accounts.get(accountId);
+        return positions == null ? List.of() : positions.toPositions();
+    }
+
+    /**
+     * Returns an account's net quantity in a symbol without allocating.
+     *
+     * @param accountId the account
+     * @param symbol the symbol
+     * @return the net quantity, negative when short and {@code 0} if the account never traded the symbol
+     */
+    public long netQuantity(String accountId, String symbol) {
+        AccountPositions positions = accounts.get(accountId);
+        return positions == null ? 0 : positions.netQuantity(symbol);
+    }
+
+    /**
+     * Folds the executions older than the look-back into the checkpointed positions and writes those
+     * that changed, together with the execution time the checkpoint now covers, in one transaction.
+     */
+    @Scheduled(fixedDelayString = "${positions.checkpoint-interval:10s}")
+    public synchronized void checkpoint() {
+        OffsetDateTime executedUntil = OffsetDateTime.now().minus(replayLookBack);
+        settle(executedUntil);
+        List<PositionRecord> changed = new ArrayList<>();
+        checkpointed.forEach((accountId, positions) -> positions.drainChanged(accountId, changed));
+        if (changed.isEmpty()) {
+            return;
+        }
+        try {
+            checkpointTemplate.executeWithoutResult(status -> {
+                positionRepository.saveAll(changed);
+                positionRepository.saveExecutedUntil(executedUntil);
+            });
+            log.debug("checkpointed {} positions up to {}", changed.size(), executedUntil);
+        } catch (RuntimeException e) {
+            log.warn("checkpointing {} positions failed, retrying with the next checkpoint", changed.size(), e);
+            changed.forEach(record -> checkpointed.get(record.accountId()).markChanged(record.symbol()));
+        }
+    }
+
+    /**
+     * Loads the checkpoint and replays the executions it does not contain.
+     */
+    @Override
+    public void start() {
+        long lastExecutionId = 0;
+        for (PositionRecord record : positionRepository.findAll()) {
+            accounts.computeIfAbsent(record.accountId(), key -> new AccountPositions()).restore(record);
+            checkpointed.computeIfAbsent(record.accountId(), key -> new AccountPositions()).restore(record);
+            lastExecutionId = Math.max(lastExecutionId, record.lastExecutionId());
+        }
+        OffsetDateTime executedUntil = positionRepository.findExecutedUntil();
+        long afterExecutionId = lastExecutionId;
+        long[] replayed = new long[1];
+        PositionRepository.ExecutionConsumer replay = (executionId, executedAt, accountId, symbol, side, price,
+                                                       quantity) -> {
+            apply(executionId, executedAt, accountId, symbol, Order.Side.valueOf(side), price, quantity);
+            replayed[0]++;
+        };
+        transactionTemplate.executeWithoutResult(status -> {
+            if (executedUntil == null) {
+                positionRepository.forEachExecutionAfter(afterExecutionId, replay);
+            } else {
+                positionRepository.forEachExecutionExecutedAfter(executedUntil, replay);
+            }
+        });
+        log.info("restored positions of {} accounts, replayed {} executions after {}", accounts.size(), replayed[0],
+                executedUntil == null ? "execution " + afterExecutionId : executedUntil);
+        running = true;
+    }
+
+    /**
+     * Writes a final checkpoint.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        checkpoint();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after every component that writes executions.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    /**
+     * Moves the applied executions executed up to the given time into the checkpointed positions, in
+     * execution time order, the order they are replayed in.
+     */
+    private void settle(OffsetDateTime executedUntil) {
+        List<Applied> settled = new ArrayList<>();
+        List<Applied> recent = new ArrayList<>();
+        Applied applied;
+        while ((applied = unsettled.poll()) != null) {
+            (applied.executedAt().isAfter(executedUntil) ? recent : settled).add(applied);
+        }
+        unsettled.addAll(recent);
+        settled.sort(Comparator.comparing(Applied::executedAt).thenComparingLong(Applied::executionId));
+        for (Applied execution : settled) {
+            checkpointed.computeIfAbsent(execution.accountId(), key -> new AccountPositions())
+                    .apply(execution.symbol(), execution.signedQuantity(), execution.priceTicks(),
+                            execution.executionId());
+        }
+    }
+
+    /**
+     * An execution applied to the positions but not yet to the checkpointed positions.
+     */
+    private record Applied(long executionId, OffsetDateTime executedAt, String accountId, String symbol,
+                           long signedQuantity, long priceTicks) {
+    }
+
+    /**
+     * The positions of one account, one slot per symbol.
+     */
+    private static final class AccountPositions {
+
+        private static final int INITIAL_CAPACITY = 4;
+
+        private String[] symbols = new String[INITIAL_CAPACITY];
+        private long[] quantities = new long[INITIAL_CAPACITY];
+        private long[] costs = new long[INITIAL_CAPACITY];
+        private long[] realized = new long[INITIAL_CAPACITY];
+        private long[] lastExecutionIds = new long[INITIAL_CAPACITY];
+        private boolean[] changed = new boolean[INITIAL_CAPACITY];
+        private int size;
+
+        synchronized void apply(String symbol, long signedQuantity, long priceTicks, long executionId) {
+            int slot = slot(symbol);
+            long open = quantities[slot];
+            long absOpen = Math.abs(open);
+            long absQuantity = Math.abs(signedQuantity);
+            if (open == 0 || (open > 0) == (signedQuantity > 0)) {
+                costs[slot] = Math.addExact(costs[slot], Math.multiplyExact(priceTicks, absQuantity));
+            } else {
+                long closed = Math.min(absOpen, absQuantity);
+                long closedCost = closed == absOpen ? costs[slot]
+                        : Math.multiplyExact(costs[slot] / absOpen, closed) + costs[slot] % absOpen * closed / absOpen;
+                long proceeds = Math.multiplyExact(priceTicks, closed);
+                realized[slot] += open > 0 ? proceeds - closedCost : closedCost - proceeds;
+                costs[slot] = closed == absOpen
+                        ? Math.multiplyExact(priceTicks, absQuantity - closed)
+                        : costs[slot] - closedCost;
+            }
+            quantities[slot] = open + signedQuantity;
+            lastExecutionIds[slot] = Math.max(lastExecutionIds[slot], executionId);
+            changed[slot] = true;
+        }
+
+        synchronized long netQuantity(String symbol) {
+            for (int slot = 0; slot < size; slot++) {
+                if (symbols[slot].equals(symbol)) {
+                    return quantities[slot];
+                }
+            }
+            return 0;
+        }
+
+        synchronized void restore(PositionRecord record) {
+            int slot = slot(record.symbol());
+            quantities[slot] = record.quantity();
+            costs[slot] = OrderBook.toTicks(record.costBasis());
+            realized[slot] = OrderBook.toTicks(record.realizedPnl());
+            lastExecutionIds[slot] = record.lastExecutionId();
+        }
+
+        synchronized List<Position> toPositions() {
+            List<Position> positions = new ArrayList<>(size);
+            for (int slot = 0; slot < size; slot++) {
+                long quantity = quantities[slot];
+                positions.add(Position.builder()
+                        .symbol(symbols[slot])
+                        .quantity(quantity)
+                        .averagePrice(quantity == 0 ? OrderBook.toPrice(0)
+                                : OrderBook.toPrice(costs[slot]).divide(BigDecimal.valueOf(Math.abs(quantity)),
+                                        OrderBook.PRICE_SCALE, RoundingMode.HALF_UP))
+                        .realizedPnl(OrderBook.toPrice(realized[slot]))
+                        .build());
+            }
+            return positions;
+        }
+
+        synchronized void drainChanged(String accountId, List<PositionRecord> records) {
+            for (int slot = 0; slot < size; slot++) {
+                if (changed[slot]) {
+                    records.add(new PositionRecord(accountId, symbols[slot], quantities[slot],
+                            OrderBook.toPrice(costs[slot]), OrderBook.toPrice(realized[slot]), lastExecutionIds[slot]));
+                    changed[slot] = false;
+                }
+            }
+        }
+
+        synchronized void markChanged(String symbol) {
+            changed[slot(symbol)] = true;
+        }
+
+        private int slot(String symbol) {
+            for (int slot = 0; slot < size; slot++) {
+                if (symbols[slot].equals(symbol)) {
+                    return slot;
+                }
+            }
+            if (size == symbols.length) {
+                int capacity = size * 2;
+                symbols = Arrays.copyOf(symbols, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                costs = Arrays.copyOf(costs, capacity);
+                realized = Arrays.copyOf(realized, capacity);
+                lastExecutionIds = Arrays.copyOf(lastExecutionIds, capacity);
+                changed = Arrays.copyOf(changed, capacity);
+            }
+            symbols[size] = symbol;
+            return size++;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.minimarket.orders.orderservice.service.position;
+
+import com.minimarket.orders.orderservice.model.Execution;
+import com.minimarket.orders.orderservice.model.Order;
+import jakarta.persistence.PostPersist;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * JPA entity listener that applies every inserted {@link Execution} to the {@link PositionBook} once
+ * its transaction commits. It sees the executions of every writer, whether they are saved directly,
+ * by the write-behind service or by the journal replicator. The order's fields are read at insert
+ * time, while the order is still attached; a rolled back execution never reaches the book. The R2DBC
+ * inserts of the reactive profile bypass JPA and apply their executions themselves.
+ */
+@Component
+public class PositionUpdater {
+
+    private final PositionBook positionBook;
+
+    public PositionUpdater(PositionBook positionBook) {
+        this.positionBook = positionBook;
+    }
+
+    @PostPersist
+    public void apply(Execution execution) {
+        Order order = execution.getOrder();
+        long executionId = execution.getId();
+        OffsetDateTime executedAt = execution.getExecutedAt();
+        String accountId = order.getAccountId();
+        String symbol = order.getSymbol();
+        Order.Side side = order.getSide();
+        BigDecimal price = execution.getPrice();
+        int quantity = execution.getQuantity();
+        Runnable update = () -> positionBook.apply(executionId, executedAt, accountId, symbol, side, price, quantity);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.minimarket.orders.orderservice.service.price;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Collects concurrent single-symbol price lookups into batch lookups.
+ * Lookups arriving within {@code window} of each other, up to {@code maxSize} of them, are
+ * answered by one call to the batch lookup for their distinct symbols, and every waiting caller is
+ * completed from the combined response. Symbols missing from the response are looked up one by one,
+ * and so is the whole batch when the feed rejects the batch request with a client error; each symbol
+ * is looked up once, however many callers wait for it.
+ * <p>
+ * Batches are cut with backpressure, so a window that closes while {@code maxInFlight} batch requests
+ * are outstanding waits for one of them to finish. Every lookup fails after {@code deadline}, whatever
+ * happens to its batch, and if dispatching fails it is logged and started again.
+ */
+@Slf4j
+public class PriceBatcher {
+
+    private static final Duration EMIT_TIMEOUT = Duration.ofSeconds(1);
+
+    private final Function<Set<String>, Mono<Map<String, BigDecimal>>> batchLookup;
+    private final Function<String, Mono<BigDecimal>> singleLookup;
+    private final Predicate<Throwable> fallBackToSingle;
+    private final int maxSize;
+    private final Duration window;
+    private final int maxInFlight;
+    private final Duration deadline;
+    private final DistributionSummary batchSizeSummary;
+
+    private volatile Sinks.Many<PendingQuote> pending;
+    private volatile Disposable subscription;
+    private volatile boolean stopped;
+
+    /**
+     * Constructs a {@code PriceBatcher} and starts dispatching batches.
+     *
+     * @param batchLookup prices a set of symbols in one feed request
+     * @param singleLookup prices one symbol, used for symbols a batch did not price
+     * @param fallBackToSingle tells whether a failed batch request should be retried symbol by symbol
+     * @param maxSize the maximum number of lookups answered by one batch request
+     * @param window how long the first lookup of a batch waits for others to join it
+     * @param maxInFlight the maximum number of batch requests in flight at once
+     * @param deadline how long a caller waits for its price before the lookup fails
+     * @param meterRegistry the registry the batch size distribution is published to
+     */
+    public PriceBatcher(Function<Set<String>, Mono<Map<String, BigDecimal>>> batchLookup,
+                        Function<String, Mono<BigDecimal>> singleLookup,
+                        Predicate<Throwable> fallBackToSingle,
+                        int maxSize, Duration window, int maxInFlight, Duration deadline,
+                        MeterRegistry meterRegistry) {
+        this.batchLookup = batchLookup;
+        this.singleLookup = singleLookup;
+        this.fallBackToSingle = fallBackToSingle;
+        this.maxSize = maxSize;
+        this.window = window;
+        this.maxInFlight = maxInFlight;
+        this.deadline = deadline;
+        this.batchSizeSummary = DistributionSummary.builder("price.feed.batch.size")
+                .description("Distinct symbols priced per batch request")
+                .register(meterRegistry);
+        start();
+    }
+
+    /**
+     * Prices a symbol as part of the next batch.
+     *
+     * @param symbol the symbol to price
+     * @return a {@link Mono} emitting the price of the symbol
+     */
+    public Mono<BigDecimal> fetchPrice(String symbol) {
+        return Mono.<BigDecimal>create(sink -> pending.emitNext(new PendingQuote(symbol, sink),
+                        Sinks.EmitFailureHandler.busyLooping(EMIT_TIMEOUT)))
+                .timeout(deadline);
+    }
+
+    /**
+     * Stops dispatching batches.
+     */
+    public void stop() {
+        stopped = true;
+        pending.tryEmitComplete();
+        subscription.dispose();
+    }
+
+    /**
+     * Subscribes a fresh queue of lookups to the dispatcher. Lookups left in the queue of a failed
+     * dispatcher run into their deadline.
+     */
+    private void start() {
+        Sinks.Many<PendingQuote> queue =
+                Sinks.many().unicast().onBackpressureBuffer(Queues.<PendingQuote>unboundedMultiproducer().get());
+        pending = queue;
+        subscription = queue.asFlux()
+                .bufferTimeout(maxSize, window, true)
+                .flatMap(this::dispatch, maxInFlight)
+                .subscribe(null, e -> {
+                    log.error("price batch dispatcher failed, restarting it", e);
+                    if (!stopped) {
+                        start();
+                    }
+                });
+    }
+
+    private Mono<Void> dispatch(List<PendingQuote> batch) {
+        Map<String, List<MonoSink<BigDecimal>>> waiting = new LinkedHashMap<>();
+        for (PendingQuote quote : batch) {
+            waiting.computeIfAbsent(quote.symbol(), symbol -> new ArrayList<>(1)).add(quote.sink());
+        }
+        batchSizeSummary.record(waiting.size());
+        return Mono.defer(() -> batchLookup.apply(waiting.keySet()))
+                .defaultIfEmpty(Map.of())
+                .doOnNext(prices -> waiting.forEach((symbol, sinks) -> complete(symbol, sinks, prices.get(symbol))))
+                .onErrorResume(e -> {
+                    if (fallBackToSingle.test(e)) {
+                        waiting.forEach((symbol, sinks) -> complete(symbol, sinks, null));
+                    } else {
+                        waiting.values().forEach(sinks -> sinks.forEach(sink -> sink.error(e)));
+                    }
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Completes every caller waiting for a symbol with its price, looking it up on its own if the batch
+     * did not price it.
+     */
+    private void complete(String symbol, List<MonoSink<BigDecimal>> sinks, BigDecimal price) {
+        if (price != null) {
+            sinks.forEach(sink -> sink.success(price));
+            return;
+        }
+        singleLookup.apply(symbol).subscribe(
+                found -> sinks.forEach(sink -> sink.success(found)),
+                e -> sinks.forEach(sink -> sink.error(e)),
+                () -> sinks.forEach(MonoSink::success));
+    }
+
+    private record PendingQuote(String symbol, MonoSink<BigDecimal> sink) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.minimarket.orders.orderservice.service.price;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory last-trade book keyed by symbol.
+ * The book is written by the {@link StreamingPriceFeed} subscriber and read on the order path;
+ * reads never take a lock and never allocate, they only resolve the symbol and compare the age
+ * of the stored trade against {@code price.stream.max-age}.
+ */
+@Component
+public class PriceBook {
+
+    private final Map<String, LastTrade> trades = new ConcurrentHashMap<>();
+    private final long maxAgeNanos;
+
+    /**
+     * Constructs a {@code PriceBook}.
+     *
+     * @param maxAge the age after which a last trade is no longer used for pricing
+     */
+    public PriceBook(@Value("${price.stream.max-age:500ms}") Duration maxAge) {
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    /**
+     * Records the latest trade price of a symbol.
+     *
+     * @param symbol the traded symbol
+     * @param price the trade price
+     */
+    public void update(String symbol, BigDecimal price) {
+        trades.put(symbol, new LastTrade(price, System.nanoTime()));
+    }
+
+    /**
+     * Returns the last trade price of a symbol if it is recent enough to price an order.
+     *
+     * @param symbol the symbol to look up
+     * @return the last trade price, or {@code null} if the symbol is unknown or its quote is too old
+     */
+    public BigDecimal getFreshPrice(String symbol) {
+        LastTrade trade = trades.get(symbol);
+        if (trade == null || System.nanoTime() - trade.receivedAtNanos() > maxAgeNanos) {
+            return null;
+        }
+        return trade.price();
+    }
+
+    private record LastTrade(BigDecimal price, long receivedAtNanos) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.minimarket.orders.orderservice.service.price;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Per-symbol snapshot cache in front of the {@link PriceFeedClient}.
+ * Quotes are kept for at most {@code price.cache.max-staleness} and the number of symbols is
+ * bounded by {@code price.cache.max-size}. Concurrent misses for the same symbol share a single
+ * in-flight feed request, and symbols that keep being read are reloaded in the background once
+ * they are older than {@code price.cache.refresh-after}, so hot symbols rarely miss.
+ */
+@Component
+@Slf4j
+public class PriceCache {
+
+    static final String CACHE_NAME = "price.cache";
+
+    private final AsyncLoadingCache<String, Quote> cache;
+    private final long refreshAfterNanos;
+    private final Counter staleCounter;
+
+    /**
+     * Constructs a {@code PriceCache} and registers its metrics.
+     *
+     * @param priceFeedClient the client used to load quotes on a miss or refresh
+     * @param meterRegistry the registry hit/miss/eviction and stale counters are published to
+     * @param maxSize the maximum number of symbols kept in the cache
+     * @param maxStaleness the maximum age of a quote before it is evicted
+     * @param refreshAfter the age after which a read triggers a background reload
+     */
+    public PriceCache(PriceFeedClient priceFeedClient,
+                      MeterRegistry meterRegistry,
+                      @Value("${price.cache.max-size:10000}") long maxSize,
+                      @Value("${price.cache.max-staleness:2s}") Duration maxStaleness,
+                      @Value("${price.cache.refresh-after:1s}") Duration refreshAfter) {
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxStaleness)
+                .refreshAfterWrite(refreshAfter)
+                .recordStats()
+                .buildAsync((symbol, executor) -> priceFeedClient.fetchPrice(symbol)
+                        .map(price -> new Quote(price, System.nanoTime()))
+                        .toFuture());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.staleCounter = Counter.builder(CACHE_NAME + ".stale")
+                .description("Quotes served while a background refresh was due")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached price of a symbol, loading it from the feed on a miss.
+     *
+     * @param symbol the symbol to price
+     * @return the price of the symbol
+     */
+    public BigDecimal getPrice(String symbol) {
+        return priceOf(join(cache.get(symbol)));
+    }
+
+    /**
+     * Returns the cached price of a symbol without blocking, loading it from the feed on a miss.
+     * Cancelling the returned {@link Mono} does not cancel a load shared with other callers.
+     *
+     * @param symbol the symbol to price
+     * @return a {@link Mono} emitting the price of the symbol
+     */
+    public Mono<BigDecimal> getPriceAsync(String symbol) {
+        return Mono.fromFuture(() -> cache.get(symbol), true)
+                .map(this::priceOf);
+    }
+
+    /**
+     * Returns the cached prices of several symbols, loading all missing symbols concurrently.
+     * Symbols the feed fails to price are left out of the result instead of failing the whole lookup.
+     *
+     * @param symbols the distinct symbols to price
+     * @return the prices keyed by symbol
+     */
+    public Map<String, BigDecimal> getPrices(Collection<String> symbols) {
+        Map<String, CompletableFuture<Quote>> pending = new HashMap<>(symbols.size());
+        for (String symbol : symbols) {
+            pending.put(symbol, cache.get(symbol));
+        }
+
+        Map<String, BigDecimal> prices = new HashMap<>(symbols.size());
+        pending.forEach((symbol, future) -> {
+            try {
+                BigDecimal price = priceOf(join(future));
+                if (price != null) {
+                    prices.put(symbol, price);
+                }
+            } catch (RuntimeException e) {
+                log.warn("price unavailable for {}: {}", symbol, e.getMessage());
+            }
+        });
+        return prices;
+    }
+
+    /**
+     * Returns the cached price of a symbol without triggering a feed request.
+     *
+     * @param symbol the symbol to look up
+     * @return the cached price, or empty if the symbol is not cached or still loading
+     */
+    public Optional<BigDecimal> getIfPresent(String symbol) {
+        return Optional.ofNullable(cache.synchronous().getIfPresent(symbol))
+                .map(Quote::price);
+    }
+
+    /**
+     * Returns the cached price of a symbol without triggering a feed request or allocating,
+     * for callers on the hot path that can do without a price.
+     *
+     * @param symbol the symbol to look up
+     * @return the cached price, or {@code null} if the symbol is not cached, still loading or failed
+     */
+    public BigDecimal peekPrice(String symbol) {
+        CompletableFuture<Quote> future = cache.getIfPresent(symbol);
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        Quote quote = future.getNow(null);
+        return quote == null ? null : quote.price();
+    }
+
+    private BigDecimal priceOf(Quote quote) {
+        if (quote == null) {
+            return null;
+        }
+        if (System.nanoTime() - quote.fetchedAtNanos() > refreshAfterNanos) {
+            staleCounter.increment();
+        }
+        return quote.price();
+    }
+
+    private static Quote join(CompletableFuture<Quote> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Quote(BigDecimal price, long fetchedAtNanos) {
+    }
+}
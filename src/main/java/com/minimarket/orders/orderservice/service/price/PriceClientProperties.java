@@ -0,0 +1,77 @@
+package com.minimarket.orders.orderservice.service.price;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Price feed client configuration bound from {@code price.client.*}.
+ * {@code deadline} bounds a whole price lookup including its hedge, while {@code response-timeout}
+ * bounds each individual HTTP request. With {@code batch.enabled}, concurrent lookups are combined
+ * into {@code GET /prices?symbols=} requests.
+ */
+@ConfigurationProperties(prefix = "price.client")
+@Getter
+@Setter
+public class PriceClientProperties {
+
+    private Duration connectTimeout = Duration.ofMillis(500);
+    private Duration responseTimeout = Duration.ofSeconds(1);
+    private Duration deadline = Duration.ofSeconds(2);
+    private Pool pool = new Pool();
+    private Hedge hedge = new Hedge();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Batch batch = new Batch();
+
+    @Getter
+    @Setter
+    public static class Pool {
+
+        private int maxConnections = 200;
+        private int pendingAcquireMaxCount = 1000;
+        private Duration pendingAcquireTimeout = Duration.ofMillis(500);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictInBackground = Duration.ofSeconds(30);
+
+    }
+
+    @Getter
+    @Setter
+    public static class Hedge {
+
+        private boolean enabled = true;
+        private double percentile = 0.95;
+        private Duration minDelay = Duration.ofMillis(50);
+        private Duration refreshInterval = Duration.ofSeconds(1);
+
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+
+        private boolean enabled;
+        private int maxSize = 64;
+        private Duration window = Duration.ofMillis(2);
+        private int maxInFlight = 32;
+
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 80;
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(1);
+        private int slidingWindowSize = 50;
+        private int minimumNumberOfCalls = 20;
+        private Duration waitDurationInOpenState = Duration.ofSeconds(5);
+        private int permittedCallsInHalfOpenState = 5;
+        private Duration fallbackMaxAge = Duration.ofSeconds(30);
+
+    }
+}
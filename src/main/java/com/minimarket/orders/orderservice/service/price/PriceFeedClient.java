@@ -0,0 +1,337 @@
+package com.minimarket.orders.orderservice.service.price;
+
+import com.minimarket.orders.orderservice.dto.PriceResponse;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Thin client for the external price feed.
+ * Performs the raw {@code GET /price?symbol=} and {@code GET /prices?symbols=} request/response
+ * calls without any caching, so callers can decide how results are shared between requests.
+ * <p>
+ * Requests go through a bounded Reactor Netty connection pool with connect and response timeouts,
+ * and a whole lookup is bounded by {@code price.client.deadline}. When a response takes longer than
+ * the recent {@code price.client.hedge.percentile} latency, a second request is sent and the first
+ * answer wins. Lookups are guarded by a circuit breaker; while it is open no request is sent, and a
+ * symbol is served its last price received within {@code price.client.circuit-breaker.fallback-max-age},
+ * or fails fast with a {@link CallNotPermittedException}. With {@code price.client.batch.enabled},
+ * single-symbol lookups are combined by a {@link PriceBatcher} into batch requests.
+ */
+@Component
+@Slf4j
+public class PriceFeedClient {
+
+    static final String CIRCUIT_BREAKER_NAME = "price-feed";
+
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+    private final Duration deadline;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final long minHedgeDelayNanos;
+    private final long hedgeRefreshNanos;
+    private final CircuitBreaker circuitBreaker;
+    private final long fallbackMaxAgeNanos;
+    private final Map<String, LastPrice> lastPrices = new ConcurrentHashMap<>();
+    private final HedgeDelay singleHedgeDelay;
+    private final HedgeDelay batchHedgeDelay;
+    private final Counter hedgeCounter;
+    private final Counter fallbackCounter;
+    private final PriceBatcher batcher;
+
+    /**
+     * Constructs a {@code PriceFeedClient} with a pooled WebClient pointing at the price feed and
+     * registers its metrics.
+     *
+     * @param wiremockHost the host address of the WireMock server, injected from configuration
+     * @param wiremockPort the port of the WireMock server, injected from configuration
+     * @param properties the pool, timeout, hedging, batching and circuit breaker settings
+     * @param meterRegistry the registry request latency, hedge and circuit breaker metrics are published to
+     */
+    public PriceFeedClient(@Value("${wiremock.host}") String wiremockHost,
+                           @Value("${wiremock.port}") String wiremockPort,
+                           PriceClientProperties properties,
+                           MeterRegistry meterRegistry) {
+        log.info("wiremock host: {}", wiremockHost);
+        PriceClientProperties.Pool pool = properties.getPool();
+        connectionProvider = ConnectionProvider.builder(CIRCUIT_BREAKER_NAME)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout());
+        webClient = WebClient.builder()
+                .baseUrl("http://" + wiremockHost + ":" + wiremockPort)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+
+        this.deadline = properties.getDeadline();
+        PriceClientProperties.Hedge hedge = properties.getHedge();
+        this.hedgeEnabled = hedge.isEnabled();
+        this.hedgePercentile = hedge.getPercentile();
+        this.minHedgeDelayNanos = hedge.getMinDelay().toNanos();
+        this.hedgeRefreshNanos = hedge.getRefreshInterval().toNanos();
+
+        PriceClientProperties.CircuitBreaker breaker = properties.getCircuitBreaker();
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(breaker.getFailureRateThreshold())
+                .slowCallRateThreshold(breaker.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(breaker.getSlowCallDurationThreshold())
+                .slidingWindowSize(breaker.getSlidingWindowSize())
+                .minimumNumberOfCalls(breaker.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(breaker.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(breaker.getPermittedCallsInHalfOpenState())
+                .recordException(e -> !isClientError(e))
+                .build());
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME);
+        this.fallbackMaxAgeNanos = breaker.getFallbackMaxAge().toNanos();
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        this.singleHedgeDelay = new HedgeDelay("price", meterRegistry);
+        this.batchHedgeDelay = new HedgeDelay("prices", meterRegistry);
+        this.hedgeCounter = Counter.builder("price.feed.hedges")
+                .description("Price requests sent because the first one was slower than the hedge delay")
+                .register(meterRegistry);
+        this.fallbackCounter = Counter.builder("price.feed.fallbacks")
+                .description("Lookups served the last known price while the circuit breaker was open")
+                .register(meterRegistry);
+
+        PriceClientProperties.Batch batch = properties.getBatch();
+        this.batcher = batch.isEnabled()
+                ? new PriceBatcher(this::fetchPrices, this::fetchSinglePrice, PriceFeedClient::isClientError,
+                        batch.getMaxSize(), batch.getWindow(), batch.getMaxInFlight(), deadline,
+                        meterRegistry)
+                : null;
+    }
+
+    /**
+     * Fetches the current price of a symbol from the feed, as part of a batch request when
+     * batching is enabled.
+     *
+     * @param symbol the symbol to price
+     * @return a {@link Mono} emitting the price reported by the feed, or the last known price
+     *         while the circuit breaker is open
+     */
+    public Mono<BigDecimal> fetchPrice(String symbol) {
+        if (batcher != null) {
+            return batcher.fetchPrice(symbol);
+        }
+        return fetchSinglePrice(symbol);
+    }
+
+    /**
+     * Fetches the current prices of several symbols from the feed in one request.
+     * Symbols the feed does not price are absent from the result.
+     *
+     * @param symbols the distinct symbols to price
+     * @return a {@link Mono} emitting the prices keyed by symbol, or the last known prices while
+     *         the circuit breaker is open
+     */
+    public Mono<Map<String, BigDecimal>> fetchPrices(Collection<String> symbols) {
+        return guarded(hedgeEnabled ? hedged(() -> batchRequest(symbols), batchHedgeDelay) : batchRequest(symbols))
+                .doOnNext(prices -> {
+                    long now = System.nanoTime();
+                    prices.forEach((symbol, price) -> lastPrices.put(symbol, new LastPrice(price, now)));
+                })
+                .onErrorResume(CallNotPermittedException.class, e -> lastKnownPrices(symbols, e));
+    }
+
+    /**
+     * Releases the pooled connections.
+     */
+    @PreDestroy
+    public void stop() {
+        if (batcher != null) {
+            batcher.stop();
+        }
+        connectionProvider.dispose();
+    }
+
+    private Mono<BigDecimal> fetchSinglePrice(String symbol) {
+        return guarded(hedgeEnabled ? hedged(() -> request(symbol), singleHedgeDelay) : request(symbol))
+                .doOnNext(price -> lastPrices.put(symbol, new LastPrice(price, System.nanoTime())))
+                .onErrorResume(CallNotPermittedException.class, e -> lastKnownPrice(symbol, e));
+    }
+
+    private <T> Mono<T> guarded(Mono<T> lookup) {
+        return lookup
+                .timeout(deadline)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    private Mono<BigDecimal> request(String symbol) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return webClient.get()
+                    .uri(uriBuilder -> uriBuilder.path("/price")
+                            .queryParam("symbol", symbol)
+                            .build())
+                    .retrieve()
+                    .bodyToMono(PriceResponse.class)
+                    .map(PriceResponse::getPrice)
+                    .doOnNext(price -> singleHedgeDelay.record(System.nanoTime() - start));
+        });
+    }
+
+    private Mono<Map<String, BigDecimal>> batchRequest(Collection<String> symbols) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return webClient.get()
+                    .uri(uriBuilder -> uriBuilder.path("/prices")
+                            .queryParam("symbols", String.join(",", symbols))
+                            .build())
+                    .retrieve()
+                    .bodyToFlux(PriceResponse.class)
+                    .filter(response -> response.getSymbol() != null && response.getPrice() != null)
+                    .collectMap(PriceResponse::getSymbol, PriceResponse::getPrice)
+                    .doOnNext(prices -> batchHedgeDelay.record(System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Sends a second request if the first has not answered within the hedge delay, and emits
+     * whichever response arrives first. An error is only reported once every request sent has failed.
+     */
+    private <T> Mono<T> hedged(Supplier<Mono<T>> request, HedgeDelay hedgeDelay) {
+        return Mono.defer(() -> {
+            AtomicInteger inFlight = new AtomicInteger(1);
+            Mono<T> primary = request.get()
+                    .onErrorResume(e -> lastFailure(inFlight, e));
+            Mono<T> hedge = Mono.delay(hedgeDelay.current()).flatMap(tick -> {
+                inFlight.incrementAndGet();
+                hedgeCounter.increment();
+                return request.get().onErrorResume(e -> lastFailure(inFlight, e));
+            });
+            return Flux.merge(primary, hedge).next();
+        });
+    }
+
+    private static <T> Mono<T> lastFailure(AtomicInteger inFlight, Throwable error) {
+        return inFlight.decrementAndGet() == 0 ? Mono.error(error) : Mono.empty();
+    }
+
+    private static boolean isClientError(Throwable e) {
+        return e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError();
+    }
+
+    private Mono<BigDecimal> lastKnownPrice(String symbol, CallNotPermittedException e) {
+        BigDecimal price = lastKnownPrice(symbol, System.nanoTime());
+        if (price == null) {
+            return Mono.error(e);
+        }
+        fallbackCounter.increment();
+        return Mono.just(price);
+    }
+
+    private Mono<Map<String, BigDecimal>> lastKnownPrices(Collection<String> symbols, CallNotPermittedException e) {
+        long now = System.nanoTime();
+        Map<String, BigDecimal> prices = new HashMap<>(symbols.size());
+        for (String symbol : symbols) {
+            BigDecimal price = lastKnownPrice(symbol, now);
+            if (price != null) {
+                prices.put(symbol, price);
+            }
+        }
+        if (prices.isEmpty()) {
+            return Mono.error(e);
+        }
+        fallbackCounter.increment(prices.size());
+        return Mono.just(prices);
+    }
+
+    private BigDecimal lastKnownPrice(String symbol, long nowNanos) {
+        LastPrice last = lastPrices.get(symbol);
+        if (last == null || nowNanos - last.receivedAtNanos() > fallbackMaxAgeNanos) {
+            return null;
+        }
+        return last.price();
+    }
+
+    private record LastPrice(BigDecimal price, long receivedAtNanos) {
+    }
+
+    /**
+     * Latency of one feed endpoint and the hedge delay derived from it, recomputed at most once
+     * per {@code price.client.hedge.refresh-interval} and never below {@code price.client.hedge.min-delay}.
+     */
+    private final class HedgeDelay {
+
+        private final Timer timer;
+        private volatile long delayNanos = minHedgeDelayNanos;
+        private volatile long computedAtNanos = System.nanoTime();
+
+        HedgeDelay(String endpoint, MeterRegistry meterRegistry) {
+            this.timer = Timer.builder("price.feed.requests")
+                    .description("Latency of successful price feed responses")
+                    .tag("endpoint", endpoint)
+                    .publishPercentiles(hedgePercentile)
+                    .publishPercentileHistogram()
+                    .distributionStatisticExpiry(Duration.ofMinutes(1))
+                    .register(meterRegistry);
+            Gauge.builder("price.feed.hedge.delay", this, hedgeDelay -> hedgeDelay.delayNanos / 1_000_000.0)
+                    .description("Current delay before a price request is hedged")
+                    .tag("endpoint", endpoint)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+
+        void record(long nanos) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        Duration current() {
+            long now = System.nanoTime();
+            if (now - computedAtNanos >= hedgeRefreshNanos) {
+                computedAtNanos = now;
+                delayNanos = Math.max(minHedgeDelayNanos, observedPercentileNanos());
+            }
+            return Duration.ofNanos(delayNanos);
+        }
+
+        private long observedPercentileNanos() {
+            for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+                if (value.percentile() == hedgePercentile) {
+                    return (long) value.value(TimeUnit.NANOSECONDS);
+                }
+            }
+            return 0;
+        }
+    }
+}
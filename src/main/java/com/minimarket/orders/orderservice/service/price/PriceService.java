@@ -2,43 +2,60 @@ package com.minimarket.orders.orderservice.service.price;
 
 import com.minimarket.orders.orderservice.exception.IllegalQuantityException;
 import com.minimarket.orders.orderservice.model.Order;
-import com.minimarket.orders.orderservice.dto.PriceResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Service class responsible for retrieving price information for orders.
- * This service interacts with an external price API using a WebClient to fetch
- * the price for a given order based on its symbol.
+ * Prices come from the external price API through the {@link PriceFeedClient}; unless
+ * {@code price.cache.enabled} is switched off, quotes are shared between orders through the
+ * {@link PriceCache} instead of being fetched for every order.
+ * When {@code price.feed.mode} is {@code stream}, the last trade held in the {@link PriceBook}
+ * is used first and the pull path above only serves symbols whose quote is missing or too old.
  */
 @Service
 @Slf4j
 public class PriceService {
 
-    private final WebClient webClient;
+    private static final String STREAM_MODE = "stream";
+
+    private final PriceFeedClient priceFeedClient;
+    private final PriceCache priceCache;
+    private final PriceBook priceBook;
+    private final boolean cacheEnabled;
+    private final boolean streamMode;
 
     /**
-     * Constructs a {@code PriceService} instance with a configured WebClient.
-     * The WebClient is initialized with a base URL derived from the provided
-     * WireMock host and port configuration properties.
+     * Constructs a {@code PriceService} instance.
      *
-     * @param wiremockHost the host address of the WireMock server, injected from configuration
-     * @param wiremockPort the port of the WireMock server, injected from configuration
+     * @param priceFeedClient the client performing uncached price feed requests
+     * @param priceCache the per-symbol quote cache
+     * @param priceBook the last-trade book maintained by the streaming feed
+     * @param cacheEnabled whether quotes are served from the cache, injected from configuration
+     * @param feedMode the price feed mode, either {@code pull} or {@code stream}
      */
-    public PriceService(@Value("${wiremock.host}") String wiremockHost,
-                        @Value("${wiremock.port}") String wiremockPort) {
-        log.info("wiremock host: {}", wiremockHost);
-        webClient = WebClient.builder()
-                .baseUrl("http://" + wiremockHost + ":" + wiremockPort)
-                .build();
+    public PriceService(PriceFeedClient priceFeedClient, PriceCache priceCache, PriceBook priceBook,
+                        @Value("${price.cache.enabled:true}") boolean cacheEnabled,
+                        @Value("${price.feed.mode:pull}") String feedMode) {
+        this.priceFeedClient = priceFeedClient;
+        this.priceCache = priceCache;
+        this.priceBook = priceBook;
+        this.cacheEnabled = cacheEnabled;
+        this.streamMode = STREAM_MODE.equalsIgnoreCase(feedMode);
     }
 
     /**
-     * Retrieves the price for a given order by making a request to the external price API.
+     * Retrieves the price for a given order.
      * The price is fetched based on the order's symbol, and the quantity is validated
      * to ensure it is positive.
      *
@@ -47,17 +64,96 @@ public class PriceService {
      * @throws IllegalQuantityException if the order's quantity is less than or equal to zero
      */
     public BigDecimal getPrice(Order order) {
+        validateQuantity(order);
+
+        if (streamMode) {
+            BigDecimal lastTrade = priceBook.getFreshPrice(order.getSymbol());
+            if (lastTrade != null) {
+                return lastTrade;
+            }
+        }
+        return pullPrice(order.getSymbol());
+    }
+
+    /**
+     * Retrieves the price for a given order without blocking the calling thread.
+     * Follows the same validation and source selection as {@link #getPrice(Order)}.
+     *
+     * @param order the {@link Order} object containing the symbol and quantity
+     * @return a {@link Mono} emitting the price for the order's symbol, or an
+     *         {@link IllegalQuantityException} if the quantity is not positive
+     */
+    public Mono<BigDecimal> getPriceAsync(Order order) {
+        return Mono.defer(() -> {
+            validateQuantity(order);
+            if (streamMode) {
+                BigDecimal lastTrade = priceBook.getFreshPrice(order.getSymbol());
+                if (lastTrade != null) {
+                    return Mono.just(lastTrade);
+                }
+            }
+            if (cacheEnabled) {
+                return priceCache.getPriceAsync(order.getSymbol());
+            }
+            return priceFeedClient.fetchPrice(order.getSymbol());
+        });
+    }
+
+    /**
+     * Retrieves the prices of several distinct symbols at once, fetching all missing quotes
+     * concurrently. Symbols that cannot be priced are absent from the result.
+     *
+     * @param symbols the distinct symbols to price
+     * @return the prices keyed by symbol
+     */
+    public Map<String, BigDecimal> getPrices(Collection<String> symbols) {
+        Map<String, BigDecimal> prices = new HashMap<>(symbols.size());
+        List<String> missing = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            BigDecimal lastTrade = streamMode ? priceBook.getFreshPrice(symbol) : null;
+            if (lastTrade != null) {
+                prices.put(symbol, lastTrade);
+            } else {
+                missing.add(symbol);
+            }
+        }
+        if (!missing.isEmpty()) {
+            prices.putAll(pullPrices(missing));
+        }
+        return prices;
+    }
+
+    /**
+     * Validates that the order's quantity is positive.
+     *
+     * @param order the {@link Order} to validate
+     * @throws IllegalQuantityException if the order's quantity is less than or equal to zero
+     */
+    public void validateQuantity(Order order) {
         if (order.getQuantity() <= 0) {
             throw new IllegalQuantityException(order.getQuantity());
         }
+    }
+
+    private BigDecimal pullPrice(String symbol) {
+        if (cacheEnabled) {
+            return priceCache.getPrice(symbol);
+        }
+        return priceFeedClient.fetchPrice(symbol).block();
+    }
 
-        return webClient.get()
-                .uri(uriBuilder -> uriBuilder.path("/price")
-                        .queryParam("symbol", order.getSymbol())
-                        .build())
-                .retrieve()
-                .bodyToMono(PriceResponse.class)
-                .map(PriceResponse::getPrice)
+    private Map<String, BigDecimal> pullPrices(Collection<String> symbols) {
+        if (cacheEnabled) {
+            return priceCache.getPrices(symbols);
+        }
+        return Flux.fromIterable(symbols)
+                .flatMap(symbol -> priceFeedClient.fetchPrice(symbol)
+                        .map(price -> Map.entry(symbol, price))
+                        .onErrorResume(e -> {
+                            log.warn("price unavailable for {}: {}", symbol, e.getMessage());
+                            return Mono.empty();
+                        }))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
                 .block();
     }
-}
\ No newline at end of file
+}
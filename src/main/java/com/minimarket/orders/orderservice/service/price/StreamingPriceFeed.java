@@ -0,0 +1,92 @@
+package com.minimarket.orders.orderservice.service.price;
+
+import com.minimarket.orders.orderservice.dto.PriceResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Subscribes to the streaming price feed and keeps the {@link PriceBook} up to date.
+ * Only active when {@code price.feed.mode} is {@code stream}. The feed may be served either as
+ * newline-delimited JSON or as server-sent events carrying {@link PriceResponse} payloads; the
+ * subscription is re-established with backoff whenever the stream ends or fails.
+ */
+@Component
+@ConditionalOnProperty(name = "price.feed.mode", havingValue = "stream")
+@Slf4j
+public class StreamingPriceFeed {
+
+    private final WebClient webClient;
+    private final PriceBook priceBook;
+    private final String streamPath;
+    private final Duration reconnectBackoff;
+
+    private Disposable subscription;
+
+    /**
+     * Constructs a {@code StreamingPriceFeed}.
+     *
+     * @param wiremockHost the host address of the price feed, injected from configuration
+     * @param wiremockPort the port of the price feed, injected from configuration
+     * @param streamPath the path of the streaming endpoint
+     * @param reconnectBackoff the initial delay before reconnecting after the stream ends
+     * @param priceBook the book updated with every received trade
+     */
+    public StreamingPriceFeed(@Value("${wiremock.host}") String wiremockHost,
+                              @Value("${wiremock.port}") String wiremockPort,
+                              @Value("${price.stream.path:/prices/stream}") String streamPath,
+                              @Value("${price.stream.reconnect-backoff:500ms}") Duration reconnectBackoff,
+                              PriceBook priceBook) {
+        this.webClient = WebClient.builder()
+                .baseUrl("http://" + wiremockHost + ":" + wiremockPort)
+                .build();
+        this.streamPath = streamPath;
+        this.reconnectBackoff = reconnectBackoff;
+        this.priceBook = priceBook;
+    }
+
+    /**
+     * Opens the subscription to the streaming feed.
+     */
+    @PostConstruct
+    public void start() {
+        log.info("subscribing to price stream {}", streamPath);
+        subscription = Flux.defer(this::openStream)
+                .repeatWhen(completed -> completed.delayElements(reconnectBackoff))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, reconnectBackoff)
+                        .maxBackoff(reconnectBackoff.multipliedBy(20))
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> log.warn("price stream failed, reconnecting: {}",
+                                signal.failure().getMessage())))
+                .subscribe(quote -> priceBook.update(quote.getSymbol(), quote.getPrice()));
+    }
+
+    /**
+     * Closes the subscription to the streaming feed.
+     */
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Flux<PriceResponse> openStream() {
+        return webClient.get()
+                .uri(streamPath)
+                .accept(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(PriceResponse.class)
+                .filter(quote -> quote.getSymbol() != null && quote.getPrice() != null);
+    }
+}
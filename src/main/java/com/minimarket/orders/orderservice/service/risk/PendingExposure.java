@@ -0,0 +1,281 @@
+package com.minimarket.orders.orderservice.service.risk;
+
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.repository.OrderRepository;
+import com.minimarket.orders.orderservice.repository.RestingOrder;
+import com.minimarket.orders.orderservice.service.position.PositionBook;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Quantity each account has committed to buy or sell in a symbol that is not in its
+ * {@link PositionBook} position yet, so that the position limit of the {@link RiskEngine} also covers it.
+ * Three kinds of orders are counted:
+ * <ul>
+ *     <li>admitted orders, until the transaction that saves them completes, by when their executions
+ *     are in the position book;</li>
+ *     <li>market orders acknowledged from the order journal, until the journal replicator inserted them;</li>
+ *     <li>the unfilled quantity of resting limit orders, until it is filled.</li>
+ * </ul>
+ * Buys and sells are kept apart, since the risk engine checks the worst case of either side filling.
+ * A symbol is dropped from an account once nothing is pending in it, and the account once nothing is
+ * pending in any symbol, so only accounts with orders in flight or resting take up memory.
+ * Resting orders are restored from the database on startup; the replicator restores the journaled ones.
+ */
+@Component
+@Slf4j
+public class PendingExposure implements SmartLifecycle {
+
+    private final OrderRepository orderRepository;
+    private final Map<String, AccountExposure> accounts = new ConcurrentHashMap<>();
+    private final Map<Long, Resting> resting = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    public PendingExposure(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Counts an order's quantity until it is removed again.
+     *
+     * @param order the order, with an account, a symbol, a side and a quantity
+     */
+    public void add(Order order) {
+        change(order.getAccountId(), order.getSymbol(), order.getSide(), order.getQuantity());
+    }
+
+    /**
+     * Stops counting an order added with {@link #add(Order)}.
+     *
+     * @param order the order
+     */
+    public void remove(Order order) {
+        change(order.getAccountId(), order.getSymbol(), order.getSide(), -order.getQuantity());
+    }
+
+    /**
+     * Counts an order's quantity until the current transaction commits or rolls back. Outside a
+     * transaction the order is not counted, since its executions reach the position book as they are saved.
+     *
+     * @param order the order, with an account, a symbol, a side and a quantity
+     */
+    public void reserve(Order order) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        add(order);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                remove(order);
+            }
+        });
+    }
+
+    /**
+     * Counts the unfilled quantity of a committed limit order that rests in the order book.
+     *
+     * @param orderId the ID of the order
+     * @param accountId the account of the order
+     * @param symbol the symbol of the order
+     * @param side the side of the order
+     * @param remaining the quantity not filled yet
+     */
+    public void rest(long orderId, String accountId, String symbol, Order.Side side, long remaining) {
+        if (remaining <= 0) {
+            return;
+        }
+        resting.put(orderId, new Resting(accountId, symbol, side, remaining));
+        change(accountId, symbol, side, remaining);
+    }
+
+    /**
+     * Stops counting the committed fill of a resting limit order.
+     *
+     * @param orderId the ID of the resting order
+     * @param quantity the filled quantity
+     */
+    public void fill(long orderId, long quantity) {
+        Resting order = resting.get(orderId);
+        if (order == null) {
+            return;
+        }
+        long filled = order.take(quantity);
+        if (order.remaining() == 0) {
+            resting.remove(orderId, order);
+        }
+        change(order.accountId, order.symbol, order.side, -filled);
+    }
+
+    /**
+     * Returns the quantity an account has pending on one side of a symbol without allocating.
+     *
+     * @param accountId the account
+     * @param symbol the symbol
+     * @param buy whether to return the pending buys rather than the pending sells
+     * @return the pending quantity, {@code 0} if there is none
+     */
+    public long quantity(String accountId, String symbol, boolean buy) {
+        AccountExposure exposure = accounts.get(accountId);
+        return exposure == null ? 0 : exposure.quantity(symbol, buy);
+    }
+
+    /**
+     * Counts the accounts currently holding a pending quantity.
+     *
+     * @return the number of accounts
+     */
+    public int size() {
+        return accounts.size();
+    }
+
+    /**
+     * Counts the limit orders resting in the database.
+     */
+    @Override
+    public void start() {
+        int restored = 0;
+        for (RestingOrder order : orderRepository.findRestingLimitOrders()) {
+            if (order.getRemaining() > 0) {
+                rest(order.getId(), order.getAccountId(), order.getSymbol(), Order.Side.valueOf(order.getSide()),
+                        order.getRemaining());
+                restored++;
+            }
+        }
+        log.info("restored the pending exposure of {} resting limit orders", restored);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts with the {@link PositionBook}, before anything places orders.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    /**
+     * Changes the pending quantity of an account atomically with adding or dropping the account, so a
+     * concurrent change cannot land on an account that is being dropped.
+     */
+    private void change(String accountId, String symbol, Order.Side side, long quantity) {
+        boolean buy = side == Order.Side.BUY;
+        if (quantity > 0) {
+            accounts.compute(accountId, (key, exposure) -> {
+                AccountExposure changed = exposure == null ? new AccountExposure() : exposure;
+                return changed.change(symbol, buy, quantity) ? null : changed;
+            });
+        } else {
+            accounts.computeIfPresent(accountId,
+                    (key, exposure) -> exposure.change(symbol, buy, quantity) ? null : exposure);
+        }
+    }
+
+    /**
+     * A resting limit order and its unfilled quantity.
+     */
+    private static final class Resting {
+
+        private final String accountId;
+        private final String symbol;
+        private final Order.Side side;
+        private long remaining;
+
+        Resting(String accountId, String symbol, Order.Side side, long remaining) {
+            this.accountId = accountId;
+            this.symbol = symbol;
+            this.side = side;
+            this.remaining = remaining;
+        }
+
+        synchronized long take(long quantity) {
+            long taken = Math.min(quantity, remaining);
+            remaining -= taken;
+            return taken;
+        }
+
+        synchronized long remaining() {
+            return remaining;
+        }
+    }
+
+    /**
+     * The pending quantities of one account, one slot per symbol.
+     */
+    private static final class AccountExposure {
+
+        private static final int INITIAL_CAPACITY = 4;
+
+        private String[] symbols = new String[INITIAL_CAPACITY];
+        private long[] buys = new long[INITIAL_CAPACITY];
+        private long[] sells = new long[INITIAL_CAPACITY];
+        private int size;
+
+        /**
+         * Changes the pending quantity of a symbol, dropping the symbol once nothing is pending in it.
+         *
+         * @return whether nothing is pending in any symbol any more
+         */
+        synchronized boolean change(String symbol, boolean buy, long quantity) {
+            int slot = slot(symbol);
+            if (buy) {
+                buys[slot] += quantity;
+            } else {
+                sells[slot] += quantity;
+            }
+            if (buys[slot] == 0 && sells[slot] == 0) {
+                size--;
+                symbols[slot] = symbols[size];
+                buys[slot] = buys[size];
+                sells[slot] = sells[size];
+                symbols[size] = null;
+                buys[size] = 0;
+                sells[size] = 0;
+            }
+            return size == 0;
+        }
+
+        synchronized long quantity(String symbol, boolean buy) {
+            for (int slot = 0; slot < size; slot++) {
+                if (symbols[slot].equals(symbol)) {
+                    return buy ? buys[slot] : sells[slot];
+                }
+            }
+            return 0;
+        }
+
+        private int slot(String symbol) {
+            for (int slot = 0; slot < size; slot++) {
+                if (symbols[slot].equals(symbol)) {
+                    return slot;
+                }
+            }
+            if (size == symbols.length) {
+                int capacity = size * 2;
+                symbols = Arrays.copyOf(symbols, capacity);
+                buys = Arrays.copyOf(buys, capacity);
+                sells = Arrays.copyOf(sells, capacity);
+            }
+            symbols[size] = symbol;
+            return size++;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.minimarket.orders.orderservice.service.risk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minimarket.orders.orderservice.exception.RiskCheckFailedException;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.service.position.PositionBook;
+import com.minimarket.orders.orderservice.service.price.PriceBook;
+import com.minimarket.orders.orderservice.service.price.PriceCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Pre-trade risk checks, run on every order before it is priced.
+ * An order is rejected if its symbol is restricted, if its notional exceeds the order limit, if it
+ * would grow the account's position in the symbol beyond the position limit, or if it is a limit
+ * order priced further from the reference price than the price band allows. The reference price is
+ * the last streamed trade or the cached feed quote; without one, limit orders are valued at their
+ * limit price. Market orders are checked again at the price they execute at, by
+ * {@link #check(Order, BigDecimal)}, so that they cannot skip the notional limits for want of a
+ * reference price.
+ * <p>
+ * The position an order is checked against is the account's {@link PositionBook} position plus
+ * whatever {@link PendingExposure} it has on the order's side: resting limit orders, journaled orders
+ * not replicated yet and orders being saved, including earlier orders of the same batch.
+ * <p>
+ * {@link RiskLimits} are compiled into one immutable {@code Rules} snapshot: a map from symbol to
+ * its effective limits as {@code double}s, with the defaults for every other symbol. Evaluating an
+ * order is then one map lookup, a price lookup, a position lookup in the {@link PositionBook} and a
+ * few comparisons, none of which allocate. Reloading the limits swaps the snapshot, so checks in
+ * flight finish against the limits they started with.
+ */
+@Component
+@Slf4j
+public class RiskEngine {
+
+    private static final String REJECTED_MESSAGE = "Order rejected by risk check %s for %s";
+
+    private final PriceBook priceBook;
+    private final PriceCache priceCache;
+    private final PositionBook positionBook;
+    private final PendingExposure pendingExposure;
+    private final ObjectMapper objectMapper;
+    private final String limitsFile;
+    private final Counter[] rejectionCounters;
+
+    private volatile Rules rules;
+    private FileTime loadedFileTime;
+
+    /**
+     * Constructs a {@code RiskEngine}, compiles the configured limits and registers its metrics.
+     *
+     * @param limits the configured limits
+     * @param priceBook the last-trade book, the first source of reference prices
+     * @param priceCache the quote cache, the second source of reference prices
+     * @param positionBook the positions the exposure limit is checked against
+     * @param pendingExposure the orders not in the positions yet
+     * @param objectMapper reads the limits file
+     * @param meterRegistry the registry rejections by rule are counted in
+     */
+    public RiskEngine(RiskLimits limits, PriceBook priceBook, PriceCache priceCache, PositionBook positionBook,
+                      PendingExposure pendingExposure, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.priceBook = priceBook;
+        this.priceCache = priceCache;
+        this.positionBook = positionBook;
+        this.pendingExposure = pendingExposure;
+        this.objectMapper = objectMapper;
+        this.limitsFile = limits.getFile();
+        this.rules = Rules.compile(limits);
+        this.rejectionCounters = new Counter[Rule.values().length];
+        for (Rule rule : Rule.values()) {
+            rejectionCounters[rule.ordinal()] = Counter.builder("risk.rejections")
+                    .description("Orders rejected by pre-trade risk checks")
+                    .tag("rule", rule.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+        reloadIfChanged();
+    }
+
+    /**
+     * Checks an order against the current limits.
+     *
+     * @param order the order, with an account and a symbol
+     * @throws RiskCheckFailedException if the order breaks a limit
+     */
+    public void check(Order order) {
+        if (order.getQuantity() == null || order.getQuantity() <= 0 || order.getSide() == null) {
+            return;
+        }
+        reject(order, evaluate(order.getAccountId(), order.getSymbol(), order.getSide() == Order.Side.BUY,
+                order.getQuantity(), order.getType() == Order.Type.LIMIT ? order.getLimitPrice() : null));
+    }
+
+    /**
+     * Checks a priced market order against the notional limits, at the price it is about to execute at.
+     *
+     * @param order the order, with an account and a symbol
+     * @param price the execution price
+     * @throws RiskCheckFailedException if the order breaks a limit
+     */
+    public void check(Order order, BigDecimal price) {
+        if (order.getQuantity() == null || order.getQuantity() <= 0 || order.getSide() == null) {
+            return;
+        }
+        reject(order, evaluateAt(order.getAccountId(), order.getSymbol(), order.getSide() == Order.Side.BUY,
+                order.getQuantity(), price));
+    }
+
+    /**
+     * Evaluates an order against the current limits without allocating.
+     * Without a reference price, a market order passes the notional limits here and is held to them
+     * by {@link #evaluateAt} once priced.
+     *
+     * @param accountId the account placing the order
+     * @param symbol the symbol of the order
+     * @param buy whether the order buys
+     * @param quantity the positive quantity of the order
+     * @param limitPrice the limit price, or {@code null} for a market order
+     * @return the first rule the order breaks, or {@code null} if it passes
+     */
+    public Rule evaluate(String accountId, String symbol, boolean buy, int quantity, BigDecimal limitPrice) {
+        Limits limits = rules.forSymbol(symbol);
+        if (limits.restricted) {
+            return Rule.RESTRICTED_SYMBOL;
+        }
+        double reference = referencePrice(symbol);
+        double price = reference;
+        if (limitPrice != null) {
+            price = limitPrice.doubleValue();
+            if (Math.abs(price - reference) > limits.priceBand * reference) {
+                return Rule.PRICE_BAND;
+            }
+        }
+        if (Double.isNaN(price)) {
+            return null;
+        }
+        return evaluateNotional(limits, accountId, symbol, buy, quantity, price);
+    }
+
+    /**
+     * Evaluates a priced order against the symbol restriction and the notional limits without allocating.
+     *
+     * @param accountId the account placing the order
+     * @param symbol the symbol of the order
+     * @param buy whether the order buys
+     * @param quantity the positive quantity of the order
+     * @param price the execution price
+     * @return the first rule the order breaks, or {@code null} if it passes
+     */
+    public Rule evaluateAt(String accountId, String symbol, boolean buy, int quantity, BigDecimal price) {
+        Limits limits = rules.forSymbol(symbol);
+        if (limits.restricted) {
+            return Rule.RESTRICTED_SYMBOL;
+        }
+        return evaluateNotional(limits, accountId, symbol, buy, quantity, price.doubleValue());
+    }
+
+    private Rule evaluateNotional(Limits limits, String accountId, String symbol, boolean buy, int quantity,
+                                  double price) {
+        if (quantity * price > limits.maxOrderNotional) {
+            return Rule.ORDER_NOTIONAL;
+        }
+        if (limits.maxPositionNotional != Double.POSITIVE_INFINITY) {
+            // the worst case: every pending order on the order's side fills
+            long open = positionBook.netQuantity(accountId, symbol)
+                    + (buy ? 1 : -1) * pendingExposure.quantity(accountId, symbol, buy);
+            long projected = Math.abs(open + (buy ? quantity : -quantity));
+            if (projected > Math.abs(open) && projected * price > limits.maxPositionNotional) {
+                return Rule.POSITION_NOTIONAL;
+            }
+        }
+        return null;
+    }
+
+    private void reject(Order order, Rule broken) {
+        if (broken != null) {
+            rejectionCounters[broken.ordinal()].increment();
+            throw new RiskCheckFailedException(String.format(REJECTED_MESSAGE,
+                    broken.name().toLowerCase(Locale.ROOT), order.getSymbol()));
+        }
+    }
+
+    /**
+     * Replaces the limits.
+     *
+     * @param limits the new limits
+     */
+    public void reload(RiskLimits limits) {
+        rules = Rules.compile(limits);
+        log.info("risk limits reloaded: {} symbol overrides", rules.bySymbol.size());
+    }
+
+    /**
+     * Reloads the limits from {@code risk.file} if the file changed since it was last read.
+     * A file that cannot be read or parsed leaves the current limits in place.
+     */
+    @Scheduled(fixedDelayString = "${risk.reload-interval:5s}")
+    public synchronized void reloadIfChanged() {
+        if (limitsFile == null || limitsFile.isBlank()) {
+            return;
+        }
+        Path path = Path.of(limitsFile);
+        try {
+            FileTime modified = Files.getLastModifiedTime(path);
+            if (modified.equals(loadedFileTime)) {
+                return;
+            }
+            reload(objectMapper.readValue(path.toFile(), RiskLimits.class));
+            loadedFileTime = modified;
+        } catch (IOException e) {
+            log.warn("risk limits file {} could not be loaded, keeping the current limits", path, e);
+        }
+    }
+
+    private double referencePrice(String symbol) {
+        BigDecimal price = priceBook.getFreshPrice(symbol);
+        if (price == null) {
+            price = priceCache.peekPrice(symbol);
+        }
+        return price == null ? Double.NaN : price.doubleValue();
+    }
+
+    /**
+     * The risk checks, in the order they are evaluated.
+     */
+    public enum Rule {
+        RESTRICTED_SYMBOL, PRICE_BAND, ORDER_NOTIONAL, POSITION_NOTIONAL
+    }
+
+    /**
+     * The effective limits of one symbol; a limit that is not configured is infinite.
+     */
+    private record Limits(boolean restricted, double maxOrderNotional, double maxPositionNotional,
+                          double priceBand) {
+    }
+
+    private record Rules(Map<String, Limits> bySymbol, Limits defaults) {
+
+        Limits forSymbol(String symbol) {
+            Limits limits = bySymbol.get(symbol);
+            return limits == null ? defaults : limits;
+        }
+
+        static Rules compile(RiskLimits config) {
+            if (!config.isEnabled()) {
+                return new Rules(Map.of(), new Limits(false, Double.POSITIVE_INFINITY,
+                        Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY));
+            }
+            Limits defaults = new Limits(false, limit(config.getMaxOrderNotional()),
+                    limit(config.getMaxPositionNotional()), limit(config.getPriceBand()));
+            Map<String, Limits> bySymbol = new HashMap<>();
+            config.getSymbols().forEach((symbol, override) -> bySymbol.put(symbol, new Limits(false,
+                    override.getMaxOrderNotional() == null ? defaults.maxOrderNotional
+                            : limit(override.getMaxOrderNotional()),
+                    override.getMaxPositionNotional() == null ? defaults.maxPositionNotional
+                            : limit(override.getMaxPositionNotional()),
+                    override.getPriceBand() == null ? defaults.priceBand : limit(override.getPriceBand()))));
+            for (String symbol : config.getRestrictedSymbols()) {
+                bySymbol.put(symbol, new Limits(true, 0, 0, 0));
+            }
+            return new Rules(Map.copyOf(bySymbol), defaults);
+        }
+
+        private static double limit(BigDecimal value) {
+            return value == null ? Double.POSITIVE_INFINITY : value.doubleValue();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.minimarket.orders.orderservice.service.risk;
+
+import lombok.*;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pre-trade risk limits bound from {@code risk.*}.
+ * Each limit applies to every symbol unless {@code symbols} overrides it for one; a missing limit
+ * is not checked. When {@code file} names a JSON document of the same shape, the {@link RiskEngine}
+ * reloads the limits from it whenever it changes.
+ */
+@ConfigurationProperties(prefix = "risk")
+@Getter
+@Setter
+public class RiskLimits {
+
+    private boolean enabled = true;
+    private String file;
+    private BigDecimal maxOrderNotional;
+    private BigDecimal maxPositionNotional;
+    private BigDecimal priceBand; // largest relative distance of a limit price from the reference price
+    private Set<String> restrictedSymbols = new HashSet<>();
+    private Map<String, SymbolLimits> symbols = new HashMap<>();
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class SymbolLimits {
+
+        private BigDecimal maxOrderNotional;
+        private BigDecimal maxPositionNotional;
+        private BigDecimal priceBand;
+
+    }
+}
@@ -0,0 +1,107 @@
+package com.minimarket.orders.orderservice.wire;
+
+import com.minimarket.orders.orderservice.dto.OrderResult;
+import com.minimarket.orders.orderservice.model.Order;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import reactor.netty.Connection;
+import reactor.netty.tcp.TcpClient;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client of the {@link OrderEntryServer} over one TCP connection. Orders are written as soon as they
+ * are submitted, without waiting for earlier acks, and each returned future completes when the ack
+ * carrying its correlation ID arrives. Writes from many threads are coalesced into fewer flushes.
+ * Thread-safe.
+ */
+public class OrderEntryClient implements AutoCloseable {
+
+    private static final int DEFAULT_MAX_FRAME_LENGTH = 70_000;
+    private static final int FLUSH_CONSOLIDATION_LIMIT = 256;
+
+    private final Connection connection;
+    private final Map<Long, CompletableFuture<OrderResult>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong correlationIds = new AtomicLong();
+
+    /**
+     * Connects to an order entry server.
+     *
+     * @param host the host of the server
+     * @param port the port of the server
+     */
+    public OrderEntryClient(String host, int port) {
+        this.connection = TcpClient.create()
+                .host(host)
+                .port(port)
+                .doOnConnected(connected -> connected
+                        .addHandlerFirst(new FlushConsolidationHandler(FLUSH_CONSOLIDATION_LIMIT, true))
+                        .addHandlerLast(OrderEntryCodec.frameDecoder(DEFAULT_MAX_FRAME_LENGTH)))
+                .connectNow();
+        connection.inbound().receive()
+                .subscribe(frame -> complete(OrderEntryCodec.decodeAck(frame)), this::failAll,
+                        () -> failAll(new IllegalStateException("Order entry connection closed")));
+    }
+
+    /**
+     * Sends an order.
+     *
+     * @param order the order; its side and quantity are required
+     * @return a future completed with the result of the order, {@link OrderResult.Status#ACCEPTED} or a
+     * rejection, or completed exceptionally if the order failed or the connection was lost
+     * @throws IllegalArgumentException if the order cannot be encoded
+     */
+    public CompletableFuture<OrderResult> submit(Order order) {
+        long correlationId = correlationIds.incrementAndGet();
+        ByteBuf frame = OrderEntryCodec.encodeNewOrder(connection.channel().alloc(), correlationId, order);
+        CompletableFuture<OrderResult> result = new CompletableFuture<>();
+        pending.put(correlationId, result);
+        connection.channel().writeAndFlush(frame).addListener(write -> {
+            if (!write.isSuccess()) {
+                CompletableFuture<OrderResult> unsent = pending.remove(correlationId);
+                if (unsent != null) {
+                    unsent.completeExceptionally(write.cause());
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Closes the connection, failing the orders still waiting for an ack.
+     */
+    @Override
+    public void close() {
+        connection.disposeNow();
+        failAll(new IllegalStateException("Order entry client closed"));
+    }
+
+    private void complete(OrderEntryCodec.Ack ack) {
+        CompletableFuture<OrderResult> result = pending.remove(ack.correlationId());
+        if (result == null) {
+            return;
+        }
+        if (ack.status() == null) {
+            result.completeExceptionally(new IllegalStateException(ack.message()));
+            return;
+        }
+        result.complete(OrderResult.builder()
+                .symbol(ack.symbol())
+                .price(ack.price())
+                .status(ack.status())
+                .message(ack.message())
+                .build());
+    }
+
+    private void failAll(Throwable cause) {
+        for (Long correlationId : pending.keySet()) {
+            CompletableFuture<OrderResult> result = pending.remove(correlationId);
+            if (result != null) {
+                result.completeExceptionally(cause);
+            }
+        }
+    }
+}
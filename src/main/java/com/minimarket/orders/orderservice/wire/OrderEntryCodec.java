@@ -0,0 +1,331 @@
+package com.minimarket.orders.orderservice.wire;
+
+import com.minimarket.orders.orderservice.dto.OrderResult;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.service.matching.OrderBook;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+import java.math.BigDecimal;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Fixed-layout binary encoding of the order entry protocol, read and written in place on Netty
+ * buffers in the style of SBE flyweights. All integers are little-endian.
+ * <p>
+ * Every frame is a 4-byte length followed by the message. A message starts with an 8-byte header
+ * of {@code blockLength}, {@code templateId}, {@code schemaId} and {@code version}, each a
+ * {@code uint16}, followed by a fixed block of {@code blockLength} bytes and then variable-length
+ * fields. Decoders read the variable-length fields from {@code header + blockLength}, so fields
+ * appended to a block in a later version are skipped by older decoders.
+ * <pre>
+ * NewOrder (template 1), block of 30 bytes:
+ *   0  int64   correlationId  echoed in the ack
+ *   8  int64   createdAt      microseconds since the epoch, UTC
+ *  16  int64   limitPrice     ticks of 10^-6, ignored for market orders
+ *  24  int32   quantity
+ *  28  uint8   side           0 BUY, 1 SELL
+ *  29  uint8   orderType      0 MARKET, 1 LIMIT
+ *  then accountId, symbol and clientOrderId, each a uint8 length and ASCII bytes; length 0 is absent
+ *
+ * OrderAck (template 2), block of 17 bytes:
+ *   0  int64   correlationId
+ *   8  int64   price          ticks of 10^-6, 0 unless accepted
+ *  16  uint8   status         ordinal of {@link OrderResult.Status}, 255 if the order failed
+ *  then symbol, a uint8 length and ASCII bytes, and message, a uint16 length and UTF-8 bytes
+ * </pre>
+ */
+public final class OrderEntryCodec {
+
+    public static final int SCHEMA_ID = 1;
+    public static final int SCHEMA_VERSION = 1;
+    public static final int NEW_ORDER_TEMPLATE_ID = 1;
+    public static final int ORDER_ACK_TEMPLATE_ID = 2;
+    public static final int FAILED_STATUS = 255;
+
+    static final int LENGTH_FIELD_BYTES = 4;
+    static final int HEADER_BYTES = 8;
+    static final int NEW_ORDER_BLOCK_LENGTH = 30;
+    static final int ORDER_ACK_BLOCK_LENGTH = 17;
+
+    private static final int MAX_ASCII_LENGTH = 255;
+    private static final int MAX_MESSAGE_LENGTH = 65_535;
+    private static final OrderResult.Status[] STATUSES = OrderResult.Status.values();
+    private static final Order.Side[] SIDES = Order.Side.values();
+    private static final Order.Type[] TYPES = Order.Type.values();
+
+    private OrderEntryCodec() {
+    }
+
+    /**
+     * Creates the decoder splitting a connection's bytes into frames, with the length field stripped.
+     *
+     * @param maxFrameLength the largest frame accepted; a longer one fails the connection
+     * @return a new decoder, one per connection
+     */
+    public static LengthFieldBasedFrameDecoder frameDecoder(int maxFrameLength) {
+        return new LengthFieldBasedFrameDecoder(ByteOrder.LITTLE_ENDIAN, maxFrameLength, 0, LENGTH_FIELD_BYTES,
+                0, LENGTH_FIELD_BYTES, true);
+    }
+
+    /**
+     * Encodes an order as a length-prefixed {@code NewOrder} frame.
+     *
+     * @param allocator the allocator of the connection the frame is written to
+     * @param correlationId the ID the ack will carry
+     * @param order the order; its side and quantity are required
+     * @return the frame, owned by the caller
+     * @throws IllegalArgumentException if the order cannot be encoded
+     */
+    public static ByteBuf encodeNewOrder(ByteBufAllocator allocator, long correlationId, Order order) {
+        if (order.getSide() == null || order.getQuantity() == null) {
+            throw new IllegalArgumentException("Side and quantity are required");
+        }
+        boolean limit = order.getType() == Order.Type.LIMIT;
+        OffsetDateTime createdAt = order.getCreatedAt() == null ? OffsetDateTime.now() : order.getCreatedAt();
+        ByteBuf frame = allocator.buffer(LENGTH_FIELD_BYTES + HEADER_BYTES + NEW_ORDER_BLOCK_LENGTH + 3
+                + length(order.getAccountId()) + length(order.getSymbol()) + length(order.getClientOrderId()));
+        try {
+            int start = frame.writerIndex();
+            frame.writeIntLE(0);
+            writeHeader(frame, NEW_ORDER_BLOCK_LENGTH, NEW_ORDER_TEMPLATE_ID);
+            frame.writeLongLE(correlationId);
+            frame.writeLongLE(toMicros(createdAt.toInstant()));
+            frame.writeLongLE(limit && order.getLimitPrice() != null ? OrderBook.toTicks(order.getLimitPrice()) : 0);
+            frame.writeIntLE(order.getQuantity());
+            frame.writeByte(order.getSide().ordinal());
+            frame.writeByte(limit ? Order.Type.LIMIT.ordinal() : Order.Type.MARKET.ordinal());
+            writeAscii(frame, order.getAccountId());
+            writeAscii(frame, order.getSymbol());
+            writeAscii(frame, order.getClientOrderId());
+            frame.setIntLE(start, frame.writerIndex() - start - LENGTH_FIELD_BYTES);
+            return frame;
+        } catch (RuntimeException e) {
+            frame.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes a {@code NewOrder} frame into a new order. Account IDs and symbols are taken from
+     * {@code strings}, so known ones are not copied again.
+     *
+     * @param frame the frame without its length field; it is not released
+     * @param strings the string table of the connection
+     * @return the correlation ID and the order, in status {@code null} like orders received over HTTP
+     * @throws IllegalArgumentException if the frame is not a {@code NewOrder} this decoder understands
+     * @throws IndexOutOfBoundsException if the frame is truncated
+     */
+    public static NewOrder decodeNewOrder(ByteBuf frame, StringTable strings) {
+        int offset = readHeader(frame, NEW_ORDER_TEMPLATE_ID, NEW_ORDER_BLOCK_LENGTH);
+        int block = frame.readerIndex() + HEADER_BYTES;
+        Order.Type type = TYPES[enumIndex(frame.getUnsignedByte(block + 29), TYPES.length, "order type")];
+        Order order = Order.builder()
+                .createdAt(fromMicros(frame.getLongLE(block + 8)))
+                .limitPrice(type == Order.Type.LIMIT ? OrderBook.toPrice(frame.getLongLE(block + 16)) : null)
+                .quantity(frame.getIntLE(block + 24))
+                .side(SIDES[enumIndex(frame.getUnsignedByte(block + 28), SIDES.length, "side")])
+                .type(type)
+                .build();
+        int length = frame.getUnsignedByte(offset);
+        order.setAccountId(strings.get(frame, offset + 1, length));
+        offset += 1 + length;
+        length = frame.getUnsignedByte(offset);
+        order.setSymbol(strings.get(frame, offset + 1, length));
+        offset += 1 + length;
+        length = frame.getUnsignedByte(offset);
+        order.setClientOrderId(length == 0 ? null : frame.toString(offset + 1, length, StandardCharsets.US_ASCII));
+        return new NewOrder(frame.getLongLE(block), order);
+    }
+
+    /**
+     * Encodes an ack as a length-prefixed {@code OrderAck} frame.
+     *
+     * @param allocator the allocator of the connection the frame is written to
+     * @param ack the ack
+     * @return the frame, owned by the caller
+     */
+    public static ByteBuf encodeAck(ByteBufAllocator allocator, Ack ack) {
+        String message = ack.message() == null ? "" : ack.message();
+        ByteBuf frame = allocator.buffer(LENGTH_FIELD_BYTES + HEADER_BYTES + ORDER_ACK_BLOCK_LENGTH + 3
+                + length(ack.symbol()) + message.length());
+        try {
+            int start = frame.writerIndex();
+            frame.writeIntLE(0);
+            writeHeader(frame, ORDER_ACK_BLOCK_LENGTH, ORDER_ACK_TEMPLATE_ID);
+            frame.writeLongLE(ack.correlationId());
+            frame.writeLongLE(ack.price() == null ? 0 : OrderBook.toTicks(ack.price()));
+            frame.writeByte(ack.status() == null ? FAILED_STATUS : ack.status().ordinal());
+            writeAscii(frame, ack.symbol());
+            int messageStart = frame.writerIndex();
+            frame.writeShortLE(0);
+            int written = frame.writeCharSequence(message, StandardCharsets.UTF_8);
+            if (written > MAX_MESSAGE_LENGTH) {
+                frame.writerIndex(messageStart + 2 + MAX_MESSAGE_LENGTH);
+                written = MAX_MESSAGE_LENGTH;
+            }
+            frame.setShortLE(messageStart, written);
+            frame.setIntLE(start, frame.writerIndex() - start - LENGTH_FIELD_BYTES);
+            return frame;
+        } catch (RuntimeException e) {
+            frame.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes an {@code OrderAck} frame.
+     *
+     * @param frame the frame without its length field; it is not released
+     * @return the ack
+     * @throws IllegalArgumentException if the frame is not an {@code OrderAck} this decoder understands
+     * @throws IndexOutOfBoundsException if the frame is truncated
+     */
+    public static Ack decodeAck(ByteBuf frame) {
+        int offset = readHeader(frame, ORDER_ACK_TEMPLATE_ID, ORDER_ACK_BLOCK_LENGTH);
+        int block = frame.readerIndex() + HEADER_BYTES;
+        int status = frame.getUnsignedByte(block + 16);
+        long price = frame.getLongLE(block + 8);
+        int length = frame.getUnsignedByte(offset);
+        String symbol = length == 0 ? null : frame.toString(offset + 1, length, StandardCharsets.US_ASCII);
+        offset += 1 + length;
+        length = frame.getUnsignedShortLE(offset);
+        String message = length == 0 ? null : frame.toString(offset + 2, length, StandardCharsets.UTF_8);
+        return new Ack(frame.getLongLE(block),
+                status == FAILED_STATUS ? null : STATUSES[enumIndex(status, STATUSES.length, "status")],
+                status == FAILED_STATUS || price == 0 ? null : OrderBook.toPrice(price), symbol, message);
+    }
+
+    private static void writeHeader(ByteBuf frame, int blockLength, int templateId) {
+        frame.writeShortLE(blockLength);
+        frame.writeShortLE(templateId);
+        frame.writeShortLE(SCHEMA_ID);
+        frame.writeShortLE(SCHEMA_VERSION);
+    }
+
+    /**
+     * Checks the header of a frame and returns the offset of its variable-length fields.
+     */
+    private static int readHeader(ByteBuf frame, int templateId, int minBlockLength) {
+        int header = frame.readerIndex();
+        int blockLength = frame.getUnsignedShortLE(header);
+        int actualTemplateId = frame.getUnsignedShortLE(header + 2);
+        int schemaId = frame.getUnsignedShortLE(header + 4);
+        if (actualTemplateId != templateId || schemaId != SCHEMA_ID || blockLength < minBlockLength) {
+            throw new IllegalArgumentException("Unexpected message: template " + actualTemplateId
+                    + " of schema " + schemaId + " with a block of " + blockLength + " bytes");
+        }
+        return header + HEADER_BYTES + blockLength;
+    }
+
+    private static int enumIndex(int value, int size, String field) {
+        if (value >= size) {
+            throw new IllegalArgumentException("Unknown " + field + " " + value);
+        }
+        return value;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static void writeAscii(ByteBuf frame, String value) {
+        if (value == null) {
+            frame.writeByte(0);
+            return;
+        }
+        if (value.length() > MAX_ASCII_LENGTH) {
+            throw new IllegalArgumentException("Field longer than " + MAX_ASCII_LENGTH + " characters: " + value);
+        }
+        frame.writeByte(value.length());
+        frame.writeCharSequence(value, StandardCharsets.US_ASCII);
+    }
+
+    private static long toMicros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+
+    private static OffsetDateTime fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L)
+                .atOffset(ZoneOffset.UTC);
+    }
+
+    /**
+     * A decoded {@code NewOrder}.
+     *
+     * @param correlationId the ID to echo in the ack
+     * @param order the order
+     */
+    public record NewOrder(long correlationId, Order order) {
+    }
+
+    /**
+     * The outcome of one order.
+     *
+     * @param correlationId the ID of the {@code NewOrder} answered
+     * @param status the status, or {@code null} if the order failed unexpectedly
+     * @param price the execution price of an accepted order, otherwise {@code null}
+     * @param symbol the symbol of the order
+     * @param message why the order was rejected or failed, otherwise {@code null}
+     */
+    public record Ack(long correlationId, OrderResult.Status status, BigDecimal price, String symbol,
+                      String message) {
+    }
+
+    /**
+     * Direct-mapped table of the account IDs and symbols a connection has seen, so that decoding a
+     * known one compares bytes instead of allocating a string. Owned by one connection and not
+     * thread-safe.
+     */
+    public static final class StringTable {
+
+        private final String[] slots;
+        private final int mask;
+
+        /**
+         * Constructs an empty table.
+         *
+         * @param capacity the number of slots, rounded up to a power of two
+         */
+        public StringTable(int capacity) {
+            int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+            this.slots = new String[size];
+            this.mask = size - 1;
+        }
+
+        String get(ByteBuf buffer, int index, int length) {
+            if (length == 0) {
+                return null;
+            }
+            int hash = 0;
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + buffer.getByte(index + i);
+            }
+            int slot = (hash ^ hash >>> 16) & mask;
+            String cached = slots[slot];
+            if (cached != null && matches(cached, buffer, index, length)) {
+                return cached;
+            }
+            String value = buffer.toString(index, length, StandardCharsets.US_ASCII);
+            slots[slot] = value;
+            return value;
+        }
+
+        private static boolean matches(String cached, ByteBuf buffer, int index, int length) {
+            if (cached.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (cached.charAt(i) != buffer.getByte(index + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.minimarket.orders.orderservice.wire;
+
+import com.minimarket.orders.orderservice.dto.OrderResult;
+import com.minimarket.orders.orderservice.dto.PriceResponse;
+import com.minimarket.orders.orderservice.exception.DuplicateOrderException;
+import com.minimarket.orders.orderservice.exception.IllegalQuantityException;
+import com.minimarket.orders.orderservice.exception.InvalidOrderException;
+import com.minimarket.orders.orderservice.exception.RateLimitExceededException;
+import com.minimarket.orders.orderservice.exception.RiskCheckFailedException;
+import com.minimarket.orders.orderservice.exception.SubmissionInProgressException;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.service.api.OrderService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.NettyInbound;
+import reactor.netty.NettyOutbound;
+import reactor.netty.tcp.TcpServer;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Order entry over persistent TCP connections in the binary protocol of {@link OrderEntryCodec}.
+ * Enabled with {@code orders.wire.enabled}. Each {@code NewOrder} frame is decoded on the
+ * connection's event loop and saved with the same {@link OrderService} as {@code POST /orders}, on a
+ * virtual thread, so up to {@code orders.wire.max-in-flight} orders of one connection are in flight at
+ * once. Acks are written as orders complete, which is not necessarily the order they arrived in, and
+ * carry the correlation ID of their order. Once a connection has that many orders in flight it stops
+ * reading, so a client sending faster than the service saves is held back by TCP flow control.
+ * <p>
+ * Rejections are acked with the status {@code POST /orders/batch} reports them with; an unexpected
+ * failure is acked as failed with its message. A malformed frame closes the connection.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.wire.enabled", havingValue = "true")
+@Slf4j
+public class OrderEntryServer implements SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "orders.wire";
+    private static final int STRING_TABLE_SIZE = 1024;
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    private final OrderService orderService;
+    private final String host;
+    private final int port;
+    private final int maxInFlight;
+    private final int maxFrameLength;
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private Scheduler scheduler;
+    private DisposableServer server;
+    private volatile boolean running;
+
+    /**
+     * Constructs an {@code OrderEntryServer} and registers its metrics.
+     *
+     * @param orderService the service orders are saved with
+     * @param meterRegistry the registry the number of open connections is published to
+     * @param host the address to listen on
+     * @param port the port to listen on; {@code 0} picks a free one
+     * @param maxInFlight the maximum number of orders of one connection being saved at once
+     * @param maxFrameLength the largest frame accepted
+     */
+    public OrderEntryServer(OrderService orderService,
+                            MeterRegistry meterRegistry,
+                            @Value("${orders.wire.host:0.0.0.0}") String host,
+                            @Value("${orders.wire.port:7001}") int port,
+                            @Value("${orders.wire.max-in-flight:256}") int maxInFlight,
+                            @Value("${orders.wire.max-frame-length:1024}") int maxFrameLength) {
+        this.orderService = orderService;
+        this.host = host;
+        this.port = port;
+        this.maxInFlight = maxInFlight;
+        this.maxFrameLength = maxFrameLength;
+        Gauge.builder(METRIC_PREFIX + ".connections", connections, AtomicInteger::get)
+                .description("Open order entry connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the bound port
+     * @throws IllegalStateException if the server is not running
+     */
+    public int port() {
+        if (server == null) {
+            throw new IllegalStateException("Order entry server is not running");
+        }
+        return server.port();
+    }
+
+    /**
+     * Binds the listening socket.
+     */
+    @Override
+    public void start() {
+        scheduler = Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "order-entry");
+        server = TcpServer.create()
+                .host(host)
+                .port(port)
+                .doOnConnection(connection -> {
+                    connection.addHandlerLast(OrderEntryCodec.frameDecoder(maxFrameLength));
+                    connections.incrementAndGet();
+                    connection.onDispose(connections::decrementAndGet);
+                })
+                .handle(this::serve)
+                .bindNow();
+        running = true;
+        log.info("order entry listening on {}:{}", host, server.port());
+    }
+
+    /**
+     * Closes the listening socket and every connection, waiting for orders in flight to be saved.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (server != null) {
+            server.disposeNow(SHUTDOWN_TIMEOUT);
+        }
+        if (scheduler != null) {
+            scheduler.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts after and stops before the order pipeline and the journal it submits to.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1024;
+    }
+
+    private Publisher<Void> serve(NettyInbound inbound, NettyOutbound outbound) {
+        OrderEntryCodec.StringTable strings = new OrderEntryCodec.StringTable(STRING_TABLE_SIZE);
+        return outbound.send(inbound.receive()
+                .map(frame -> OrderEntryCodec.decodeNewOrder(frame, strings))
+                .flatMap(request -> Mono.fromCallable(() -> submit(request)).subscribeOn(scheduler), maxInFlight)
+                .map(ack -> OrderEntryCodec.encodeAck(outbound.alloc(), ack))
+                .doOnError(e -> log.warn("closing order entry connection", e)));
+    }
+
+    private OrderEntryCodec.Ack submit(OrderEntryCodec.NewOrder request) {
+        Order order = request.order();
+        try {
+            PriceResponse response = orderService.saveOrder(order);
+            return new OrderEntryCodec.Ack(request.correlationId(), OrderResult.Status.ACCEPTED,
+                    response.getPrice(), response.getSymbol(), null);
+        } catch (RuntimeException e) {
+            OrderResult.Status status = statusOf(e);
+            if (status == null) {
+                log.warn("order {} of account {} failed", request.correlationId(), order.getAccountId(), e);
+            }
+            return new OrderEntryCodec.Ack(request.correlationId(), status, null, order.getSymbol(), e.getMessage());
+        }
+    }
+
+    private static OrderResult.Status statusOf(RuntimeException e) {
+        return switch (e) {
+            case RateLimitExceededException ignored -> OrderResult.Status.RATE_LIMITED;
+            case IllegalQuantityException ignored -> OrderResult.Status.ILLEGAL_QUANTITY;
+            case RiskCheckFailedException ignored -> OrderResult.Status.RISK_REJECTED;
+            case NullPointerException ignored -> OrderResult.Status.INVALID;
+            case InvalidOrderException ignored -> OrderResult.Status.INVALID;
+            case DuplicateOrderException ignored -> OrderResult.Status.DUPLICATE;
+            case SubmissionInProgressException ignored -> OrderResult.Status.IN_PROGRESS;
+            default -> null;
+        };
+    }
+}
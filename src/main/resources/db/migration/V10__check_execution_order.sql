@@ -0,0 +1,23 @@
+-- Replaces the foreign key from executions to orders that V8 dropped: an execution can only be inserted
+-- for an existing order. Orders archived later keep their executions, as before. The order is looked up
+-- in the partitions of the day before the execution first, which holds it unless it rested for longer,
+-- so the check usually touches two partitions rather than all of them. The violation carries the name
+-- of the former constraint.
+create or replace function check_execution_order() returns trigger
+    language plpgsql as $$
+begin
+    if exists (select 1 from orders where id = new.order_id and created_at >= new.executed_at - interval '1 day') then
+        return new;
+    end if;
+    if exists (select 1 from orders where id = new.order_id) then
+        return new;
+    end if;
+    raise foreign_key_violation using
+        message = format('order %s of execution %s does not exist', new.order_id, new.id),
+        constraint = 'executions_order_id_fkey';
+end $$;
+
+create trigger executions_check_order
+    before insert on executions
+    for each row
+    execute function check_execution_order();
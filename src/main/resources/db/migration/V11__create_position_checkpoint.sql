@@ -0,0 +1,7 @@
+-- The execution time up to which the checkpointed positions contain every execution; executions after
+-- it are replayed on startup. A single row, written in the same transaction as the positions.
+create table if not exists position_checkpoint (
+    id             smallint                    not null primary key check (id = 1),
+    executed_until timestamp(6) with time zone not null,
+    updated_at     timestamp(6) with time zone not null
+);
@@ -0,0 +1,19 @@
+create sequence if not exists orders_seq start with 1 increment by 50;
+create sequence if not exists executions_seq start with 1 increment by 50;
+
+create table if not exists orders (
+    id         bigint                      not null primary key,
+    account_id varchar(255)                not null,
+    symbol     varchar(255)                not null,
+    side       varchar(255)                not null check (side in ('BUY', 'SELL')),
+    quantity   integer                     not null,
+    status     varchar(255)                not null check (status in ('CREATED', 'COMPLETED', 'CANCELLED')),
+    created_at timestamp(6) with time zone not null
+);
+
+create table if not exists executions (
+    id          bigint                      not null primary key,
+    order_id    bigint                      not null references orders (id),
+    price       numeric(19, 6)              not null,
+    executed_at timestamp(6) with time zone not null
+);
@@ -0,0 +1,14 @@
+-- Account history by time; covers the selected columns so the common account queries are index-only scans.
+create index if not exists idx_orders_account_created_at
+    on orders (account_id, created_at) include (id, symbol, side, quantity, status);
+
+-- Keyset pagination and streaming of an account's history by id.
+create index if not exists idx_orders_account_id
+    on orders (account_id, id);
+
+-- Symbol activity by time, optionally narrowed by side.
+create index if not exists idx_orders_symbol_created_at
+    on orders (symbol, created_at) include (id, account_id, side, quantity, status);
+
+create index if not exists idx_executions_order_id
+    on executions (order_id);
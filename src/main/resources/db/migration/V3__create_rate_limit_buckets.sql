@@ -0,0 +1,6 @@
+-- Shared per-account token buckets for rate-limiter.mode=distributed; tokens are in milli-permits.
+create table if not exists rate_limit_buckets (
+    account_id  varchar(255)                not null primary key,
+    tokens      bigint                      not null,
+    refilled_at timestamp(6) with time zone not null
+);
@@ -0,0 +1,23 @@
+-- Limit orders rest in the in-memory order book until filled; market orders keep executing at the feed price.
+alter table orders add column if not exists order_type varchar(255) not null default 'MARKET'
+    check (order_type in ('MARKET', 'LIMIT'));
+alter table orders add column if not exists limit_price numeric(19, 6);
+
+-- One execution per fill; every execution recorded so far filled its whole order.
+alter table executions add column if not exists quantity integer;
+update executions e set quantity = o.quantity from orders o where o.id = e.order_id and e.quantity is null;
+alter table executions alter column quantity set not null;
+
+-- Resting limit orders, read in time priority to rebuild the order book on startup.
+create index if not exists idx_orders_resting_limit
+    on orders (id) include (symbol, side, limit_price, quantity)
+    where order_type = 'LIMIT' and status = 'CREATED';
+
+-- Keep the history queries index-only now that orders carry a type and limit price.
+drop index if exists idx_orders_account_created_at;
+create index idx_orders_account_created_at
+    on orders (account_id, created_at) include (id, symbol, side, quantity, order_type, limit_price, status);
+
+drop index if exists idx_orders_symbol_created_at;
+create index idx_orders_symbol_created_at
+    on orders (symbol, created_at) include (id, account_id, side, quantity, order_type, limit_price, status);
@@ -0,0 +1,6 @@
+-- Replication progress of each order journal directory (orders.journal.enabled), as a byte position.
+create table if not exists journal_checkpoints (
+    journal_id varchar(64)                 not null primary key,
+    position   bigint                      not null,
+    updated_at timestamp(6) with time zone not null
+);
@@ -0,0 +1,12 @@
+-- Checkpoints of the in-memory per-account, per-symbol position projection.
+-- cost_basis is the total cost of the open quantity; last_execution_id is the highest execution applied.
+create table if not exists positions (
+    account_id        varchar(255)                not null,
+    symbol            varchar(255)                not null,
+    quantity          bigint                      not null,
+    cost_basis        numeric(30, 6)              not null,
+    realized_pnl      numeric(30, 6)              not null,
+    last_execution_id bigint                      not null,
+    updated_at        timestamp(6) with time zone not null,
+    primary key (account_id, symbol)
+);
@@ -0,0 +1,16 @@
+-- Idempotency key chosen by the client; a retried submission carries the same one.
+alter table orders add column if not exists client_order_id varchar(64);
+
+-- At most one order per account and client order ID; orders without one are not constrained.
+alter table orders add constraint uk_orders_account_client_order_id unique (account_id, client_order_id);
+
+-- Keep the history queries index-only now that orders carry a client order ID.
+drop index if exists idx_orders_account_created_at;
+create index idx_orders_account_created_at
+    on orders (account_id, created_at)
+    include (id, symbol, side, quantity, order_type, limit_price, status, client_order_id);
+
+drop index if exists idx_orders_symbol_created_at;
+create index idx_orders_symbol_created_at
+    on orders (symbol, created_at)
+    include (id, account_id, side, quantity, order_type, limit_price, status, client_order_id);
@@ -0,0 +1,116 @@
+-- Range-partition orders by created_at and executions by executed_at. The existing tables become the
+-- first partition of each, covering everything before tomorrow (UTC); PartitionManager creates the
+-- partitions after it. Rows outside every partition go to the default partitions.
+
+-- Primary and unique keys of a partitioned table must include the partition key, and a foreign key
+-- cannot reference a partitioned table through id alone, so executions no longer reference orders.
+alter table executions drop constraint if exists executions_order_id_fkey;
+alter table orders drop constraint if exists uk_orders_account_client_order_id;
+
+alter table orders rename to orders_legacy;
+alter table orders_legacy rename constraint orders_pkey to orders_legacy_pkey;
+alter index idx_orders_account_created_at rename to idx_orders_account_created_at_legacy;
+alter index idx_orders_account_id rename to idx_orders_account_id_legacy;
+alter index idx_orders_symbol_created_at rename to idx_orders_symbol_created_at_legacy;
+alter index idx_orders_resting_limit rename to idx_orders_resting_limit_legacy;
+
+alter table executions rename to executions_legacy;
+alter table executions_legacy rename constraint executions_pkey to executions_legacy_pkey;
+alter index idx_executions_order_id rename to idx_executions_order_id_legacy;
+
+create table orders (
+    id              bigint                      not null,
+    account_id      varchar(255)                not null,
+    symbol          varchar(255)                not null,
+    side            varchar(255)                not null check (side in ('BUY', 'SELL')),
+    quantity        integer                     not null,
+    status          varchar(255)                not null check (status in ('CREATED', 'COMPLETED', 'CANCELLED')),
+    created_at      timestamp(6) with time zone not null,
+    order_type      varchar(255)                not null default 'MARKET' check (order_type in ('MARKET', 'LIMIT')),
+    limit_price     numeric(19, 6),
+    client_order_id varchar(64),
+    primary key (id, created_at)
+) partition by range (created_at);
+
+create index idx_orders_account_created_at
+    on orders (account_id, created_at)
+    include (id, symbol, side, quantity, order_type, limit_price, status, client_order_id);
+create index idx_orders_account_id
+    on orders (account_id, id);
+create index idx_orders_symbol_created_at
+    on orders (symbol, created_at)
+    include (id, account_id, side, quantity, order_type, limit_price, status, client_order_id);
+create index idx_orders_resting_limit
+    on orders (id) include (symbol, side, limit_price, quantity)
+    where order_type = 'LIMIT' and status = 'CREATED';
+
+create table executions (
+    id          bigint                      not null,
+    order_id    bigint                      not null,
+    price       numeric(19, 6)              not null,
+    executed_at timestamp(6) with time zone not null,
+    quantity    integer                     not null,
+    primary key (id, executed_at)
+) partition by range (executed_at);
+
+create index idx_executions_order_id
+    on executions (order_id);
+
+-- Bookkeeping of every partition the service manages, including detached and archived ones.
+-- range_start is null for a partition without lower bound.
+create table if not exists table_partitions (
+    partition_name varchar(63)                 not null primary key,
+    table_name     varchar(63)                 not null,
+    range_start    timestamp(6) with time zone,
+    range_end      timestamp(6) with time zone not null,
+    state          varchar(16)                 not null check (state in ('ATTACHED', 'DETACHED', 'ARCHIVED')),
+    archive_file   varchar(1024),
+    row_count      bigint,
+    updated_at     timestamp(6) with time zone not null
+);
+
+-- Attaching builds the new primary keys on the legacy tables and adopts their identical secondary
+-- indexes; their primary keys on id alone stay as extra unique indexes.
+do $$
+declare
+    legacy_end timestamptz := date_trunc('day', now() at time zone 'UTC') at time zone 'UTC' + interval '1 day';
+begin
+    execute format('alter table orders attach partition orders_legacy for values from (minvalue) to (%L)', legacy_end);
+    execute format('alter table executions attach partition executions_legacy for values from (minvalue) to (%L)',
+                   legacy_end);
+    insert into table_partitions (partition_name, table_name, range_start, range_end, state, updated_at)
+    values ('orders_legacy', 'orders', null, legacy_end, 'ATTACHED', now()),
+           ('executions_legacy', 'executions', null, legacy_end, 'ATTACHED', now());
+end $$;
+
+create table orders_default partition of orders default;
+create table executions_default partition of executions default;
+
+-- Client order IDs stay unique per account across partitions through this table, which a trigger
+-- fills on insert. Its key keeps the name of the former unique constraint, so duplicates are still
+-- reported as violations of uk_orders_account_client_order_id.
+create table if not exists order_client_ids (
+    account_id      varchar(255)                not null,
+    client_order_id varchar(64)                 not null,
+    created_at      timestamp(6) with time zone not null,
+    constraint uk_orders_account_client_order_id primary key (account_id, client_order_id)
+);
+
+insert into order_client_ids (account_id, client_order_id, created_at)
+select account_id, client_order_id, created_at from orders where client_order_id is not null;
+
+create index if not exists idx_order_client_ids_created_at
+    on order_client_ids (created_at);
+
+create or replace function register_client_order_id() returns trigger
+    language plpgsql as $$
+begin
+    insert into order_client_ids (account_id, client_order_id, created_at)
+    values (new.account_id, new.client_order_id, new.created_at);
+    return new;
+end $$;
+
+create trigger orders_register_client_order_id
+    before insert on orders
+    for each row when (new.client_order_id is not null)
+    execute function register_client_order_id();
@@ -0,0 +1,5 @@
+-- The lowest and highest order ID of each orders partition, recorded once the partition no longer takes
+-- new orders, so that lookups by ID can be bounded to the partitions that may hold it. Both are 0 for an
+-- empty partition and null while the range is not recorded yet.
+alter table table_partitions add column if not exists min_id bigint;
+alter table table_partitions add column if not exists max_id bigint;
@@ -0,0 +1,104 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.ratelimiter.AccountTokenBuckets;
+import com.minimarket.orders.orderservice.ratelimiter.RateLimiterManager;
+import com.minimarket.orders.orderservice.ratelimiter.RateLimiterProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountTokenBucketsTest {
+
+    private static final long PERMIT = 1000;
+    private static final AccountTokenBuckets.Limit TEN_PER_SECOND = new AccountTokenBuckets.Limit(10 * PERMIT, 10);
+
+    @Test
+    void tryAcquire_allowsBurstThenRefillsOverTime() {
+        AccountTokenBuckets buckets = new AccountTokenBuckets(4);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buckets.tryAcquire("acc-1", PERMIT, TEN_PER_SECOND, 0));
+        }
+        assertFalse(buckets.tryAcquire("acc-1", PERMIT, TEN_PER_SECOND, 0));
+        assertFalse(buckets.tryAcquire("acc-1", PERMIT, TEN_PER_SECOND, 99));
+        assertTrue(buckets.tryAcquire("acc-1", PERMIT, TEN_PER_SECOND, 100));
+        assertTrue(buckets.tryAcquire("acc-2", PERMIT, TEN_PER_SECOND, 100));
+    }
+
+    @Test
+    void evictIdle_dropsIdleAccountsAndRevivesThemFull() {
+        AccountTokenBuckets buckets = new AccountTokenBuckets(1);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(buckets.tryAcquire("acc-" + i, 10 * PERMIT, TEN_PER_SECOND, 0));
+        }
+        assertTrue(buckets.tryAcquire("acc-active", PERMIT, TEN_PER_SECOND, 5_000));
+        assertEquals(101, buckets.size());
+
+        assertEquals(100, buckets.evictIdle(5_000, 1_000));
+        assertEquals(1, buckets.size());
+
+        assertTrue(buckets.tryAcquire("acc-7", 10 * PERMIT, TEN_PER_SECOND, 5_001));
+        assertFalse(buckets.tryAcquire("acc-7", PERMIT, TEN_PER_SECOND, 5_001));
+        assertFalse(buckets.tryAcquire("acc-active", 10 * PERMIT, TEN_PER_SECOND, 5_001));
+    }
+
+    @Test
+    void tryAcquire_neverGrantsMoreThanCapacityUnderContention() throws InterruptedException {
+        AccountTokenBuckets buckets = new AccountTokenBuckets(2);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < 1_000; i++) {
+                    if (buckets.tryAcquire("acc-hot", PERMIT, TEN_PER_SECOND, 0)) {
+                        granted.incrementAndGet();
+                    }
+                    buckets.tryAcquire("acc-" + i, PERMIT, TEN_PER_SECOND, 0);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(10, granted.get());
+    }
+
+    @Test
+    void rateLimiterManager_appliesAccountTier() {
+        RateLimiterProperties properties = new RateLimiterProperties();
+        properties.getTiers().put("premium", new RateLimiterProperties.Tier(100, 50));
+        properties.setAccounts(Map.of("acc-vip", "premium"));
+        RateLimiterManager manager = new RateLimiterManager(properties, new SimpleMeterRegistry());
+
+        int standard = 0;
+        int premium = 0;
+        for (int i = 0; i < 60; i++) {
+            standard += manager.tryAcquire("acc-1", 1) ? 1 : 0;
+            premium += manager.tryAcquire("acc-vip", 1) ? 1 : 0;
+        }
+
+        assertTrue(standard >= 10 && standard < 20);
+        assertTrue(premium >= 50 && premium < 60);
+    }
+
+    @Test
+    void limit_rejectsCapacityThatDoesNotFit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AccountTokenBuckets.Limit(AccountTokenBuckets.MAX_CAPACITY + 1, 1));
+    }
+}
@@ -0,0 +1,103 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.service.archive.ColumnarArchiveReader;
+import com.minimarket.orders.orderservice.service.archive.ColumnarArchiveWriter;
+import com.minimarket.orders.orderservice.service.archive.PartitionedTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarArchiveTest {
+
+    private static final OffsetDateTime START = OffsetDateTime.parse("2025-07-01T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void scan_returnsMatchingRowsWithEveryColumn() throws IOException {
+        Path file = write(3, List.of(
+                order(1, "acc-1", "AAPL", 0, "150.25", "client-1"),
+                order(2, "acc-2", "MSFT", 1, null, null),
+                order(3, "acc-1", "MSFT", 2, null, null)));
+
+        List<Object[]> rows = new ArrayList<>();
+        long matched = ColumnarArchiveReader.scan(file, START, START.plusDays(1), "account_id", "acc-1", rows::add);
+
+        assertEquals(2, matched);
+        assertEquals(2, rows.size());
+        Object[] first = rows.get(0);
+        assertEquals(1L, first[column("id")]);
+        assertEquals("AAPL", first[column("symbol")]);
+        assertEquals("BUY", first[column("side")]);
+        assertEquals(10, first[column("quantity")]);
+        assertEquals("LIMIT", first[column("order_type")]);
+        assertEquals(0, new BigDecimal("150.25").compareTo((BigDecimal) first[column("limit_price")]));
+        assertTrue(START.isEqual((OffsetDateTime) first[column("created_at")]));
+        assertEquals("client-1", first[column("client_order_id")]);
+        Object[] second = rows.get(1);
+        assertEquals(3L, second[column("id")]);
+        assertNull(second[column("limit_price")]);
+        assertNull(second[column("client_order_id")]);
+    }
+
+    @Test
+    void scan_skipsRowGroupsOutsideTheTimeRangeOrWithoutTheValue() throws IOException {
+        List<Object[]> orders = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            orders.add(order(i + 1, "acc-" + (i % 2), i < 5 ? "AAPL" : "MSFT", i, null, null));
+        }
+        Path file = write(2, orders);
+
+        List<Long> ids = new ArrayList<>();
+        ColumnarArchiveReader.scan(file, START.plusMinutes(3), START.plusMinutes(7), "account_id", "acc-1",
+                row -> ids.add((Long) row[column("id")]));
+        assertEquals(List.of(4L, 6L, 8L), ids);
+
+        assertEquals(0, ColumnarArchiveReader.scan(file, START, START.plusDays(1), "symbol", "TSLA", row -> fail()));
+        assertEquals(0, ColumnarArchiveReader.scan(file, START.plusDays(1), START.plusDays(2), "symbol", "AAPL",
+                row -> fail()));
+    }
+
+    private Path write(int rowGroupSize, List<Object[]> rows) throws IOException {
+        Path file = directory.resolve("orders.ocol.gz");
+        try (OutputStream out = Files.newOutputStream(file);
+             ColumnarArchiveWriter writer = new ColumnarArchiveWriter(out, PartitionedTable.ORDERS, rowGroupSize)) {
+            for (Object[] row : rows) {
+                writer.append(row);
+            }
+            assertEquals(rows.size(), writer.rows());
+        }
+        return file;
+    }
+
+    private static Object[] order(long id, String accountId, String symbol, int minute, String limitPrice,
+                                  String clientOrderId) {
+        Object[] row = new Object[PartitionedTable.ORDERS.columns().size()];
+        row[column("id")] = id;
+        row[column("account_id")] = accountId;
+        row[column("symbol")] = symbol;
+        row[column("side")] = "BUY";
+        row[column("quantity")] = 10;
+        row[column("order_type")] = limitPrice == null ? "MARKET" : "LIMIT";
+        row[column("limit_price")] = limitPrice == null ? null : new BigDecimal(limitPrice);
+        row[column("status")] = "CREATED";
+        row[column("created_at")] = START.plusMinutes(minute);
+        row[column("client_order_id")] = clientOrderId;
+        return row;
+    }
+
+    private static int column(String name) {
+        return PartitionedTable.ORDERS.columnIndex(name);
+    }
+}
@@ -0,0 +1,83 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.ratelimiter.AccountRateLimiter;
+import com.minimarket.orders.orderservice.ratelimiter.DistributedRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts two service nodes in distributed rate limiting mode against one database and checks that
+ * an account's budget is shared between them rather than granted once per node.
+ */
+@Testcontainers
+class DistributedRateLimiterIntegrationTest {
+
+    private static final int ATTEMPTS_PER_NODE = 200;
+    private static final int BURST = 10;
+    private static final int PERMITS_PER_SECOND = 10;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16")
+            .withDatabaseName("test_db")
+            .withUsername("user")
+            .withPassword("password");
+
+    @Test
+    void accountBudgetIsSharedAcrossNodes() throws Exception {
+        try (ConfigurableApplicationContext first = startNode();
+             ConfigurableApplicationContext second = startNode();
+             ExecutorService clients = Executors.newFixedThreadPool(4)) {
+            List<AccountRateLimiter> nodes = List.of(
+                    first.getBean(AccountRateLimiter.class), second.getBean(AccountRateLimiter.class));
+            assertThat(nodes).allMatch(DistributedRateLimiter.class::isInstance);
+
+            long start = System.nanoTime();
+            List<Future<Integer>> granted = clients.invokeAll(List.of(
+                    () -> hammer(nodes.get(0)), () -> hammer(nodes.get(0)),
+                    () -> hammer(nodes.get(1)), () -> hammer(nodes.get(1))));
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            int total = 0;
+            for (Future<Integer> result : granted) {
+                total += result.get();
+            }
+            assertThat(total).isGreaterThanOrEqualTo(BURST / 2);
+            assertThat(total).isLessThanOrEqualTo(BURST + (int) Math.ceil(seconds * PERMITS_PER_SECOND));
+        }
+    }
+
+    private static int hammer(AccountRateLimiter limiter) {
+        int granted = 0;
+        for (int i = 0; i < ATTEMPTS_PER_NODE; i++) {
+            if (limiter.tryAcquire("acc-shared", 1)) {
+                granted++;
+            }
+        }
+        return granted;
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(OrdersServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.jpa.show-sql=false",
+                "--wiremock.host=localhost",
+                "--wiremock.port=8080",
+                "--rate-limiter.mode=distributed",
+                "--rate-limiter.tiers.standard.permits-per-second=" + PERMITS_PER_SECOND,
+                "--rate-limiter.tiers.standard.burst=" + BURST);
+    }
+}
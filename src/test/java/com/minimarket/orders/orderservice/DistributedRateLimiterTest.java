@@ -0,0 +1,76 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.ratelimiter.DistributedRateLimiter;
+import com.minimarket.orders.orderservice.ratelimiter.RateLimitStore;
+import com.minimarket.orders.orderservice.ratelimiter.RateLimiterManager;
+import com.minimarket.orders.orderservice.ratelimiter.RateLimiterProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DistributedRateLimiterTest {
+
+    private RateLimitStore store;
+    private DistributedRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        store = mock(RateLimitStore.class);
+        RateLimiterProperties properties = new RateLimiterProperties();
+        properties.getDistributed().setLeaseFraction(0.5);
+        properties.getDistributed().setResyncInterval(Duration.ZERO);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        limiter = new DistributedRateLimiter(store, new RateLimiterManager(properties, meterRegistry),
+                properties, meterRegistry);
+    }
+
+    @Test
+    void tryAcquire_servesRequestsFromLeasedBatch() {
+        when(store.lease(eq("acc-1"), eq(5_000L), any())).thenReturn(5_000L);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire("acc-1", 1));
+        }
+
+        verify(store, times(1)).lease(eq("acc-1"), eq(5_000L), any());
+    }
+
+    @Test
+    void tryAcquire_refusesLocallyAfterStoreRunsDry() {
+        when(store.lease(eq("acc-1"), anyLong(), any())).thenReturn(0L);
+
+        assertFalse(limiter.tryAcquire("acc-1", 1));
+        assertFalse(limiter.tryAcquire("acc-1", 1));
+
+        verify(store, times(1)).lease(eq("acc-1"), anyLong(), any());
+    }
+
+    @Test
+    void resync_returnsUnusedTokens() {
+        when(store.lease(eq("acc-1"), anyLong(), any())).thenReturn(5_000L);
+        limiter.tryAcquire("acc-1", 1);
+
+        limiter.resync();
+
+        verify(store).release(eq("acc-1"), eq(4_000L), any());
+    }
+
+    @Test
+    void tryAcquire_fallsBackToLocalLimitWhenStoreFails() {
+        when(store.lease(anyString(), anyLong(), any())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        int granted = 0;
+        for (int i = 0; i < 20; i++) {
+            granted += limiter.tryAcquire("acc-1", 1) ? 1 : 0;
+        }
+
+        assertTrue(granted >= 10 && granted < 20);
+    }
+}
@@ -0,0 +1,176 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.repository.OrderRepository;
+import com.minimarket.orders.orderservice.service.matching.Fill;
+import com.minimarket.orders.orderservice.service.matching.MatchingEngine;
+import com.minimarket.orders.orderservice.service.matching.OrderBook;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MatchingEngineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private MatchingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.findRestingLimitOrders()).thenReturn(List.of());
+        engine = new MatchingEngine(orderRepository, transactionManager, meterRegistry, 1, 16, 8,
+                Duration.ofMillis(200));
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    void execute_matchesAgainstRestingOrders() {
+        assertTrue(match(order(1, Order.Side.SELL, "100.00", 5)).isEmpty());
+        assertTrue(match(order(2, Order.Side.SELL, "101.00", 5)).isEmpty());
+
+        List<Fill> fills = match(order(3, Order.Side.BUY, "101.00", 7));
+
+        assertEquals(List.of(
+                new Fill(1, "acc-1", 3, OrderBook.toTicks(new BigDecimal("100.00")), 5, 0),
+                new Fill(2, "acc-2", 3, OrderBook.toTicks(new BigDecimal("101.00")), 2, 3)), fills);
+        assertEquals(2.0, meterRegistry.get("matching.fills").counter().count());
+    }
+
+    @Test
+    void execute_undoesTheMatchesOfAFailedTask() {
+        match(order(1, Order.Side.SELL, "100.00", 5));
+        match(order(2, Order.Side.SELL, "100.00", 5));
+
+        assertThrows(IllegalStateException.class, () -> engine.execute("AAPL", matcher -> {
+            assertEquals(2, matcher.match(order(3, Order.Side.BUY, "100.00", 8)).size());
+            throw new IllegalStateException("insert failed");
+        }));
+
+        // the makers are back in time priority with their full quantity, and the taker never rested
+        assertEquals(List.of(
+                new Fill(1, "acc-1", 4, OrderBook.toTicks(new BigDecimal("100.00")), 5, 0),
+                new Fill(2, "acc-2", 4, OrderBook.toTicks(new BigDecimal("100.00")), 5, 0)),
+                match(order(4, Order.Side.BUY, "100.00", 12)));
+        assertEquals(List.of(new Fill(4, "acc-4", 5, OrderBook.toTicks(new BigDecimal("100.00")), 1, 1)),
+                match(order(5, Order.Side.SELL, "100.00", 1)));
+        assertEquals(1.0, meterRegistry.get("matching.undone").counter().count());
+    }
+
+    @Test
+    void execute_dropsTasksTheShardDidNotTakeUpInTime() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> blocking = CompletableFuture.supplyAsync(() -> engine.execute("AAPL", matcher -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        AtomicBoolean ran = new AtomicBoolean();
+
+        Thread.sleep(50);
+        assertThrows(IllegalStateException.class, () -> engine.execute("AAPL", matcher -> ran.getAndSet(true)));
+        release.countDown();
+
+        assertEquals(true, blocking.get(5, TimeUnit.SECONDS));
+        assertTrue(match(order(1, Order.Side.SELL, "100.00", 5)).isEmpty());
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void execute_settlesTasksQueuedWhileTheShardIsBusyInOneTransaction() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> blocking = CompletableFuture.supplyAsync(() -> engine.execute("AAPL", matcher -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        Thread.sleep(50);
+        List<CompletableFuture<List<Fill>>> queued = List.of(
+                CompletableFuture.supplyAsync(() -> match(order(1, Order.Side.SELL, "100.00", 5))),
+                CompletableFuture.supplyAsync(() -> match(order(2, Order.Side.SELL, "101.00", 5))));
+        awaitQueueDepth(2);
+        release.countDown();
+
+        assertTrue(blocking.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<List<Fill>> fills : queued) {
+            assertTrue(fills.get(5, TimeUnit.SECONDS).isEmpty());
+        }
+        verify(transactionManager, times(2)).getTransaction(any());
+        assertEquals(2.0, meterRegistry.get("matching.batch.size").summary().max());
+    }
+
+    @Test
+    void execute_runsTheTasksOfAFailedBatchOneByOne() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> blocking = CompletableFuture.supplyAsync(() -> engine.execute("AAPL", matcher -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        Thread.sleep(50);
+        CompletableFuture<List<Fill>> resting =
+                CompletableFuture.supplyAsync(() -> match(order(1, Order.Side.SELL, "100.00", 5)));
+        awaitQueueDepth(1);
+        CompletableFuture<Object> failing = CompletableFuture.supplyAsync(() -> engine.execute("AAPL", matcher -> {
+            matcher.match(order(2, Order.Side.BUY, "100.00", 3));
+            throw new IllegalStateException("insert failed");
+        }));
+        awaitQueueDepth(2);
+        release.countDown();
+
+        assertTrue(blocking.get(5, TimeUnit.SECONDS));
+        assertTrue(resting.get(5, TimeUnit.SECONDS).isEmpty());
+        Exception e = assertThrows(Exception.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        // the resting order was rested again on its own, with none of the failed task's fill
+        assertEquals(List.of(new Fill(1, "acc-1", 3, OrderBook.toTicks(new BigDecimal("100.00")), 5, 0)),
+                match(order(3, Order.Side.BUY, "100.00", 5)));
+        assertEquals(1.0, meterRegistry.get("matching.undone").counter().count());
+    }
+
+    private void awaitQueueDepth(int depth) {
+        while (meterRegistry.get("matching.queue.depth").gauge().value() != depth) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private List<Fill> match(Order order) {
+        return engine.execute(order.getSymbol(), matcher -> matcher.match(order));
+    }
+
+    private static Order order(long id, Order.Side side, String limitPrice, int quantity) {
+        return Order.builder()
+                .id(id)
+                .accountId("acc-" + id)
+                .symbol("AAPL")
+                .side(side)
+                .type(Order.Type.LIMIT)
+                .limitPrice(new BigDecimal(limitPrice))
+                .quantity(quantity)
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.service.matching.Fill;
+import com.minimarket.orders.orderservice.service.matching.OrderBook;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookTest {
+
+    private final OrderBook book = new OrderBook();
+    private final List<Fill> fills = new ArrayList<>();
+
+    @Test
+    void submit_restsOrdersThatDoNotCross() {
+        assertEquals(10, submit(1, true, "100.00", 10));
+        assertEquals(5, submit(2, false, "101.00", 5));
+
+        assertTrue(fills.isEmpty());
+        assertEquals(OrderBook.toTicks(new BigDecimal("100.00")), book.bestBid());
+        assertEquals(OrderBook.toTicks(new BigDecimal("101.00")), book.bestAsk());
+        assertEquals(2, book.size());
+    }
+
+    @Test
+    void submit_fillsBestPriceFirstThenOldestOrder() {
+        submit(1, false, "101.00", 5);
+        submit(2, false, "100.50", 3);
+        submit(3, false, "100.50", 4);
+        submit(4, false, "102.00", 10);
+
+        assertEquals(0, submit(5, true, "101.00", 10));
+
+        assertEquals(List.of(
+                new Fill(2, "acc-2", 5, OrderBook.toTicks(new BigDecimal("100.50")), 3, 0),
+                new Fill(3, "acc-3", 5, OrderBook.toTicks(new BigDecimal("100.50")), 4, 0),
+                new Fill(1, "acc-1", 5, OrderBook.toTicks(new BigDecimal("101.00")), 3, 2)), fills);
+        assertEquals(OrderBook.toTicks(new BigDecimal("101.00")), book.bestAsk());
+        assertEquals(OrderBook.NO_PRICE, book.bestBid());
+        assertEquals(2, book.size());
+    }
+
+    @Test
+    void submit_restsRemainderAfterSweepingTheBook() {
+        submit(1, true, "99.00", 2);
+        submit(2, true, "98.00", 2);
+
+        assertEquals(6, submit(3, false, "98.00", 10));
+
+        assertEquals(2, fills.size());
+        assertEquals(OrderBook.NO_PRICE, book.bestBid());
+        assertEquals(OrderBook.toTicks(new BigDecimal("98.00")), book.bestAsk());
+    }
+
+    @Test
+    void forEachResting_visitsInPriorityOrderAndSurvivesSlotReuse() {
+        for (int i = 0; i < 200; i++) {
+            submit(i, i % 2 == 0, i % 2 == 0 ? "99.00" : "101.00", 1);
+        }
+        assertEquals(50, submit(1_000, true, "101.00", 150));
+        assertEquals(0, submit(1_001, false, "98.00", 60));
+
+        List<Long> resting = new ArrayList<>();
+        book.forEachResting((orderId, buy, priceTicks, remaining) -> resting.add(orderId));
+
+        assertEquals(90, book.size());
+        assertEquals(OrderBook.NO_PRICE, book.bestAsk());
+        assertEquals(20L, resting.get(0));
+        assertEquals(198L, resting.get(89));
+    }
+
+    private int submit(long orderId, boolean buy, String limitPrice, int quantity) {
+        return book.submit(orderId, "acc-" + orderId, buy, OrderBook.toTicks(new BigDecimal(limitPrice)), quantity,
+                (maker, makerAccount, taker, price, filled, makerRemaining) ->
+                        fills.add(new Fill(maker, makerAccount, taker, price, filled, makerRemaining)));
+    }
+}
@@ -0,0 +1,127 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.service.cache.OrderCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderCache orderCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        orderCache = new OrderCache(meterRegistry, 100, Duration.ofMinutes(10));
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_loadsOnceAndServesRepeatedReadsFromCache() {
+        assertEquals("acc-1", orderCache.get(1L, this::load).getAccountId());
+        assertEquals("acc-1", orderCache.get(1L, this::load).getAccountId());
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(0.5, meterRegistry.get("orders.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void get_doesNotCacheMissingOrders() {
+        assertNull(orderCache.get(2L, id -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        orderCache.get(2L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void putAll_populatesOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        orderCache.putAll(List.of(order(3L)));
+
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        orderCache.get(3L, this::load);
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void putAll_keepsEveryFieldOfALimitOrder() {
+        Order order = Order.builder()
+                .id(5L)
+                .accountId("acc-1")
+                .symbol("AAPL")
+                .side(Order.Side.SELL)
+                .quantity(10)
+                .type(Order.Type.LIMIT)
+                .limitPrice(new BigDecimal("210.55"))
+                .status(Order.Status.CREATED)
+                .createdAt(OffsetDateTime.parse("2025-07-20T12:34:56Z"))
+                .clientOrderId("cl-1")
+                .build();
+
+        orderCache.putAll(List.of(order));
+        Order cached = orderCache.get(5L, this::load);
+
+        assertNotSame(order, cached);
+        assertEquals(0, loads.get());
+        assertEquals(Order.Type.LIMIT, cached.getType());
+        assertEquals(new BigDecimal("210.55"), cached.getLimitPrice());
+        assertEquals(Order.Side.SELL, cached.getSide());
+        assertEquals(10, cached.getQuantity());
+        assertEquals(Order.Status.CREATED, cached.getStatus());
+        assertEquals(order.getCreatedAt(), cached.getCreatedAt());
+        assertEquals("cl-1", cached.getClientOrderId());
+    }
+
+    @Test
+    void evict_forcesReload() {
+        orderCache.get(4L, this::load);
+        orderCache.evict(4L);
+        orderCache.get(4L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    private Order load(Long id) {
+        loads.incrementAndGet();
+        return order(id);
+    }
+
+    private static Order order(Long id) {
+        return Order.builder()
+                .id(id)
+                .accountId("acc-1")
+                .symbol("AAPL")
+                .side(Order.Side.BUY)
+                .quantity(10)
+                .status(Order.Status.CREATED)
+                .build();
+    }
+}
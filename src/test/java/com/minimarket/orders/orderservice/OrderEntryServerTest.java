@@ -0,0 +1,141 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.dto.OrderResult;
+import com.minimarket.orders.orderservice.dto.PriceResponse;
+import com.minimarket.orders.orderservice.exception.RiskCheckFailedException;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.service.api.OrderService;
+import com.minimarket.orders.orderservice.wire.OrderEntryClient;
+import com.minimarket.orders.orderservice.wire.OrderEntryCodec;
+import com.minimarket.orders.orderservice.wire.OrderEntryServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class OrderEntryServerTest {
+
+    private OrderService orderService;
+    private OrderEntryServer server;
+    private OrderEntryClient client;
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        server = new OrderEntryServer(orderService, new SimpleMeterRegistry(), "127.0.0.1", 0, 16, 1024);
+        server.start();
+        client = new OrderEntryClient("127.0.0.1", server.port());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Test
+    void codec_roundTripsOrdersAndAcks() {
+        OffsetDateTime createdAt = OffsetDateTime.of(2025, 6, 1, 12, 30, 0, 123_456_000, ZoneOffset.UTC);
+        Order order = Order.builder()
+                .accountId("acc-1")
+                .symbol("AAPL")
+                .side(Order.Side.SELL)
+                .quantity(25)
+                .type(Order.Type.LIMIT)
+                .limitPrice(new BigDecimal("210.125"))
+                .createdAt(createdAt)
+                .clientOrderId("c-1")
+                .build();
+        OrderEntryCodec.StringTable strings = new OrderEntryCodec.StringTable(16);
+
+        ByteBuf frame = OrderEntryCodec.encodeNewOrder(UnpooledByteBufAllocator.DEFAULT, 42, order);
+        frame.skipBytes(4);
+        OrderEntryCodec.NewOrder first = OrderEntryCodec.decodeNewOrder(frame, strings);
+        OrderEntryCodec.NewOrder second = OrderEntryCodec.decodeNewOrder(frame, strings);
+        frame.release();
+
+        assertEquals(42, first.correlationId());
+        Order decoded = first.order();
+        assertEquals("acc-1", decoded.getAccountId());
+        assertEquals("AAPL", decoded.getSymbol());
+        assertEquals(Order.Side.SELL, decoded.getSide());
+        assertEquals(25, decoded.getQuantity());
+        assertEquals(Order.Type.LIMIT, decoded.getType());
+        assertEquals(0, new BigDecimal("210.125").compareTo(decoded.getLimitPrice()));
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals("c-1", decoded.getClientOrderId());
+        assertSame(decoded.getSymbol(), second.order().getSymbol());
+        assertSame(decoded.getAccountId(), second.order().getAccountId());
+
+        ByteBuf ack = OrderEntryCodec.encodeAck(UnpooledByteBufAllocator.DEFAULT,
+                new OrderEntryCodec.Ack(42, OrderResult.Status.RISK_REJECTED, null, "AAPL", "Order rejected ✗"));
+        ack.skipBytes(4);
+        OrderEntryCodec.Ack decodedAck = OrderEntryCodec.decodeAck(ack);
+        ack.release();
+        assertEquals(new OrderEntryCodec.Ack(42, OrderResult.Status.RISK_REJECTED, null, "AAPL", "Order rejected ✗"),
+                decodedAck);
+    }
+
+    @Test
+    void submit_pipelinesOrdersAndMatchesAcksByCorrelationId() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.saveOrder(argThat(order -> order != null && order.getSymbol().equals("SLOW"))))
+                .thenAnswer(invocation -> {
+                    release.await(1, TimeUnit.SECONDS);
+                    return new PriceResponse("SLOW", new BigDecimal("10.00"));
+                });
+        when(orderService.saveOrder(argThat(order -> order != null && order.getSymbol().equals("AAPL"))))
+                .thenReturn(new PriceResponse("AAPL", new BigDecimal("210.55")));
+
+        CompletableFuture<OrderResult> slow = client.submit(order("SLOW"));
+        CompletableFuture<OrderResult> fast = client.submit(order("AAPL"));
+
+        OrderResult fastResult = fast.get(1, TimeUnit.SECONDS);
+        assertFalse(slow.isDone());
+        assertEquals(OrderResult.Status.ACCEPTED, fastResult.getStatus());
+        assertEquals(0, new BigDecimal("210.55").compareTo(fastResult.getPrice()));
+        release.countDown();
+        assertEquals("SLOW", slow.get(1, TimeUnit.SECONDS).getSymbol());
+    }
+
+    @Test
+    void submit_reportsRejectionsAndFailures() {
+        when(orderService.saveOrder(any()))
+                .thenThrow(new RiskCheckFailedException("Order rejected by risk check order_notional for AAPL"))
+                .thenThrow(new IllegalStateException("Price unavailable for symbol: AAPL"));
+
+        OrderResult rejected = client.submit(order("AAPL")).join();
+        assertEquals(OrderResult.Status.RISK_REJECTED, rejected.getStatus());
+        assertEquals("Order rejected by risk check order_notional for AAPL", rejected.getMessage());
+        assertNull(rejected.getPrice());
+
+        ExecutionException failed = assertThrows(ExecutionException.class,
+                () -> client.submit(order("AAPL")).get(1, TimeUnit.SECONDS));
+        assertEquals("Price unavailable for symbol: AAPL", failed.getCause().getMessage());
+    }
+
+    private static Order order(String symbol) {
+        return Order.builder()
+                .accountId("acc-1")
+                .symbol(symbol)
+                .side(Order.Side.BUY)
+                .quantity(10)
+                .createdAt(OffsetDateTime.now())
+                .build();
+    }
+}
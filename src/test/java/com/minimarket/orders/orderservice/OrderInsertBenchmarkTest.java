@@ -0,0 +1,158 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.model.Execution;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.repository.ExecutionRepository;
+import com.minimarket.orders.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares order+execution insert throughput of per-row IDENTITY inserts, which is what Hibernate
+ * issues for {@code GenerationType.IDENTITY}, with the pooled-sequence mapping and JDBC batching
+ * now used by {@link Order} and {@link Execution}. Run with {@code ./gradlew benchmark}.
+ */
+@SpringBootTest
+@Testcontainers
+@Tag("benchmark")
+class OrderInsertBenchmarkTest {
+
+    private static final int TRANSACTIONS = 200;
+    private static final int ORDERS_PER_TRANSACTION = 100;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16")
+            .withDatabaseName("bench_db")
+            .withUsername("user")
+            .withPassword("password");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> withBatchRewrite(postgres.getJdbcUrl()));
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ExecutionRepository executionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void insertsPerSecond_identityVersusPooledSequence() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate.execute("""
+                create table identity_orders (
+                    id bigserial primary key,
+                    account_id varchar(255) not null,
+                    symbol varchar(255) not null,
+                    side varchar(255) not null,
+                    quantity integer not null,
+                    status varchar(255) not null,
+                    created_at timestamp(6) with time zone not null)""");
+        jdbcTemplate.execute("""
+                create table identity_executions (
+                    id bigserial primary key,
+                    order_id bigint not null references identity_orders(id),
+                    price numeric(19,6) not null,
+                    executed_at timestamp(6) with time zone not null)""");
+
+        runIdentity(transactionTemplate, TRANSACTIONS / 10);
+        runPooledSequence(transactionTemplate, TRANSACTIONS / 10);
+
+        double identityRate = runIdentity(transactionTemplate, TRANSACTIONS);
+        double sequenceRate = runPooledSequence(transactionTemplate, TRANSACTIONS);
+
+        System.out.printf("IDENTITY, row-by-row:       %,12.0f inserts/sec%n", identityRate);
+        System.out.printf("pooled-lo sequence, batched: %,12.0f inserts/sec%n", sequenceRate);
+        System.out.printf("speed-up:                    %12.2fx%n", sequenceRate / identityRate);
+
+        assertThat(sequenceRate).isPositive();
+    }
+
+    private double runIdentity(TransactionTemplate transactionTemplate, int transactions) {
+        Timestamp now = Timestamp.from(OffsetDateTime.now().toInstant());
+        long start = System.nanoTime();
+        for (int t = 0; t < transactions; t++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < ORDERS_PER_TRANSACTION; i++) {
+                    Long orderId = jdbcTemplate.queryForObject("""
+                            insert into identity_orders (account_id, symbol, side, quantity, status, created_at)
+                            values (?, ?, ?, ?, ?, ?) returning id""",
+                            Long.class, "acc-bench", "AAPL", "BUY", 10, "CREATED", now);
+                    jdbcTemplate.update("""
+                            insert into identity_executions (order_id, price, executed_at)
+                            values (?, ?, ?)""",
+                            orderId, new BigDecimal("210.550000"), now);
+                }
+            });
+        }
+        return rate(transactions, start);
+    }
+
+    private double runPooledSequence(TransactionTemplate transactionTemplate, int transactions) {
+        long start = System.nanoTime();
+        for (int t = 0; t < transactions; t++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                OffsetDateTime now = OffsetDateTime.now();
+                List<Order> orders = new ArrayList<>(ORDERS_PER_TRANSACTION);
+                List<Execution> executions = new ArrayList<>(ORDERS_PER_TRANSACTION);
+                for (int i = 0; i < ORDERS_PER_TRANSACTION; i++) {
+                    Order order = Order.builder()
+                            .accountId("acc-bench")
+                            .symbol("AAPL")
+                            .side(Order.Side.BUY)
+                            .quantity(10)
+                            .status(Order.Status.CREATED)
+                            .createdAt(now)
+                            .build();
+                    orders.add(order);
+                    executions.add(Execution.builder()
+                            .order(order)
+                            .price(new BigDecimal("210.550000"))
+                            .quantity(10)
+                            .executedAt(now)
+                            .build());
+                }
+                orderRepository.saveAll(orders);
+                executionRepository.saveAll(executions);
+            });
+        }
+        return rate(transactions, start);
+    }
+
+    private static String withBatchRewrite(String jdbcUrl) {
+        return jdbcUrl + (jdbcUrl.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true";
+    }
+
+    private static double rate(int transactions, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return transactions * ORDERS_PER_TRANSACTION * 2 / seconds;
+    }
+}
@@ -0,0 +1,221 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.model.Execution;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.repository.ClientOrderKey;
+import com.minimarket.orders.orderservice.repository.ExecutionRepository;
+import com.minimarket.orders.orderservice.repository.JournalCheckpointRepository;
+import com.minimarket.orders.orderservice.repository.OrderRepository;
+import com.minimarket.orders.orderservice.service.journal.JournalEntry;
+import com.minimarket.orders.orderservice.service.journal.JournalReplicator;
+import com.minimarket.orders.orderservice.service.journal.OrderJournal;
+import com.minimarket.orders.orderservice.service.risk.PendingExposure;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderJournalTest {
+
+    private static final OffsetDateTime CREATED_AT = OffsetDateTime.parse("2025-07-01T10:15:30.123456Z");
+
+    @TempDir
+    Path directory;
+
+    private OrderJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) {
+            journal.stop();
+        }
+    }
+
+    @Test
+    void append_isReadBackAfterItIsDurable() {
+        journal = open(DataSize.ofMegabytes(1));
+        journal.start();
+
+        long end = journal.append(List.of(entry("acc-1", 10), entry("acc-2", 20, "gw-7f3a-0001")));
+
+        assertEquals(end, journal.durablePosition());
+        List<JournalEntry> entries = new ArrayList<>();
+        assertEquals(end, journal.read(0, 10, entries));
+        assertEquals(2, entries.size());
+        Order order = entries.get(1).order();
+        assertEquals("acc-2", order.getAccountId());
+        assertEquals("AAPL", order.getSymbol());
+        assertEquals(Order.Side.SELL, order.getSide());
+        assertEquals(20, order.getQuantity());
+        assertEquals(Order.Status.COMPLETED, order.getStatus());
+        assertEquals(CREATED_AT.toInstant(), order.getCreatedAt().toInstant());
+        assertEquals("gw-7f3a-0001", order.getClientOrderId());
+        assertNull(entries.get(0).order().getClientOrderId());
+        Execution execution = entries.get(1).execution();
+        assertSame(order, execution.getOrder());
+        assertEquals(new BigDecimal("210.550000"), execution.getPrice());
+        assertEquals(20, execution.getQuantity());
+    }
+
+    @Test
+    void append_rollsSegmentsAndResumesAfterRestart() throws IOException {
+        journal = open(DataSize.ofBytes(256));
+        journal.start();
+        CompletableFuture.allOf(IntStream.range(0, 20)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> journal.append(List.of(entry("acc-" + i, i + 1)))))
+                .toArray(CompletableFuture[]::new)).join();
+        long end = journal.durablePosition();
+        String id = journal.getId();
+        journal.stop();
+
+        journal = open(DataSize.ofBytes(256));
+        journal.start();
+        assertEquals(id, journal.getId());
+        assertEquals(end, journal.durablePosition());
+        journal.append(List.of(entry("acc-after-restart", 1)));
+
+        List<JournalEntry> entries = new ArrayList<>();
+        journal.read(0, 100, entries);
+        assertEquals(21, entries.size());
+        assertEquals("acc-after-restart", entries.get(20).order().getAccountId());
+        assertTrue(segmentCount() > 1);
+
+        journal.truncate(journal.durablePosition());
+        assertEquals(1, segmentCount());
+    }
+
+    @Test
+    void append_isDurableAcrossSeveralSegmentsFilledByOneCall() {
+        journal = open(DataSize.ofBytes(256));
+        journal.start();
+        List<JournalEntry> batch = IntStream.range(0, 12).mapToObj(i -> entry("acc-" + i, i + 1)).toList();
+
+        long end = journal.append(batch);
+
+        assertEquals(end, journal.durablePosition());
+        assertTrue(end > 2 * 256);
+        List<JournalEntry> entries = new ArrayList<>();
+        assertEquals(end, journal.read(0, 100, entries));
+        assertEquals(12, entries.size());
+        assertEquals("acc-11", entries.get(11).order().getAccountId());
+    }
+
+    @Test
+    void open_cutsATornRecordOffTheSegmentBeforeTheLast() throws IOException {
+        journal = open(DataSize.ofBytes(256));
+        journal.start();
+        for (int i = 0; i < 12; i++) {
+            journal.append(List.of(entry("acc-" + i, i + 1)));
+        }
+        journal.stop();
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(file -> file.toString().endsWith(".journal")).sorted().toList();
+        }
+        Path previous = segments.get(segments.size() - 2);
+        byte[] bytes = Files.readAllBytes(previous);
+        int length = ByteBuffer.wrap(bytes).getInt(0);
+        int torn = ByteBuffer.wrap(bytes).getInt(8 + length) > 0 ? 8 + length : 0;
+        bytes[torn + 8] ^= 1;
+        Files.write(previous, bytes);
+
+        journal = open(DataSize.ofBytes(256));
+        journal.start();
+
+        List<JournalEntry> entries = new ArrayList<>();
+        journal.read(0, 100, entries);
+        assertTrue(entries.size() < 12);
+        assertEquals("acc-11", entries.get(entries.size() - 1).order().getAccountId());
+        assertEquals(0, ByteBuffer.wrap(Files.readAllBytes(previous)).getInt(torn));
+    }
+
+    @Test
+    void append_failsWhenJournalIsNotRunning() {
+        journal = open(DataSize.ofMegabytes(1));
+
+        assertThrows(IllegalStateException.class, () -> journal.append(List.of(entry("acc-1", 10))));
+        assertEquals(0, journal.durablePosition());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void replicator_skipsRecordsWhoseClientOrderIdWasAlreadyUsed() {
+        journal = open(DataSize.ofMegabytes(1));
+        journal.start();
+        journal.append(List.of(entry("acc-1", 1, "cl-1"), entry("acc-1", 3, "cl-2"), entry("acc-1", 5, "cl-2"),
+                entry("acc-1", 7)));
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        ClientOrderKey used = mock(ClientOrderKey.class);
+        when(used.getAccountId()).thenReturn("acc-1");
+        when(used.getClientOrderId()).thenReturn("cl-1");
+        when(orderRepository.findClientOrderKeys(Set.of("acc-1"), Set.of("cl-1", "cl-2"))).thenReturn(List.of(used));
+        JournalCheckpointRepository checkpointRepository = mock(JournalCheckpointRepository.class);
+        PendingExposure pendingExposure = new PendingExposure(orderRepository);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JournalReplicator replicator = new JournalReplicator(journal, orderRepository, mock(ExecutionRepository.class),
+                checkpointRepository, pendingExposure, mock(PlatformTransactionManager.class), meterRegistry, 500,
+                Duration.ofMillis(5));
+
+        replicator.start();
+        replicator.stop();
+
+        ArgumentCaptor<List<Order>> saved = ArgumentCaptor.forClass(List.class);
+        verify(orderRepository).saveAll(saved.capture());
+        assertEquals(List.of(3, 7), saved.getValue().stream().map(Order::getQuantity).toList());
+        verify(checkpointRepository).save(journal.getId(), journal.durablePosition());
+        assertEquals(2.0, meterRegistry.get("orders.journal.replication.duplicates").counter().count());
+        assertEquals(0, pendingExposure.quantity("acc-1", "AAPL", true));
+    }
+
+    private OrderJournal open(DataSize segmentSize) {
+        return new OrderJournal(new SimpleMeterRegistry(), directory, segmentSize, Duration.ofSeconds(5));
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".journal")).count();
+        }
+    }
+
+    private static JournalEntry entry(String accountId, int quantity) {
+        return entry(accountId, quantity, null);
+    }
+
+    private static JournalEntry entry(String accountId, int quantity, String clientOrderId) {
+        Order order = Order.builder()
+                .accountId(accountId)
+                .symbol("AAPL")
+                .side(quantity % 2 == 0 ? Order.Side.SELL : Order.Side.BUY)
+                .quantity(quantity)
+                .status(Order.Status.COMPLETED)
+                .createdAt(CREATED_AT)
+                .clientOrderId(clientOrderId)
+                .build();
+        return JournalEntry.of(Execution.builder()
+                .order(order)
+                .price(new BigDecimal("210.550000"))
+                .quantity(quantity)
+                .executedAt(CREATED_AT)
+                .build());
+    }
+}
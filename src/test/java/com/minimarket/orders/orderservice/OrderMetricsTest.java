@@ -0,0 +1,59 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.dto.OrderResult;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.service.metrics.OrderMetrics;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderMetrics orderMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        orderMetrics = new OrderMetrics(observationRegistry, meterRegistry, List.of("AAPL"));
+    }
+
+    @Test
+    void observeSave_timesEachStageSeparately() {
+        Order order = Order.builder().accountId("acc-1").symbol("AAPL").side(Order.Side.BUY).build();
+
+        String result = orderMetrics.observeSave(order, () -> {
+            orderMetrics.run(OrderMetrics.STAGE_RATE_LIMIT, () -> { });
+            return orderMetrics.call(OrderMetrics.STAGE_PRICE, () -> "priced");
+        });
+
+        assertEquals("priced", result);
+        assertEquals(1, meterRegistry.get("orders.save").timer().count());
+        assertEquals(1, meterRegistry.get("orders.save.stage").tag("stage", "rate_limit").timer().count());
+        assertEquals(1, meterRegistry.get("orders.save.stage").tag("stage", "price").timer().count());
+        assertTrue(meterRegistry.get("orders.save").timer().getId().getTags().stream()
+                .noneMatch(tag -> tag.getKey().equals("account.id")));
+    }
+
+    @Test
+    void rejected_boundsSymbolCardinality() {
+        orderMetrics.rejected(Order.builder().symbol("AAPL").side(Order.Side.SELL).build(), OrderResult.Status.ILLEGAL_QUANTITY);
+        orderMetrics.rejected(Order.builder().symbol("ZZZZ").side(Order.Side.BUY).build(), OrderResult.Status.RATE_LIMITED);
+        orderMetrics.rejected(null, OrderResult.Status.INVALID);
+
+        assertEquals(1.0, meterRegistry.get("orders.rejected")
+                .tags("reason", "illegal_quantity", "symbol", "AAPL", "side", "SELL").counter().count());
+        assertEquals(1.0, meterRegistry.get("orders.rejected")
+                .tags("reason", "rate_limited", "symbol", "other").counter().count());
+        assertEquals(1.0, meterRegistry.get("orders.rejected")
+                .tags("reason", "invalid", "symbol", "other", "side", "other").counter().count());
+    }
+}
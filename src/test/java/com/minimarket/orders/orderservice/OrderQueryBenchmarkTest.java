@@ -0,0 +1,156 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.dto.OrderQuery;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.repository.ExecutionRepository;
+import com.minimarket.orders.orderservice.service.api.OrderService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures p50/p99 latency of the account and symbol order queries against a seeded history.
+ * The table holds {@code bench.rows} orders (10 million by default) spread over 100,000 accounts,
+ * 500 symbols and one year, each with one execution. Run with {@code ./gradlew benchmark},
+ * optionally with {@code -Dbench.rows=1000000} for a quicker pass.
+ */
+@SpringBootTest
+@Testcontainers
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderQueryBenchmarkTest {
+
+    private static final long ROWS = Long.getLong("bench.rows", 10_000_000L);
+    private static final int ACCOUNTS = 100_000;
+    private static final int SYMBOLS = 500;
+    private static final int WARMUP = 200;
+    private static final int SAMPLES = 2_000;
+    private static final OffsetDateTime END = OffsetDateTime.parse("2025-07-01T00:00:00Z");
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16")
+            .withDatabaseName("bench_db")
+            .withUsername("user")
+            .withPassword("password")
+            .withCommand("postgres", "-c", "shared_buffers=1GB", "-c", "max_wal_size=4GB");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ExecutionRepository executionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(42);
+
+    @BeforeAll
+    void seed() {
+        long start = System.nanoTime();
+        jdbcTemplate.update("""
+                insert into orders (id, account_id, symbol, side, quantity, status, created_at)
+                select g,
+                       'acc-' || (g % ?),
+                       'SYM' || (g % ?),
+                       case when g % 2 = 0 then 'BUY' else 'SELL' end,
+                       1 + g % 100,
+                       case when g % 10 = 0 then 'CANCELLED' when g % 3 = 0 then 'CREATED' else 'COMPLETED' end,
+                       ?::timestamptz - (g % 31536000) * interval '1 second'
+                from generate_series(1, ?) g""",
+                ACCOUNTS, SYMBOLS, END.toString(), ROWS);
+        jdbcTemplate.update("""
+                insert into executions (id, order_id, price, quantity, executed_at)
+                select id, id, 100 + (id % 1000) / 10.0, quantity, created_at from orders""");
+        jdbcTemplate.queryForObject("select setval('orders_seq', ?)", Long.class, ROWS + 1);
+        jdbcTemplate.queryForObject("select setval('executions_seq', ?)", Long.class, ROWS + 1);
+        jdbcTemplate.execute("vacuum analyze orders");
+        jdbcTemplate.execute("vacuum analyze executions");
+        System.out.printf("seeded %,d orders in %,d s%n", ROWS, (System.nanoTime() - start) / 1_000_000_000L);
+    }
+
+    @Test
+    void queryLatency_p50AndP99() {
+        OffsetDateTime monthAgo = END.minusDays(30);
+
+        report("account, last 30 days", i -> OrderQuery.builder()
+                .accountId(randomAccount()).from(monthAgo).to(END).limit(100).build());
+        report("account + status", i -> OrderQuery.builder()
+                .accountId(randomAccount()).status(Order.Status.CREATED).limit(100).build());
+        report("symbol, last 30 days", i -> OrderQuery.builder()
+                .symbol(randomSymbol()).from(monthAgo).to(END).limit(100).build());
+        report("symbol + side, last 30 days", i -> OrderQuery.builder()
+                .symbol(randomSymbol()).side(Order.Side.BUY).from(monthAgo).to(END).limit(100).build());
+
+        long[] executionLookups = measure(i -> executionRepository.findByOrderId(1 + (long) random.nextInt((int) ROWS)));
+        print("executions by order", executionLookups);
+
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "explain select id, account_id, symbol, side, quantity, status, created_at from orders "
+                        + "where account_id = 'acc-1' and created_at between now() - interval '30 days' and now() "
+                        + "order by created_at desc limit 100", String.class));
+        System.out.println(plan);
+        assertThat(plan).contains("idx_orders_account_created_at");
+    }
+
+    private void report(String name, IntFunction<OrderQuery> queries) {
+        print(name, measure(i -> orderService.searchOrders(queries.apply(i))));
+    }
+
+    private long[] measure(IntFunction<List<?>> operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.apply(i);
+        }
+        long[] latencies = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            operation.apply(i);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void print(String name, long[] sortedLatencies) {
+        System.out.printf("%-30s p50 %8.3f ms   p99 %8.3f ms%n", name,
+                percentile(sortedLatencies, 0.50), percentile(sortedLatencies, 0.99));
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private String randomAccount() {
+        return "acc-" + random.nextInt(ACCOUNTS);
+    }
+
+    private String randomSymbol() {
+        return "SYM" + random.nextInt(SYMBOLS);
+    }
+}
@@ -1,31 +1,73 @@
 package com.minimarket.orders.orderservice;
 
+import com.minimarket.orders.orderservice.dto.OrderPage;
+import com.minimarket.orders.orderservice.dto.OrderQuery;
+import com.minimarket.orders.orderservice.dto.OrderResult;
 import com.minimarket.orders.orderservice.dto.PriceResponse;
+import com.minimarket.orders.orderservice.exception.IllegalQuantityException;
+import com.minimarket.orders.orderservice.exception.InvalidCursorException;
+import com.minimarket.orders.orderservice.exception.InvalidOrderException;
+import com.minimarket.orders.orderservice.exception.InvalidOrderQueryException;
+import com.minimarket.orders.orderservice.exception.OrderNotFoundException;
 import com.minimarket.orders.orderservice.exception.RateLimitExceededException;
+import com.minimarket.orders.orderservice.exception.RiskCheckFailedException;
+import com.minimarket.orders.orderservice.exception.SubmissionInProgressException;
 import com.minimarket.orders.orderservice.model.Order;
 import com.minimarket.orders.orderservice.repository.OrderRepository;
-import com.minimarket.orders.orderservice.ratelimiter.RateLimiterManager;
+import com.minimarket.orders.orderservice.repository.OrderStreamingRepository;
+import com.minimarket.orders.orderservice.ratelimiter.AccountRateLimiter;
 import com.minimarket.orders.orderservice.service.api.ExecutionService;
+import com.minimarket.orders.orderservice.service.archive.PartitionManager;
+import com.minimarket.orders.orderservice.service.cache.ClientOrderIndex;
+import com.minimarket.orders.orderservice.service.cache.OrderCache;
 import com.minimarket.orders.orderservice.service.impl.OrderServiceImpl;
+import com.minimarket.orders.orderservice.service.matching.Fill;
+import com.minimarket.orders.orderservice.service.matching.MatchingEngine;
+import com.minimarket.orders.orderservice.service.metrics.OrderMetrics;
 import com.minimarket.orders.orderservice.service.price.PriceService;
-import io.github.resilience4j.ratelimiter.RateLimiter;
+import com.minimarket.orders.orderservice.service.risk.PendingExposure;
+import com.minimarket.orders.orderservice.service.risk.RiskEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class OrderServiceImplTest {
 
-    @Mock private RateLimiterManager rateLimiterManager;
+    @Mock private AccountRateLimiter rateLimiter;
     @Mock private OrderRepository orderRepository;
+    @Mock private OrderStreamingRepository orderStreamingRepository;
     @Mock private PriceService priceService;
     @Mock private ExecutionService executionService;
-    @Mock private RateLimiter rateLimiter;
+    @Mock private OrderCache orderCache;
+    @Mock private RiskEngine riskEngine;
+    @Mock private PendingExposure pendingExposure;
+    @Mock private MatchingEngine matchingEngine;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private PartitionManager partitionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy private OrderMetrics orderMetrics = new OrderMetrics(ObservationRegistry.NOOP, meterRegistry, List.of("AAPL"));
+    @Spy private ClientOrderIndex clientOrderIndex =
+            new ClientOrderIndex(meterRegistry, 1000, Duration.ofMinutes(10), Duration.ofMillis(100));
 
     @InjectMocks
     private OrderServiceImpl orderService;
@@ -47,8 +89,7 @@ class OrderServiceImplTest {
                 .createdAt(OffsetDateTime.now())
                 .build();
 
-        when(rateLimiterManager.getLimiter("acc-123")).thenReturn(rateLimiter);
-        when(rateLimiter.acquirePermission(1)).thenReturn(true);
+        when(rateLimiter.tryAcquire("acc-123", 1)).thenReturn(true);
         when(priceService.getPrice(order)).thenReturn(new BigDecimal("210.5555555"));
 
         // when
@@ -66,6 +107,80 @@ class OrderServiceImplTest {
         ));
     }
 
+    @Test
+    void saveOrder_replacesTheCreationTimeSentByTheClient() {
+        OffsetDateTime sent = OffsetDateTime.parse("2020-01-01T00:00:00Z");
+        Order order = Order.builder()
+                .accountId("acc-123")
+                .symbol("AAPL")
+                .side(Order.Side.BUY)
+                .quantity(10)
+                .createdAt(sent)
+                .build();
+
+        when(rateLimiter.tryAcquire("acc-123", 1)).thenReturn(true);
+        when(priceService.getPrice(order)).thenReturn(new BigDecimal("210.55"));
+
+        OffsetDateTime before = OffsetDateTime.now();
+        orderService.saveOrder(order);
+
+        verify(orderRepository).save(argThat(saved -> !saved.getCreatedAt().isBefore(before)));
+    }
+
+    @Test
+    void saveOrder_retriedClientOrderIdIsAnsweredFromIndex() {
+        Order order = Order.builder()
+                .accountId("acc-123")
+                .symbol("AAPL")
+                .side(Order.Side.BUY)
+                .quantity(10)
+                .clientOrderId("cl-1")
+                .createdAt(OffsetDateTime.now())
+                .build();
+        Order retry = Order.builder()
+                .accountId("acc-123")
+                .symbol("AAPL")
+                .side(Order.Side.BUY)
+                .quantity(10)
+                .clientOrderId("cl-1")
+                .createdAt(OffsetDateTime.now())
+                .build();
+
+        when(rateLimiter.tryAcquire("acc-123", 1)).thenReturn(true);
+        when(priceService.getPrice(order)).thenReturn(new BigDecimal("210.55"));
+
+        PriceResponse first = orderService.saveOrder(order);
+        PriceResponse second = orderService.saveOrder(retry);
+
+        assertEquals(new BigDecimal("210.550000"), second.getPrice());
+        assertEquals(first.getSymbol(), second.getSymbol());
+        verify(rateLimiter, times(1)).tryAcquire("acc-123", 1);
+        verify(priceService, never()).getPrice(retry);
+        verify(orderRepository, never()).save(retry);
+        verify(transactionManager, times(1)).getTransaction(any());
+        assertEquals(1.0, meterRegistry.get("orders.dedup.duplicates").counter().count());
+    }
+
+    @Test
+    void saveOrder_rejectedClientOrderIdIsEvaluatedAgain() {
+        Order order = Order.builder()
+                .accountId("acc-123")
+                .symbol("AAPL")
+                .side(Order.Side.BUY)
+                .quantity(10)
+                .clientOrderId("cl-1")
+                .createdAt(OffsetDateTime.now())
+                .build();
+
+        when(rateLimiter.tryAcquire("acc-123", 1)).thenReturn(false, true);
+        when(priceService.getPrice(order)).thenReturn(new BigDecimal("210.55"));
+
+        assertThrows(RateLimitExceededException.class, () -> orderService.saveOrder(order));
+        assertEquals(new BigDecimal("210.550000"), orderService.saveOrder(order).getPrice());
+
+        verify(orderRepository, times(1)).save(order);
+    }
+
     @Test
     void saveOrder_rateLimitExceeded() {
         Order order = Order.builder()
@@ -76,12 +191,382 @@ class OrderServiceImplTest {
                 .createdAt(OffsetDateTime.now())
                 .build();
 
-        when(rateLimiterManager.getLimiter("acc-123")).thenReturn(rateLimiter);
-        when(rateLimiter.acquirePermission(1)).thenReturn(false);
+        when(rateLimiter.tryAcquire("acc-123", 1)).thenReturn(false);
 
         assertThrows(RateLimitExceededException.class, () -> orderService.saveOrder(order));
 
         verify(orderRepository, never()).save(any());
         verify(priceService, never()).getPrice(any());
+        assertEquals(1.0, meterRegistry.get("orders.rejected")
+                .tags("reason", "rate_limited", "side", "BUY", "symbol", "AAPL").counter().count());
+    }
+
+    @Test
+    void saveOrder_riskCheckFailed() {
+        Order order = Order.builder()
+                .accountId("acc-123")
+                .symbol("AAPL")
+                .side(Order.Side.BUY)
+                .quantity(10)
+                .createdAt(OffsetDateTime.now())
+                .build();
+
+        when(rateLimiter.tryAcquire("acc-123", 1)).thenReturn(true);
+        doThrow(new RiskCheckFailedException("Order rejected by risk check order_notional for AAPL"))
+                .when(riskEngine).check(order);
+
+        assertThrows(RiskCheckFailedException.class, () -> orderService.saveOrder(order));
+
+        verify(orderRepository, never()).save(any());
+        verify(priceService, never()).getPrice(any());
+        assertEquals(1.0, meterRegistry.get("orders.rejected")
+                .tags("reason", "risk_rejected", "side", "BUY", "symbol", "AAPL").counter().count());
+    }
+
+    @Test
+    void saveOrder_missingPriceIsReportedAsUnavailable() {
+        Order order = Order.builder()
+                .accountId("acc-123")
+                .symbol("AAPL")
+                .side(Order.Side.BUY)
+                .quantity(10)
+                .build();
+
+        when(rateLimiter.tryAcquire("acc-123", 1)).thenReturn(true);
+        when(priceService.getPrice(order)).thenReturn(null);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> orderService.saveOrder(order));
+
+        assertEquals("Price unavailable for symbol: AAPL", e.getMessage());
+        verify(orderRepository, never()).save(any());
+        assertEquals(1.0, meterRegistry.get("orders.rejected")
+                .tags("reason", "price_unavailable", "side", "BUY", "symbol", "AAPL").counter().count());
+    }
+
+    @Test
+    void saveOrder_limitOrderRecordsBothSidesOfEachFill() {
+        Order order = Order.builder()
+                .accountId("acc-123")
+                .symbol("AAPL")
+                .side(Order.Side.BUY)
+                .type(Order.Type.LIMIT)
+                .limitPrice(new BigDecimal("211.00"))
+                .quantity(10)
+                .createdAt(OffsetDateTime.now())
+                .build();
+
+        when(rateLimiter.tryAcquire("acc-123", 1)).thenReturn(true);
+        when(orderRepository.save(order)).thenAnswer(invocation -> {
+            order.setId(7L);
+            return order;
+        });
+        matchWith(List.of(
+                new Fill(3L, "acc-3", 7L, 210_000_000L, 4, 0),
+                new Fill(4L, "acc-4", 7L, 211_000_000L, 6, 2)));
+
+        PriceResponse response = orderService.saveOrder(order);
+
+        assertEquals(new BigDecimal("210.600000"), response.getPrice());
+        assertEquals(Order.Status.COMPLETED, order.getStatus());
+        verify(priceService, never()).getPrice(any());
+        verify(executionService).saveExecutions(argThat(executions -> executions.size() == 4
+                && executions.get(0).getOrder() == order && executions.get(0).getQuantity() == 4
+                && executions.get(1).getOrder().getId() == 3L
+                && executions.get(1).getOrder().getAccountId().equals("acc-3")
+                && executions.get(1).getOrder().getSide() == Order.Side.SELL
+                && executions.get(1).getOrder().getSymbol().equals("AAPL")
+                && executions.get(1).getPrice().equals(new BigDecimal("210.000000"))));
+        verify(orderRepository, never()).getReferenceById(any());
+        verify(orderRepository).updateStatus(List.of(3L), Order.Status.COMPLETED);
+        verify(orderCache).evict(3L);
+        verify(pendingExposure).fill(3L, 4);
+        verify(pendingExposure).fill(4L, 6);
+        verify(pendingExposure).rest(7L, "acc-123", "AAPL", Order.Side.BUY, 0);
+        verify(pendingExposure).remove(order);
+    }
+
+    @Test
+    void saveOrder_limitOrderFailingToSettleIsNotCached() {
+        Order order = Order.builder()
+                .id(7L)
+                .accountId("acc-123")
+                .symbol("AAPL")
+                .side(Order.Side.BUY)
+                .type(Order.Type.LIMIT)
+                .limitPrice(new BigDecimal("211.00"))
+                .quantity(10)
+                .createdAt(OffsetDateTime.now())
+                .build();
+
+        when(rateLimiter.tryAcquire("acc-123", 1)).thenReturn(true);
+        matchWith(List.of(new Fill(3L, "acc-3", 7L, 210_000_000L, 10, 0)));
+        doThrow(new IllegalStateException("insert failed")).when(executionService).saveExecutions(any());
+
+        assertThrows(IllegalStateException.class, () -> orderService.saveOrder(order));
+
+        verify(orderRepository, never()).updateStatus(any(), any());
+        verify(orderCache, never()).evict(any());
+        verify(orderCache, never()).putAll(any());
+    }
+
+    @Test
+    void saveOrder_limitOrderWithoutPriceIsRejected() {
+        Order order = Order.builder()
+                .accountId("acc-123")
+                .symbol("AAPL")
+                .side(Order.Side.SELL)
+                .type(Order.Type.LIMIT)
+                .quantity(10)
+                .build();
+
+        when(rateLimiter.tryAcquire("acc-123", 1)).thenReturn(true);
+
+        assertThrows(InvalidOrderException.class, () -> orderService.saveOrder(order));
+
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(matchingEngine);
+        assertEquals(1.0, meterRegistry.get("orders.rejected")
+                .tags("reason", "invalid", "side", "SELL", "symbol", "AAPL").counter().count());
+    }
+
+    @Test
+    void saveOrders_pricesEachSymbolOnceAndRejectsPerOrder() {
+        Order first = Order.builder().accountId("acc-1").symbol("AAPL").side(Order.Side.BUY).quantity(10).build();
+        Order second = Order.builder().accountId("acc-2").symbol("AAPL").side(Order.Side.SELL).quantity(5).build();
+        Order limited = Order.builder().accountId("acc-3").symbol("MSFT").side(Order.Side.BUY).quantity(1).build();
+        Order negative = Order.builder().accountId("acc-1").symbol("TSLA").side(Order.Side.BUY).quantity(-1).build();
+
+        when(rateLimiter.tryAcquire(anyString(), eq(1))).thenReturn(true);
+        when(rateLimiter.tryAcquire("acc-3", 1)).thenReturn(false);
+        doThrow(new IllegalQuantityException(-1)).when(priceService).validateQuantity(negative);
+        when(priceService.getPrices(Set.of("AAPL"))).thenReturn(Map.of("AAPL", new BigDecimal("210.55")));
+
+        List<OrderResult> results = orderService.saveOrders(List.of(first, second, limited, negative));
+
+        assertEquals(OrderResult.Status.ACCEPTED, results.get(0).getStatus());
+        assertEquals(new BigDecimal("210.550000"), results.get(0).getPrice());
+        assertEquals(OrderResult.Status.ACCEPTED, results.get(1).getStatus());
+        assertEquals(OrderResult.Status.RATE_LIMITED, results.get(2).getStatus());
+        assertEquals(OrderResult.Status.ILLEGAL_QUANTITY, results.get(3).getStatus());
+
+        verify(priceService, times(1)).getPrices(Set.of("AAPL"));
+        verify(orderRepository).saveAll(List.of(first, second));
+        verify(executionService).saveExecutions(argThat(executions -> executions.size() == 2));
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void saveOrders_checksNotionalLimitsAtTheBatchPrice() {
+        Order first = Order.builder().accountId("acc-1").symbol("NVDA").side(Order.Side.BUY).quantity(10).build();
+        Order second = Order.builder().accountId("acc-1").symbol("NVDA").side(Order.Side.BUY).quantity(900).build();
+
+        when(rateLimiter.tryAcquire("acc-1", 1)).thenReturn(true);
+        when(priceService.getPrices(Set.of("NVDA"))).thenReturn(Map.of("NVDA", new BigDecimal("150.00")));
+        doThrow(new RiskCheckFailedException("Order rejected by risk check position_notional for NVDA"))
+                .when(riskEngine).check(second, new BigDecimal("150.000000"));
+
+        List<OrderResult> results = orderService.saveOrders(List.of(first, second));
+
+        assertEquals(OrderResult.Status.ACCEPTED, results.get(0).getStatus());
+        assertEquals(OrderResult.Status.RISK_REJECTED, results.get(1).getStatus());
+        verify(pendingExposure).reserve(first);
+        verify(pendingExposure, never()).reserve(second);
+        verify(orderRepository).saveAll(List.of(first));
+    }
+
+    @Test
+    void saveOrders_answersDuplicatesWithinAndAcrossBatches() {
+        Order order = Order.builder().accountId("acc-1").symbol("AAPL").side(Order.Side.BUY).quantity(10)
+                .clientOrderId("cl-1").build();
+        Order sameBatch = Order.builder().accountId("acc-1").symbol("AAPL").side(Order.Side.BUY).quantity(10)
+                .clientOrderId("cl-1").build();
+        Order otherAccount = Order.builder().accountId("acc-2").symbol("AAPL").side(Order.Side.BUY).quantity(10)
+                .clientOrderId("cl-1").build();
+        Order nextBatch = Order.builder().accountId("acc-1").symbol("AAPL").side(Order.Side.BUY).quantity(10)
+                .clientOrderId("cl-1").build();
+
+        when(rateLimiter.tryAcquire(anyString(), eq(1))).thenReturn(true);
+        when(priceService.getPrices(Set.of("AAPL"))).thenReturn(Map.of("AAPL", new BigDecimal("210.55")));
+
+        List<OrderResult> results = orderService.saveOrders(List.of(order, sameBatch, otherAccount));
+        List<OrderResult> retried = orderService.saveOrders(List.of(nextBatch));
+
+        assertEquals(OrderResult.Status.ACCEPTED, results.get(1).getStatus());
+        assertEquals(new BigDecimal("210.550000"), results.get(1).getPrice());
+        assertEquals(OrderResult.Status.ACCEPTED, retried.get(0).getStatus());
+        assertEquals(new BigDecimal("210.550000"), retried.get(0).getPrice());
+        verify(orderRepository).saveAll(List.of(order, otherAccount));
+        verify(rateLimiter, times(2)).tryAcquire(anyString(), eq(1));
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    void saveOrders_retriesAClientOrderIdConflictWithoutAdmittingAgain() {
+        Order order = Order.builder().accountId("acc-1").symbol("AAPL").side(Order.Side.BUY).quantity(10)
+                .clientOrderId("cl-1").build();
+        Order other = Order.builder().accountId("acc-2").symbol("AAPL").side(Order.Side.BUY).quantity(10).build();
+
+        when(rateLimiter.tryAcquire(anyString(), eq(1))).thenReturn(true);
+        when(priceService.getPrices(Set.of("AAPL"))).thenReturn(Map.of("AAPL", new BigDecimal("210.55")));
+        DataIntegrityViolationException conflict = new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint \"uk_orders_account_client_order_id\""));
+        when(orderRepository.saveAll(anyList())).thenThrow(conflict).thenThrow(conflict).thenReturn(List.of(other));
+
+        List<OrderResult> results = orderService.saveOrders(List.of(order, other));
+
+        assertEquals(OrderResult.Status.DUPLICATE, results.get(0).getStatus());
+        assertEquals(OrderResult.Status.ACCEPTED, results.get(1).getStatus());
+        verify(rateLimiter, times(1)).tryAcquire("acc-1", 1);
+        verify(rateLimiter, times(1)).tryAcquire("acc-2", 1);
+        verify(riskEngine, times(1)).check(order);
+        verify(riskEngine, times(1)).check(other);
+    }
+
+    @Test
+    void saveOrder_duplicateOfAHangingSubmissionIsToldToRetry() {
+        clientOrderIndex.register("acc-1", "cl-1", new CompletableFuture<>());
+        Order order = Order.builder().accountId("acc-1").symbol("AAPL").side(Order.Side.BUY).quantity(10)
+                .clientOrderId("cl-1").build();
+
+        assertThrows(SubmissionInProgressException.class, () -> orderService.saveOrder(order));
+        List<OrderResult> results = orderService.saveOrders(List.of(order));
+
+        assertEquals(OrderResult.Status.IN_PROGRESS, results.get(0).getStatus());
+        verifyNoInteractions(rateLimiter);
+        assertEquals(2.0, meterRegistry.get("orders.rejected")
+                .tags("reason", "in_progress", "side", "BUY", "symbol", "AAPL").counter().count());
+    }
+
+    @Test
+    void saveOrders_rejectsOrdersWhosePriceIsUnavailable() {
+        Order order = Order.builder().accountId("acc-1").symbol("XYZ").side(Order.Side.BUY).quantity(1).build();
+
+        when(rateLimiter.tryAcquire("acc-1", 1)).thenReturn(true);
+        when(priceService.getPrices(Set.of("XYZ"))).thenReturn(Map.of());
+
+        List<OrderResult> results = orderService.saveOrders(List.of(order));
+
+        assertEquals(OrderResult.Status.PRICE_UNAVAILABLE, results.get(0).getStatus());
+        verify(orderRepository, never()).saveAll(any());
+        verify(executionService, never()).saveExecutions(any());
+    }
+
+    @Test
+    void getOrdersPage_returnsCursorWhenMoreRowsExist() {
+        OffsetDateTime createdAt = OffsetDateTime.parse("2025-07-01T10:15:30.123456Z");
+        List<Order> rows = List.of(
+                Order.builder().id(1L).accountId("acc-1").createdAt(createdAt).build(),
+                Order.builder().id(2L).accountId("acc-1").createdAt(createdAt).build(),
+                Order.builder().id(3L).accountId("acc-1").createdAt(createdAt.plusSeconds(1)).build());
+        when(orderRepository.findByAccountIdOrderByCreatedAtAscIdAsc("acc-1", Limit.of(3))).thenReturn(rows);
+
+        OrderPage firstPage = orderService.getOrdersPage("acc-1", null, 2);
+
+        assertEquals(2, firstPage.getItems().size());
+        assertNotNull(firstPage.getNextCursor());
+
+        when(orderRepository.findByAccountIdAfter(eq("acc-1"), argThat(createdAt::isEqual), eq(2L), eq(Limit.of(3))))
+                .thenReturn(List.of(rows.get(2)));
+
+        OrderPage secondPage = orderService.getOrdersPage("acc-1", firstPage.getNextCursor(), 2);
+
+        assertEquals(3L, secondPage.getItems().get(0).getId());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    void getOrdersPage_pagesOnInIdOrderFromACursorHoldingOnlyAnId() {
+        List<Order> rows = List.of(
+                Order.builder().id(3L).accountId("acc-1").build(),
+                Order.builder().id(5L).accountId("acc-1").build(),
+                Order.builder().id(8L).accountId("acc-1").build());
+        when(orderRepository.findByAccountIdAndIdGreaterThanOrderByIdAsc("acc-1", 2L, Limit.of(3))).thenReturn(rows);
+
+        OrderPage page = orderService.getOrdersPage("acc-1", "Mg", 2);
+
+        assertEquals(List.of(3L, 5L), page.getItems().stream().map(Order::getId).toList());
+        assertEquals("NQ", page.getNextCursor());
+        verify(orderRepository, never()).findByAccountIdAfter(any(), any(), any(), any());
+    }
+
+    @Test
+    void getOrdersPage_rejectsMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> orderService.getOrdersPage("acc-1", "not a cursor!", 10));
+    }
+
+    @Test
+    void searchOrders_usesIndexMatchingTheCriteria() {
+        OffsetDateTime from = OffsetDateTime.parse("2025-07-01T00:00:00Z");
+        OffsetDateTime to = OffsetDateTime.parse("2025-07-31T00:00:00Z");
+        Order order = Order.builder().id(1L).accountId("acc-1").symbol("AAPL").build();
+        when(orderRepository.findByAccountIdAndStatusAndCreatedAtBetweenOrderByCreatedAtDesc(
+                "acc-1", Order.Status.CREATED, from, to, Limit.of(10))).thenReturn(List.of(order));
+        when(orderRepository.findBySymbolAndSideAndCreatedAtBetweenOrderByCreatedAtDesc(
+                "AAPL", Order.Side.BUY, from, to, Limit.of(10))).thenReturn(List.of(order));
+
+        List<Order> byAccount = orderService.searchOrders(OrderQuery.builder()
+                .accountId("acc-1").status(Order.Status.CREATED).from(from).to(to).limit(10).build());
+        List<Order> bySymbol = orderService.searchOrders(OrderQuery.builder()
+                .symbol("AAPL").side(Order.Side.BUY).from(from).to(to).limit(10).build());
+
+        assertEquals(List.of(order), byAccount);
+        assertEquals(List.of(order), bySymbol);
+    }
+
+    @Test
+    void searchOrders_rejectsQueriesWithoutAccountOrSymbol() {
+        assertThrows(InvalidOrderQueryException.class,
+                () -> orderService.searchOrders(OrderQuery.builder().side(Order.Side.BUY).limit(10).build()));
+        assertThrows(InvalidOrderQueryException.class,
+                () -> orderService.searchOrders(OrderQuery.builder().accountId("acc-1").symbol("AAPL").limit(10).build()));
+    }
+
+    /**
+     * Runs the settlement task handed to the matching engine, matching every order with the given fills.
+     */
+    @SuppressWarnings("unchecked")
+    private void matchWith(List<Fill> fills) {
+        when(matchingEngine.execute(eq("AAPL"), any(Function.class))).thenAnswer(invocation ->
+                invocation.<Function<MatchingEngine.Matcher, Object>>getArgument(1).apply(order -> fills));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getOrderById_loadsThroughCache() {
+        Order order = Order.builder().id(7L).accountId("acc-1").build();
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+        when(orderCache.get(eq(7L), any(Function.class)))
+                .thenAnswer(invocation -> invocation.<Function<Long, Order>>getArgument(1).apply(7L));
+
+        assertSame(order, orderService.getOrderById(7L));
+        verify(orderRepository).findById(7L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getOrderById_looksInTheCreationWindowOfTheIdFirst() {
+        OffsetDateTime from = OffsetDateTime.parse("2025-07-01T00:00:00Z");
+        OffsetDateTime to = OffsetDateTime.parse("2025-07-02T00:00:00Z");
+        Order order = Order.builder().id(7L).accountId("acc-1").build();
+        Order late = Order.builder().id(9L).accountId("acc-1").build();
+        when(partitionManager.creationWindow(anyLong())).thenReturn(new PartitionManager.CreationWindow(from, to));
+        when(orderRepository.findByIdAndCreatedAtGreaterThanEqualAndCreatedAtLessThan(7L, from, to))
+                .thenReturn(Optional.of(order));
+        when(orderRepository.findByIdAndCreatedAtGreaterThanEqualAndCreatedAtLessThan(9L, from, to))
+                .thenReturn(Optional.empty());
+        when(orderRepository.findById(9L)).thenReturn(Optional.of(late));
+        when(orderCache.get(anyLong(), any(Function.class))).thenAnswer(invocation ->
+                invocation.<Function<Long, Order>>getArgument(1).apply(invocation.getArgument(0)));
+
+        assertSame(order, orderService.getOrderById(7L));
+        assertSame(late, orderService.getOrderById(9L));
+        verify(orderRepository, never()).findById(7L);
+    }
+
+    @Test
+    void getOrderById_notFound() {
+        when(orderCache.get(eq(8L), any())).thenReturn(null);
+
+        assertThrows(OrderNotFoundException.class, () -> orderService.getOrderById(8L));
     }
 }
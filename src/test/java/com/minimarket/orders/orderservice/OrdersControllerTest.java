@@ -2,28 +2,41 @@ package com.minimarket.orders.orderservice;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.minimarket.orders.orderservice.controller.OrdersController;
+import com.minimarket.orders.orderservice.dto.OrderPage;
+import com.minimarket.orders.orderservice.dto.OrderQuery;
+import com.minimarket.orders.orderservice.dto.OrderResult;
 import com.minimarket.orders.orderservice.dto.PriceResponse;
 import com.minimarket.orders.orderservice.model.Order;
 import com.minimarket.orders.orderservice.service.api.OrderService;
+import com.minimarket.orders.orderservice.service.archive.OrderArchive;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
 @WebMvcTest(OrdersController.class)
+@TestPropertySource(properties = {"orders.batch.max-size=2", "orders.page.max-size=50"})
 class OrdersControllerTest {
 
     @Autowired
@@ -32,6 +45,9 @@ class OrdersControllerTest {
     @MockitoBean
     private OrderService orderService;
 
+    @MockitoBean
+    private OrderArchive orderArchive;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -97,4 +113,110 @@ class OrdersControllerTest {
                 .andExpect(jsonPath("$.symbol").value("AAPL"))
                 .andExpect(jsonPath("$.price").value(210.55));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSaveOrdersBatch() throws Exception {
+        when(orderService.saveOrders(anyList())).thenReturn(List.of(
+                OrderResult.builder().symbol("AAPL").price(BigDecimal.valueOf(210.55))
+                        .status(OrderResult.Status.ACCEPTED).build(),
+                OrderResult.builder().symbol("AAPL").status(OrderResult.Status.RATE_LIMITED)
+                        .message("Rate limit exceeded for account: acc-123").build()));
+
+        String ordersJson = objectMapper.writeValueAsString(List.of(sampleOrder, sampleOrder));
+
+        mockMvc.perform(post("/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ordersJson)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("ACCEPTED"))
+                .andExpect(jsonPath("$[0].price").value(210.55))
+                .andExpect(jsonPath("$[1].status").value("RATE_LIMITED"));
+    }
+
+    @Test
+    void testSaveOrdersBatchTooLarge() throws Exception {
+        String ordersJson = objectMapper.writeValueAsString(List.of(sampleOrder, sampleOrder, sampleOrder));
+
+        mockMvc.perform(post("/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ordersJson)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void testGetOrdersPage() throws Exception {
+        when(orderService.getOrdersPage("acc-123", "MQ", 50)).thenReturn(OrderPage.builder()
+                .items(List.of(sampleOrder))
+                .nextCursor("Mg")
+                .build());
+
+        mockMvc.perform(get("/orders")
+                        .param("accountId", "acc-123")
+                        .param("limit", "500")
+                        .param("cursor", "MQ")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].accountId").value("acc-123"))
+                .andExpect(jsonPath("$.nextCursor").value("Mg"));
+    }
+
+    @Test
+    void testSearchOrders() throws Exception {
+        when(orderService.searchOrders(argThat((OrderQuery query) -> "AAPL".equals(query.getSymbol())
+                && query.getSide() == Order.Side.BUY
+                && OffsetDateTime.parse("2025-07-01T00:00:00Z").isEqual(query.getFrom())
+                && query.getLimit() == 50)))
+                .thenReturn(List.of(sampleOrder));
+
+        mockMvc.perform(get("/orders/search")
+                        .param("symbol", "AAPL")
+                        .param("side", "BUY")
+                        .param("from", "2025-07-01T00:00:00Z")
+                        .param("limit", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].symbol").value("AAPL"));
+    }
+
+    @Test
+    void testSearchArchivedOrders() throws Exception {
+        when(orderArchive.search(argThat((OrderQuery query) -> "acc-123".equals(query.getAccountId())
+                && query.getStatus() == Order.Status.CREATED
+                && query.getLimit() == 50)))
+                .thenReturn(List.of(sampleOrder));
+
+        mockMvc.perform(get("/orders/history")
+                        .param("accountId", "acc-123")
+                        .param("status", "CREATED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].accountId").value("acc-123"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamOrdersForAccount() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Order> consumer = invocation.getArgument(1);
+            consumer.accept(sampleOrder);
+            consumer.accept(sampleOrder);
+            return null;
+        }).when(orderService).streamOrdersByAccountId(eq("acc-123"), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/orders")
+                        .param("accountId", "acc-123")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(sampleOrder.getId(),
+                objectMapper.readValue(lines[1], Order.class).getId());
+    }
+}
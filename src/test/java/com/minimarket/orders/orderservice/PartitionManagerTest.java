@@ -0,0 +1,75 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.repository.PartitionRecord;
+import com.minimarket.orders.orderservice.repository.PartitionRepository;
+import com.minimarket.orders.orderservice.service.archive.PartitionManager;
+import com.minimarket.orders.orderservice.service.archive.PartitionManager.CreationWindow;
+import com.minimarket.orders.orderservice.service.archive.PartitionedTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PartitionManagerTest {
+
+    private static final OffsetDateTime JULY_1 = OffsetDateTime.parse("2025-07-01T00:00:00Z");
+
+    @Test
+    void creationWindow_boundsIdsToThePartitionsWhoseRangeHoldsThem() {
+        PartitionRepository partitionRepository = mock(PartitionRepository.class);
+        when(partitionRepository.findByTable(any())).thenReturn(List.of(
+                partition("orders_legacy", null, JULY_1, PartitionRecord.State.ATTACHED, 1L, 100L),
+                partition("orders_p20250701", JULY_1, JULY_1.plusDays(1), PartitionRecord.State.ATTACHED, 90L, 200L),
+                partition("orders_p20250702", JULY_1.plusDays(1), JULY_1.plusDays(2), PartitionRecord.State.ATTACHED,
+                        0L, 0L),
+                partition("orders_p20250703", JULY_1.plusDays(2), JULY_1.plusYears(100), PartitionRecord.State.ATTACHED,
+                        null, null)));
+        PartitionManager partitionManager = new PartitionManager(partitionRepository,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), ChronoUnit.DAYS, 7,
+                Duration.ZERO, Duration.ofDays(1), Path.of("archive"), 1024);
+
+        assertNull(partitionManager.creationWindow(50));
+        partitionManager.start();
+
+        assertEquals(new CreationWindow(OffsetDateTime.parse("1970-01-01T00:00:00Z"), JULY_1),
+                partitionManager.creationWindow(50));
+        assertEquals(new CreationWindow(OffsetDateTime.parse("1970-01-01T00:00:00Z"), JULY_1.plusDays(1)),
+                partitionManager.creationWindow(95));
+        assertEquals(new CreationWindow(JULY_1, JULY_1.plusDays(1)), partitionManager.creationWindow(150));
+        assertEquals(new CreationWindow(JULY_1.plusDays(2), JULY_1.plusYears(100)),
+                partitionManager.creationWindow(201));
+        verify(partitionRepository, never()).createPartition(any(), any(), any(), any());
+        verify(partitionRepository, atLeastOnce()).findByTable(PartitionedTable.ORDERS);
+    }
+
+    @Test
+    void archiveExpired_keepsExecutionsOfRestingLimitOrders() {
+        PartitionRepository partitionRepository = mock(PartitionRepository.class);
+        PartitionRecord partition = new PartitionRecord("executions_p20250701", "executions", JULY_1,
+                JULY_1.plusDays(1), PartitionRecord.State.ATTACHED, null, null, null, null);
+        when(partitionRepository.findByTable(PartitionedTable.EXECUTIONS)).thenReturn(List.of(partition));
+        when(partitionRepository.findByName("executions_p20250701")).thenReturn(partition);
+        when(partitionRepository.hasExecutionsOfRestingLimitOrders("executions_p20250701")).thenReturn(true);
+        PartitionManager partitionManager = new PartitionManager(partitionRepository,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), ChronoUnit.DAYS, 7,
+                Duration.ofDays(1), Duration.ofDays(1), Path.of("archive"), 1024);
+
+        partitionManager.archiveExpired(PartitionedTable.EXECUTIONS);
+
+        verify(partitionRepository, never()).detachPartition(any(), any());
+        verify(partitionRepository, never()).forEachRow(any(), any(), any());
+    }
+
+    private static PartitionRecord partition(String name, OffsetDateTime start, OffsetDateTime end,
+                                             PartitionRecord.State state, Long minId, Long maxId) {
+        return new PartitionRecord(name, "orders", start, end, state, null, null, minId, maxId);
+    }
+}
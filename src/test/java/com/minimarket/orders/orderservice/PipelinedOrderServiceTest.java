@@ -0,0 +1,190 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.dto.OrderResult;
+import com.minimarket.orders.orderservice.dto.PriceResponse;
+import com.minimarket.orders.orderservice.exception.RateLimitExceededException;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.service.cache.ClientOrderIndex;
+import com.minimarket.orders.orderservice.service.impl.OrderServiceImpl;
+import com.minimarket.orders.orderservice.service.impl.PipelinedOrderService;
+import com.minimarket.orders.orderservice.service.metrics.OrderMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PipelinedOrderServiceTest {
+
+    private OrderServiceImpl delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderMetrics orderMetrics;
+    private PipelinedOrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(OrderServiceImpl.class);
+        meterRegistry = new SimpleMeterRegistry();
+        orderMetrics = new OrderMetrics(ObservationRegistry.NOOP, meterRegistry, List.of("AAPL"));
+        orderService = new PipelinedOrderService(delegate, new ClientOrderIndex(meterRegistry, 1000,
+                Duration.ofMinutes(10), Duration.ofSeconds(2)), orderMetrics, meterRegistry,
+                2, 16, 8, Duration.ofMillis(1), Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderService.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveOrder_batchesOrdersQueuedWhileWorkerIsBusy() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        List<Integer> batchSizes = new ArrayList<>();
+        when(delegate.saveRegisteredOrders(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            batchSizes.add(orders.size());
+            firstBatchStarted.countDown();
+            releaseFirstBatch.await(1, TimeUnit.SECONDS);
+            return orders.stream().map(order -> accepted(order.getSymbol())).toList();
+        });
+        orderService.start();
+
+        CompletableFuture<PriceResponse> first = CompletableFuture.supplyAsync(() -> orderService.saveOrder(order()));
+        assertTrue(firstBatchStarted.await(1, TimeUnit.SECONDS));
+        List<CompletableFuture<PriceResponse>> queued = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            queued.add(CompletableFuture.supplyAsync(() -> orderService.saveOrder(order())));
+        }
+        while (meterRegistry.get("orders.pipeline.queue.depth").gauge().value() < 3) {
+            Thread.onSpinWait();
+        }
+        releaseFirstBatch.countDown();
+
+        assertEquals(new BigDecimal("210.550000"), first.get(1, TimeUnit.SECONDS).getPrice());
+        for (CompletableFuture<PriceResponse> response : queued) {
+            assertEquals("AAPL", response.get(1, TimeUnit.SECONDS).getSymbol());
+        }
+        assertEquals(List.of(1, 3), batchSizes);
+        assertEquals(2, meterRegistry.get("orders.pipeline.batch.size").summary().count());
+    }
+
+    @Test
+    void saveOrder_throwsRejectionOfItsOrder() {
+        when(delegate.saveRegisteredOrders(anyList())).thenReturn(List.of(OrderResult.builder()
+                .symbol("AAPL")
+                .status(OrderResult.Status.RATE_LIMITED)
+                .message("Rate limit exceeded for account: acc-1")
+                .build()));
+        orderService.start();
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> orderService.saveOrder(order()));
+        assertEquals("Rate limit exceeded for account: acc-1", e.getMessage());
+        assertTrue(meterRegistry.find("orders.rejected").counters().isEmpty());
+    }
+
+    @Test
+    void saveOrder_answersReusedClientOrderIdWithTheOriginalOutcome() {
+        when(delegate.saveRegisteredOrders(anyList())).thenReturn(List.of(accepted("AAPL")));
+        orderService.start();
+        Order order = order();
+        order.setClientOrderId("cl-1");
+        Order retry = order();
+        retry.setClientOrderId("cl-1");
+
+        assertEquals(new BigDecimal("210.550000"), orderService.saveOrder(order).getPrice());
+        assertEquals(new BigDecimal("210.550000"), orderService.saveOrder(retry).getPrice());
+        verify(delegate, times(1)).saveRegisteredOrders(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveOrder_withdrawsAnOrderThatTimesOutBeforeTheWorkerTakesIt() throws Exception {
+        orderService = new PipelinedOrderService(delegate, new ClientOrderIndex(meterRegistry, 1000,
+                Duration.ofMinutes(10), Duration.ofSeconds(2)), orderMetrics, meterRegistry,
+                1, 16, 8, Duration.ofMillis(1), Duration.ofMillis(100));
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        List<Integer> batchSizes = new ArrayList<>();
+        when(delegate.saveRegisteredOrders(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            batchSizes.add(orders.size());
+            firstBatchStarted.countDown();
+            releaseFirstBatch.await(1, TimeUnit.SECONDS);
+            return orders.stream().map(order -> accepted(order.getSymbol())).toList();
+        });
+        orderService.start();
+
+        CompletableFuture<PriceResponse> first = CompletableFuture.supplyAsync(() -> orderService.saveOrder(order()));
+        assertTrue(firstBatchStarted.await(1, TimeUnit.SECONDS));
+        Order late = order();
+        late.setClientOrderId("cl-2");
+        assertThrows(IllegalStateException.class, () -> orderService.saveOrder(late));
+        releaseFirstBatch.countDown();
+
+        assertEquals("AAPL", first.get(1, TimeUnit.SECONDS).getSymbol());
+        Order retry = order();
+        retry.setClientOrderId("cl-2");
+        assertEquals("AAPL", orderService.saveOrder(retry).getSymbol());
+        assertEquals(List.of(1, 1), batchSizes);
+    }
+
+    @Test
+    void saveOrder_passesLimitOrdersStraightToDelegate() {
+        Order order = order();
+        order.setType(Order.Type.LIMIT);
+        PriceResponse response = PriceResponse.builder().symbol("AAPL").price(new BigDecimal("210.000000")).build();
+        when(delegate.saveOrder(order)).thenReturn(response);
+
+        assertSame(response, orderService.saveOrder(order));
+        verify(delegate, never()).saveRegisteredOrders(anyList());
+    }
+
+    @Test
+    void saveOrder_rejectsAnOrderWithoutAccountLikeTheDirectPath() {
+        orderService.start();
+        Order order = order();
+        order.setAccountId(null);
+
+        NullPointerException e = assertThrows(NullPointerException.class, () -> orderService.saveOrder(order));
+        assertEquals("Account ID cannot be null", e.getMessage());
+        assertEquals(1, meterRegistry.get("orders.rejected").tag("reason", "invalid").counter().count());
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void saveOrder_failsWhenPipelineIsNotRunning() {
+        assertThrows(IllegalStateException.class, () -> orderService.saveOrder(order()));
+        verifyNoInteractions(delegate);
+    }
+
+    private static Order order() {
+        return Order.builder()
+                .accountId("acc-1")
+                .symbol("AAPL")
+                .side(Order.Side.BUY)
+                .quantity(10)
+                .build();
+    }
+
+    private static OrderResult accepted(String symbol) {
+        return OrderResult.builder()
+                .symbol(symbol)
+                .price(new BigDecimal("210.550000"))
+                .status(OrderResult.Status.ACCEPTED)
+                .build();
+    }
+}
@@ -0,0 +1,137 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.dto.Position;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.repository.PositionRecord;
+import com.minimarket.orders.orderservice.repository.PositionRepository;
+import com.minimarket.orders.orderservice.service.position.PositionBook;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PositionBookTest {
+
+    private static final OffsetDateTime HOUR_AGO = OffsetDateTime.now().minusHours(1);
+
+    private PositionRepository positionRepository;
+    private PositionBook positionBook;
+
+    @BeforeEach
+    void setUp() {
+        positionRepository = mock(PositionRepository.class);
+        positionBook = new PositionBook(positionRepository, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void apply_tracksAverageCostAndRealizedPnl() {
+        positionBook.apply(1, HOUR_AGO, "acc-1", "AAPL", Order.Side.BUY, new BigDecimal("100.000000"), 10);
+        positionBook.apply(2, HOUR_AGO, "acc-1", "AAPL", Order.Side.BUY, new BigDecimal("110.000000"), 10);
+        assertPosition("20", "105.000000", "0.000000");
+
+        positionBook.apply(3, HOUR_AGO, "acc-1", "AAPL", Order.Side.SELL, new BigDecimal("120.000000"), 15);
+        assertPosition("5", "105.000000", "225.000000");
+
+        positionBook.apply(4, HOUR_AGO, "acc-1", "AAPL", Order.Side.SELL, new BigDecimal("100.000000"), 10);
+        assertPosition("-5", "100.000000", "200.000000");
+
+        positionBook.apply(5, HOUR_AGO, "acc-1", "AAPL", Order.Side.BUY, new BigDecimal("90.000000"), 5);
+        assertPosition("0", "0.000000", "250.000000");
+        assertEquals(List.of(), positionBook.getPositions("acc-2"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkpoint_writesOnlyChangedPositions() {
+        positionBook.apply(1, HOUR_AGO, "acc-1", "AAPL", Order.Side.BUY, new BigDecimal("210.550000"), 10);
+        positionBook.apply(2, HOUR_AGO, "acc-1", "MSFT", Order.Side.SELL, new BigDecimal("501.100000"), 3);
+
+        positionBook.checkpoint();
+        positionBook.apply(3, HOUR_AGO, "acc-1", "AAPL", Order.Side.BUY, new BigDecimal("210.550000"), 10);
+        positionBook.checkpoint();
+        positionBook.checkpoint();
+
+        ArgumentCaptor<List<PositionRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(positionRepository, times(2)).saveAll(captor.capture());
+        assertEquals(2, captor.getAllValues().get(0).size());
+        PositionRecord aapl = captor.getAllValues().get(1).get(0);
+        assertEquals("AAPL", aapl.symbol());
+        assertEquals(20, aapl.quantity());
+        assertEquals(new BigDecimal("4211.000000"), aapl.costBasis());
+        assertEquals(3, aapl.lastExecutionId());
+        verify(positionRepository, times(2)).saveExecutedUntil(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkpoint_containsExactlyTheExecutionsBeforeTheLookBack() {
+        positionBook.apply(9, HOUR_AGO, "acc-1", "AAPL", Order.Side.BUY, new BigDecimal("100.000000"), 10);
+        positionBook.apply(10, OffsetDateTime.now(), "acc-1", "AAPL", Order.Side.BUY, new BigDecimal("100.000000"), 5);
+        positionBook.checkpoint();
+        // committed after the first checkpoint although its ID and execution time are lower
+        positionBook.apply(4, HOUR_AGO.minusMinutes(1), "acc-1", "AAPL", Order.Side.BUY,
+                new BigDecimal("100.000000"), 1);
+        positionBook.checkpoint();
+
+        assertPosition("16", "100.000000", "0.000000");
+        ArgumentCaptor<List<PositionRecord>> captor = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<OffsetDateTime> executedUntil = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(positionRepository, times(2)).saveAll(captor.capture());
+        verify(positionRepository, times(2)).saveExecutedUntil(executedUntil.capture());
+        assertEquals(10, captor.getAllValues().get(0).get(0).quantity());
+        assertEquals(11, captor.getAllValues().get(1).get(0).quantity());
+        assertTrue(executedUntil.getAllValues().get(1).isBefore(OffsetDateTime.now().minusSeconds(59)));
+    }
+
+    @Test
+    void start_restoresCheckpointAndReplaysLaterExecutions() {
+        when(positionRepository.findAll()).thenReturn(List.of(new PositionRecord("acc-1", "AAPL", 10,
+                new BigDecimal("1000.000000"), new BigDecimal("50.000000"), 7)));
+        doAnswer(invocation -> {
+            PositionRepository.ExecutionConsumer consumer = invocation.getArgument(1);
+            consumer.accept(8, HOUR_AGO, "acc-1", "AAPL", "SELL", new BigDecimal("110.000000"), 4);
+            return null;
+        }).when(positionRepository).forEachExecutionAfter(eq(7L), any());
+
+        positionBook.start();
+
+        assertTrue(positionBook.isRunning());
+        assertPosition("6", "100.000000", "90.000000");
+    }
+
+    @Test
+    void start_replaysTheExecutionsAfterTheCheckpointTime() {
+        OffsetDateTime executedUntil = HOUR_AGO.minusMinutes(1);
+        when(positionRepository.findAll()).thenReturn(List.of(new PositionRecord("acc-1", "AAPL", 10,
+                new BigDecimal("1000.000000"), new BigDecimal("50.000000"), 7)));
+        when(positionRepository.findExecutedUntil()).thenReturn(executedUntil);
+        doAnswer(invocation -> {
+            PositionRepository.ExecutionConsumer consumer = invocation.getArgument(1);
+            consumer.accept(3, HOUR_AGO, "acc-1", "AAPL", "SELL", new BigDecimal("110.000000"), 4);
+            return null;
+        }).when(positionRepository).forEachExecutionExecutedAfter(eq(executedUntil), any());
+
+        positionBook.start();
+
+        assertPosition("6", "100.000000", "90.000000");
+        verify(positionRepository, never()).forEachExecutionAfter(anyLong(), any());
+    }
+
+    private void assertPosition(String quantity, String averagePrice, String realizedPnl) {
+        Position position = positionBook.getPositions("acc-1").get(0);
+        assertEquals("AAPL", position.getSymbol());
+        assertEquals(Long.parseLong(quantity), position.getQuantity());
+        assertEquals(new BigDecimal(averagePrice), position.getAveragePrice());
+        assertEquals(new BigDecimal(realizedPnl), position.getRealizedPnl());
+    }
+}
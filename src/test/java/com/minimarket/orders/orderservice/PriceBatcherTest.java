@@ -0,0 +1,69 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.service.price.PriceBatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceBatcherTest {
+
+    private static final BigDecimal PRICE = new BigDecimal("210.55");
+
+    private PriceBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.stop();
+        }
+    }
+
+    @Test
+    void fetchPrice_completesLaterLookupsWhileBatchesAreSlow() throws Exception {
+        batcher = batcher(symbols -> Mono.delay(Duration.ofMillis(100))
+                .map(tick -> symbols.stream().collect(Collectors.toMap(Function.identity(), symbol -> PRICE))),
+                Duration.ofSeconds(5));
+
+        List<CompletableFuture<BigDecimal>> prices = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            prices.add(batcher.fetchPrice("SYM" + i).toFuture());
+            Thread.sleep(10);
+        }
+
+        for (CompletableFuture<BigDecimal> price : prices) {
+            assertEquals(PRICE, price.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(PRICE, batcher.fetchPrice("AAPL").toFuture().get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void fetchPrice_failsAfterTheDeadlineWhenTheBatchNeverAnswers() {
+        batcher = batcher(symbols -> Mono.never(), Duration.ofMillis(100));
+
+        CompletableFuture<BigDecimal> price = batcher.fetchPrice("AAPL").toFuture();
+
+        Exception e = assertThrows(Exception.class, () -> price.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+    }
+
+    private static PriceBatcher batcher(Function<Set<String>, Mono<Map<String, BigDecimal>>> batchLookup,
+                                        Duration deadline) {
+        return new PriceBatcher(batchLookup, symbol -> Mono.just(PRICE), e -> false,
+                64, Duration.ofMillis(1), 1, deadline, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,66 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.service.price.PriceCache;
+import com.minimarket.orders.orderservice.service.price.PriceFeedClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PriceCacheTest {
+
+    private PriceFeedClient priceFeedClient;
+    private SimpleMeterRegistry meterRegistry;
+    private PriceCache priceCache;
+
+    @BeforeEach
+    void setUp() {
+        priceFeedClient = mock(PriceFeedClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        priceCache = new PriceCache(priceFeedClient, meterRegistry, 100,
+                Duration.ofMinutes(1), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void getPrice_servesRepeatedLookupsFromCache() {
+        when(priceFeedClient.fetchPrice("AAPL")).thenReturn(Mono.just(new BigDecimal("210.55")));
+
+        assertEquals(new BigDecimal("210.55"), priceCache.getPrice("AAPL"));
+        assertEquals(new BigDecimal("210.55"), priceCache.getPrice("AAPL"));
+
+        verify(priceFeedClient, times(1)).fetchPrice("AAPL");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void getPrice_concurrentMissesShareOneFeedRequest() {
+        Sinks.One<BigDecimal> feed = Sinks.one();
+        when(priceFeedClient.fetchPrice("MSFT")).thenReturn(feed.asMono());
+
+        CompletableFuture<BigDecimal> first = CompletableFuture.supplyAsync(() -> priceCache.getPrice("MSFT"));
+        verify(priceFeedClient, timeout(1000)).fetchPrice("MSFT");
+        CompletableFuture<BigDecimal> second = CompletableFuture.supplyAsync(() -> priceCache.getPrice("MSFT"));
+
+        feed.tryEmitValue(new BigDecimal("501.10"));
+
+        assertEquals(new BigDecimal("501.10"), first.join());
+        assertEquals(new BigDecimal("501.10"), second.join());
+        verify(priceFeedClient, times(1)).fetchPrice("MSFT");
+    }
+
+    @Test
+    void getIfPresent_doesNotCallFeed() {
+        assertTrue(priceCache.getIfPresent("TSLA").isEmpty());
+
+        verifyNoInteractions(priceFeedClient);
+    }
+}
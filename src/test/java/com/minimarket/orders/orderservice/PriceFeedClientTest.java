@@ -0,0 +1,137 @@
+package com.minimarket.orders.orderservice;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.minimarket.orders.orderservice.service.price.PriceClientProperties;
+import com.minimarket.orders.orderservice.service.price.PriceFeedClient;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceFeedClientTest {
+
+    private static final String AAPL_PRICE = "{\"symbol\":\"AAPL\",\"price\":210.55}";
+
+    private WireMockServer wireMockServer;
+    private SimpleMeterRegistry meterRegistry;
+    private PriceClientProperties properties;
+    private PriceFeedClient priceFeedClient;
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+        wireMockServer.start();
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new PriceClientProperties();
+        properties.setResponseTimeout(Duration.ofSeconds(5));
+        properties.setDeadline(Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (priceFeedClient != null) {
+            priceFeedClient.stop();
+        }
+        wireMockServer.stop();
+    }
+
+    @Test
+    void fetchPrice_hedgesSlowRequest() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/price")).inScenario("hedge")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willSetStateTo("slow request sent")
+                .willReturn(okJson(AAPL_PRICE).withFixedDelay(4_000)));
+        wireMockServer.stubFor(get(urlPathEqualTo("/price")).inScenario("hedge")
+                .whenScenarioStateIs("slow request sent")
+                .willReturn(okJson(AAPL_PRICE)));
+        priceFeedClient = client();
+
+        long start = System.nanoTime();
+        assertEquals(0, new BigDecimal("210.55").compareTo(priceFeedClient.fetchPrice("AAPL").block()));
+
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(3).toNanos());
+        assertEquals(1.0, meterRegistry.get("price.feed.hedges").counter().count());
+    }
+
+    @Test
+    void fetchPrice_servesLastKnownPriceWhileCircuitIsOpen() {
+        properties.getHedge().setEnabled(false);
+        properties.getCircuitBreaker().setSlidingWindowSize(2);
+        properties.getCircuitBreaker().setMinimumNumberOfCalls(2);
+        wireMockServer.stubFor(get(urlPathEqualTo("/price")).willReturn(okJson(AAPL_PRICE)));
+        priceFeedClient = client();
+        assertEquals(0, new BigDecimal("210.55").compareTo(priceFeedClient.fetchPrice("AAPL").block()));
+
+        wireMockServer.stubFor(get(urlPathEqualTo("/price")).willReturn(serviceUnavailable()));
+        assertThrows(RuntimeException.class, () -> priceFeedClient.fetchPrice("AAPL").block());
+
+        assertEquals(0, new BigDecimal("210.55").compareTo(priceFeedClient.fetchPrice("AAPL").block()));
+        assertThrows(CallNotPermittedException.class, () -> priceFeedClient.fetchPrice("MSFT").block());
+        wireMockServer.verify(2, getRequestedFor(urlPathEqualTo("/price")));
+        assertEquals(1.0, meterRegistry.get("price.feed.fallbacks").counter().count());
+    }
+
+    @Test
+    void fetchPrice_batchesConcurrentLookups() {
+        properties.getHedge().setEnabled(false);
+        properties.getBatch().setEnabled(true);
+        properties.getBatch().setWindow(Duration.ofMillis(200));
+        wireMockServer.stubFor(get(urlPathEqualTo("/prices")).willReturn(okJson(
+                "[{\"symbol\":\"AAPL\",\"price\":210.55},{\"symbol\":\"MSFT\",\"price\":501.10}]")));
+        wireMockServer.stubFor(get(urlPathEqualTo("/price")).withQueryParam("symbol", equalTo("TSLA"))
+                .willReturn(okJson("{\"symbol\":\"TSLA\",\"price\":318.25}")));
+        priceFeedClient = client();
+
+        Map<String, BigDecimal> prices = Flux.just("AAPL", "MSFT", "AAPL", "TSLA", "TSLA")
+                .flatMap(symbol -> priceFeedClient.fetchPrice(symbol).map(price -> Map.entry(symbol, price)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block();
+
+        assertEquals(0, new BigDecimal("210.55").compareTo(prices.get("AAPL")));
+        assertEquals(0, new BigDecimal("501.10").compareTo(prices.get("MSFT")));
+        assertEquals(0, new BigDecimal("318.25").compareTo(prices.get("TSLA")));
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/prices"))
+                .withQueryParam("symbols", equalTo("AAPL,MSFT,TSLA")));
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/price")));
+    }
+
+    @Test
+    void fetchPrice_looksUpEachSymbolOnceWhenTheBatchIsRejected() {
+        properties.getHedge().setEnabled(false);
+        properties.getBatch().setEnabled(true);
+        properties.getBatch().setWindow(Duration.ofMillis(200));
+        wireMockServer.stubFor(get(urlPathEqualTo("/prices")).willReturn(badRequest()));
+        wireMockServer.stubFor(get(urlPathEqualTo("/price")).withQueryParam("symbol", equalTo("AAPL"))
+                .willReturn(okJson(AAPL_PRICE)));
+        wireMockServer.stubFor(get(urlPathEqualTo("/price")).withQueryParam("symbol", equalTo("MSFT"))
+                .willReturn(okJson("{\"symbol\":\"MSFT\",\"price\":501.10}")));
+        priceFeedClient = client();
+
+        List<BigDecimal> prices = Flux.just("AAPL", "AAPL", "MSFT", "AAPL")
+                .flatMapSequential(priceFeedClient::fetchPrice)
+                .collectList()
+                .block();
+
+        assertEquals(4, prices.size());
+        assertEquals(0, new BigDecimal("501.10").compareTo(prices.get(2)));
+        assertEquals(0, new BigDecimal("210.55").compareTo(prices.get(3)));
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/price")).withQueryParam("symbol", equalTo("AAPL")));
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/price")).withQueryParam("symbol", equalTo("MSFT")));
+    }
+
+    private PriceFeedClient client() {
+        return new PriceFeedClient("localhost", String.valueOf(wireMockServer.port()), properties, meterRegistry);
+    }
+}
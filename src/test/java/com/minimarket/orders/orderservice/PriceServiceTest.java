@@ -0,0 +1,82 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.exception.IllegalQuantityException;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.service.price.PriceBook;
+import com.minimarket.orders.orderservice.service.price.PriceCache;
+import com.minimarket.orders.orderservice.service.price.PriceFeedClient;
+import com.minimarket.orders.orderservice.service.price.PriceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PriceServiceTest {
+
+    private PriceFeedClient priceFeedClient;
+    private PriceCache priceCache;
+    private PriceBook priceBook;
+
+    private final Order order = Order.builder()
+            .accountId("acc-123")
+            .symbol("AAPL")
+            .side(Order.Side.BUY)
+            .quantity(10)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        priceFeedClient = mock(PriceFeedClient.class);
+        priceCache = mock(PriceCache.class);
+        priceBook = new PriceBook(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getPrice_streamModeReadsLastTradeFromBook() {
+        PriceService priceService = new PriceService(priceFeedClient, priceCache, priceBook, true, "stream");
+        priceBook.update("AAPL", new BigDecimal("211.00"));
+
+        assertEquals(new BigDecimal("211.00"), priceService.getPrice(order));
+
+        verifyNoInteractions(priceCache, priceFeedClient);
+    }
+
+    @Test
+    void getPrice_streamModeFallsBackToPullWhenQuoteIsMissing() {
+        PriceService priceService = new PriceService(priceFeedClient, priceCache, priceBook, true, "stream");
+        when(priceCache.getPrice("AAPL")).thenReturn(new BigDecimal("210.55"));
+
+        assertEquals(new BigDecimal("210.55"), priceService.getPrice(order));
+    }
+
+    @Test
+    void getPrice_streamModeFallsBackToPullWhenQuoteIsTooOld() {
+        PriceBook expiringBook = new PriceBook(Duration.ZERO);
+        PriceService priceService = new PriceService(priceFeedClient, priceCache, expiringBook, true, "stream");
+        expiringBook.update("AAPL", new BigDecimal("199.00"));
+        when(priceCache.getPrice("AAPL")).thenReturn(new BigDecimal("210.55"));
+
+        assertEquals(new BigDecimal("210.55"), priceService.getPrice(order));
+    }
+
+    @Test
+    void getPrice_pullModeIgnoresBook() {
+        PriceService priceService = new PriceService(priceFeedClient, priceCache, priceBook, true, "pull");
+        priceBook.update("AAPL", new BigDecimal("211.00"));
+        when(priceCache.getPrice("AAPL")).thenReturn(new BigDecimal("210.55"));
+
+        assertEquals(new BigDecimal("210.55"), priceService.getPrice(order));
+    }
+
+    @Test
+    void getPrice_rejectsNonPositiveQuantity() {
+        PriceService priceService = new PriceService(priceFeedClient, priceCache, priceBook, true, "pull");
+        order.setQuantity(0);
+
+        assertThrows(IllegalQuantityException.class, () -> priceService.getPrice(order));
+    }
+}
@@ -0,0 +1,112 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.controller.ReactiveOrdersController;
+import com.minimarket.orders.orderservice.dto.PriceResponse;
+import com.minimarket.orders.orderservice.exception.OrderNotFoundException;
+import com.minimarket.orders.orderservice.exception.RateLimitExceededException;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.service.api.ReactiveOrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveOrdersController.class)
+@ActiveProfiles("reactive")
+class ReactiveOrdersControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private ReactiveOrderService orderService;
+
+    private Order sampleOrder;
+
+    @BeforeEach
+    void setUp() {
+        sampleOrder = Order.builder()
+                .id(1L)
+                .accountId("acc-123")
+                .symbol("AAPL")
+                .side(Order.Side.BUY)
+                .quantity(10)
+                .status(Order.Status.CREATED)
+                .createdAt(OffsetDateTime.parse("2025-07-20T12:34:56Z"))
+                .build();
+    }
+
+    @Test
+    void testSaveOrder() {
+        when(orderService.saveOrder(any(Order.class))).thenReturn(Mono.just(PriceResponse.builder()
+                .symbol("AAPL")
+                .price(BigDecimal.valueOf(210.55))
+                .build()));
+
+        webTestClient.post().uri("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(sampleOrder)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.symbol").isEqualTo("AAPL")
+                .jsonPath("$.price").isEqualTo(210.55);
+    }
+
+    @Test
+    void testSaveOrderRateLimited() {
+        when(orderService.saveOrder(any(Order.class)))
+                .thenReturn(Mono.error(new RateLimitExceededException("Rate limit exceeded for account: acc-123")));
+
+        webTestClient.post().uri("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(sampleOrder)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.NOT_ACCEPTABLE);
+    }
+
+    @Test
+    void testGetOrderById() {
+        when(orderService.getOrderById(1L)).thenReturn(Mono.just(sampleOrder));
+
+        webTestClient.get().uri("/orders/{id}", 1L)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.symbol").isEqualTo("AAPL");
+    }
+
+    @Test
+    void testGetOrderByIdNotFound() {
+        when(orderService.getOrderById(2L)).thenReturn(Mono.error(new OrderNotFoundException(2L)));
+
+        webTestClient.get().uri("/orders/{id}", 2L)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testGetOrdersForAccount() {
+        when(orderService.getOrdersByAccountId("acc-123")).thenReturn(Flux.just(sampleOrder));
+
+        webTestClient.get().uri(uriBuilder -> uriBuilder.path("/orders").queryParam("accountId", "acc-123").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].accountId").isEqualTo("acc-123");
+    }
+}
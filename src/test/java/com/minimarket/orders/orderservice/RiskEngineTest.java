@@ -0,0 +1,203 @@
+package com.minimarket.orders.orderservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minimarket.orders.orderservice.exception.RiskCheckFailedException;
+import com.minimarket.orders.orderservice.model.Order;
+import com.minimarket.orders.orderservice.repository.OrderRepository;
+import com.minimarket.orders.orderservice.repository.PositionRepository;
+import com.minimarket.orders.orderservice.service.position.PositionBook;
+import com.minimarket.orders.orderservice.service.price.PriceBook;
+import com.minimarket.orders.orderservice.service.price.PriceCache;
+import com.minimarket.orders.orderservice.service.risk.PendingExposure;
+import com.minimarket.orders.orderservice.service.risk.RiskEngine;
+import com.minimarket.orders.orderservice.service.risk.RiskLimits;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RiskEngineTest {
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PriceBook priceBook;
+    private PriceCache priceCache;
+    private PositionBook positionBook;
+    private PendingExposure pendingExposure;
+    private RiskLimits limits;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        priceBook = new PriceBook(Duration.ofDays(1));
+        priceBook.update("AAPL", new BigDecimal("200.00"));
+        priceCache = mock(PriceCache.class);
+        positionBook = new PositionBook(mock(PositionRepository.class), mock(PlatformTransactionManager.class),
+                meterRegistry, Duration.ofMinutes(1));
+        pendingExposure = new PendingExposure(mock(OrderRepository.class));
+        limits = new RiskLimits();
+        limits.setMaxOrderNotional(new BigDecimal("100000"));
+        limits.setMaxPositionNotional(new BigDecimal("300000"));
+        limits.setPriceBand(new BigDecimal("0.1"));
+    }
+
+    @Test
+    void evaluate_appliesOrderLimitsAndSymbolOverrides() {
+        limits.setRestrictedSymbols(Set.of("GME"));
+        limits.setSymbols(Map.of("TSLA", new RiskLimits.SymbolLimits(new BigDecimal("5000"), null, null)));
+        when(priceCache.peekPrice("TSLA")).thenReturn(new BigDecimal("250.00"));
+        RiskEngine riskEngine = engine();
+
+        assertEquals(RiskEngine.Rule.RESTRICTED_SYMBOL, riskEngine.evaluate("acc-1", "GME", true, 1, null));
+        assertNull(riskEngine.evaluate("acc-1", "AAPL", true, 500, null));
+        assertEquals(RiskEngine.Rule.ORDER_NOTIONAL, riskEngine.evaluate("acc-1", "AAPL", true, 501, null));
+        assertEquals(RiskEngine.Rule.ORDER_NOTIONAL, riskEngine.evaluate("acc-1", "TSLA", false, 21, null));
+        assertNull(riskEngine.evaluate("acc-1", "NVDA", true, 1_000_000, null));
+
+        assertNull(riskEngine.evaluate("acc-1", "AAPL", true, 10, new BigDecimal("219.99")));
+        assertEquals(RiskEngine.Rule.PRICE_BAND,
+                riskEngine.evaluate("acc-1", "AAPL", false, 10, new BigDecimal("179.99")));
+        assertEquals(RiskEngine.Rule.ORDER_NOTIONAL,
+                riskEngine.evaluate("acc-1", "NVDA", true, 1_000, new BigDecimal("150.00")));
+    }
+
+    @Test
+    void check_limitsPositionGrowthButNotReduction() {
+        RiskEngine riskEngine = engine();
+        positionBook.apply(1, OffsetDateTime.now(), "acc-1", "AAPL", Order.Side.BUY, new BigDecimal("200.00"), 1_000);
+
+        assertNull(riskEngine.evaluate("acc-1", "AAPL", true, 500, null));
+        positionBook.apply(2, OffsetDateTime.now(), "acc-1", "AAPL", Order.Side.BUY, new BigDecimal("200.00"), 400);
+        assertEquals(RiskEngine.Rule.POSITION_NOTIONAL, riskEngine.evaluate("acc-1", "AAPL", true, 101, null));
+        assertNull(riskEngine.evaluate("acc-1", "AAPL", false, 500, null));
+        assertNull(riskEngine.evaluate("acc-2", "AAPL", true, 500, null));
+
+        Order order = order("AAPL", Order.Side.BUY, 200);
+        RiskCheckFailedException e = assertThrows(RiskCheckFailedException.class, () -> riskEngine.check(order));
+        assertEquals("Order rejected by risk check position_notional for AAPL", e.getMessage());
+        assertEquals(1.0, meterRegistry.get("risk.rejections").tag("rule", "position_notional").counter().count());
+    }
+
+    @Test
+    void check_holdsMarketOrdersToTheNotionalLimitsAtTheirExecutionPrice() {
+        RiskEngine riskEngine = engine();
+        Order order = order("NVDA", Order.Side.BUY, 1_000);
+
+        assertDoesNotThrow(() -> riskEngine.check(order));
+        RiskCheckFailedException e = assertThrows(RiskCheckFailedException.class,
+                () -> riskEngine.check(order, new BigDecimal("150.00")));
+        assertEquals("Order rejected by risk check order_notional for NVDA", e.getMessage());
+        assertDoesNotThrow(() -> riskEngine.check(order("NVDA", Order.Side.BUY, 600), new BigDecimal("150.00")));
+        positionBook.apply(1, OffsetDateTime.now(), "acc-1", "NVDA", Order.Side.BUY, new BigDecimal("800.00"), 300);
+        assertEquals(RiskEngine.Rule.POSITION_NOTIONAL,
+                riskEngine.evaluateAt("acc-1", "NVDA", true, 120, new BigDecimal("800.00")));
+    }
+
+    @Test
+    void evaluate_countsPendingOrdersOnTheOrdersSide() {
+        RiskEngine riskEngine = engine();
+        pendingExposure.rest(1, "acc-1", "AAPL", Order.Side.BUY, 1_000);
+
+        assertNull(riskEngine.evaluate("acc-1", "AAPL", true, 500, null));
+        assertEquals(RiskEngine.Rule.POSITION_NOTIONAL, riskEngine.evaluate("acc-1", "AAPL", true, 501, null));
+        assertNull(riskEngine.evaluate("acc-1", "AAPL", false, 1_500, null));
+
+        pendingExposure.fill(1, 400);
+        assertNull(riskEngine.evaluate("acc-1", "AAPL", true, 900, null));
+        assertEquals(RiskEngine.Rule.POSITION_NOTIONAL, riskEngine.evaluate("acc-1", "AAPL", true, 901, null));
+
+        pendingExposure.add(order("AAPL", Order.Side.BUY, 300));
+        assertEquals(RiskEngine.Rule.POSITION_NOTIONAL, riskEngine.evaluate("acc-1", "AAPL", true, 601, null));
+        pendingExposure.remove(order("AAPL", Order.Side.BUY, 300));
+        assertNull(riskEngine.evaluate("acc-1", "AAPL", true, 900, null));
+    }
+
+    @Test
+    void pendingExposure_dropsAccountsWithNothingPending() {
+        pendingExposure.add(order("AAPL", Order.Side.BUY, 300));
+        pendingExposure.add(order("MSFT", Order.Side.SELL, 200));
+        pendingExposure.rest(1, "acc-2", "AAPL", Order.Side.BUY, 100);
+        assertEquals(2, pendingExposure.size());
+
+        pendingExposure.remove(order("AAPL", Order.Side.BUY, 300));
+        assertEquals(200, pendingExposure.quantity("acc-1", "MSFT", false));
+        pendingExposure.remove(order("MSFT", Order.Side.SELL, 200));
+        pendingExposure.fill(1, 100);
+
+        assertEquals(0, pendingExposure.size());
+        assertEquals(0, pendingExposure.quantity("acc-1", "AAPL", true));
+    }
+
+    @Test
+    void evaluate_countsReservedOrdersUntilTheirTransactionCompletes() {
+        RiskEngine riskEngine = engine();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            pendingExposure.reserve(order("AAPL", Order.Side.SELL, 1_000));
+            assertEquals(RiskEngine.Rule.POSITION_NOTIONAL, riskEngine.evaluate("acc-1", "AAPL", false, 501, null));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(riskEngine.evaluate("acc-1", "AAPL", false, 1_500, null));
+    }
+
+    @Test
+    void reloadIfChanged_picksUpEditedLimitsFile() throws IOException {
+        Path file = directory.resolve("risk.json");
+        Files.writeString(file, """
+                {"maxOrderNotional": 1000, "restrictedSymbols": []}
+                """);
+        limits.setFile(file.toString());
+        RiskEngine riskEngine = engine();
+        assertEquals(RiskEngine.Rule.ORDER_NOTIONAL, riskEngine.evaluate("acc-1", "AAPL", true, 6, null));
+
+        Files.writeString(file, """
+                {"maxOrderNotional": 2000, "restrictedSymbols": ["AAPL"]}
+                """);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1_000));
+        riskEngine.reloadIfChanged();
+        assertEquals(RiskEngine.Rule.RESTRICTED_SYMBOL, riskEngine.evaluate("acc-1", "AAPL", true, 6, null));
+        assertNull(riskEngine.evaluate("acc-1", "MSFT", true, 1_000_000, null));
+
+        Files.writeString(file, "{ not json");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2_000));
+        riskEngine.reloadIfChanged();
+        assertEquals(RiskEngine.Rule.RESTRICTED_SYMBOL, riskEngine.evaluate("acc-1", "AAPL", true, 6, null));
+    }
+
+    private RiskEngine engine() {
+        return new RiskEngine(limits, priceBook, priceCache, positionBook, pendingExposure, new ObjectMapper(),
+                meterRegistry);
+    }
+
+    private static Order order(String symbol, Order.Side side, int quantity) {
+        return Order.builder()
+                .accountId("acc-1")
+                .symbol(symbol)
+                .side(side)
+                .quantity(quantity)
+                .createdAt(OffsetDateTime.now())
+                .build();
+    }
+}
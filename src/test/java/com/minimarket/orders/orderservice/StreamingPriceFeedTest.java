@@ -0,0 +1,54 @@
+package com.minimarket.orders.orderservice;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.minimarket.orders.orderservice.service.price.PriceBook;
+import com.minimarket.orders.orderservice.service.price.StreamingPriceFeed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class StreamingPriceFeedTest {
+
+    private WireMockServer wireMockServer;
+    private StreamingPriceFeed streamingPriceFeed;
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+        wireMockServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (streamingPriceFeed != null) {
+            streamingPriceFeed.stop();
+        }
+        wireMockServer.stop();
+    }
+
+    @Test
+    void start_populatesBookFromNdjsonStream() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/prices/stream"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/x-ndjson")
+                        .withBody("{\"symbol\":\"AAPL\",\"price\":210.55}\n{\"symbol\":\"MSFT\",\"price\":501.10}\n")));
+        PriceBook priceBook = new PriceBook(Duration.ofMinutes(1));
+        streamingPriceFeed = new StreamingPriceFeed("localhost", String.valueOf(wireMockServer.port()),
+                "/prices/stream", Duration.ofMillis(50), priceBook);
+
+        streamingPriceFeed.start();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(priceBook.getFreshPrice("AAPL")).isEqualByComparingTo(new BigDecimal("210.55"));
+            assertThat(priceBook.getFreshPrice("MSFT")).isEqualByComparingTo(new BigDecimal("501.10"));
+        });
+    }
+}
@@ -0,0 +1,135 @@
+package com.minimarket.orders.orderservice;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures {@code POST /orders} throughput on Tomcat platform threads versus virtual threads while
+ * the price feed answers with added latency. The price cache is disabled so every order waits on
+ * the feed. Run with {@code ./gradlew benchmark}.
+ */
+@Testcontainers
+@Tag("benchmark")
+class ThreadModelLoadTest {
+
+    private static final int FEED_LATENCY_MS = 50;
+    private static final int CONCURRENCY = 400;
+    private static final int REQUESTS_PER_CLIENT = 25;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16")
+            .withDatabaseName("load_db")
+            .withUsername("user")
+            .withPassword("password");
+
+    private static WireMockServer priceFeed;
+
+    @BeforeAll
+    static void startPriceFeed() {
+        priceFeed = new WireMockServer(WireMockConfiguration.options()
+                .dynamicPort()
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(32));
+        priceFeed.start();
+        priceFeed.stubFor(get(urlPathEqualTo("/price"))
+                .willReturn(okJson("{ \"symbol\": \"AAPL\", \"price\": 210.55 }")
+                        .withFixedDelay(FEED_LATENCY_MS)));
+    }
+
+    @AfterAll
+    static void stopPriceFeed() {
+        priceFeed.stop();
+    }
+
+    @Test
+    void throughput_platformVersusVirtualThreads() throws Exception {
+        run(false);
+        double platform = run(false);
+        double virtual = run(true);
+
+        System.out.printf("feed latency %d ms, %d concurrent clients%n", FEED_LATENCY_MS, CONCURRENCY);
+        System.out.printf("platform threads: %,10.0f orders/sec%n", platform);
+        System.out.printf("virtual threads:  %,10.0f orders/sec%n", virtual);
+
+        assertThat(virtual).isPositive();
+    }
+
+    private double run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(OrdersServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.datasource.hikari.maximum-pool-size=40",
+                "--spring.jpa.show-sql=false",
+                "--wiremock.host=localhost",
+                "--wiremock.port=" + priceFeed.port(),
+                "--price.cache.enabled=false")) {
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            return drive(URI.create("http://localhost:" + port + "/orders"));
+        }
+    }
+
+    private double drive(URI uri) {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CONCURRENCY; c++) {
+                clients.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        if (!send(client, uri)) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        assertThat(failures.get()).isZero();
+        return CONCURRENCY * REQUESTS_PER_CLIENT / seconds;
+    }
+
+    private static boolean send(HttpClient client, URI uri) {
+        String body = """
+                {"accountId": "%s", "symbol": "AAPL", "side": "BUY", "quantity": 10,
+                 "status": "CREATED", "createdAt": "%s"}""".formatted("acc-" + UUID.randomUUID(), OffsetDateTime.now());
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
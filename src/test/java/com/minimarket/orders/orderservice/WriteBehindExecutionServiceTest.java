@@ -0,0 +1,85 @@
+package com.minimarket.orders.orderservice;
+
+import com.minimarket.orders.orderservice.model.Execution;
+import com.minimarket.orders.orderservice.repository.ExecutionRepository;
+import com.minimarket.orders.orderservice.service.impl.WriteBehindExecutionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WriteBehindExecutionServiceTest {
+
+    private ExecutionRepository executionRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private WriteBehindExecutionService executionService;
+
+    @BeforeEach
+    void setUp() {
+        executionRepository = mock(ExecutionRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        executionService = new WriteBehindExecutionService(executionRepository,
+                mock(PlatformTransactionManager.class), meterRegistry, 16, 8, Duration.ofMillis(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        executionService.stop();
+    }
+
+    @Test
+    void saveExecution_isWrittenByBackgroundWriter() {
+        executionService.start();
+
+        executionService.saveExecution(new Execution());
+        executionService.saveExecution(new Execution());
+
+        verify(executionRepository, timeout(1000).atLeastOnce()).saveAll(anyList());
+        executionService.stop();
+        assertEquals(2, writtenCount());
+        assertEquals(0.0, meterRegistry.get("executions.write-behind.queue.depth").gauge().value());
+    }
+
+    @Test
+    void stop_flushesEverythingStillBuffered() {
+        executionService.saveExecutions(List.of(new Execution(), new Execution(), new Execution()));
+        verifyNoInteractions(executionRepository);
+
+        executionService.start();
+        executionService.stop();
+
+        assertEquals(3, writtenCount());
+        assertFalse(executionService.isRunning());
+    }
+
+    @Test
+    void saveExecution_waitsForTransactionCommit() {
+        executionService.start();
+        TransactionSynchronizationManager.initSynchronization();
+
+        executionService.saveExecution(new Execution());
+
+        assertEquals(0.0, meterRegistry.get("executions.write-behind.queue.depth").gauge().value());
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCommit());
+        verify(executionRepository, timeout(1000)).saveAll(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private int writtenCount() {
+        ArgumentCaptor<List<Execution>> captor = ArgumentCaptor.forClass(List.class);
+        verify(executionRepository, atLeastOnce()).saveAll(captor.capture());
+        return captor.getAllValues().stream().mapToInt(List::size).sum();
+    }
+}